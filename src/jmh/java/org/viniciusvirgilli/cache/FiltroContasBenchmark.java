@@ -0,0 +1,94 @@
+package org.viniciusvirgilli.cache;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificacao de duplicidade do cadastro para contas novas (o caso comum): sempre a consulta pelo indice de
+ * {@code chave_conta} contra o filtro de Bloom na frente dela, que so deixa passar os falsos positivos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltroContasBenchmark {
+
+    private static final int CONTAS = 200_000;
+    private static final long PRIMEIRO_DOCUMENTO = 10_000_000_000L;
+
+    private Connection conexao;
+    private PreparedStatement jaExisteConta;
+    private FiltroContasCadastradas.Bits filtro;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:filtro-contas;DB_CLOSE_DELAY=-1");
+        conexao = dataSource.getConnection();
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE TABLE cliente (id BIGINT PRIMARY KEY, chave_conta BIGINT)");
+        }
+
+        filtro = new FiltroContasCadastradas.Bits(CONTAS * 2L, 0.01);
+        try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO cliente VALUES (?, ?)")) {
+            for (int i = 0; i < CONTAS; i++) {
+                long chave = chave(i);
+                insert.setLong(1, i);
+                insert.setLong(2, chave);
+                insert.addBatch();
+                filtro.adicionar(chave);
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE UNIQUE INDEX uk_cliente_chave_conta ON cliente (chave_conta)");
+            ddl.execute("ANALYZE");
+        }
+        jaExisteConta = conexao.prepareStatement("SELECT id FROM cliente WHERE chave_conta = ? FETCH FIRST 1 ROWS ONLY");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public boolean consultaNoBanco() throws SQLException {
+        return existeNoBanco(contaNova());
+    }
+
+    @Benchmark
+    public boolean filtroAntesDoBanco() throws SQLException {
+        long chave = contaNova();
+        return filtro.contem(chave) && existeNoBanco(chave);
+    }
+
+    private boolean existeNoBanco(long chave) throws SQLException {
+        jaExisteConta.setLong(1, chave);
+        try (ResultSet linha = jaExisteConta.executeQuery()) {
+            return linha.next();
+        }
+    }
+
+    // documentos acima dos cadastrados: nenhuma existe no banco
+    private static long contaNova() {
+        return chave(CONTAS + ThreadLocalRandom.current().nextInt(CONTAS));
+    }
+
+    private static long chave(int i) {
+        return ChaveConta.numerica(Long.toString(PRIMEIRO_DOCUMENTO + i / 2), i % 2 == 0 ? TipoContaEnum.CACC : TipoContaEnum.SVGS);
+    }
+}
@@ -0,0 +1,92 @@
+package org.viniciusvirgilli.dao;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de uma conta pelo indice unico antigo (cpf_cnpj varchar + tipo_conta varchar) contra o indice da
+ * chave numerica ({@code chave_conta BIGINT}), numa tabela com as duas colunas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChaveContaBenchmark {
+
+    private static final int CONTAS = 200_000;
+    private static final long PRIMEIRO_DOCUMENTO = 10_000_000_000L;
+
+    private Connection conexao;
+    private PreparedStatement porCpfCnpjETipoConta;
+    private PreparedStatement porChaveConta;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:chave-conta;DB_CLOSE_DELAY=-1");
+        conexao = dataSource.getConnection();
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE TABLE cliente (id BIGINT PRIMARY KEY, cpf_cnpj VARCHAR(255), tipo_conta VARCHAR(255), "
+                    + "chave_conta BIGINT, saldo NUMERIC(38,2))");
+        }
+
+        try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO cliente VALUES (?, ?, ?, ?, 1500.00)")) {
+            for (int i = 0; i < CONTAS; i++) {
+                String cpfCnpj = Long.toString(PRIMEIRO_DOCUMENTO + i / 2);
+                TipoContaEnum tipoConta = i % 2 == 0 ? TipoContaEnum.CACC : TipoContaEnum.SVGS;
+                insert.setLong(1, i);
+                insert.setString(2, cpfCnpj);
+                insert.setString(3, tipoConta.name());
+                insert.setLong(4, ChaveConta.numerica(cpfCnpj, tipoConta));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE UNIQUE INDEX uk_cliente_cpf_cnpj_tipo_conta ON cliente (cpf_cnpj, tipo_conta)");
+            ddl.execute("CREATE UNIQUE INDEX uk_cliente_chave_conta ON cliente (chave_conta)");
+            ddl.execute("ANALYZE");
+        }
+
+        porCpfCnpjETipoConta = conexao.prepareStatement("SELECT saldo FROM cliente WHERE cpf_cnpj = ? AND tipo_conta = ?");
+        porChaveConta = conexao.prepareStatement("SELECT saldo FROM cliente WHERE chave_conta = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public boolean buscarPorCpfCnpjETipoConta() throws SQLException {
+        int i = ThreadLocalRandom.current().nextInt(CONTAS);
+        porCpfCnpjETipoConta.setString(1, Long.toString(PRIMEIRO_DOCUMENTO + i / 2));
+        porCpfCnpjETipoConta.setString(2, i % 2 == 0 ? "CACC" : "SVGS");
+        try (ResultSet linha = porCpfCnpjETipoConta.executeQuery()) {
+            return linha.next();
+        }
+    }
+
+    @Benchmark
+    public boolean buscarPorChaveConta() throws SQLException {
+        int i = ThreadLocalRandom.current().nextInt(CONTAS);
+        porChaveConta.setLong(1, ChaveConta.numerica(Long.toString(PRIMEIRO_DOCUMENTO + i / 2),
+                i % 2 == 0 ? TipoContaEnum.CACC : TipoContaEnum.SVGS));
+        try (ResultSet linha = porChaveConta.executeQuery()) {
+            return linha.next();
+        }
+    }
+}
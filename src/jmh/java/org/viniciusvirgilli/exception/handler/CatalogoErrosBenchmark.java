@@ -0,0 +1,58 @@
+package org.viniciusvirgilli.exception.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.exception.dto.ErroDetailDto;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Custo de uma recusa de negocio (saldo insuficiente) do throw ate os bytes da resposta: excecao com stack trace
+ * e DTO serializado a cada vez contra a excecao sem stack trace e o corpo do {@link CatalogoErros}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogoErrosBenchmark {
+
+    private ObjectWriter escritor;
+    private CatalogoErros catalogo;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        escritor = objectMapper.writerFor(ErroDetailDto.class);
+        catalogo = new CatalogoErros();
+        catalogo.objectMapper = objectMapper;
+        catalogo.iniciar();
+    }
+
+    @Benchmark
+    public byte[] excecaoComStackEDto() throws IOException {
+        RuntimeException recusa = profundidade(20, () -> new RuntimeException("Saldo insuficiente"));
+        return escritor.writeValueAsBytes(ErroDetailDto.builder()
+                .message(recusa.getMessage())
+                .status(422)
+                .timestamp(new Date())
+                .build());
+    }
+
+    @Benchmark
+    public byte[] excecaoSemStackECatalogo() {
+        SaldoNaoSuficienteException recusa = profundidade(20, () -> new SaldoNaoSuficienteException("Saldo insuficiente"));
+        return catalogo.corpo(recusa);
+    }
+
+    // simula a pilha de chamadas do controller ate o service, que e o que o fillInStackTrace percorre
+    private static <T> T profundidade(int nivel, Supplier<T> criar) {
+        return nivel == 0 ? criar.get() : profundidade(nivel - 1, criar);
+    }
+}
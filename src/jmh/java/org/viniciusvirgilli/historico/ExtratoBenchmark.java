@@ -0,0 +1,109 @@
+package org.viniciusvirgilli.historico;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.journal.RegistroOperacao;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extrato de uma conta movimentada (1 milhao de operacoes em ~3 anos, H2 em memoria): saldo no inicio do periodo
+ * pelo saldo resultante da ultima operacao (uma busca no indice) contra a soma de todo o historico anterior, e a
+ * leitura de uma pagina de 100 lancamentos num ponto qualquer do historico.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtratoBenchmark {
+
+    private static final int OPERACOES = 1_000_000;
+    private static final long INICIO = 1_600_000_000_000L;
+    private static final long INTERVALO_MS = 90_000;
+    private static final String SOMA =
+            "SELECT SUM(CASE WHEN tipo_operacao = 'CREDITO' THEN valor_centavos ELSE -valor_centavos END) " +
+            "FROM historico_operacao WHERE chave_conta = ? AND instante < ?";
+
+    private Connection conexao;
+    private TabelaHistoricoOperacao tabela;
+    private PreparedStatement soma;
+    private long chave;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:extrato;DB_CLOSE_DELAY=-1");
+        conexao = dataSource.getConnection();
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE TABLE historico_operacao (instancia VARCHAR(64), sequencia BIGINT, chave_conta BIGINT, "
+                    + "instante BIGINT, tipo_operacao VARCHAR(20), valor_centavos BIGINT, saldo_centavos BIGINT, "
+                    + "PRIMARY KEY (instancia, sequencia))");
+            ddl.execute("CREATE INDEX idx_historico_operacao_conta_instante ON historico_operacao (chave_conta, instante, instancia, sequencia)");
+        }
+
+        tabela = new TabelaHistoricoOperacao();
+        tabela.dataSource = dataSource;
+        chave = ChaveConta.numerica("12345678909", TipoContaEnum.CACC);
+
+        long saldo = 0;
+        List<RegistroOperacao> lote = new ArrayList<>();
+        for (int i = 1; i <= OPERACOES; i++) {
+            boolean credito = i % 3 != 0;
+            long valor = 100 + i % 5000;
+            saldo += credito ? valor : -valor;
+            lote.add(new RegistroOperacao(i, INICIO + i * INTERVALO_MS, "12345678909", TipoContaEnum.CACC,
+                    credito ? TipoOperacaoEnum.CREDITO : TipoOperacaoEnum.DEBITO, valor, saldo));
+            if (lote.size() == 10_000) {
+                tabela.inserir("bench", lote);
+                lote.clear();
+            }
+        }
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("ANALYZE");
+        }
+        soma = conexao.prepareStatement(SOMA);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public long saldoPelaUltimaOperacao() throws SQLException {
+        return tabela.saldoAntes(chave, instanteQualquer()).orElse(0);
+    }
+
+    @Benchmark
+    public long saldoPelaSoma() throws SQLException {
+        soma.setLong(1, chave);
+        soma.setLong(2, instanteQualquer());
+        try (ResultSet rs = soma.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Benchmark
+    public void paginaDe100(Blackhole bh) throws SQLException {
+        long inicio = instanteQualquer();
+        tabela.percorrer(chave, inicio, Long.MAX_VALUE, inicio, "", 0, 100, 100, bh::consume);
+    }
+
+    private static long instanteQualquer() {
+        return INICIO + ThreadLocalRandom.current().nextLong(OPERACOES) * INTERVALO_MS;
+    }
+}
@@ -0,0 +1,78 @@
+package org.viniciusvirgilli.importacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.validador.CadastroClienteValidador;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas por segundo na preparacao de um bloco de importacao (conversao + validacao), sem banco.
+ * Um em cada dez registros e invalido, como costuma vir em arquivos de parceiros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportacaoClienteBenchmark {
+
+    private static final int BLOCO = 1000;
+
+    @Param({"CSV", "JSONL"})
+    private String formato;
+
+    @Param({"false", "true"})
+    private boolean paralelo;
+
+    private PreparacaoImportacao preparacao;
+    private List<LinhaImportacao> linhas;
+
+    @Setup
+    public void setup() {
+        ConversorCadastro conversor = "CSV".equals(formato)
+                ? ConversorCadastro.csv(String.join(",", ConversorCadastro.COLUNAS))
+                : ConversorCadastro.jsonl(new ObjectMapper().readerFor(CadastroClienteDto.class));
+        preparacao = new PreparacaoImportacao(conversor, new CadastroClienteValidador());
+
+        linhas = new ArrayList<>(BLOCO);
+        for (int i = 0; i < BLOCO; i++) {
+            String cpf = cpf(100_000_000 + i * 7);
+            String saldo = i % 10 == 0 ? "mil" : "1500.00";
+            String texto = "CSV".equals(formato)
+                    ? "\"Cliente " + i + ", Silva\"," + cpf + "," + saldo + ",1234," + i + ",CACC,1,CX,ATIVA,5000.00,1000.00,10000.00"
+                    : "{\"nome\":\"Cliente " + i + "\",\"cpfCnpj\":\"" + cpf + "\",\"saldo\":\"" + saldo + "\",\"agencia\":\"1234\","
+                    + "\"conta\":" + i + ",\"tipoConta\":\"CACC\",\"operacao\":1,\"ispbParticipante\":\"CX\","
+                    + "\"situacaoConta\":\"ATIVA\",\"limitePixDiurno\":5000.00,\"limitePixNoturno\":1000.00,"
+                    + "\"limitePixRedeSegura\":10000.00}";
+            linhas.add(new LinhaImportacao(i + 2, texto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCO)
+    public Object preparar() {
+        return preparacao.preparar(linhas, paralelo);
+    }
+
+    // cpf valido a partir dos 9 primeiros digitos
+    static String cpf(int base) {
+        String digitos = String.format("%09d", base);
+        int d1 = digito(digitos, 10);
+        int d2 = digito(digitos + d1, 11);
+        return digitos + d1 + d2;
+    }
+
+    private static int digito(String digitos, int peso) {
+        int soma = 0;
+        for (int i = 0; i < digitos.length(); i++) {
+            soma += (digitos.charAt(i) - '0') * (peso - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
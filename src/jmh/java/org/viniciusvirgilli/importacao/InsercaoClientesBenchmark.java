@@ -0,0 +1,135 @@
+package org.viniciusvirgilli.importacao;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas por segundo gravando um bloco de importacao, com os comandos que o Hibernate
+ * emite em cada estrategia de id: IDENTITY (um INSERT por vez, lendo a chave gerada) e SEQUENCE pooled
+ * (um nextval a cada {@link Cliente#IDS_POR_NEXTVAL} ids e INSERTs em batch de 50).
+ * O H2 roda como servidor TCP local para que cada ida ao banco tenha o custo de rede que o batch economiza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercaoClientesBenchmark {
+
+    private static final int BLOCO = 1000;
+    private static final int LOTE_JDBC = 50;
+    private static final String COLUNAS = "nome, cpf_cnpj, saldo, agencia, conta, operacao, tipo_conta, ispb_participante, "
+            + "situacao_conta, limite_pix_diurno, limite_pix_noturno, limite_pix_rede_segura, versao, chave_conta";
+
+    @Param({"IDENTITY", "SEQUENCE"})
+    private String estrategia;
+
+    private Server servidor;
+    private Connection conexao;
+    private long documento = 10_000_000_000L;
+
+    @Setup
+    public void setup() throws SQLException {
+        servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:insercao-" + estrategia + ";DB_CLOSE_DELAY=-1");
+        conexao = dataSource.getConnection();
+        conexao.setAutoCommit(false);
+        try (Statement ddl = conexao.createStatement()) {
+            String id = "IDENTITY".equals(estrategia) ? "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY" : "id BIGINT PRIMARY KEY";
+            ddl.execute("CREATE TABLE cliente (" + id + ", nome VARCHAR(255), cpf_cnpj VARCHAR(255), saldo NUMERIC(38,2), "
+                    + "agencia VARCHAR(255), conta INT, operacao INT, tipo_conta VARCHAR(10), ispb_participante VARCHAR(10), "
+                    + "situacao_conta VARCHAR(10), limite_pix_diurno NUMERIC(38,2), limite_pix_noturno NUMERIC(38,2), "
+                    + "limite_pix_rede_segura NUMERIC(38,2), versao BIGINT, chave_conta BIGINT UNIQUE)");
+            ddl.execute("CREATE SEQUENCE cliente_seq START WITH 1 INCREMENT BY " + Cliente.IDS_POR_NEXTVAL);
+        }
+        conexao.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conexao.close();
+        servidor.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCO)
+    public void gravarBloco() throws SQLException {
+        if ("IDENTITY".equals(estrategia)) {
+            porIdentity();
+        } else {
+            porSequence();
+        }
+        conexao.commit();
+    }
+
+    private void porIdentity() throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement(
+                "INSERT INTO cliente (" + COLUNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < BLOCO; i++) {
+                preencher(insert, 1);
+                insert.executeUpdate();
+                try (ResultSet chave = insert.getGeneratedKeys()) {
+                    chave.next();
+                }
+            }
+        }
+    }
+
+    private void porSequence() throws SQLException {
+        try (PreparedStatement sequencia = conexao.prepareStatement("SELECT NEXT VALUE FOR cliente_seq");
+             PreparedStatement insert = conexao.prepareStatement(
+                     "INSERT INTO cliente (id, " + COLUNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long proximoId = 0;
+            long ultimoId = -1;
+            for (int i = 0; i < BLOCO; i++) {
+                if (proximoId > ultimoId) {
+                    try (ResultSet valor = sequencia.executeQuery()) {
+                        valor.next();
+                        ultimoId = valor.getLong(1);
+                    }
+                    proximoId = ultimoId - Cliente.IDS_POR_NEXTVAL + 1;
+                }
+                insert.setLong(1, proximoId++);
+                preencher(insert, 2);
+                insert.addBatch();
+                if ((i + 1) % LOTE_JDBC == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void preencher(PreparedStatement insert, int inicio) throws SQLException {
+        String cpfCnpj = Long.toString(documento++);
+        insert.setString(inicio, "Cliente");
+        insert.setString(inicio + 1, cpfCnpj);
+        insert.setBigDecimal(inicio + 2, new BigDecimal("1500.00"));
+        insert.setString(inicio + 3, "1234");
+        insert.setInt(inicio + 4, 1);
+        insert.setInt(inicio + 5, 1);
+        insert.setString(inicio + 6, "CACC");
+        insert.setString(inicio + 7, "CX");
+        insert.setString(inicio + 8, "ATIVA");
+        insert.setBigDecimal(inicio + 9, new BigDecimal("5000.00"));
+        insert.setBigDecimal(inicio + 10, new BigDecimal("1000.00"));
+        insert.setBigDecimal(inicio + 11, new BigDecimal("10000.00"));
+        insert.setLong(inicio + 12, 0);
+        insert.setLong(inicio + 13, ChaveConta.numerica(cpfCnpj, TipoContaEnum.CACC));
+    }
+}
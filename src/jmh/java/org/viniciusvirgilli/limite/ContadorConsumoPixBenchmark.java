@@ -0,0 +1,71 @@
+package org.viniciusvirgilli.limite;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.service.PeriodoLimiteResolver;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da verificacao de limite acumulado por debito: reserva no contador do periodo e desfaz
+ * (o caso da recusa). Fora de transacao, como no caminho reativo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContadorConsumoPixBenchmark {
+
+    private static final int CONTAS = 10_000;
+
+    private final ContadorConsumoPix contador = new ContadorConsumoPix();
+    private final PeriodoLimiteResolver resolver = new PeriodoLimiteResolver();
+    private final ChaveConta[] chaves = new ChaveConta[CONTAS];
+    private final Dinheiro valor = Dinheiro.parse("150.75");
+    private int proxima;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        // o resolver e de outro pacote: configuracao via reflexao, fora da medicao
+        configurar(resolver, "inicioDiurno", "06:00");
+        configurar(resolver, "fimDiurno", "20:00");
+        configurar(resolver, "zonaPeriodo", "America/Sao_Paulo");
+        Method iniciar = PeriodoLimiteResolver.class.getDeclaredMethod("iniciar");
+        iniciar.setAccessible(true);
+        iniciar.invoke(resolver);
+
+        contador.enable = true;
+        contador.donoAte = Long.MAX_VALUE;
+        contador.transacoes = (TransactionSynchronizationRegistry) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{TransactionSynchronizationRegistry.class},
+                (proxy, metodo, args) -> metodo.getName().equals("getTransactionStatus") ? Status.STATUS_NO_TRANSACTION : null);
+
+        for (int i = 0; i < CONTAS; i++) {
+            chaves[i] = new ChaveConta(String.format("%011d", i), TipoContaEnum.CACC);
+        }
+    }
+
+    @Benchmark
+    public Dinheiro reservarEDesfazer() {
+        ChaveConta chave = chaves[proxima++ % CONTAS];
+        ReservaConsumoPix reserva = contador.reservar(chave, resolver.resolver(false), valor);
+        reserva.desfazer();
+        return reserva.getConsumo();
+    }
+
+    private static void configurar(Object alvo, String nome, Object valor) throws ReflectiveOperationException {
+        Field campo = alvo.getClass().getDeclaredField(nome);
+        campo.setAccessible(true);
+        campo.set(alvo, valor);
+    }
+}
@@ -0,0 +1,59 @@
+package org.viniciusvirgilli.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de um debito (saldo suficiente, limite do periodo e novo saldo) com {@link Dinheiro}
+ * comparado ao mesmo calculo com BigDecimal, e o custo de converter o texto recebido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DinheiroBenchmark {
+
+    private String texto = "150.75";
+
+    private Dinheiro saldo = Dinheiro.parse("1500.00");
+    private Dinheiro limite = Dinheiro.parse("5000.00");
+    private Dinheiro consumo = Dinheiro.parse("3200.10");
+    private Dinheiro valor = Dinheiro.parse("150.75");
+
+    private BigDecimal saldoDecimal = new BigDecimal("1500.00");
+    private BigDecimal limiteDecimal = new BigDecimal("5000.00");
+    private BigDecimal consumoDecimal = new BigDecimal("3200.10");
+    private BigDecimal valorDecimal = new BigDecimal("150.75");
+
+    @Benchmark
+    public Dinheiro debitoDinheiro() {
+        Dinheiro total = consumo.somar(valor);
+        if (saldo.isMenorQue(valor) || limite.isMenorQue(total)) {
+            return null;
+        }
+        return saldo.subtrair(valor);
+    }
+
+    @Benchmark
+    public BigDecimal debitoBigDecimal() {
+        BigDecimal total = consumoDecimal.add(valorDecimal);
+        if (saldoDecimal.compareTo(valorDecimal) < 0 || limiteDecimal.compareTo(total) < 0) {
+            return null;
+        }
+        return saldoDecimal.subtract(valorDecimal);
+    }
+
+    @Benchmark
+    public Dinheiro parseDinheiro() {
+        return Dinheiro.parse(texto);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(texto);
+    }
+}
@@ -0,0 +1,69 @@
+package org.viniciusvirgilli.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.OtimizacaoRateLimitEnum;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de consumir um token no balde local e no balde distribuido (H2 em memoria),
+ * com cada otimizacao de sincronizacao do Bucket4j.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitDistribuidoBenchmark {
+
+    @Param({"LOCAL", "NENHUMA", "BATCH", "DELAY"})
+    private String modo;
+
+    private Bucket balde;
+
+    @Setup
+    public void setup() throws SQLException {
+        Bandwidth banda = Bandwidth.classic(1_000_000_000L, Refill.intervally(1_000_000_000L, Duration.ofSeconds(1)));
+        BucketConfiguration configuracao = BucketConfiguration.builder().addLimit(banda).build();
+
+        if ("LOCAL".equals(modo)) {
+            balde = Bucket.builder().addLimit(banda).build();
+            return;
+        }
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ratelimit-" + modo + ";DB_CLOSE_DELAY=-1");
+        try (Connection conexao = dataSource.getConnection(); Statement ddl = conexao.createStatement()) {
+            ddl.execute("CREATE TABLE IF NOT EXISTS ratelimit_balde (id VARCHAR(100) PRIMARY KEY, "
+                    + "estado VARBINARY(2048) NOT NULL, versao BIGINT NOT NULL, atualizado_em BIGINT NOT NULL)");
+            ddl.execute("CREATE TABLE IF NOT EXISTS ratelimit_bloqueio (ip VARCHAR(100) PRIMARY KEY, "
+                    + "bloqueado_ate BIGINT NOT NULL)");
+        }
+
+        RateLimitDistribuido distribuido = new RateLimitDistribuido();
+        distribuido.dataSource = dataSource;
+        distribuido.otimizacao = OtimizacaoRateLimitEnum.valueOf(modo);
+        distribuido.tokensNaoSincronizados = 20;
+        distribuido.sincronizacaoMaxima = Duration.ofMillis(200);
+        distribuido.cacheBloqueio = Duration.ofSeconds(1);
+        distribuido.ociosidadeBalde = Duration.ofHours(2);
+        distribuido.iniciar();
+        balde = distribuido.criarBalde("10.0.0.1", configuracao);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object consumir() {
+        return balde.asVerbose().tryConsumeAndReturnRemaining(1);
+    }
+}
@@ -0,0 +1,87 @@
+package org.viniciusvirgilli.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.ModoRateLimitEnum;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por requisicao do filtro (request + response). Os contextos JAX-RS sao proxies minimos,
+ * com custo igual para qualquer versao do filtro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private RateLimitFilter liberado;
+    private RateLimitFilter bloqueado;
+
+    @Setup
+    public void setup() {
+        liberado = filtro(1_000_000_000L);
+        bloqueado = filtro(1L);
+        // esgota o balde do IP para que as proximas requisicoes caiam no bloqueio
+        requisicao(bloqueado, "10.0.0.2");
+        requisicao(bloqueado, "10.0.0.2");
+    }
+
+    @Benchmark
+    public Object requisicaoAceita() {
+        return requisicao(liberado, "10.0.0.1");
+    }
+
+    @Benchmark
+    public Object requisicaoBloqueada() {
+        return requisicao(bloqueado, "10.0.0.2");
+    }
+
+    private static RateLimitFilter filtro(long limite) {
+        RateLimitFilter filtro = new RateLimitFilter();
+        filtro.enable = true;
+        filtro.requestsPorSegundo = limite;
+        filtro.requestsPorMinuto = limite;
+        filtro.requestsPorHora = limite;
+        filtro.minutosBloqueio = 60;
+        filtro.modo = ModoRateLimitEnum.LOCAL;
+        filtro.metricas = new MetricasRateLimit();
+        filtro.metricas.registry = new SimpleMeterRegistry();
+        filtro.metricas.iniciar();
+        filtro.iniciar();
+        return filtro;
+    }
+
+    private static Object requisicao(RateLimitFilter filtro, String ip) {
+        Map<String, Object> propriedades = new HashMap<>();
+        Object[] resposta = new Object[1];
+        ContainerRequestContext request = (ContainerRequestContext) Proxy.newProxyInstance(
+                RateLimitFilterBenchmark.class.getClassLoader(), new Class<?>[]{ContainerRequestContext.class},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "getHeaderString" -> "X-Forwarded-For".equals(args[0]) ? ip : null;
+                    case "getProperty" -> propriedades.get((String) args[0]);
+                    case "setProperty" -> propriedades.put((String) args[0], args[1]);
+                    case "abortWith" -> resposta[0] = args[0];
+                    default -> null;
+                });
+
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        ContainerResponseContext response = (ContainerResponseContext) Proxy.newProxyInstance(
+                RateLimitFilterBenchmark.class.getClassLoader(), new Class<?>[]{ContainerResponseContext.class},
+                (proxy, metodo, args) -> "getHeaders".equals(metodo.getName()) ? headers : null);
+
+        filtro.filter(request);
+        filtro.filter(request, response);
+        return resposta[0] != null ? resposta[0] : headers;
+    }
+}
@@ -0,0 +1,110 @@
+package org.viniciusvirgilli.serializacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de (de)serializar os corpos de {@code /por-cpfCnpj-tipoConta} (Cliente) e {@code /operacao}
+ * (CreditoDebitoDto) em JSON, CBOR e Smile. O tamanho de cada payload e impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosSerializacaoBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    private ObjectWriter escritorCliente;
+    private ObjectReader leitorCliente;
+    private ObjectWriter escritorOperacao;
+    private ObjectReader leitorOperacao;
+
+    private Cliente cliente;
+    private CreditoDebitoDto operacao;
+    private byte[] clienteSerializado;
+    private byte[] operacaoSerializada;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper mapeador = switch (formato) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        escritorCliente = mapeador.writerFor(Cliente.class);
+        leitorCliente = mapeador.readerFor(Cliente.class);
+        escritorOperacao = mapeador.writerFor(CreditoDebitoDto.class);
+        leitorOperacao = mapeador.readerFor(CreditoDebitoDto.class);
+
+        cliente = Cliente.builder()
+                .id(123456L)
+                .nome("Maria da Silva Pereira")
+                .cpfCnpj("12345678909")
+                .saldo(Dinheiro.parse("1500.00"))
+                .agencia("0001")
+                .conta(987654)
+                .operacao(1)
+                .tipoConta(TipoContaEnum.CACC)
+                .ispbParticipante(ISPBParticipanteEnum.CX)
+                .situacaoConta(SituacaoContaEnum.ATIVA)
+                .limitePixDiurno(Dinheiro.parse("5000.00"))
+                .limitePixNoturno(Dinheiro.parse("1000.00"))
+                .limitePixRedeSegura(Dinheiro.parse("10000.00"))
+                .versao(3L)
+                .build();
+
+        operacao = new CreditoDebitoDto();
+        operacao.setTipoOperacao(TipoOperacaoEnum.DEBITO);
+        operacao.setDataOperacao(DataOperacao.de("15/03/2025 14:30:00"));
+        operacao.setCpfCnpj("12345678909");
+        operacao.setTipoConta(TipoContaEnum.CACC);
+        operacao.setValor(ValorInformado.de("150.75"));
+        operacao.setConectadoEmRedeSegura(false);
+
+        clienteSerializado = escritorCliente.writeValueAsBytes(cliente);
+        operacaoSerializada = escritorOperacao.writeValueAsBytes(operacao);
+        System.out.printf("%n[%s] Cliente: %d bytes, CreditoDebitoDto: %d bytes%n",
+                formato, clienteSerializado.length, operacaoSerializada.length);
+    }
+
+    @Benchmark
+    public byte[] serializarCliente() throws IOException {
+        return escritorCliente.writeValueAsBytes(cliente);
+    }
+
+    @Benchmark
+    public Cliente desserializarCliente() throws IOException {
+        return leitorCliente.readValue(clienteSerializado);
+    }
+
+    @Benchmark
+    public byte[] serializarOperacao() throws IOException {
+        return escritorOperacao.writeValueAsBytes(operacao);
+    }
+
+    @Benchmark
+    public CreditoDebitoDto desserializarOperacao() throws IOException {
+        return leitorOperacao.readValue(operacaoSerializada);
+    }
+}
@@ -0,0 +1,57 @@
+package org.viniciusvirgilli.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitePixBenchmark {
+
+    private final OperacaoService operacaoService = new OperacaoService();
+
+    private Cliente cliente;
+    private Dinheiro dentroDoLimite;
+    private Dinheiro foraDoLimite;
+    private Dinheiro redeSegura;
+
+    @Setup
+    public void setup() {
+        cliente = Cliente.builder()
+                .cpfCnpj("12345678909")
+                .tipoConta(TipoContaEnum.CACC)
+                .saldo(Dinheiro.parse("1500.00"))
+                .limitePixDiurno(Dinheiro.parse("5000.00"))
+                .limitePixNoturno(Dinheiro.parse("1000.00"))
+                .limitePixRedeSegura(Dinheiro.parse("10000.00"))
+                .build();
+
+        // o periodo vem do relogio do servidor e e resolvido antes da verificacao
+        dentroDoLimite = Dinheiro.parse("150.75");
+        foraDoLimite = Dinheiro.parse("4000.00");
+        redeSegura = Dinheiro.parse("9000.00");
+    }
+
+    @Benchmark
+    public boolean diurnoDentroDoLimite() {
+        return operacaoService.isLimitePixPermitido(cliente, PeriodoLimiteEnum.DIURNO, dentroDoLimite);
+    }
+
+    @Benchmark
+    public boolean noturnoForaDoLimite() {
+        return operacaoService.isLimitePixPermitido(cliente, PeriodoLimiteEnum.NOTURNO, foraDoLimite);
+    }
+
+    @Benchmark
+    public boolean redeSegura() {
+        return operacaoService.isLimitePixPermitido(cliente, PeriodoLimiteEnum.REDE_SEGURA, redeSegura);
+    }
+}
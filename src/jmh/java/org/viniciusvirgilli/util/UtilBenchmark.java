@@ -0,0 +1,39 @@
+package org.viniciusvirgilli.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilBenchmark {
+
+    private String dataValida = "15/03/2025 14:30:00";
+    private String dataInvalida = "2025-03-15T14:30:00";
+    private String chaveMensagem = "creditoDebito.valor.invalido";
+
+    @Benchmark
+    public boolean dataOperacaoValida() {
+        return DataUtil.isDataOperacaoValida(dataValida);
+    }
+
+    @Benchmark
+    public boolean dataOperacaoInvalida() {
+        return DataUtil.isDataOperacaoValida(dataInvalida);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDataOperacao() {
+        return DataUtil.parseDataOperacao(dataValida);
+    }
+
+    @Benchmark
+    public String mensagem() {
+        return MessageUtils.getString(chaveMensagem);
+    }
+}
@@ -0,0 +1,105 @@
+package org.viniciusvirgilli.validador;
+
+import org.openjdk.jmh.annotations.*;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidadorBenchmark {
+
+    private final CadastroClienteValidador cadastroValidador = new CadastroClienteValidador();
+    private final CreditoDebitoValidador creditoDebitoValidador = new CreditoDebitoValidador();
+
+    private CadastroClienteDto cadastroValido;
+    private CadastroClienteDto cadastroInvalido;
+    private CreditoDebitoDto operacaoValida;
+    private CreditoDebitoDto operacaoInvalida;
+
+    @Setup
+    public void setup() {
+        cadastroValido = new CadastroClienteDto();
+        cadastroValido.setNome("João Silva Santos");
+        cadastroValido.setCpfCnpj("12345678909");
+        cadastroValido.setSaldo(ValorInformado.de("1500.00"));
+        cadastroValido.setAgencia("1234");
+        cadastroValido.setConta(567890);
+        cadastroValido.setTipoConta(TipoContaEnum.CACC);
+        cadastroValido.setOperacao(1);
+        cadastroValido.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cadastroValido.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        cadastroValido.setLimitePixDiurno(Dinheiro.parse("5000.00"));
+        cadastroValido.setLimitePixNoturno(Dinheiro.parse("1000.00"));
+        cadastroValido.setLimitePixRedeSegura(Dinheiro.parse("10000.00"));
+
+        cadastroInvalido = new CadastroClienteDto();
+        cadastroInvalido.setCpfCnpj("123.456.789-09");
+        cadastroInvalido.setSaldo(ValorInformado.de("mil"));
+        cadastroInvalido.setConta(-1);
+
+        operacaoValida = new CreditoDebitoDto();
+        operacaoValida.setTipoOperacao(TipoOperacaoEnum.DEBITO);
+        operacaoValida.setDataOperacao(DataOperacao.de("15/03/2025 14:30:00"));
+        operacaoValida.setCpfCnpj("12345678909");
+        operacaoValida.setTipoConta(TipoContaEnum.CACC);
+        operacaoValida.setValor(ValorInformado.de("150.75"));
+        operacaoValida.setConectadoEmRedeSegura(false);
+
+        operacaoInvalida = new CreditoDebitoDto();
+        operacaoInvalida.setDataOperacao(DataOperacao.de("2025-03-15T14:30:00"));
+        operacaoInvalida.setCpfCnpj("1234");
+        operacaoInvalida.setValor(ValorInformado.de("-10"));
+    }
+
+    @Benchmark
+    public Object cadastroValido() {
+        return validar(cadastroValido);
+    }
+
+    @Benchmark
+    public Object cadastroInvalido() {
+        return validar(cadastroInvalido);
+    }
+
+    @Benchmark
+    public Object creditoDebitoValido() {
+        return validar(operacaoValida);
+    }
+
+    @Benchmark
+    public Object creditoDebitoInvalido() {
+        return validar(operacaoInvalida);
+    }
+
+    private Object validar(CadastroClienteDto dto) {
+        try {
+            cadastroValidador.validar(dto);
+            return dto;
+        } catch (ValidadorException e) {
+            return e;
+        }
+    }
+
+    private Object validar(CreditoDebitoDto dto) {
+        try {
+            creditoDebitoValidador.validar(dto);
+            return dto;
+        } catch (ValidadorException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.viniciusvirgilli.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dto.EstatisticasCacheDto;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache read-through dos clientes. As entradas ficam indexadas por (cpfCnpj, tipoConta) e um segundo
+ * cache guarda apenas o id -> chave, assim uma alteracao conhecida so pela chave invalida as duas buscas.
+ * O cache guarda uma copia desanexada da entidade e cada leitura recebe a sua propria copia: a instancia
+ * em cache nunca e compartilhada, entao quem altera o retorno (ex.: o saldo do motor) nao afeta os demais.
+ * Quem carrega fora do calculo atomico do cache (busca por id sem chave conhecida, busca reativa) anota a
+ * {@link #geracao()} antes de ler o banco e so guarda o resultado se nenhuma invalidacao ocorreu nesse meio.
+ */
+@Slf4j
+@ApplicationScoped
+public class ClienteCache {
+
+    @ConfigProperty(name = "cliente.cache.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "cliente.cache.tamanho-maximo", defaultValue = "10000")
+    long tamanhoMaximo;
+
+    @ConfigProperty(name = "cliente.cache.ttl", defaultValue = "30s")
+    Duration ttl;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private Cache<ChaveConta, Cliente> clientes;
+    private Cache<Long, ChaveConta> chavesPorId;
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        clientes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        chavesPorId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Cliente> buscarPorChave(ChaveConta chave, Function<ChaveConta, Optional<Cliente>> carregador) {
+        if (!enable) {
+            return carregador.apply(chave);
+        }
+
+        Cliente cliente = clientes.get(chave, k -> copia(carregador.apply(k).orElse(null)));
+        if (cliente != null) {
+            chavesPorId.put(cliente.getId(), chave);
+        }
+        return Optional.ofNullable(copia(cliente));
+    }
+
+    public Optional<Cliente> buscarPorId(Long id, Function<Long, Optional<Cliente>> carregador) {
+        if (!enable) {
+            return carregador.apply(id);
+        }
+
+        ChaveConta chave = chavesPorId.getIfPresent(id);
+        if (chave != null) {
+            Cliente cliente = clientes.get(chave, k -> copia(carregador.apply(id)
+                    .filter(c -> k.equals(ChaveConta.de(c)))
+                    .orElse(null)));
+            if (cliente != null && id.equals(cliente.getId())) {
+                return Optional.of(copia(cliente));
+            }
+        }
+
+        // chave desconhecida: so da para carregar fora do cache, entao guarda apenas se nada foi invalidado
+        long geracao = geracao();
+        Optional<Cliente> cliente = carregador.apply(id);
+        cliente.ifPresent(c -> guardar(c, geracao));
+        return cliente;
+    }
+
+    /**
+     * Consulta sem carregar: para quem busca o cliente de forma assincrona, anota a {@link #geracao()} antes
+     * da leitura e depois chama {@link #guardar}.
+     */
+    public Optional<Cliente> consultarPorId(Long id) {
+        if (!enable) {
+            return Optional.empty();
+        }
+
+        ChaveConta chave = chavesPorId.getIfPresent(id);
+        if (chave != null) {
+            Cliente cliente = clientes.getIfPresent(chave);
+            if (cliente != null && id.equals(cliente.getId())) {
+                return Optional.of(copia(cliente));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Cliente> consultarPorChave(ChaveConta chave) {
+        return enable ? Optional.ofNullable(copia(clientes.getIfPresent(chave))) : Optional.empty();
+    }
+
+    public long geracao() {
+        return invalidacoes.get();
+    }
+
+    /**
+     * Guarda um cliente carregado fora do cache. A comparacao com a geracao roda dentro do compute da chave:
+     * uma invalidacao anterior descarta o valor e uma posterior espera o compute e o remove em seguida.
+     */
+    public void guardar(Cliente cliente, long geracao) {
+        if (!enable) {
+            return;
+        }
+
+        ChaveConta chave = ChaveConta.de(cliente);
+        Cliente guardado = clientes.asMap().compute(chave,
+                (k, atual) -> invalidacoes.get() == geracao ? copia(cliente) : atual);
+        if (guardado != null && cliente.getId().equals(guardado.getId())) {
+            chavesPorId.put(cliente.getId(), chave);
+        }
+    }
+
+    public void invalidar(Cliente cliente) {
+        invalidar(ChaveConta.de(cliente), cliente.getId());
+    }
+
+    public void invalidar(ChaveConta chave) {
+        invalidar(chave, null);
+    }
+
+    public List<EstatisticasCacheDto> estatisticas() {
+        return List.of(
+                estatisticas("clientes", clientes),
+                estatisticas("chaves-por-id", chavesPorId));
+    }
+
+    /**
+     * Remove na hora e, havendo transacao ativa, de novo apos o commit/rollback: uma leitura concorrente
+     * feita antes do commit poderia recolocar no cache o valor antigo.
+     */
+    private void invalidar(ChaveConta chave, Long id) {
+        if (!enable) {
+            return;
+        }
+
+        remover(chave, id);
+        if (transacoes.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            transacoes.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    remover(chave, id);
+                }
+            });
+        }
+    }
+
+    private static Cliente copia(Cliente cliente) {
+        return cliente == null ? null : cliente.toBuilder().build();
+    }
+
+    private void remover(ChaveConta chave, Long id) {
+        invalidacoes.incrementAndGet();
+        clientes.invalidate(chave);
+        if (id != null) {
+            chavesPorId.invalidate(id);
+        }
+    }
+
+    private EstatisticasCacheDto estatisticas(String nome, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return EstatisticasCacheDto.builder()
+                .nome(nome)
+                .tamanho(cache.estimatedSize())
+                .tamanhoMaximo(tamanhoMaximo)
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .taxaAcerto(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+}
@@ -0,0 +1,283 @@
+package org.viniciusvirgilli.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Status;
+import jakarta.transaction.UserTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dao.ClienteDao;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Filtro de Bloom das contas cadastradas (chave numerica), consultado antes da busca de duplicidade do cadastro.
+ * Um "nao" do filtro e definitivo e dispensa a consulta; um "talvez" segue para o banco. O indice unico de
+ * {@code chave_conta} continua sendo o arbitro final: uma conta que o filtro nao conhece (cadastrada por outra
+ * instancia, por exemplo) e recusada no INSERT.
+ * <p>
+ * Bits nao podem ser removidos: a chave de uma conta deletada continua no filtro ate a proxima carga. Como ela
+ * segue contando nas insercoes, o filtro e recarregado do banco em segundo plano quando as insercoes passam da
+ * capacidade, seja por crescimento ou por rotatividade de contas.
+ */
+@Slf4j
+@ApplicationScoped
+public class FiltroContasCadastradas {
+
+    private static final String CONSULTAS = "cliente.filtro-contas.consultas";
+
+    @ConfigProperty(name = "cliente.filtro-contas.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "cliente.filtro-contas.capacidade", defaultValue = "1000000")
+    long capacidade;
+
+    @ConfigProperty(name = "cliente.filtro-contas.taxa-falso-positivo", defaultValue = "0.01")
+    double taxaFalsoPositivo;
+
+    @ConfigProperty(name = "cliente.filtro-contas.fetch-size", defaultValue = "10000")
+    int fetchSize;
+
+    @Inject
+    ClienteDao clienteDao;
+
+    @Inject
+    UserTransaction transacao;
+
+    @Inject
+    MeterRegistry registry;
+
+    // null ate a primeira carga terminar: enquanto isso toda verificacao vai ao banco
+    private volatile Bits atual;
+    // durante uma reconstrucao os cadastros entram nos dois filtros
+    private volatile Bits emConstrucao;
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+
+    private Counter ausentes;
+    private Counter existentes;
+    private Counter falsosPositivos;
+
+    @PostConstruct
+    void iniciar() {
+        ausentes = contador("ausente", "Verificacoes respondidas pelo filtro, sem consulta ao banco");
+        existentes = contador("existente", "Verificacoes que o banco confirmou como conta ja cadastrada");
+        falsosPositivos = contador("falso-positivo", "Verificacoes que foram ao banco e a conta nao existia");
+
+        Gauge.builder("cliente.filtro-contas.memoria", this, f -> f.atual == null ? 0 : f.atual.bytes())
+                .description("Memoria ocupada pelos bits do filtro")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("cliente.filtro-contas.elementos", this, f -> f.atual == null ? 0 : f.atual.inseridas.sum())
+                .description("Chaves inseridas no filtro desde a ultima carga, inclusive as de contas ja deletadas")
+                .register(registry);
+        Gauge.builder("cliente.filtro-contas.removidas", this, f -> f.atual == null ? 0 : f.atual.removidas.sum())
+                .description("Contas deletadas desde a ultima carga, cujos bits continuam no filtro")
+                .register(registry);
+        Gauge.builder("cliente.filtro-contas.falso-positivo.estimado", this,
+                        f -> f.atual == null ? Double.NaN : f.atual.taxaFalsoPositivo())
+                .description("Taxa de falso positivo esperada para o numero atual de elementos")
+                .register(registry);
+    }
+
+    // depois do preenchimento de chave_conta (AjusteChaveContaCliente), que roda na prioridade padrao
+    void carregar(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent event) {
+        if (enable) {
+            reconstruir(capacidade);
+        }
+    }
+
+    /**
+     * Responde pelo filtro quando ele garante que a conta nao existe; nos demais casos pergunta ao banco.
+     */
+    public boolean existe(ChaveConta chave, Predicate<ChaveConta> banco) {
+        Bits bits = atual;
+        if (!enable || bits == null) {
+            return banco.test(chave);
+        }
+        if (!bits.contem(chave.numerica())) {
+            ausentes.increment();
+            return false;
+        }
+
+        boolean existe = banco.test(chave);
+        (existe ? existentes : falsosPositivos).increment();
+        return existe;
+    }
+
+    /** Para verificacoes em bloco: {@code false} dispensa a chave da consulta ao banco. */
+    public boolean podeExistir(ChaveConta chave) {
+        Bits bits = atual;
+        if (!enable || bits == null || bits.contem(chave.numerica())) {
+            return true;
+        }
+        ausentes.increment();
+        return false;
+    }
+
+    /** Resultado da consulta ao banco das chaves que passaram por {@link #podeExistir(ChaveConta)}. */
+    public void registrarConsultadas(int consultadas, int encontradas) {
+        if (enable && atual != null) {
+            existentes.increment(encontradas);
+            falsosPositivos.increment(consultadas - encontradas);
+        }
+    }
+
+    /**
+     * Chamado antes do commit do cadastro: se a transacao nao confirmar, sobra so um bit a mais (um falso
+     * positivo), nunca uma conta que o filtro desconhece.
+     */
+    public void adicionar(ChaveConta chave) {
+        if (!enable) {
+            return;
+        }
+
+        long numerica = chave.numerica();
+        Bits novo = emConstrucao;
+        if (novo != null) {
+            novo.adicionar(numerica);
+        }
+        Bits bits = atual;
+        if (bits != null) {
+            bits.adicionar(numerica);
+            if (bits.inseridas.sum() > bits.capacidade) {
+                reconstruir(Math.max(capacidade, (bits.inseridas.sum() - bits.removidas.sum()) * 2));
+            }
+        }
+    }
+
+    /** So contabiliza: os bits da conta ficam ate a proxima carga, e ela so custa uma consulta ao banco. */
+    public void remover(ChaveConta chave) {
+        Bits bits = atual;
+        if (enable && bits != null) {
+            bits.removidas.increment();
+        }
+    }
+
+    private void reconstruir(long capacidadeNova) {
+        if (!reconstruindo.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("filtro-contas").start(() -> {
+            long inicio = System.nanoTime();
+            Bits novo = new Bits(capacidadeNova, taxaFalsoPositivo);
+            emConstrucao = novo;
+            try {
+                transacao.begin();
+                clienteDao.percorrerChavesConta(fetchSize, novo::adicionar);
+                transacao.commit();
+                atual = novo;
+                log.info("[FILTRO-CONTAS] - Filtro carregado com {} conta(s) em {} ms ({} KB)",
+                        novo.inseridas.sum(), (System.nanoTime() - inicio) / 1_000_000, novo.bytes() / 1024);
+            } catch (Exception e) {
+                desfazer();
+                log.warn("[FILTRO-CONTAS] - Não foi possível carregar o filtro de contas: {}", e.getMessage());
+                return;
+            } finally {
+                emConstrucao = null;
+                reconstruindo.set(false);
+            }
+
+            if (novo.inseridas.sum() > novo.capacidade) {
+                log.warn("[FILTRO-CONTAS] - {} conta(s) acima da capacidade configurada ({}), reconstruindo maior",
+                        novo.inseridas.sum(), novo.capacidade);
+                reconstruir(novo.inseridas.sum() * 2);
+            }
+        });
+    }
+
+    private void desfazer() {
+        try {
+            if (transacao.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                transacao.rollback();
+            }
+        } catch (Exception e) {
+            log.warn("[FILTRO-CONTAS] - Erro ao desfazer a transação: {}", e.getMessage());
+        }
+    }
+
+    private Counter contador(String resultado, String descricao) {
+        return Counter.builder(CONSULTAS)
+                .description(descricao)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * m bits e k funcoes de hash dimensionados para a capacidade e a taxa alvo; as k posicoes saem de dois
+     * hashes da chave (h1 + i * h2).
+     */
+    static final class Bits {
+
+        private final AtomicLongArray palavras;
+        private final long totalBits;
+        private final int funcoes;
+        private final long capacidade;
+        private final LongAdder inseridas = new LongAdder();
+        private final LongAdder removidas = new LongAdder();
+
+        Bits(long capacidade, double taxaFalsoPositivo) {
+            this.capacidade = Math.max(capacidade, 1);
+            long bits = (long) Math.ceil(-this.capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+            this.palavras = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE - 8));
+            this.totalBits = palavras.length() * 64L;
+            this.funcoes = Math.max(1, (int) Math.round((double) totalBits / this.capacidade * Math.log(2)));
+        }
+
+        void adicionar(long chave) {
+            long h1 = misturar(chave);
+            long h2 = misturar(h1) | 1;
+            for (int i = 0; i < funcoes; i++) {
+                long posicao = Math.floorMod(h1 + i * h2, totalBits);
+                int indice = (int) (posicao >>> 6);
+                long mascara = 1L << posicao;
+                if ((palavras.get(indice) & mascara) == 0) {
+                    palavras.accumulateAndGet(indice, mascara, (a, b) -> a | b);
+                }
+            }
+            inseridas.increment();
+        }
+
+        boolean contem(long chave) {
+            long h1 = misturar(chave);
+            long h2 = misturar(h1) | 1;
+            for (int i = 0; i < funcoes; i++) {
+                long posicao = Math.floorMod(h1 + i * h2, totalBits);
+                if ((palavras.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bytes() {
+            return totalBits / 8;
+        }
+
+        // (1 - e^(-kn/m))^k
+        double taxaFalsoPositivo() {
+            return Math.pow(1 - Math.exp(-funcoes * (double) inseridas.sum() / totalBits), funcoes);
+        }
+
+        // finalizador do MurmurHash3 (64 bits): as chaves numericas sao sequenciais nos bits baixos
+        private static long misturar(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.viniciusvirgilli.concorrencia;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.exception.BancoSobrecarregadoException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaforo justo na frente do acesso ao banco, dimensionado pelo pool do datasource. Com threads virtuais
+ * nao ha mais o limite do pool de workers: sem ele, cada requisicao ficaria parada dentro do Agroal
+ * esperando conexao ate o acquisition-timeout. Aqui a espera e limitada e vira 503 quando estoura.
+ */
+@Slf4j
+@ApplicationScoped
+public class LimitadorAcessoBanco {
+
+    @ConfigProperty(name = "banco.concorrencia.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "banco.concorrencia.maxima", defaultValue = "20")
+    int maxima;
+
+    @ConfigProperty(name = "banco.concorrencia.espera", defaultValue = "5s")
+    Duration espera;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Semaphore permissoes;
+    private long esperaNanos;
+
+    @PostConstruct
+    void iniciar() {
+        permissoes = new Semaphore(maxima, true);
+        esperaNanos = espera.toNanos();
+
+        Gauge.builder("banco.concorrencia.em-uso", permissoes, s -> maxima - s.availablePermits())
+                .description("Requisicoes com acesso ao banco liberado")
+                .register(registry);
+        Gauge.builder("banco.concorrencia.fila", permissoes, Semaphore::getQueueLength)
+                .description("Requisicoes aguardando acesso ao banco")
+                .register(registry);
+
+        if (enable) {
+            log.info("[BANCO] - Acesso ao banco limitado a {} requisicao(oes) simultanea(s)", maxima);
+        }
+    }
+
+    public boolean isAtivo() {
+        return enable;
+    }
+
+    public void adquirir() {
+        try {
+            if (permissoes.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new BancoSobrecarregadoException();
+    }
+
+    public void liberar() {
+        permissoes.release();
+    }
+}
@@ -0,0 +1,19 @@
+package org.viniciusvirgilli.concorrencia;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita quantas chamadas acessam o banco ao mesmo tempo (ver {@link LimitadorAcessoBanco}).
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface LimiteAcessoBanco {
+}
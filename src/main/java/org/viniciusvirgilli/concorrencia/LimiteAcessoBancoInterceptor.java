@@ -0,0 +1,35 @@
+package org.viniciusvirgilli.concorrencia;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+@LimiteAcessoBanco
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class LimiteAcessoBancoInterceptor {
+
+    // chamadas aninhadas (controller -> service anotados) usam a permissao ja obtida pela thread
+    private static final ThreadLocal<Boolean> LIBERADO = new ThreadLocal<>();
+
+    @Inject
+    LimitadorAcessoBanco limitador;
+
+    @AroundInvoke
+    Object limitar(InvocationContext context) throws Exception {
+        if (!limitador.isAtivo() || LIBERADO.get() != null) {
+            return context.proceed();
+        }
+
+        limitador.adquirir();
+        LIBERADO.set(Boolean.TRUE);
+        try {
+            return context.proceed();
+        } finally {
+            LIBERADO.remove();
+            limitador.liberar();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.viniciusvirgilli.controller;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.core.Application;
+
+/**
+ * Com o build feito com {@code api.threads-virtuais.enable=true}, os endpoints da API passam a rodar em
+ * threads virtuais: o Quarkus REST usa o {@code @RunOnVirtualThread} da {@link Application} como padrao
+ * de todos os recursos. Sem a propriedade a classe fica fora do build e vale o pool de workers.
+ */
+@RunOnVirtualThread
+@IfBuildProperty(name = "api.threads-virtuais.enable", stringValue = "true")
+public class ApiThreadsVirtuais extends Application {
+}
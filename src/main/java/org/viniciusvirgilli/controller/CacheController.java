@@ -0,0 +1,25 @@
+package org.viniciusvirgilli.controller;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.viniciusvirgilli.cache.ClienteCache;
+
+@Path("api/cache")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Cache", description = "Estatísticas do cache de clientes")
+public class CacheController {
+
+    @Inject
+    ClienteCache clienteCache;
+
+    @GET
+    @Path("/estatisticas")
+    public Response estatisticas() {
+        return Response.ok(clienteCache.estatisticas()).build();
+    }
+}
@@ -1,33 +1,71 @@
 package org.viniciusvirgilli.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import jakarta.inject.Inject;
+import org.viniciusvirgilli.concorrencia.LimiteAcessoBanco;
 import org.viniciusvirgilli.dto.CadastroClienteDto;
 import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.LancamentoDto;
+import org.viniciusvirgilli.dto.ResultadoImportacaoDto;
+import org.viniciusvirgilli.dto.ResultadoOperacaoDto;
+import org.viniciusvirgilli.dto.TransferenciaDto;
+import org.viniciusvirgilli.enums.FormatoImportacaoEnum;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.enums.TipoContaEnum;
 import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.serializacao.FormatosSerializacao;
 import org.viniciusvirgilli.service.ClienteService;
+import org.viniciusvirgilli.service.ExtratoService;
+import org.viniciusvirgilli.service.ImportacaoClienteService;
+import org.viniciusvirgilli.service.OperacaoIdempotenteService;
 import org.viniciusvirgilli.service.OperacaoService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 
 @Path("api/clientes")
 @Slf4j
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, FormatosSerializacao.APPLICATION_CBOR, FormatosSerializacao.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, FormatosSerializacao.APPLICATION_CBOR, FormatosSerializacao.APPLICATION_SMILE})
 @Tag(name = "Conta", description = "Operações na conta do cliente")
+@LimiteAcessoBanco
 public class ClienteController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     @Inject
     private ClienteService contaService;
 
     @Inject
     OperacaoService operacaoService;
 
+    @Inject
+    ImportacaoClienteService importacaoService;
+
+    @Inject
+    OperacaoIdempotenteService operacaoIdempotenteService;
+
+    @Inject
+    ExtratoService extratoService;
+
+    @Inject
+    FormatosSerializacao formatos;
+
     @POST
     @Path("/cadastrar")
     public Response cadastrar(CadastroClienteDto cliente) {
@@ -35,6 +73,23 @@ public class ClienteController {
         return Response.status(Response.Status.CREATED).entity(clienteCadastrado).build();
     }
 
+    /**
+     * Cadastro em massa. O corpo (CSV com cabecalho ou JSONL) e lido em blocos, sem ser carregado inteiro;
+     * o formato vem de {@code formato} ou do Content-Type. Responde com as linhas rejeitadas e o motivo.
+     */
+    @POST
+    @Path("/importar")
+    @Consumes({"text/csv", "application/x-ndjson", MediaType.TEXT_PLAIN})
+    public Response importar(
+            @QueryParam("formato") FormatoImportacaoEnum formato,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream entrada
+    ) {
+        FormatoImportacaoEnum formatoEntrada = formato != null ? formato : FormatoImportacaoEnum.deContentType(contentType);
+        ResultadoImportacaoDto resultado = importacaoService.importar(entrada, formatoEntrada);
+        return Response.ok(resultado).build();
+    }
+
     @GET
     @Path("/por-cpfCnpj-tipoConta")
     public Response buscarPorCpfCnpjAndTipoConta(
@@ -52,6 +107,99 @@ public class ClienteController {
         return Response.ok(cliente).build();
     }
 
+    /**
+     * Lista em ordem de id, paginando por chave: a proxima pagina e pedida com {@code aPartirDoId=proximoId}.
+     * O corpo e gerado enquanto os clientes sao lidos; {@code proximoId} vem nulo na ultima pagina.
+     * O formato (JSON, CBOR ou Smile) segue o Accept.
+     */
+    @GET
+    @Path("/listar")
+    public Response listar(
+            @QueryParam("aPartirDoId") Long aPartirDoId,
+            @QueryParam("limite") Integer limite,
+            @QueryParam("tipoConta") TipoContaEnum tipoConta,
+            @QueryParam("situacaoConta") SituacaoContaEnum situacaoConta,
+            @QueryParam("ispbParticipante") ISPBParticipanteEnum ispbParticipante,
+            @Context HttpHeaders headers
+    ) {
+        int limitePagina = contaService.limiteListagem(limite);
+        MediaType formato = FormatosSerializacao.negociar(headers.getAcceptableMediaTypes());
+        ObjectWriter escritor = formatos.escritor(formato, Cliente.class);
+
+        StreamingOutput saida = output -> {
+            try (JsonGenerator json = formatos.mapeador(formato).getFactory().createGenerator(output)) {
+                long[] ultimoId = {0L};
+                int[] total = {0};
+
+                json.writeStartObject();
+                json.writeArrayFieldStart("clientes");
+                contaService.listar(aPartirDoId, limitePagina, tipoConta, situacaoConta, ispbParticipante, cliente -> {
+                    try {
+                        escritor.writeValue(json, cliente);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    ultimoId[0] = cliente.getId();
+                    total[0]++;
+                });
+                json.writeEndArray();
+                if (total[0] == limitePagina) {
+                    json.writeNumberField("proximoId", ultimoId[0]);
+                } else {
+                    json.writeNullField("proximoId");
+                }
+                json.writeEndObject();
+            }
+        };
+        return Response.ok(saida, formato).build();
+    }
+
+    /**
+     * Operacoes da conta no periodo [inicio, fim), em ordem, com o saldo antes do inicio e o saldo no fim.
+     * Pagina por chave como a listagem: a proxima pagina e pedida com {@code aPartirDe=proximo}, que vem nulo
+     * na ultima. O historico e copiado do journal em segundo plano, entao as operacoes mais recentes (ms) podem
+     * ainda nao aparecer.
+     */
+    @GET
+    @Path("/extrato")
+    public Response extrato(
+            @QueryParam("cpfCnpj") String cpfCnpj,
+            @QueryParam("tipoConta") TipoContaEnum tipoConta,
+            @QueryParam("inicio") String inicio,
+            @QueryParam("fim") String fim,
+            @QueryParam("aPartirDe") String aPartirDe,
+            @QueryParam("limite") Integer limite,
+            @Context HttpHeaders headers
+    ) {
+        ExtratoService.Consulta consulta = extratoService.abrir(cpfCnpj, tipoConta, inicio, fim, aPartirDe, limite);
+        MediaType formato = FormatosSerializacao.negociar(headers.getAcceptableMediaTypes());
+        ObjectWriter escritor = formatos.escritor(formato, LancamentoDto.class);
+
+        StreamingOutput saida = output -> {
+            try (JsonGenerator json = formatos.mapeador(formato).getFactory().createGenerator(output)) {
+                json.writeStartObject();
+                json.writeStringField("cpfCnpj", cpfCnpj);
+                json.writeObjectField("tipoConta", tipoConta);
+                json.writeStringField("inicio", inicio);
+                json.writeStringField("fim", fim);
+                json.writeObjectField("saldoInicial", consulta.saldoInicial());
+                json.writeObjectField("saldoFinal", consulta.saldoFinal());
+                json.writeArrayFieldStart("lancamentos");
+                String proximo = extratoService.percorrer(consulta, lancamento -> {
+                    try {
+                        escritor.writeValue(json, lancamento);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeStringField("proximo", proximo);
+                json.writeEndObject();
+            }
+        };
+        return Response.ok(saida, formato).build();
+    }
+
     @DELETE
     @Path("/")
     public Response deletar(
@@ -62,10 +210,33 @@ public class ClienteController {
         return Response.noContent().build();
     }
 
+    /**
+     * Com {@code Idempotency-Key} uma repeticao (ex.: retry apos timeout) nao aplica a operacao de novo:
+     * recebe o resultado da primeira tentativa, com {@code Idempotent-Replayed: true} quando foi sucesso.
+     */
     @PUT
     @Path("/operacao")
-    public Response realizarCreditoDebito(CreditoDebitoDto creditoDto) {
-        operacaoService.executar(creditoDto);
+    public Response realizarCreditoDebito(
+            @HeaderParam(IDEMPOTENCY_KEY) String chaveIdempotencia,
+            CreditoDebitoDto creditoDto
+    ) {
+        boolean repeticao = operacaoIdempotenteService.executar(creditoDto, chaveIdempotencia);
+        return repeticao
+                ? Response.noContent().header(IDEMPOTENT_REPLAYED, true).build()
+                : Response.noContent().build();
+    }
+
+    @PUT
+    @Path("/operacao/lote")
+    public Response realizarCreditoDebitoEmLote(List<CreditoDebitoDto> operacoes) {
+        List<ResultadoOperacaoDto> resultados = operacaoService.executarLote(operacoes);
+        return Response.ok(resultados).build();
+    }
+
+    @PUT
+    @Path("/transferencia")
+    public Response transferir(TransferenciaDto transferenciaDto) {
+        operacaoService.transferir(transferenciaDto);
         return Response.noContent().build();
     }
 
@@ -0,0 +1,95 @@
+package org.viniciusvirgilli.dao;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.UserTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import java.util.List;
+
+/**
+ * A coluna {@code chave_conta} entrou depois dos primeiros cadastros. Na inicializacao os clientes sem ela
+ * sao preenchidos em blocos (keyset por id), cada bloco na sua transacao; as buscas por conta dependem dela.
+ */
+@Slf4j
+@ApplicationScoped
+public class AjusteChaveContaCliente {
+
+    private static final int TAMANHO_BLOCO = 1000;
+
+    @ConfigProperty(name = "cliente.chave-conta.preencher", defaultValue = "true")
+    boolean preencher;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction transacao;
+
+    // transacao manual: uma falha aqui so gera aviso, nao impede a subida
+    void iniciar(@Observes StartupEvent event) {
+        if (!preencher) {
+            return;
+        }
+
+        long aPartirDoId = 0;
+        long preenchidos = 0;
+        try {
+            while (aPartirDoId >= 0) {
+                transacao.begin();
+                List<Object[]> bloco = pendentes(aPartirDoId);
+                for (Object[] cliente : bloco) {
+                    preenchidos += preencher((Long) cliente[0], (String) cliente[1], (TipoContaEnum) cliente[2]);
+                }
+                transacao.commit();
+                aPartirDoId = bloco.size() < TAMANHO_BLOCO ? -1 : (Long) bloco.getLast()[0];
+            }
+        } catch (Exception e) {
+            desfazer();
+            log.warn("[CHAVE-CONTA] - Não foi possível preencher a chave numérica dos clientes: {}", e.getMessage());
+        }
+        if (preenchidos > 0) {
+            log.info("[CHAVE-CONTA] - Chave numérica preenchida em {} cliente(s)", preenchidos);
+        }
+    }
+
+    private List<Object[]> pendentes(long aPartirDoId) {
+        return em.createQuery(
+                "SELECT c.id, c.cpfCnpj, c.tipoConta FROM Cliente c WHERE c.chaveConta IS NULL AND c.id > :aPartirDoId ORDER BY c.id",
+                Object[].class
+        ).setParameter("aPartirDoId", aPartirDoId)
+                .setMaxResults(TAMANHO_BLOCO)
+                .getResultList();
+    }
+
+    // cpf/cnpj fora do formato (cadastro anterior a validacao) fica sem chave e nao e encontrado nas buscas por conta;
+    // a unicidade desses continua garantida pela restricao (cpf_cnpj, tipo_conta)
+    private int preencher(Long id, String cpfCnpj, TipoContaEnum tipoConta) {
+        long chave = ChaveConta.numerica(cpfCnpj, tipoConta);
+        if (chave == ChaveConta.INEXISTENTE) {
+            log.warn("[CHAVE-CONTA] - Cliente {} com CPF/CNPJ fora do formato, sem chave numérica", id);
+            return 0;
+        }
+        return em.createQuery("UPDATE Cliente c SET c.chaveConta = :chave WHERE c.id = :id")
+                .setParameter("chave", chave)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    private void desfazer() {
+        try {
+            if (transacao.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                transacao.rollback();
+            }
+        } catch (Exception e) {
+            log.warn("[CHAVE-CONTA] - Erro ao desfazer a transação: {}", e.getMessage());
+        }
+    }
+}
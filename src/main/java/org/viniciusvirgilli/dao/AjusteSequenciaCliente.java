@@ -0,0 +1,77 @@
+package org.viniciusvirgilli.dao;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.UserTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.viniciusvirgilli.model.Cliente;
+
+/**
+ * Os ids de cliente eram gerados por IDENTITY. Numa base que ja tem clientes a sequencia nova comeca
+ * abaixo do maior id; na inicializacao ela e reposicionada acima dele para que nenhum bloco de ids colida.
+ */
+@Slf4j
+@ApplicationScoped
+public class AjusteSequenciaCliente {
+
+    static final String SEQUENCIA = "cliente_seq";
+
+    @ConfigProperty(name = "cliente.sequencia.ajustar", defaultValue = "true")
+    boolean ajustar;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction transacao;
+
+    // transacao manual: uma falha aqui (ex.: sequencia ainda nao criada) so gera aviso, nao impede a subida
+    void iniciar(@Observes StartupEvent event) {
+        if (!ajustar) {
+            return;
+        }
+
+        try {
+            transacao.begin();
+            ajustar();
+            transacao.commit();
+        } catch (Exception e) {
+            desfazer();
+            log.warn("[SEQUENCIA] - Não foi possível conferir a sequência {}: {}", SEQUENCIA, e.getMessage());
+        }
+    }
+
+    private void ajustar() {
+        Number maiorId = (Number) em.createQuery("SELECT MAX(c.id) FROM Cliente c").getSingleResult();
+        if (maiorId == null) {
+            return;
+        }
+
+        String proximoValor = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCIA);
+        long valor = ((Number) em.createNativeQuery(proximoValor).getSingleResult()).longValue();
+
+        // com o otimizador pooled, um nextval v libera os ids (v - IDS_POR_NEXTVAL, v]
+        if (valor - Cliente.IDS_POR_NEXTVAL < maiorId.longValue()) {
+            long reinicio = maiorId.longValue() + Cliente.IDS_POR_NEXTVAL + 1;
+            em.createNativeQuery("ALTER SEQUENCE " + SEQUENCIA + " RESTART WITH " + reinicio).executeUpdate();
+            log.info("[SEQUENCIA] - {} reposicionada em {} (maior id de cliente: {})", SEQUENCIA, reinicio, maiorId);
+        }
+    }
+
+    private void desfazer() {
+        try {
+            if (transacao.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                transacao.rollback();
+            }
+        } catch (Exception e) {
+            log.warn("[SEQUENCIA] - Erro ao desfazer a transação: {}", e.getMessage());
+        }
+    }
+}
@@ -3,34 +3,161 @@ package org.viniciusvirgilli.dao;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
 import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @ApplicationScoped
 public class ClienteDao {
 
+    private static final String CREDITAR =
+            "UPDATE Cliente c SET c.saldo = c.saldo + :valor, c.versao = c.versao + 1 " +
+            "WHERE c.chaveConta = :chaveConta AND c.situacaoConta = :situacaoConta";
+
+    private static final String DEBITAR =
+            "UPDATE Cliente c SET c.saldo = c.saldo - :valor, c.versao = c.versao + 1 " +
+            "WHERE c.chaveConta = :chaveConta AND c.situacaoConta = :situacaoConta " +
+            "AND c.saldo >= :valor AND ";
+
+    private static final String DEBITAR_DIURNO = DEBITAR + "c.limitePixDiurno >= :consumo";
+    private static final String DEBITAR_NOTURNO = DEBITAR + "c.limitePixNoturno >= :consumo";
+    private static final String DEBITAR_REDE_SEGURA = DEBITAR + "c.limitePixRedeSegura >= :consumo";
+
+    // as mesmas alteracoes em SQL nativo, para os bancos que devolvem o saldo resultante no proprio UPDATE
+    private static final String SET_CREDITO = "SET saldo = saldo + :valor, versao = versao + 1";
+    private static final String SET_DEBITO = "SET saldo = saldo - :valor, versao = versao + 1";
+    private static final String WHERE_CREDITO = "WHERE chave_conta = :chaveConta AND situacao_conta = :situacaoConta";
+    private static final String WHERE_DEBITO = WHERE_CREDITO + " AND saldo >= :valor AND ";
+
     @Inject
     EntityManager em;
 
+    private volatile RetornoSaldo retornoSaldo;
+
     public void persist(Cliente entity) { em.persist(entity); }
 
+    /**
+     * Insere e executa o INSERT na hora: uma conta ja cadastrada (inclusive por outra transacao ou instancia)
+     * aparece aqui como violacao do indice unico de {@code chave_conta}.
+     */
+    public void inserir(Cliente entity) {
+        em.persist(entity);
+        em.flush();
+    }
+
     public void merge(Cliente entity) { em.merge(entity); }
 
-    public List<Cliente> findAll() {
-        return em.createQuery("SELECT c FROM Cliente c ORDEM BY p.id",
-                Cliente.class).getResultList();
+    /**
+     * Percorre os clientes com id maior que {@code aPartirDoId}, em ordem de id (keyset), sem montar lista:
+     * a consulta e somente leitura, rola com o fetch size informado e cada cliente sai do contexto de
+     * persistencia logo apos ser consumido.
+     */
+    public void listar(long aPartirDoId, int limite, TipoContaEnum tipoConta, SituacaoContaEnum situacaoConta,
+                       ISPBParticipanteEnum ispbParticipante, int fetchSize, Consumer<Cliente> consumidor) {
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Cliente c WHERE c.id > :aPartirDoId");
+        if (tipoConta != null) {
+            jpql.append(" AND c.tipoConta = :tipoConta");
+        }
+        if (situacaoConta != null) {
+            jpql.append(" AND c.situacaoConta = :situacaoConta");
+        }
+        if (ispbParticipante != null) {
+            jpql.append(" AND c.ispbParticipante = :ispbParticipante");
+        }
+        jpql.append(" ORDER BY c.id");
+
+        TypedQuery<Cliente> query = em.createQuery(jpql.toString(), Cliente.class)
+                .setParameter("aPartirDoId", aPartirDoId)
+                .setMaxResults(limite)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        if (tipoConta != null) {
+            query.setParameter("tipoConta", tipoConta);
+        }
+        if (situacaoConta != null) {
+            query.setParameter("situacaoConta", situacaoConta);
+        }
+        if (ispbParticipante != null) {
+            query.setParameter("ispbParticipante", ispbParticipante);
+        }
+
+        try (Stream<Cliente> clientes = query.getResultStream()) {
+            clientes.forEach(cliente -> {
+                consumidor.accept(cliente);
+                em.detach(cliente);
+            });
+        }
+    }
+
+    // flush/clear a cada lote: os INSERTs de um lote saem em um unico batch JDBC e o contexto nao cresce
+    public void persistirEmLote(List<Cliente> clientes, int tamanhoLote) {
+        for (int i = 0; i < clientes.size(); i++) {
+            em.persist(clientes.get(i));
+            if ((i + 1) % tamanhoLote == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * @param chaves chaves numericas ({@link ChaveConta#numerica()})
+     * @return as contas que ja existem entre as informadas
+     */
+    public List<ChaveConta> findChavesExistentes(Collection<Long> chaves) {
+        return em.createQuery(
+                "SELECT new org.viniciusvirgilli.model.ChaveConta(c.cpfCnpj, c.tipoConta) FROM Cliente c WHERE c.chaveConta IN :chaves",
+                ChaveConta.class
+        ).setParameter("chaves", chaves)
+                .getResultList();
+    }
+
+    /** Percorre todas as chaves numericas cadastradas, so pelo indice, sem montar lista. */
+    public void percorrerChavesConta(int fetchSize, LongConsumer consumidor) {
+        try (Stream<Long> chaves = em.createQuery(
+                "SELECT c.chaveConta FROM Cliente c WHERE c.chaveConta IS NOT NULL",
+                Long.class
+        ).setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            chaves.forEach(consumidor::accept);
+        }
     }
 
     public Optional<Cliente> findByCpfCnpj(String cpfCnpj) {
+        // as contas do cpf/cnpj ocupam uma faixa contigua do indice da chave numerica
         List<Cliente> resultado = em.createQuery(
-                "SELECT c FROM Cliente c WHERE c.cpfCnpj = :cpfCnpj",
+                "SELECT c FROM Cliente c WHERE c.chaveConta BETWEEN :inicio AND :fim",
                 Cliente.class
-        ).setParameter("cpfCnpj", cpfCnpj).getResultList();
+        ).setParameter("inicio", ChaveConta.inicio(cpfCnpj))
+                .setParameter("fim", ChaveConta.fim(cpfCnpj))
+                .getResultList();
 
         return resultado.isEmpty() ? Optional.empty() : Optional.of(resultado.getFirst());
     }
@@ -40,16 +167,13 @@ public class ClienteDao {
     public void update(Cliente entity) { em.merge(entity); }
 
     public boolean jaExisteConta(String cpfCnpj, TipoContaEnum tipoConta) {
-        Optional<Cliente> contaExistente = em.createQuery(
-                "SELECT c FROM Cliente c WHERE c.cpfCnpj = :cpfCnpj AND c.tipoConta = :tipoConta",
-                Cliente.class
-        ).setParameter("cpfCnpj", cpfCnpj)
-                .setParameter("tipoConta", tipoConta)
+        return !em.createQuery(
+                "SELECT c.id FROM Cliente c WHERE c.chaveConta = :chaveConta",
+                Long.class
+        ).setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setMaxResults(1)
                 .getResultList()
-                .stream()
-                .findFirst();
-
-        return contaExistente.isPresent();
+                .isEmpty();
     }
 
     public Optional<Cliente> findByIdOptional(Long id) {
@@ -59,14 +183,174 @@ public class ClienteDao {
 
     public Optional<Cliente> findByCpfCnpjAndTipoConta(String cpjCnpj, TipoContaEnum tipoContaEnum) {
         Optional<Cliente> cliente = em.createQuery(
-                "SELECT c FROM Cliente c WHERE c.cpfCnpj = :cpfCnpj AND c.tipoConta = :tipoConta",
+                "SELECT c FROM Cliente c WHERE c.chaveConta = :chaveConta",
                 Cliente.class
-        ).setParameter("cpfCnpj", cpjCnpj)
-                .setParameter("tipoConta", tipoContaEnum)
+        ).setParameter("chaveConta", ChaveConta.numerica(cpjCnpj, tipoContaEnum))
                 .getResultList()
                 .stream()
                 .findFirst();
 
         return cliente;
     }
+
+    public int atualizarSaldo(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro saldo) {
+        return em.createQuery(
+                "UPDATE Cliente c SET c.saldo = :saldo, c.versao = c.versao + 1 WHERE c.chaveConta = :chaveConta"
+        ).setParameter("saldo", saldo)
+                .setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .executeUpdate();
+    }
+
+    public int creditar(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor) {
+        return em.createQuery(CREDITAR)
+                .setParameter("valor", valor)
+                .setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setParameter("situacaoConta", SituacaoContaEnum.ATIVA)
+                .executeUpdate();
+    }
+
+    /**
+     * @param consumo total ja debitado no periodo somado a este debito; e ele que precisa caber no limite
+     */
+    public int debitar(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor, PeriodoLimiteEnum periodo,
+                       Dinheiro consumo) {
+        String debito = switch (periodo) {
+            case DIURNO -> DEBITAR_DIURNO;
+            case NOTURNO -> DEBITAR_NOTURNO;
+            case REDE_SEGURA -> DEBITAR_REDE_SEGURA;
+        };
+
+        return em.createQuery(debito)
+                .setParameter("valor", valor)
+                .setParameter("consumo", consumo)
+                .setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setParameter("situacaoConta", SituacaoContaEnum.ATIVA)
+                .executeUpdate();
+    }
+
+    /**
+     * Credito que devolve o saldo resultante no mesmo comando (RETURNING no PostgreSQL, OUTPUT no SQL Server,
+     * FINAL TABLE no H2). Em outro banco, o UPDATE e seguido de uma leitura do saldo.
+     *
+     * @return o saldo apos o credito, ou vazio se a conta nao foi atualizada
+     */
+    public Optional<Dinheiro> creditarRetornandoSaldo(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor) {
+        RetornoSaldo retorno = retornoSaldo();
+        if (retorno == RetornoSaldo.NENHUM) {
+            return creditar(cpfCnpj, tipoConta, valor) == 0 ? Optional.empty() : Optional.of(buscarSaldo(cpfCnpj, tipoConta));
+        }
+        return saldoRetornado(em.createNativeQuery(retorno.sql(SET_CREDITO, WHERE_CREDITO))
+                .setParameter("valor", valor.toBigDecimal())
+                .setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setParameter("situacaoConta", SituacaoContaEnum.ATIVA.name()));
+    }
+
+    /**
+     * Debito que devolve o saldo resultante no mesmo comando, como {@link #creditarRetornandoSaldo}.
+     *
+     * @return o saldo apos o debito, ou vazio se a conta nao foi atualizada
+     */
+    public Optional<Dinheiro> debitarRetornandoSaldo(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor,
+                                                     PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        RetornoSaldo retorno = retornoSaldo();
+        if (retorno == RetornoSaldo.NENHUM) {
+            return debitar(cpfCnpj, tipoConta, valor, periodo, consumo) == 0
+                    ? Optional.empty() : Optional.of(buscarSaldo(cpfCnpj, tipoConta));
+        }
+        String limite = switch (periodo) {
+            case DIURNO -> "limite_pix_diurno >= :consumo";
+            case NOTURNO -> "limite_pix_noturno >= :consumo";
+            case REDE_SEGURA -> "limite_pix_rede_segura >= :consumo";
+        };
+        return saldoRetornado(em.createNativeQuery(retorno.sql(SET_DEBITO, WHERE_DEBITO + limite))
+                .setParameter("valor", valor.toBigDecimal())
+                .setParameter("consumo", consumo.toBigDecimal())
+                .setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setParameter("situacaoConta", SituacaoContaEnum.ATIVA.name()));
+    }
+
+    // a ordenacao pela chave numerica garante a mesma ordem de lock entre lotes e transferencias concorrentes
+    public List<Cliente> findParaAtualizacao(Collection<Long> chaves) {
+        return em.createQuery(
+                "SELECT c FROM Cliente c WHERE c.chaveConta IN :chaves ORDER BY c.chaveConta",
+                Cliente.class
+        ).setParameter("chaves", chaves)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    public Optional<Cliente> findByCpfCnpjAndTipoContaParaAtualizacao(String cpfCnpj, TipoContaEnum tipoConta) {
+        return em.createQuery(
+                "SELECT c FROM Cliente c WHERE c.chaveConta = :chaveConta",
+                Cliente.class
+        ).setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    // mesma ordem de lock de findParaAtualizacao, para nao haver deadlock com o lote
+    public List<Cliente> findParaTransferencia(ChaveConta origem, ChaveConta destino) {
+        return findParaAtualizacao(List.of(origem.numerica(), destino.numerica()));
+    }
+
+    public Dinheiro buscarSaldo(String cpfCnpj, TipoContaEnum tipoConta) {
+        return em.createQuery(
+                "SELECT c.saldo FROM Cliente c WHERE c.chaveConta = :chaveConta",
+                Dinheiro.class
+        ).setParameter("chaveConta", ChaveConta.numerica(cpfCnpj, tipoConta))
+                .getSingleResult();
+    }
+
+    private Optional<Dinheiro> saldoRetornado(Query query) {
+        // como no UPDATE do JPQL: alteracoes pendentes de Cliente sao gravadas antes do comando
+        List<?> saldo = query.unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Cliente.class)
+                .getResultList();
+        if (saldo.isEmpty()) {
+            return Optional.empty();
+        }
+        Object valor = saldo.getFirst();
+        return Optional.of(Dinheiro.de(valor instanceof BigDecimal decimal ? decimal : new BigDecimal(valor.toString())));
+    }
+
+    private RetornoSaldo retornoSaldo() {
+        RetornoSaldo retorno = retornoSaldo;
+        if (retorno == null) {
+            retorno = RetornoSaldo.de(em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect());
+            retornoSaldo = retorno;
+        }
+        return retorno;
+    }
+
+    private enum RetornoSaldo {
+        POSTGRESQL,
+        SQL_SERVER,
+        H2,
+        NENHUM;
+
+        static RetornoSaldo de(Dialect dialect) {
+            if (dialect instanceof PostgreSQLDialect) {
+                return POSTGRESQL;
+            }
+            if (dialect instanceof SQLServerDialect) {
+                return SQL_SERVER;
+            }
+            if (dialect instanceof H2Dialect) {
+                return H2;
+            }
+            return NENHUM;
+        }
+
+        String sql(String set, String where) {
+            return switch (this) {
+                case POSTGRESQL -> "UPDATE cliente " + set + " " + where + " RETURNING saldo";
+                case SQL_SERVER -> "UPDATE cliente " + set + " OUTPUT inserted.saldo " + where;
+                case H2 -> "SELECT saldo FROM FINAL TABLE (UPDATE cliente " + set + " " + where + ")";
+                case NENHUM -> throw new IllegalStateException("Banco sem retorno de saldo no UPDATE");
+            };
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package org.viniciusvirgilli.dao;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.viniciusvirgilli.model.OperacaoIdempotente;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class OperacaoIdempotenteDao {
+
+    @Inject
+    EntityManager em;
+
+    public Optional<OperacaoIdempotente> findByChave(String chave) {
+        return Optional.ofNullable(em.find(OperacaoIdempotente.class, chave));
+    }
+
+    /**
+     * Insere e executa o INSERT na hora: com a chave ja gravada (ou em gravacao por outra transacao)
+     * a violacao da PK aparece aqui, antes de qualquer alteracao na conta.
+     */
+    public void inserir(OperacaoIdempotente registro) {
+        em.persist(registro);
+        em.flush();
+    }
+
+    public int removerCriadosAntesDe(long instante) {
+        return em.createQuery("DELETE FROM OperacaoIdempotente o WHERE o.criadoEm < :instante")
+                .setParameter("instante", instante)
+                .executeUpdate();
+    }
+}
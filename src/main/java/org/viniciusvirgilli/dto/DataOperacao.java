@@ -0,0 +1,35 @@
+package org.viniciusvirgilli.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.viniciusvirgilli.util.DataUtil;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data da operacao como enviada pelo cliente, ja convertida na desserializacao do JSON.
+ * O texto original e mantido para a resposta e para os logs; {@code dataHora} fica nulo quando o texto e invalido,
+ * e o validador rejeita a requisicao.
+ */
+public record DataOperacao(String texto, LocalDateTime dataHora) {
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static DataOperacao de(String texto) {
+        return texto == null ? null : new DataOperacao(texto, DataUtil.parseDataOperacao(texto));
+    }
+
+    public boolean isValida() {
+        return dataHora != null;
+    }
+
+    @JsonValue
+    @Override
+    public String texto() {
+        return texto;
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
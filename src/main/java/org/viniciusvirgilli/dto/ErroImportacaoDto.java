@@ -0,0 +1,25 @@
+package org.viniciusvirgilli.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.viniciusvirgilli.enums.ResultadoImportacaoEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ErroImportacaoDto {
+    private int linha;
+    private String cpfCnpj;
+    private TipoContaEnum tipoConta;
+    private ResultadoImportacaoEnum resultado;
+    private String mensagem;
+    private List<String> campos;
+}
@@ -0,0 +1,20 @@
+package org.viniciusvirgilli.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EstatisticasCacheDto {
+    private String nome;
+    private long tamanho;
+    private long tamanhoMaximo;
+    private long hits;
+    private long misses;
+    private double taxaAcerto;
+    private long evictions;
+}
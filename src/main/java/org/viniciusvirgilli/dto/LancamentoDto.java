@@ -0,0 +1,20 @@
+package org.viniciusvirgilli.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.model.Dinheiro;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LancamentoDto {
+    private String dataHora;
+    private TipoOperacaoEnum tipoOperacao;
+    private Dinheiro valor;
+    // saldo da conta logo apos a operacao
+    private Dinheiro saldo;
+}
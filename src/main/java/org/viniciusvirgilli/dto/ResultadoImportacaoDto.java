@@ -0,0 +1,17 @@
+package org.viniciusvirgilli.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoImportacaoDto {
+    private long linhas;
+    private long importados;
+    private long rejeitados;
+    private long linhasPorSegundo;
+    /** Rejeicoes alem do maximo do relatorio sao so contadas. */
+    private boolean errosOmitidos;
+    private List<ErroImportacaoDto> erros = new ArrayList<>();
+}
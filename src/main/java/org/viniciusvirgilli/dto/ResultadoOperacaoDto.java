@@ -0,0 +1,27 @@
+package org.viniciusvirgilli.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoOperacaoDto {
+    private int indice;
+    private String cpfCnpj;
+    private TipoContaEnum tipoConta;
+    private TipoOperacaoEnum tipoOperacao;
+    private ResultadoOperacaoEnum resultado;
+    private String mensagem;
+    private List<String> campos;
+}
@@ -0,0 +1,36 @@
+package org.viniciusvirgilli.dto;
+
+import lombok.Data;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+@Data
+public class TransferenciaDto {
+    private DataOperacao dataOperacao;
+    private String cpfCnpjOrigem;
+    private TipoContaEnum tipoContaOrigem;
+    private String cpfCnpjDestino;
+    private TipoContaEnum tipoContaDestino;
+    private ValorInformado valor;
+    private Boolean conectadoEmRedeSegura;
+
+    // cada perna da transferencia passa pelas mesmas regras (limite, journal) de um credito/debito avulso
+    public CreditoDebitoDto paraDebito() {
+        return perna(TipoOperacaoEnum.DEBITO, cpfCnpjOrigem, tipoContaOrigem);
+    }
+
+    public CreditoDebitoDto paraCredito() {
+        return perna(TipoOperacaoEnum.CREDITO, cpfCnpjDestino, tipoContaDestino);
+    }
+
+    private CreditoDebitoDto perna(TipoOperacaoEnum tipoOperacao, String cpfCnpj, TipoContaEnum tipoConta) {
+        CreditoDebitoDto perna = new CreditoDebitoDto();
+        perna.setTipoOperacao(tipoOperacao);
+        perna.setDataOperacao(dataOperacao);
+        perna.setCpfCnpj(cpfCnpj);
+        perna.setTipoConta(tipoConta);
+        perna.setValor(valor);
+        perna.setConectadoEmRedeSegura(conectadoEmRedeSegura);
+        return perna;
+    }
+}
@@ -0,0 +1,56 @@
+package org.viniciusvirgilli.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.IOException;
+
+/**
+ * Valor monetario como enviado pelo cliente, ja convertido para centavos na desserializacao do JSON.
+ * Mesma ideia de {@link DataOperacao}: {@code dinheiro} fica nulo quando o texto e invalido,
+ * e o validador rejeita a requisicao.
+ */
+@JsonDeserialize(using = ValorInformado.Desserializador.class)
+public record ValorInformado(String texto, Dinheiro dinheiro) {
+
+    public static ValorInformado de(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        long centavos = Dinheiro.parseCentavos(texto);
+        return new ValorInformado(texto, centavos == Dinheiro.INVALIDO ? null : Dinheiro.deCentavos(centavos));
+    }
+
+    public boolean isValido() {
+        return dinheiro != null;
+    }
+
+    @JsonValue
+    @Override
+    public String texto() {
+        return texto;
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    // aceita o valor como texto ou como numero, do mesmo jeito que o antigo campo String
+    public static class Desserializador extends JsonDeserializer<ValorInformado> {
+
+        @Override
+        public ValorInformado deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (ValorInformado) contexto.handleUnexpectedToken(ValorInformado.class, parser);
+            }
+            return de(parser.getText());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.viniciusvirgilli.enums;
+
+import org.viniciusvirgilli.util.MessageUtils;
+
+/**
+ * Codigos de erro dos validadores. A ordem das constantes e a ordem em que as mensagens aparecem na resposta,
+ * e cada codigo ocupa um bit, entao o conjunto de erros de uma requisicao cabe em um {@code long}.
+ */
+public enum ErroValidacaoEnum {
+    NOME_OBRIGATORIO("cliente.nome.obrigatorio"),
+    CPFCNPJ_OBRIGATORIO("cliente.cpfcnpj.obrigatorio"),
+    CPFCNPJ_INVALIDO("cliente.cpfcnpj.invalido"),
+    SALDO_OBRIGATORIO("cliente.saldo.obrigatorio"),
+    SALDO_INVALIDO("cliente.saldo.invalido"),
+    VALOR_OBRIGATORIO("creditoDebito.valor.obrigatorio"),
+    VALOR_INVALIDO("creditoDebito.valor.invalido"),
+    AGENCIA_OBRIGATORIO("cliente.agencia.obrigatorio"),
+    CONTA_OBRIGATORIO("cliente.conta.obrigatorio"),
+    CONTA_INVALIDO("cliente.conta.invalido"),
+    TIPOCONTA_OBRIGATORIO("cliente.tipoconta.obrigatorio"),
+    TIPOCONTA_INVALIDO("cliente.tipoconta.invalido"),
+    DATAOPERACAO_OBRIGATORIO("creditoDebito.dataoperacao.obrigatorio"),
+    DATAOPERACAO_INVALIDA("creditoDebito.dataoperacao.invalida"),
+    TIPOOPERACAO_OBRIGATORIO("creditoDebito.tipooperacao.obrigatorio"),
+    TIPOOPERACAO_INVALIDO("creditoDebito.tipooperacao.invalido"),
+    OPERACAO_OBRIGATORIO("cliente.operacao.obrigatorio"),
+    ISPBPARTICIPANTE_OBRIGATORIO("cliente.ispbparticipante.obrigatorio"),
+    ISPBPARTICIPANTE_INVALIDO("cliente.ispbparticipante.invalido"),
+    SITUACAOCONTA_OBRIGATORIO("cliente.situacaoconta.obrigatorio"),
+    LIMITEPIXDIURNO_OBRIGATORIO("cliente.limitepixdiurno.obrigatorio"),
+    LIMITEPIXDIURNO_INVALIDO("cliente.limitepixdiurno.invalido"),
+    LIMITEPIXNOTURNO_OBRIGATORIO("cliente.limitepixnoturno.obrigatorio"),
+    LIMITEPIXNOTURNO_INVALIDO("cliente.limitepixnoturno.invalido"),
+    LIMITEPIXREDESEGURA_OBRIGATORIO("cliente.limitepixredesegura.obrigatorio"),
+    LIMITEPIXREDESEGURA_INVALIDO("cliente.limitepixredesegura.invalido"),
+    CPFCNPJDESTINO_OBRIGATORIO("transferencia.cpfcnpjdestino.obrigatorio"),
+    CPFCNPJDESTINO_INVALIDO("transferencia.cpfcnpjdestino.invalido"),
+    TIPOCONTADESTINO_OBRIGATORIO("transferencia.tipocontadestino.obrigatorio"),
+    TIPOCONTADESTINO_INVALIDO("transferencia.tipocontadestino.invalido"),
+    DESTINO_IGUAL_ORIGEM("transferencia.destino.igualorigem");
+
+    private static final ErroValidacaoEnum[] VALORES = values();
+
+    private final String chaveMensagem;
+    private final long bit;
+
+    ErroValidacaoEnum(String chaveMensagem) {
+        this.chaveMensagem = chaveMensagem;
+        this.bit = 1L << ordinal();
+    }
+
+    public long bit() {
+        return bit;
+    }
+
+    public String getMensagem() {
+        return MessageUtils.getString(chaveMensagem);
+    }
+
+    public static ErroValidacaoEnum[] deBits(long erros) {
+        ErroValidacaoEnum[] encontrados = new ErroValidacaoEnum[Long.bitCount(erros)];
+        int i = 0;
+        for (ErroValidacaoEnum erro : VALORES) {
+            if ((erros & erro.bit) != 0) {
+                encontrados[i++] = erro;
+            }
+        }
+        return encontrados;
+    }
+}
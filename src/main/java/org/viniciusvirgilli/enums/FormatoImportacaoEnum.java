@@ -0,0 +1,23 @@
+package org.viniciusvirgilli.enums;
+
+public enum FormatoImportacaoEnum {
+    CSV("text/csv", "CSV com cabeçalho"),
+    JSONL("application/x-ndjson", "um JSON de cadastro por linha");
+
+    private final String contentType;
+
+    FormatoImportacaoEnum(String contentType, String descricao) {
+        this.contentType = contentType;
+    }
+
+    public static FormatoImportacaoEnum deContentType(String contentType) {
+        if (contentType != null) {
+            for (FormatoImportacaoEnum formato : values()) {
+                if (contentType.startsWith(formato.contentType)) {
+                    return formato;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Informe o formato (CSV ou JSONL) ou um Content-Type text/csv ou application/x-ndjson");
+    }
+}
@@ -0,0 +1,8 @@
+package org.viniciusvirgilli.enums;
+
+public enum ModoRateLimitEnum {
+    LOCAL("baldes em memoria, por instancia"),
+    DISTRIBUIDO("baldes no banco, compartilhados entre as instancias");
+
+    ModoRateLimitEnum(String descricao) {}
+}
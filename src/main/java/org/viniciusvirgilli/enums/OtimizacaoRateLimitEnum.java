@@ -0,0 +1,10 @@
+package org.viniciusvirgilli.enums;
+
+public enum OtimizacaoRateLimitEnum {
+    NENHUMA("toda requisicao sincroniza com o banco"),
+    BATCH("requisicoes concorrentes do mesmo IP viram uma unica sincronizacao"),
+    DELAY("consome tokens localmente e sincroniza a cada N tokens ou intervalo"),
+    PREDICAO("como DELAY, estimando o consumo das outras instancias");
+
+    OtimizacaoRateLimitEnum(String descricao) {}
+}
@@ -0,0 +1,9 @@
+package org.viniciusvirgilli.enums;
+
+public enum PeriodoLimiteEnum {
+    DIURNO("limite pix diurno"),
+    NOTURNO("limite pix noturno"),
+    REDE_SEGURA("limite pix em rede segura");
+
+    PeriodoLimiteEnum(String descricao) {}
+}
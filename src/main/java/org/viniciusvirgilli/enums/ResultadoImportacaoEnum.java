@@ -0,0 +1,18 @@
+package org.viniciusvirgilli.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum ResultadoImportacaoEnum {
+    IMPORTADO("Cliente cadastrado"),
+    INVALIDO("Campo(s) com problema(s)"),
+    MALFORMADO("Linha não pôde ser lida"),
+    DUPLICADO("Cliente já cadastrado"),
+    ERRO("Erro ao gravar o bloco da linha");
+
+    private final String mensagem;
+
+    ResultadoImportacaoEnum(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
@@ -0,0 +1,52 @@
+package org.viniciusvirgilli.enums;
+
+import lombok.Getter;
+import org.viniciusvirgilli.exception.ClienteNaoEncontradoException;
+import org.viniciusvirgilli.exception.ContaInativaException;
+import org.viniciusvirgilli.exception.ForaDoLimiteException;
+import org.viniciusvirgilli.exception.NegocioException;
+import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.exception.ValidadorException;
+
+@Getter
+public enum ResultadoOperacaoEnum {
+    OK("Operação realizada"),
+    SALDO_INSUFICIENTE("Saldo insuficiente"),
+    FORA_DO_LIMITE("Limite de PIX não permitido"),
+    CONTA_INATIVA("Cliente não está ativo"),
+    CLIENTE_NAO_ENCONTRADO("Cliente não encontrado"),
+    INVALIDO("Campo(s) com problema(s)");
+
+    private final String mensagem;
+
+    ResultadoOperacaoEnum(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * @return a excecao da recusa, ou {@code null} para {@link #OK} e {@link #INVALIDO}, cujos campos o resultado nao guarda
+     */
+    public NegocioException recusa() {
+        return switch (this) {
+            case OK, INVALIDO -> null;
+            case SALDO_INSUFICIENTE -> new SaldoNaoSuficienteException(mensagem);
+            case FORA_DO_LIMITE -> new ForaDoLimiteException(mensagem);
+            case CONTA_INATIVA -> new ContaInativaException();
+            case CLIENTE_NAO_ENCONTRADO -> new ClienteNaoEncontradoException();
+        };
+    }
+
+    /**
+     * @return o resultado correspondente a recusa, ou {@code null} se a falha nao for uma regra de negocio
+     */
+    public static ResultadoOperacaoEnum daFalha(Throwable falha) {
+        return switch (falha) {
+            case SaldoNaoSuficienteException e -> SALDO_INSUFICIENTE;
+            case ForaDoLimiteException e -> FORA_DO_LIMITE;
+            case ContaInativaException e -> CONTA_INATIVA;
+            case ClienteNaoEncontradoException e -> CLIENTE_NAO_ENCONTRADO;
+            case ValidadorException e -> INVALIDO;
+            default -> null;
+        };
+    }
+}
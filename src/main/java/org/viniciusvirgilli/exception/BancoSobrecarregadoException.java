@@ -0,0 +1,13 @@
+package org.viniciusvirgilli.exception;
+
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+
+@Getter
+public class BancoSobrecarregadoException extends NegocioException {
+    private final int status = Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
+
+    public BancoSobrecarregadoException() {
+        super("Serviço sobrecarregado, tente novamente");
+    }
+}
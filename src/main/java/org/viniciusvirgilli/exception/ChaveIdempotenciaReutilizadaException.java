@@ -0,0 +1,12 @@
+package org.viniciusvirgilli.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ChaveIdempotenciaReutilizadaException extends NegocioException {
+    private final int status = 422;
+
+    public ChaveIdempotenciaReutilizadaException() {
+        super("Idempotency-Key já utilizada em outra operação");
+    }
+}
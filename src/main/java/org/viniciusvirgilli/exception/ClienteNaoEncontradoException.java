@@ -4,7 +4,7 @@ import jakarta.ws.rs.core.Response;
 import lombok.Getter;
 
 @Getter
-public class ClienteNaoEncontradoException extends RuntimeException {
+public class ClienteNaoEncontradoException extends NegocioException {
     private final int status = Response.Status.NOT_FOUND.getStatusCode();
 
     public ClienteNaoEncontradoException() {
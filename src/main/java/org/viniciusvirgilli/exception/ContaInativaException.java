@@ -0,0 +1,12 @@
+package org.viniciusvirgilli.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ContaInativaException extends NegocioException {
+    private final int status = 422;
+
+    public ContaInativaException() {
+        super("Cliente não está ativo");
+    }
+}
@@ -3,7 +3,7 @@ package org.viniciusvirgilli.exception;
 import lombok.Getter;
 
 @Getter
-public class ForaDoLimiteException extends RuntimeException {
+public class ForaDoLimiteException extends NegocioException {
     private final int status = 422;
 
     public ForaDoLimiteException(String message) {
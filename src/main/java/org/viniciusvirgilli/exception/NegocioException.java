@@ -0,0 +1,14 @@
+package org.viniciusvirgilli.exception;
+
+/**
+ * Recusa prevista pelas regras de negocio (cliente inexistente, saldo, limite, validacao...). Faz parte do fluxo
+ * normal e vira uma resposta 4xx, entao nao preenche stack trace e nao deve ser logada como erro.
+ */
+public abstract class NegocioException extends RuntimeException {
+
+    protected NegocioException(String mensagem) {
+        super(mensagem, null, false, false);
+    }
+
+    public abstract int getStatus();
+}
@@ -0,0 +1,13 @@
+package org.viniciusvirgilli.exception;
+
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+
+@Getter
+public class OperacaoEmAndamentoException extends NegocioException {
+    private final int status = Response.Status.CONFLICT.getStatusCode();
+
+    public OperacaoEmAndamentoException() {
+        super("Operação com esta Idempotency-Key em andamento, tente novamente");
+    }
+}
@@ -0,0 +1,21 @@
+package org.viniciusvirgilli.exception;
+
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+
+/**
+ * Operacao que a configuracao atual nao suporta (ex.: transferencia com o motor de saldo ativo).
+ * Repetir a requisicao nao muda o resultado, por isso a resposta nao tem {@code Retry-After}.
+ */
+@Getter
+public class OperacaoIndisponivelException extends NegocioException {
+    public static final String TRANSFERENCIA_COM_MOTOR = "Transferência indisponível com o motor de saldo ativo";
+    public static final String REATIVA_COM_MOTOR = "Operações reativas indisponíveis com o motor de saldo ativo";
+    public static final String LIMITE_SEM_CONCESSAO = "Débitos indisponíveis: os contadores de limite PIX estão com outra instância";
+
+    private final int status = Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
+
+    public OperacaoIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+}
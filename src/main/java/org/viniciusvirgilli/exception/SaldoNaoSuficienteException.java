@@ -3,7 +3,7 @@ package org.viniciusvirgilli.exception;
 import lombok.Getter;
 
 @Getter
-public class SaldoNaoSuficienteException extends RuntimeException {
+public class SaldoNaoSuficienteException extends NegocioException {
     private final int status = 422;
 
     public SaldoNaoSuficienteException(String message) {
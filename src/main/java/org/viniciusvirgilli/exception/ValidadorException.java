@@ -1,17 +1,40 @@
 package org.viniciusvirgilli.exception;
 
 import lombok.Getter;
+import org.viniciusvirgilli.enums.ErroValidacaoEnum;
 import org.viniciusvirgilli.exception.dto.CamposComProblemasDto;
 import jakarta.ws.rs.core.Response;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
-public class ValidadorException extends RuntimeException {
+public class ValidadorException extends NegocioException {
 
-    private int codigoHTTP = Response.Status.BAD_REQUEST.getStatusCode();
+    private final int status = Response.Status.BAD_REQUEST.getStatusCode();
+    private long erros;
+    @Getter(lombok.AccessLevel.NONE)
     private CamposComProblemasDto camposComProblemas;
 
     public ValidadorException(CamposComProblemasDto camposComProblemas) {
         super("Campo(s) com problema(s)");
         this.camposComProblemas = camposComProblemas;
     }
+
+    public ValidadorException(long erros) {
+        super("Campo(s) com problema(s)");
+        this.erros = erros;
+    }
+
+    // as mensagens so sao montadas quando a resposta de erro e de fato gerada
+    public CamposComProblemasDto getCamposComProblemas() {
+        if (camposComProblemas == null) {
+            List<String> campos = new ArrayList<>(Long.bitCount(erros));
+            for (ErroValidacaoEnum erro : ErroValidacaoEnum.deBits(erros)) {
+                campos.add(erro.getMensagem());
+            }
+            camposComProblemas = new CamposComProblemasDto(campos);
+        }
+        return camposComProblemas;
+    }
 }
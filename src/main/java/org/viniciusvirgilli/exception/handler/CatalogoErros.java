@@ -0,0 +1,149 @@
+package org.viniciusvirgilli.exception.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.viniciusvirgilli.enums.ErroValidacaoEnum;
+import org.viniciusvirgilli.exception.*;
+import org.viniciusvirgilli.exception.dto.ErroDetailCamposDto;
+import org.viniciusvirgilli.exception.dto.ErroDetailDto;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corpos JSON das respostas de erro de negocio, serializados uma unica vez. Cada corpo e guardado em duas partes,
+ * antes e depois do timestamp; a resposta so junta as partes com o timestamp do segundo corrente, tambem cacheado.
+ */
+@ApplicationScoped
+public class CatalogoErros {
+
+    // corpos montados sob demanda (combinacoes de campos invalidos, mensagens novas) ate este limite
+    private static final int MAXIMO_CORPOS = 1024;
+
+    private static final Date REFERENCIA = new Date(0);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Map<String, Corpo> corpos = new ConcurrentHashMap<>();
+    private final Map<Long, Corpo> corposValidacao = new ConcurrentHashMap<>();
+
+    private String carimboReferencia;
+    private volatile Carimbo carimbo = new Carimbo(Long.MIN_VALUE, null);
+
+    @PostConstruct
+    void iniciar() {
+        carimboReferencia = formatar(REFERENCIA);
+
+        corpo(new ClienteNaoEncontradoException());
+        corpo(new ClienteJaCadastradoException());
+        corpo(new ContaInativaException());
+        corpo(new SaldoNaoSuficienteException("Saldo insuficiente"));
+        corpo(new ForaDoLimiteException("Limite de PIX não permitido"));
+        corpo(new OperacaoIndisponivelException(OperacaoIndisponivelException.TRANSFERENCIA_COM_MOTOR));
+        corpo(new OperacaoIndisponivelException(OperacaoIndisponivelException.REATIVA_COM_MOTOR));
+        corpo(new OperacaoIndisponivelException(OperacaoIndisponivelException.LIMITE_SEM_CONCESSAO));
+        corpo(Response.Status.CONFLICT.getStatusCode(), ExceptionHandler.MENSAGEM_CONFLITO);
+        for (ErroValidacaoEnum erro : ErroValidacaoEnum.values()) {
+            corpo(new ValidadorException(erro.bit()));
+        }
+    }
+
+    /**
+     * @return o corpo JSON pronto, ou {@code null} se a recusa nao tem corpo cacheavel
+     */
+    public byte[] corpo(NegocioException recusa) {
+        if (recusa instanceof ValidadorException validacao) {
+            return validacao.getErros() == 0 ? null : corpoValidacao(validacao);
+        }
+        return corpo(recusa.getStatus(), recusa.getMessage());
+    }
+
+    public byte[] corpo(int status, String mensagem) {
+        Corpo corpo = corpos.get(status + mensagem);
+        if (corpo == null) {
+            corpo = dividir(ErroDetailDto.builder()
+                    .message(mensagem)
+                    .status(status)
+                    .timestamp(REFERENCIA)
+                    .build());
+            if (corpos.size() < MAXIMO_CORPOS) {
+                corpos.putIfAbsent(status + mensagem, corpo);
+            }
+        }
+        return corpo.montar(carimboAtual());
+    }
+
+    private byte[] corpoValidacao(ValidadorException validacao) {
+        Corpo corpo = corposValidacao.get(validacao.getErros());
+        if (corpo == null) {
+            corpo = dividir(ErroDetailCamposDto.builder()
+                    .message(validacao.getMessage())
+                    .status(validacao.getStatus())
+                    .timestamp(REFERENCIA)
+                    .camposComProblemasDto(validacao.getCamposComProblemas())
+                    .build());
+            if (corposValidacao.size() < MAXIMO_CORPOS) {
+                corposValidacao.putIfAbsent(validacao.getErros(), corpo);
+            }
+        }
+        return corpo.montar(carimboAtual());
+    }
+
+    private Corpo dividir(Object erro) {
+        String json = serializar(erro);
+        int inicio = json.indexOf(carimboReferencia);
+        return new Corpo(
+                json.substring(0, inicio).getBytes(StandardCharsets.UTF_8),
+                json.substring(inicio + carimboReferencia.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] carimboAtual() {
+        long segundo = System.currentTimeMillis() / 1000;
+        Carimbo atual = carimbo;
+        if (atual.segundo() != segundo) {
+            atual = new Carimbo(segundo, formatar(new Date(segundo * 1000)).getBytes(StandardCharsets.UTF_8));
+            carimbo = atual;
+        }
+        return atual.texto();
+    }
+
+    // o timestamp sai no formato do @JsonFormat de ErroDetailDto
+    private String formatar(Date data) {
+        try {
+            return objectMapper.readTree(serializar(ErroDetailDto.builder().timestamp(data).build()))
+                    .get("timestamp").asText();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String serializar(Object erro) {
+        try {
+            return objectMapper.writeValueAsString(erro);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Carimbo(long segundo, byte[] texto) {
+    }
+
+    private record Corpo(byte[] antes, byte[] depois) {
+
+        byte[] montar(byte[] carimbo) {
+            byte[] json = new byte[antes.length + carimbo.length + depois.length];
+            System.arraycopy(antes, 0, json, 0, antes.length);
+            System.arraycopy(carimbo, 0, json, antes.length, carimbo.length);
+            System.arraycopy(depois, 0, json, antes.length + carimbo.length, depois.length);
+            return json;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package org.viniciusvirgilli.exception.handler;
 
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.Provider;
 import org.viniciusvirgilli.exception.*;
@@ -7,16 +12,30 @@ import org.viniciusvirgilli.exception.dto.ErroDetailCamposDto;
 import org.viniciusvirgilli.exception.dto.ErroDetailDto;
 
 import jakarta.ws.rs.ext.ExceptionMapper;
+import org.hibernate.StaleStateException;
+import org.viniciusvirgilli.serializacao.FormatosSerializacao;
 
 import java.util.Date;
 
 @Provider
 public class ExceptionHandler implements ExceptionMapper<Exception> {
 
+    static final String MENSAGEM_CONFLITO = "Conta alterada por outra operação, tente novamente";
+
+    @Inject
+    CatalogoErros catalogo;
+
+    @Context
+    HttpHeaders headers;
+
     @Override
     public Response toResponse(Exception e) {
         Throwable cause = getCause(e);
 
+        if (cause instanceof NegocioException recusa) {
+            return recusa(recusa);
+        }
+
         if (cause instanceof IllegalArgumentException) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(ErroDetailDto.builder()
@@ -27,68 +46,67 @@ public class ExceptionHandler implements ExceptionMapper<Exception> {
                     .build();
         }
 
-        if (cause instanceof ValidadorException validadorException) {
-            return Response.status(validadorException.getCodigoHTTP())
-                    .entity(ErroDetailCamposDto.builder()
-                            .message(validadorException.getMessage())
-                            .status(validadorException.getCodigoHTTP())
-                            .timestamp(new Date())
-                            .camposComProblemasDto(validadorException.getCamposComProblemas())
-                            .build())
-                    .build();
-
-        }
-
-        if (cause instanceof ClienteJaCadastradoException cje) {
-            return Response.status(cje.getCodigoHTTP())
+        if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+            int status = Response.Status.CONFLICT.getStatusCode();
+            if (isJson()) {
+                return Response.status(status)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .entity(catalogo.corpo(status, MENSAGEM_CONFLITO))
+                        .build();
+            }
+            return Response.status(status)
                     .entity(ErroDetailDto.builder()
-                            .message(cje.getMessage())
-                            .status(cje.getCodigoHTTP())
+                            .message(MENSAGEM_CONFLITO)
+                            .status(status)
                             .timestamp(new Date())
                             .build())
                     .build();
         }
 
-        if (cause instanceof ClienteNaoEncontradoException cje) {
-            return Response.status(cje.getStatus())
-                    .entity(ErroDetailDto.builder()
-                            .message(cje.getMessage())
-                            .status(cje.getStatus())
-                            .timestamp(new Date())
-                            .build())
-                    .build();
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(ErroDetailDto.builder()
+                        .message(e.getMessage())
+                        .status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode())
+                        .timestamp(new Date())
+                        .build())
+                .build();
+
+    }
+
+    // recusas de negocio em JSON saem do catalogo; CBOR/Smile e validacao sem campos montam o DTO
+    private Response recusa(NegocioException recusa) {
+        Response.ResponseBuilder resposta = Response.status(recusa.getStatus());
+        if (recusa instanceof OperacaoEmAndamentoException || recusa instanceof BancoSobrecarregadoException) {
+            resposta.header(HttpHeaders.RETRY_AFTER, 1);
         }
 
-        if (cause instanceof ForaDoLimiteException fora) {
-            return Response.status(fora.getStatus())
-                    .entity(ErroDetailDto.builder()
-                            .message(fora.getMessage())
-                            .status(fora.getStatus())
-                            .timestamp(new Date())
-                            .build())
-                    .build();
+        byte[] corpo = isJson() ? catalogo.corpo(recusa) : null;
+        if (corpo != null) {
+            return resposta.type(MediaType.APPLICATION_JSON_TYPE).entity(corpo).build();
         }
 
-        if (cause instanceof SaldoNaoSuficienteException saldo) {
-            return Response.status(saldo.getStatus())
-                    .entity(ErroDetailDto.builder()
-                            .message(saldo.getMessage())
-                            .status(saldo.getStatus())
+        if (recusa instanceof ValidadorException validadorException) {
+            return resposta
+                    .entity(ErroDetailCamposDto.builder()
+                            .message(validadorException.getMessage())
+                            .status(validadorException.getStatus())
                             .timestamp(new Date())
+                            .camposComProblemasDto(validadorException.getCamposComProblemas())
                             .build())
                     .build();
         }
 
-
-
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+        return resposta
                 .entity(ErroDetailDto.builder()
-                        .message(e.getMessage())
-                        .status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode())
+                        .message(recusa.getMessage())
+                        .status(recusa.getStatus())
                         .timestamp(new Date())
                         .build())
                 .build();
+    }
 
+    private boolean isJson() {
+        return !FormatosSerializacao.isBinario(FormatosSerializacao.negociar(headers.getAcceptableMediaTypes()));
     }
 
     private Throwable getCause(Throwable throwable) {
@@ -0,0 +1,16 @@
+package org.viniciusvirgilli.historico;
+
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+/**
+ * Uma linha de {@code historico_operacao} como lida para o extrato; {@code instante} (epoch ms), {@code instancia}
+ * e {@code sequencia} formam a chave da paginacao.
+ */
+public record Lancamento(long instante, String instancia, long sequencia, TipoOperacaoEnum tipoOperacao,
+                         long valorCentavos, long saldoCentavos) {
+
+    /** Saldo da conta imediatamente antes desta operacao. */
+    public long saldoAnteriorCentavos() {
+        return tipoOperacao == TipoOperacaoEnum.CREDITO ? saldoCentavos - valorCentavos : saldoCentavos + valorCentavos;
+    }
+}
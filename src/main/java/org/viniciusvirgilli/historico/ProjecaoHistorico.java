@@ -0,0 +1,149 @@
+package org.viniciusvirgilli.historico;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.journal.JournalOperacoes;
+import org.viniciusvirgilli.journal.LeitorJournal;
+import org.viniciusvirgilli.journal.RegistroOperacao;
+import org.viniciusvirgilli.model.HistoricoOperacao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copia o journal de operacoes para {@code historico_operacao}, fora do caminho do credito/debito: o journal
+ * ja e gravado em cada transacao (a leitura so passa de um registro depois do commit e pula os desfeitos), e
+ * aqui ele e acompanhado (tail) e inserido em lotes JDBC. A posicao e a maior
+ * sequencia ja inserida pela instancia, lida da propria tabela; depois de uma falha a leitura recomeca dela,
+ * entao um lote nunca entra duas vezes.
+ */
+@Slf4j
+@ApplicationScoped
+public class ProjecaoHistorico {
+
+    @ConfigProperty(name = "historico.enable", defaultValue = "true")
+    boolean enable;
+
+    // identifica o journal desta instancia. Sem valor padrao: cada replica (ou journal recriado do zero) precisa
+    // de um id proprio e estavel entre restarts, senao as sequencias de journals diferentes se misturam na tabela
+    @ConfigProperty(name = "historico.instancia")
+    Optional<String> instanciaConfigurada;
+
+    @ConfigProperty(name = "historico.lote", defaultValue = "1000")
+    int tamanhoLote;
+
+    @Inject
+    JournalOperacoes journal;
+
+    @Inject
+    TabelaHistoricoOperacao tabela;
+
+    @Inject
+    MeterRegistry registry;
+
+    private String instancia;
+    private LeitorJournal leitor;
+    private volatile long sequenciaProjetada;
+    private Counter projetadas;
+
+    @PostConstruct
+    void iniciar() {
+        projetadas = Counter.builder("historico.projetadas")
+                .description("Operacoes do journal inseridas no historico")
+                .register(registry);
+        Gauge.builder("historico.atraso", this, p -> p.leitor == null ? 0 : journal.getSequenciaGravada() - p.sequenciaProjetada)
+                .description("Operacoes ja no journal e ainda fora do historico")
+                .register(registry);
+    }
+
+    // depois do journal, que abre na prioridade padrao e define a sequencia gravada
+    void verificar(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent event) {
+        if (!isAtivo()) {
+            return;
+        }
+
+        instancia = instanciaConfigurada.map(String::strip).filter(id -> !id.isEmpty())
+                .orElseThrow(() -> new IllegalStateException("historico.instancia é obrigatório com o histórico ativo: "
+                        + "use um id estável e diferente para cada réplica"));
+        if (instancia.length() > HistoricoOperacao.TAMANHO_INSTANCIA) {
+            throw new IllegalStateException("historico.instancia deve ter até " + HistoricoOperacao.TAMANHO_INSTANCIA
+                    + " caracteres: " + instancia);
+        }
+
+        try {
+            verificarPosicao(tabela.ultimaSequencia(instancia));
+        } catch (SQLException e) {
+            // a mesma verificacao e feita ao abrir o journal, no primeiro ciclo
+            log.warn("[HISTORICO] - Não foi possível conferir a posição do histórico na subida: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAtivo() {
+        return enable && journal.isAtivo();
+    }
+
+    /** Chamado pelo scheduler, sem execucoes concorrentes. Insere lotes ate alcancar o fim do journal. */
+    public void projetar() {
+        if (!isAtivo()) {
+            return;
+        }
+
+        try {
+            if (leitor == null) {
+                abrir();
+            }
+            List<RegistroOperacao> lote;
+            do {
+                lote = ler();
+                if (!lote.isEmpty()) {
+                    tabela.inserir(instancia, lote);
+                    sequenciaProjetada = lote.getLast().sequencia();
+                    projetadas.increment(lote.size());
+                }
+            } while (lote.size() == tamanhoLote);
+        } catch (Exception e) {
+            // o lote lido e descartado: a proxima execucao reabre o journal a partir do que esta na tabela
+            leitor = null;
+            log.warn("[HISTORICO] - Erro ao copiar o journal para o histórico, nova tentativa no próximo ciclo: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void abrir() throws Exception {
+        long ultima = tabela.ultimaSequencia(instancia);
+        verificarPosicao(ultima);
+        leitor = journal.leitor(ultima + 1);
+        sequenciaProjetada = ultima;
+        log.info("[HISTORICO] - Copiando o journal para o histórico a partir da sequência {}", ultima + 1);
+    }
+
+    // com a tabela a frente, as novas operacoes do journal teriam sequencias ja usadas e nunca seriam copiadas
+    private void verificarPosicao(long ultima) {
+        if (ultima > journal.getSequenciaGravada()) {
+            throw new IllegalStateException("Histórico da instância " + instancia + " está na sequência " + ultima
+                    + ", à frente do journal (" + journal.getSequenciaGravada() + "): journal recriado? "
+                    + "Use outro historico.instancia");
+        }
+    }
+
+    private List<RegistroOperacao> ler() throws Exception {
+        List<RegistroOperacao> lote = new ArrayList<>(Math.min(tamanhoLote, 1024));
+        RegistroOperacao registro;
+        while (lote.size() < tamanhoLote && (registro = leitor.proximo()) != null) {
+            lote.add(registro);
+        }
+        return lote;
+    }
+}
@@ -0,0 +1,148 @@
+package org.viniciusvirgilli.historico;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.journal.RegistroOperacao;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Leitura e gravacao da tabela {@code historico_operacao} via JDBC. Todas as consultas do extrato sao faixas
+ * do indice (chave_conta, instante, instancia, sequencia): o custo depende do tamanho da pagina, nao do historico
+ * da conta. Replicas diferentes podem gravar a mesma sequencia no mesmo instante, por isso a instancia faz parte
+ * da ordem e do cursor da paginacao.
+ * O ORDER BY repete as colunas do indice e o limite vai no SQL ({@code OFFSET/FETCH}, aceito por PostgreSQL,
+ * SQL Server e H2) para que o banco leia o indice ja ordenado e pare no limite, em vez de ordenar a faixa toda.
+ */
+@ApplicationScoped
+public class TabelaHistoricoOperacao {
+
+    private static final String INSERT =
+            "INSERT INTO historico_operacao (instancia, sequencia, chave_conta, instante, tipo_operacao, valor_centavos, " +
+            "saldo_centavos) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ULTIMA_SEQUENCIA =
+            "SELECT MAX(sequencia) FROM historico_operacao WHERE instancia = ?";
+    private static final String ULTIMO_ANTES =
+            "SELECT saldo_centavos FROM historico_operacao WHERE chave_conta = ? AND instante < ? " +
+            "ORDER BY chave_conta DESC, instante DESC, instancia DESC, sequencia DESC OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY";
+    private static final String PRIMEIRO_A_PARTIR =
+            "SELECT instante, instancia, sequencia, tipo_operacao, valor_centavos, saldo_centavos FROM historico_operacao " +
+            "WHERE chave_conta = ? AND instante >= ? ORDER BY chave_conta, instante, instancia, sequencia " +
+            "OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY";
+    // instante >= ? delimita a faixa do indice; o restante so descarta o que ja saiu na pagina anterior
+    // (comparacao de (instante, instancia, sequencia) escrita por extenso, sem row value, por causa do SQL Server)
+    private static final String LANCAMENTOS =
+            "SELECT instante, instancia, sequencia, tipo_operacao, valor_centavos, saldo_centavos FROM historico_operacao " +
+            "WHERE chave_conta = ? AND instante >= ? AND instante < ? " +
+            "AND (instante > ? OR instancia > ? OR (instancia = ? AND sequencia > ?)) " +
+            "ORDER BY chave_conta, instante, instancia, sequencia OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    @Inject
+    DataSource dataSource;
+
+    /** Um lote do journal em uma transacao: ou entra inteiro, ou nada entra. */
+    void inserir(String instancia, List<RegistroOperacao> registros) throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            try (PreparedStatement insert = conexao.prepareStatement(INSERT)) {
+                for (RegistroOperacao registro : registros) {
+                    insert.setString(1, instancia);
+                    insert.setLong(2, registro.sequencia());
+                    insert.setLong(3, ChaveConta.numerica(registro.cpfCnpj(), registro.tipoConta()));
+                    insert.setLong(4, registro.timestamp());
+                    insert.setString(5, registro.tipoOperacao().name());
+                    insert.setLong(6, registro.valorCentavos());
+                    insert.setLong(7, registro.saldoCentavos());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                conexao.commit();
+            } catch (SQLException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** @return a ultima sequencia do journal ja projetada pela instancia, ou 0 */
+    long ultimaSequencia(String instancia) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement select = conexao.prepareStatement(ULTIMA_SEQUENCIA)) {
+            select.setString(1, instancia);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /** Saldo resultante da ultima operacao da conta antes do instante, se houver alguma. */
+    public OptionalLong saldoAntes(long chaveConta, long instante) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement select = conexao.prepareStatement(ULTIMO_ANTES)) {
+            select.setLong(1, chaveConta);
+            select.setLong(2, instante);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? OptionalLong.of(rs.getLong(1)) : OptionalLong.empty();
+            }
+        }
+    }
+
+    /** Primeira operacao da conta a partir do instante, se houver alguma. */
+    public Lancamento primeiroAPartirDe(long chaveConta, long instante) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement select = conexao.prepareStatement(PRIMEIRO_A_PARTIR)) {
+            select.setLong(1, chaveConta);
+            select.setLong(2, instante);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? lancamento(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Entrega as operacoes da conta em [inicio, fim) posteriores a (aPartirDoInstante, aPartirDaInstancia,
+     * aPartirDaSequencia), em ordem. Sem autocommit para que o driver respeite o fetch size (no PostgreSQL).
+     */
+    public void percorrer(long chaveConta, long inicio, long fim, long aPartirDoInstante, String aPartirDaInstancia,
+                          long aPartirDaSequencia, int limite, int fetchSize, Consumer<Lancamento> consumidor)
+            throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            try (PreparedStatement select = conexao.prepareStatement(LANCAMENTOS)) {
+                select.setFetchSize(Math.min(fetchSize, limite));
+                select.setLong(1, chaveConta);
+                select.setLong(2, Math.max(inicio, aPartirDoInstante));
+                select.setLong(3, fim);
+                select.setLong(4, aPartirDoInstante);
+                select.setString(5, aPartirDaInstancia);
+                select.setString(6, aPartirDaInstancia);
+                select.setLong(7, aPartirDaSequencia);
+                select.setInt(8, limite);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        consumidor.accept(lancamento(rs));
+                    }
+                }
+                conexao.commit();
+            } finally {
+                conexao.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static Lancamento lancamento(ResultSet rs) throws SQLException {
+        return new Lancamento(rs.getLong(1), rs.getString(2), rs.getLong(3), TipoOperacaoEnum.valueOf(rs.getString(4)),
+                rs.getLong(5), rs.getLong(6));
+    }
+}
@@ -0,0 +1,179 @@
+package org.viniciusvirgilli.idempotencia;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+import org.viniciusvirgilli.dao.OperacaoIdempotenteDao;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.exception.ChaveIdempotenciaReutilizadaException;
+import org.viniciusvirgilli.exception.OperacaoEmAndamentoException;
+import org.viniciusvirgilli.model.OperacaoIdempotente;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resultados das operacoes enviadas com {@code Idempotency-Key}. Uma janela em memoria (Caffeine, com TTL)
+ * responde as repeticoes recentes sem ir ao banco; a tabela {@code operacao_idempotente} e a fonte de
+ * verdade e cobre repeticoes apos a janela ou um restart, ate {@code operacao.idempotencia.retencao}.
+ */
+@Slf4j
+@ApplicationScoped
+public class JanelaIdempotencia {
+
+    private static final String METRICA = "operacao.idempotencia.repeticoes";
+
+    @ConfigProperty(name = "operacao.idempotencia.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "operacao.idempotencia.janela.tamanho-maximo", defaultValue = "100000")
+    long tamanhoMaximo;
+
+    @ConfigProperty(name = "operacao.idempotencia.janela.ttl", defaultValue = "10m")
+    Duration ttl;
+
+    @ConfigProperty(name = "operacao.idempotencia.retencao", defaultValue = "24h")
+    Duration retencao;
+
+    @Inject
+    OperacaoIdempotenteDao dao;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Cache<String, Registro> janela;
+    private Counter repeticoesEmMemoria;
+    private Counter repeticoesNoBanco;
+
+    private record Registro(long impressao, ResultadoOperacaoEnum resultado) {
+    }
+
+    @PostConstruct
+    void iniciar() {
+        janela = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        repeticoesEmMemoria = Counter.builder(METRICA)
+                .description("Operacoes repetidas respondidas com o resultado da primeira tentativa")
+                .tag("origem", "memoria")
+                .register(registry);
+        repeticoesNoBanco = Counter.builder(METRICA)
+                .description("Operacoes repetidas respondidas com o resultado da primeira tentativa")
+                .tag("origem", "banco")
+                .register(registry);
+    }
+
+    public boolean isAtivo() {
+        return enable;
+    }
+
+    /**
+     * Resultado ja registrado para a chave, primeiro na janela em memoria e, se {@code consultarBanco},
+     * na tabela. A mesma chave com outra operacao e recusada.
+     */
+    public Optional<ResultadoOperacaoEnum> consultar(String chave, CreditoDebitoDto dto, boolean consultarBanco) {
+        long impressao = impressao(dto);
+
+        Registro registro = janela.getIfPresent(chave);
+        if (registro != null) {
+            repeticoesEmMemoria.increment();
+            return Optional.of(conferir(registro, impressao));
+        }
+        if (!consultarBanco) {
+            return Optional.empty();
+        }
+
+        Optional<OperacaoIdempotente> gravado = dao.findByChave(chave);
+        if (gravado.isEmpty()) {
+            return Optional.empty();
+        }
+        registro = new Registro(gravado.get().getImpressao(), gravado.get().getResultado());
+        janela.put(chave, registro);
+        repeticoesNoBanco.increment();
+        return Optional.of(conferir(registro, impressao));
+    }
+
+    /**
+     * Grava a chave como executada com sucesso na transacao corrente, antes de a conta ser alterada.
+     * Se a chave ja existe (ou esta sendo gravada por outra transacao, que e aguardada pelo banco)
+     * a operacao e interrompida sem tocar na conta.
+     */
+    public void reservar(String chave, CreditoDebitoDto dto) {
+        gravar(chave, impressao(dto), ResultadoOperacaoEnum.OK);
+    }
+
+    /** Registra a recusa por regra de negocio, depois do rollback da operacao, para ser repetida igual. */
+    @Transactional
+    public void registrarRecusa(String chave, CreditoDebitoDto dto, ResultadoOperacaoEnum resultado) {
+        gravar(chave, impressao(dto), resultado);
+    }
+
+    @Transactional
+    public void removerExpirados() {
+        int removidos = dao.removerCriadosAntesDe(System.currentTimeMillis() - retencao.toMillis());
+        log.debug("[IDEMPOTENCIA] - Limpeza: {} chave(s) removida(s)", removidos);
+    }
+
+    private void gravar(String chave, long impressao, ResultadoOperacaoEnum resultado) {
+        try {
+            dao.inserir(new OperacaoIdempotente(chave, impressao, resultado, System.currentTimeMillis()));
+        } catch (PersistenceException e) {
+            if (e instanceof ConstraintViolationException || e.getCause() instanceof ConstraintViolationException) {
+                throw new OperacaoEmAndamentoException();
+            }
+            throw e;
+        }
+
+        // so entra na janela o que foi efetivado
+        Registro registro = new Registro(impressao, resultado);
+        transacoes.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    janela.put(chave, registro);
+                }
+            }
+        });
+    }
+
+    private static ResultadoOperacaoEnum conferir(Registro registro, long impressao) {
+        if (registro.impressao() != impressao) {
+            throw new ChaveIdempotenciaReutilizadaException();
+        }
+        return registro.resultado();
+    }
+
+    // FNV-1a dos campos que definem a operacao
+    static long impressao(CreditoDebitoDto dto) {
+        String dataOperacao = dto.getDataOperacao() == null ? null : dto.getDataOperacao().texto();
+        String campos = dto.getTipoOperacao() + "|" + dto.getCpfCnpj() + "|" + dto.getTipoConta() + "|"
+                + dto.getValor() + "|" + dataOperacao + "|" + dto.getConectadoEmRedeSegura();
+
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < campos.length(); i++) {
+            h = (h ^ campos.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+}
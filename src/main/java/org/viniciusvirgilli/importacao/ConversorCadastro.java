@@ -0,0 +1,144 @@
+package org.viniciusvirgilli.importacao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converte uma linha de CSV ou JSONL em {@link CadastroClienteDto}. Imutavel, pode ser usado por varias
+ * threads ao mesmo tempo. Uma linha que nao pode ser lida gera {@link IllegalArgumentException}.
+ */
+public abstract class ConversorCadastro {
+
+    static final String[] COLUNAS = {"nome", "cpfCnpj", "saldo", "agencia", "conta", "tipoConta", "operacao",
+            "ispbParticipante", "situacaoConta", "limitePixDiurno", "limitePixNoturno", "limitePixRedeSegura"};
+
+    public abstract CadastroClienteDto converter(String linha);
+
+    public static ConversorCadastro jsonl(ObjectReader leitor) {
+        return new ConversorCadastro() {
+            @Override
+            public CadastroClienteDto converter(String linha) {
+                try {
+                    return leitor.readValue(linha);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage(), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param cabecalho primeira linha do CSV, com os nomes dos campos do cadastro em qualquer ordem
+     */
+    public static ConversorCadastro csv(String cabecalho) {
+        if (cabecalho == null || cabecalho.isBlank()) {
+            throw new IllegalArgumentException("Arquivo CSV sem cabeçalho");
+        }
+
+        List<String> nomes = separar(cabecalho.strip());
+        int[] posicoes = new int[nomes.size()];
+        for (int i = 0; i < nomes.size(); i++) {
+            posicoes[i] = indiceDaColuna(nomes.get(i).strip());
+        }
+        return new Csv(posicoes);
+    }
+
+    private static int indiceDaColuna(String nome) {
+        for (int i = 0; i < COLUNAS.length; i++) {
+            if (COLUNAS[i].equalsIgnoreCase(nome)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Coluna desconhecida no cabeçalho do CSV: " + nome);
+    }
+
+    // separador virgula; aspas duplas delimitam campos com virgula e "" representa uma aspa
+    static List<String> separar(String linha) {
+        List<String> campos = new ArrayList<>(COLUNAS.length);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private static final class Csv extends ConversorCadastro {
+
+        private final int[] posicoes;
+
+        private Csv(int[] posicoes) {
+            this.posicoes = posicoes;
+        }
+
+        @Override
+        public CadastroClienteDto converter(String linha) {
+            List<String> campos = separar(linha);
+            if (campos.size() != posicoes.length) {
+                throw new IllegalArgumentException("Esperadas " + posicoes.length + " colunas, encontradas " + campos.size());
+            }
+
+            CadastroClienteDto cadastro = new CadastroClienteDto();
+            for (int i = 0; i < posicoes.length; i++) {
+                String valor = campos.get(i).strip();
+                if (!valor.isEmpty()) {
+                    preencher(cadastro, posicoes[i], valor);
+                }
+            }
+            return cadastro;
+        }
+
+        private static void preencher(CadastroClienteDto cadastro, int coluna, String valor) {
+            try {
+                switch (coluna) {
+                    case 0 -> cadastro.setNome(valor);
+                    case 1 -> cadastro.setCpfCnpj(valor);
+                    case 2 -> cadastro.setSaldo(ValorInformado.de(valor));
+                    case 3 -> cadastro.setAgencia(valor);
+                    case 4 -> cadastro.setConta(Integer.valueOf(valor));
+                    case 5 -> cadastro.setTipoConta(TipoContaEnum.valueOf(valor));
+                    case 6 -> cadastro.setOperacao(Integer.valueOf(valor));
+                    case 7 -> cadastro.setIspbParticipante(ISPBParticipanteEnum.valueOf(valor));
+                    case 8 -> cadastro.setSituacaoConta(SituacaoContaEnum.valueOf(valor));
+                    case 9 -> cadastro.setLimitePixDiurno(Dinheiro.parse(valor));
+                    case 10 -> cadastro.setLimitePixNoturno(Dinheiro.parse(valor));
+                    case 11 -> cadastro.setLimitePixRedeSegura(Dinheiro.parse(valor));
+                    default -> throw new IllegalStateException("Coluna " + coluna);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Valor inválido para " + COLUNAS[coluna] + ": " + valor, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.viniciusvirgilli.importacao;
+
+/**
+ * Uma linha do arquivo de importacao, com o numero original para o relatorio de rejeicoes.
+ */
+public record LinhaImportacao(int numero, String texto) {
+}
@@ -0,0 +1,65 @@
+package org.viniciusvirgilli.importacao;
+
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ErroImportacaoDto;
+import org.viniciusvirgilli.enums.ResultadoImportacaoEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.validador.CadastroClienteValidador;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Conversao e validacao de um bloco de linhas. Nao toca no banco, entao o bloco pode ser dividido
+ * entre as threads do pool comum.
+ */
+public class PreparacaoImportacao {
+
+    /** O cadastro pronto para gravar, ou a rejeicao da linha. */
+    public record LinhaPreparada(int numero, CadastroClienteDto cadastro, ErroImportacaoDto erro) {
+    }
+
+    private final ConversorCadastro conversor;
+    private final CadastroClienteValidador validador;
+
+    public PreparacaoImportacao(ConversorCadastro conversor, CadastroClienteValidador validador) {
+        this.conversor = conversor;
+        this.validador = validador;
+    }
+
+    public LinhaPreparada[] preparar(List<LinhaImportacao> linhas, boolean paralelo) {
+        LinhaPreparada[] preparadas = new LinhaPreparada[linhas.size()];
+        IntStream indices = IntStream.range(0, preparadas.length);
+        (paralelo ? indices.parallel() : indices).forEach(i -> preparadas[i] = preparar(linhas.get(i)));
+        return preparadas;
+    }
+
+    private LinhaPreparada preparar(LinhaImportacao linha) {
+        CadastroClienteDto cadastro;
+        try {
+            cadastro = conversor.converter(linha.texto());
+        } catch (IllegalArgumentException e) {
+            return rejeitada(linha.numero(), null, ResultadoImportacaoEnum.MALFORMADO, e.getMessage(), null);
+        }
+
+        try {
+            validador.validar(cadastro);
+        } catch (ValidadorException e) {
+            return rejeitada(linha.numero(), cadastro, ResultadoImportacaoEnum.INVALIDO,
+                    ResultadoImportacaoEnum.INVALIDO.getMensagem(), e.getCamposComProblemas().getCampos());
+        }
+        return new LinhaPreparada(linha.numero(), cadastro, null);
+    }
+
+    private static LinhaPreparada rejeitada(int numero, CadastroClienteDto cadastro, ResultadoImportacaoEnum resultado,
+                                            String mensagem, List<String> campos) {
+        return new LinhaPreparada(numero, cadastro, ErroImportacaoDto.builder()
+                .linha(numero)
+                .cpfCnpj(cadastro != null ? cadastro.getCpfCnpj() : null)
+                .tipoConta(cadastro != null ? cadastro.getTipoConta() : null)
+                .resultado(resultado)
+                .mensagem(mensagem)
+                .campos(campos)
+                .build());
+    }
+}
@@ -0,0 +1,331 @@
+package org.viniciusvirgilli.journal;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal append-only de todas as operacoes aplicadas, em segmentos mapeados em memoria.
+ * A gravacao e apenas uma escrita no mapeamento; o fsync e feito em grupo por uma thread propria
+ * a cada {@code journal.fsync.intervalo-ms}. Uma falha no fsync deixa o journal indisponivel: as operacoes
+ * seguintes falham em vez de seguir sem registro duravel (depois de um erro, um novo fsync pode dar certo
+ * sem que as paginas perdidas tenham sido gravadas).
+ */
+@Slf4j
+@ApplicationScoped
+public class JournalOperacoes {
+
+    static final String PREFIXO = "journal-";
+    static final String SUFIXO = ".dat";
+
+    @ConfigProperty(name = "journal.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "journal.diretorio", defaultValue = "./data/journal")
+    String diretorio;
+
+    @ConfigProperty(name = "journal.segmento.tamanho-mb", defaultValue = "64")
+    int tamanhoSegmentoMb;
+
+    @ConfigProperty(name = "journal.fsync.intervalo-ms", defaultValue = "10")
+    long intervaloFsyncMs;
+
+    @ConfigProperty(name = "journal.fsync.aguardar", defaultValue = "false")
+    boolean aguardarFsync;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private final Object durabilidade = new Object();
+
+    private Path pasta;
+    private int tamanhoSegmento;
+    private MappedByteBuffer segmento;
+    private int posicao;
+    private long sequencia;
+    private volatile long sequenciaGravada;
+    private volatile long sequenciaDuravel;
+    private volatile Exception falha;
+    private ScheduledExecutorService fsync;
+
+    void iniciar(@Observes StartupEvent event) {
+        if (!enable) {
+            return;
+        }
+
+        try {
+            pasta = Path.of(diretorio);
+            Files.createDirectories(pasta);
+            // o segmento e um unico MappedByteBuffer, indexado por int
+            long bytes = (long) tamanhoSegmentoMb * 1024 * 1024;
+            if (tamanhoSegmentoMb < 1 || bytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("journal.segmento.tamanho-mb deve estar entre 1 e "
+                        + Integer.MAX_VALUE / (1024 * 1024) + ": " + tamanhoSegmentoMb);
+            }
+            tamanhoSegmento = (int) (bytes / RegistroOperacao.TAMANHO) * RegistroOperacao.TAMANHO;
+
+            List<Path> segmentos = LeitorJournal.listarSegmentos(pasta);
+            if (segmentos.isEmpty()) {
+                abrirSegmento(1);
+            } else {
+                // registros pendentes so podem estar no fim do log: no ultimo segmento ou no anterior a ele
+                if (segmentos.size() > 1) {
+                    marcarPendentes(segmentos.get(segmentos.size() - 2));
+                }
+                retomarSegmento(segmentos.getLast());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir o journal de operações", e);
+        }
+
+        sequenciaDuravel = sequencia;
+        sequenciaGravada = sequencia;
+        fsync = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fsync.scheduleWithFixedDelay(this::sincronizar, intervaloFsyncMs, intervaloFsyncMs, TimeUnit.MILLISECONDS);
+        log.info("[JOURNAL] - Journal aberto em {} na sequencia {}", pasta.toAbsolutePath(), sequencia);
+    }
+
+    void encerrar(@Observes ShutdownEvent event) {
+        if (fsync == null) {
+            return;
+        }
+
+        fsync.shutdown();
+        sincronizar();
+    }
+
+    public boolean isAtivo() {
+        return enable;
+    }
+
+    /** Com {@code journal.fsync.aguardar} o registro bloqueia ate o fsync. */
+    public boolean isAguardaFsync() {
+        return enable && aguardarFsync;
+    }
+
+    /**
+     * Registra uma operacao aplicada. Dentro de uma transacao o registro e gravado antes do commit, como
+     * pendente: uma falha na gravacao desfaz a transacao, e um crash depois do commit nao perde a operacao.
+     * Apos o commit o registro e confirmado; num rollback, descartado, e os leitores o pulam. Um registro
+     * ainda pendente na inicializacao (crash entre a gravacao e o fim da transacao) e marcado como incerto:
+     * nao se sabe se a transacao foi confirmada, entao ele fica fora do historico e e apenas reportado.
+     */
+    public void registrar(String cpfCnpj, TipoContaEnum tipoConta, TipoOperacaoEnum tipoOperacao,
+                          Dinheiro valor, Dinheiro saldoResultante) {
+        if (!enable) {
+            return;
+        }
+        verificarDisponivel();
+
+        long timestamp = System.currentTimeMillis();
+        long valorCentavos = valor.centavos();
+        long saldoCentavos = saldoResultante.centavos();
+
+        if (transacoes.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            transacoes.registerInterposedSynchronization(new Synchronization() {
+                private Gravado gravado;
+
+                @Override
+                public void beforeCompletion() {
+                    if (transacoes.getTransactionStatus() == Status.STATUS_ACTIVE) {
+                        gravado = gravar(RegistroOperacao.PENDENTE, timestamp, cpfCnpj, tipoConta, tipoOperacao,
+                                valorCentavos, saldoCentavos);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (gravado != null) {
+                        RegistroOperacao.marcar(gravado.segmento(), gravado.posicao(), status == Status.STATUS_COMMITTED
+                                ? RegistroOperacao.CONFIRMADO : RegistroOperacao.DESCARTADO);
+                    }
+                }
+            });
+        } else {
+            gravar(RegistroOperacao.CONFIRMADO, timestamp, cpfCnpj, tipoConta, tipoOperacao, valorCentavos, saldoCentavos);
+        }
+    }
+
+    /** Sequencia do ultimo registro gravado (nao necessariamente ja em disco). */
+    public long getSequenciaGravada() {
+        return sequenciaGravada;
+    }
+
+    public LeitorJournal leitor(long aPartirDaSequencia) throws IOException {
+        return LeitorJournal.abrir(Path.of(diretorio), aPartirDaSequencia);
+    }
+
+    private Gravado gravar(byte situacao, long timestamp, String cpfCnpj, TipoContaEnum tipoConta,
+                           TipoOperacaoEnum tipoOperacao, long valorCentavos, long saldoCentavos) {
+        verificarDisponivel();
+        long gravada;
+        Gravado gravado;
+        synchronized (this) {
+            if (posicao + RegistroOperacao.TAMANHO > tamanhoSegmento) {
+                rolarSegmento();
+            }
+            gravada = ++sequencia;
+            RegistroOperacao.escrever(segmento, posicao, situacao, gravada, timestamp, cpfCnpj, tipoConta, tipoOperacao,
+                    valorCentavos, saldoCentavos);
+            gravado = new Gravado(segmento, posicao);
+            posicao += RegistroOperacao.TAMANHO;
+            sequenciaGravada = gravada;
+        }
+
+        if (aguardarFsync) {
+            aguardarDurabilidade(gravada);
+        }
+        return gravado;
+    }
+
+    private void verificarDisponivel() {
+        if (falha != null) {
+            throw new IllegalStateException("Journal de operações indisponível após falha no fsync", falha);
+        }
+    }
+
+    private void aguardarDurabilidade(long alvo) {
+        synchronized (durabilidade) {
+            while (sequenciaDuravel < alvo) {
+                verificarDisponivel();
+                try {
+                    durabilidade.wait(intervaloFsyncMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // group commit: um unico force cobre todos os registros gravados desde o ultimo ciclo
+    private void sincronizar() {
+        long alvo = sequenciaGravada;
+        if (alvo == sequenciaDuravel) {
+            return;
+        }
+
+        MappedByteBuffer atual;
+        synchronized (this) {
+            atual = segmento;
+        }
+        try {
+            atual.force();
+        } catch (Exception e) {
+            log.error("[JOURNAL] - Erro no fsync do journal; novas operações serão recusadas", e);
+            synchronized (durabilidade) {
+                falha = e;
+                durabilidade.notifyAll();
+            }
+            fsync.shutdown();
+            return;
+        }
+
+        synchronized (durabilidade) {
+            sequenciaDuravel = alvo;
+            durabilidade.notifyAll();
+        }
+    }
+
+    private void rolarSegmento() {
+        segmento.force();
+        try {
+            abrirSegmento(sequencia + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao criar novo segmento do journal", e);
+        }
+    }
+
+    private void abrirSegmento(long primeiraSequencia) throws IOException {
+        Path arquivo = pasta.resolve(String.format("%s%020d%s", PREFIXO, primeiraSequencia, SUFIXO));
+        try (FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+        posicao = 0;
+        sequencia = primeiraSequencia - 1;
+    }
+
+    // procura o primeiro slot livre do ultimo segmento; um registro incompleto (crash) e sobrescrito
+    private void retomarSegmento(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            tamanhoSegmento = (int) canal.size();
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+
+        sequencia = LeitorJournal.primeiraSequencia(arquivo) - 1;
+        posicao = 0;
+        int pendentes = 0;
+        while (posicao + RegistroOperacao.TAMANHO <= tamanhoSegmento && RegistroOperacao.isValido(segmento, posicao)) {
+            pendentes += marcarSePendente(segmento, posicao);
+            sequencia = RegistroOperacao.sequencia(segmento, posicao);
+            posicao += RegistroOperacao.TAMANHO;
+        }
+        if (posicao + RegistroOperacao.TAMANHO <= tamanhoSegmento) {
+            segmento.put(posicao, (byte) 0);
+        }
+        avisarPendentes(arquivo, pendentes);
+    }
+
+    private void marcarPendentes(Path arquivo) throws IOException {
+        MappedByteBuffer anterior;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            anterior = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        }
+        int pendentes = 0;
+        for (int slot = 0; slot + RegistroOperacao.TAMANHO <= anterior.capacity() && RegistroOperacao.isValido(anterior, slot);
+             slot += RegistroOperacao.TAMANHO) {
+            pendentes += marcarSePendente(anterior, slot);
+        }
+        anterior.force();
+        avisarPendentes(arquivo, pendentes);
+    }
+
+    // o resultado da transacao nao ficou registrado; confirmar poderia criar no extrato uma operacao desfeita
+    private static int marcarSePendente(MappedByteBuffer buffer, int slot) {
+        if (RegistroOperacao.situacao(buffer, slot) != RegistroOperacao.PENDENTE) {
+            return 0;
+        }
+        log.warn("[JOURNAL] - Registro {} sem o resultado da transação: {}", RegistroOperacao.sequencia(buffer, slot),
+                RegistroOperacao.ler(buffer, slot));
+        RegistroOperacao.marcar(buffer, slot, RegistroOperacao.INCERTO);
+        return 1;
+    }
+
+    private static void avisarPendentes(Path arquivo, int pendentes) {
+        if (pendentes > 0) {
+            log.warn("[JOURNAL] - {} registro(s) sem o resultado da transação em {} marcado(s) como incerto(s) e fora do "
+                    + "histórico; confira com o saldo da conta", pendentes, arquivo);
+        }
+    }
+
+    /** Onde um registro foi gravado, para marcar o resultado da transacao depois do commit. */
+    private record Gravado(MappedByteBuffer segmento, int posicao) {
+    }
+}
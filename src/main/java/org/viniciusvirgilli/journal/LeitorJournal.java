@@ -0,0 +1,112 @@
+package org.viniciusvirgilli.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Leitura sequencial do journal. {@link #proximo()} devolve {@code null} quando alcanca o fim do que ja
+ * foi gravado (ou um registro cuja transacao ainda nao terminou); chamar de novo mais tarde continua de onde
+ * parou, o que permite acompanhar (tail) o log. Registros de transacoes desfeitas, ou cujo resultado se
+ * perdeu num crash, sao pulados.
+ */
+public class LeitorJournal {
+
+    private final Path diretorio;
+    private Path arquivo;
+    private MappedByteBuffer segmento;
+    private int posicao;
+    private long aPartirDaSequencia;
+
+    private LeitorJournal(Path diretorio, long aPartirDaSequencia) {
+        this.diretorio = diretorio;
+        this.aPartirDaSequencia = aPartirDaSequencia;
+    }
+
+    public static LeitorJournal abrir(Path diretorio, long aPartirDaSequencia) throws IOException {
+        LeitorJournal leitor = new LeitorJournal(diretorio, aPartirDaSequencia);
+
+        Path inicial = null;
+        for (Path segmento : listarSegmentos(diretorio)) {
+            if (inicial == null || primeiraSequencia(segmento) <= aPartirDaSequencia) {
+                inicial = segmento;
+            }
+        }
+        if (inicial != null) {
+            leitor.mapear(inicial);
+        }
+        return leitor;
+    }
+
+    public RegistroOperacao proximo() throws IOException {
+        while (true) {
+            if (segmento == null && !avancarSegmento()) {
+                return null;
+            }
+
+            if (posicao + RegistroOperacao.TAMANHO <= segmento.capacity()) {
+                RegistroOperacao registro = RegistroOperacao.ler(segmento, posicao);
+                if (registro != null) {
+                    byte situacao = RegistroOperacao.situacao(segmento, posicao);
+                    if (situacao == RegistroOperacao.PENDENTE) {
+                        // a transacao ainda nao terminou; a leitura para aqui para manter a ordem do log
+                        return null;
+                    }
+                    posicao += RegistroOperacao.TAMANHO;
+                    if (situacao == RegistroOperacao.DESCARTADO || situacao == RegistroOperacao.INCERTO
+                            || registro.sequencia() < aPartirDaSequencia) {
+                        continue;
+                    }
+                    aPartirDaSequencia = registro.sequencia() + 1;
+                    return registro;
+                }
+            }
+
+            // slot vazio: so existe mais a ler se o escritor ja passou para o proximo segmento
+            if (!avancarSegmento()) {
+                return null;
+            }
+        }
+    }
+
+    private boolean avancarSegmento() throws IOException {
+        for (Path candidato : listarSegmentos(diretorio)) {
+            if (arquivo == null || candidato.compareTo(arquivo) > 0) {
+                mapear(candidato);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void mapear(Path segmentoArquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmentoArquivo, StandardOpenOption.READ)) {
+            segmento = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        arquivo = segmentoArquivo;
+        posicao = 0;
+    }
+
+    static long primeiraSequencia(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(JournalOperacoes.PREFIXO.length(), nome.length() - JournalOperacoes.SUFIXO.length()));
+    }
+
+    static List<Path> listarSegmentos(Path diretorio) throws IOException {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().startsWith(JournalOperacoes.PREFIXO))
+                    .filter(p -> p.getFileName().toString().endsWith(JournalOperacoes.SUFIXO))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.viniciusvirgilli.journal;
+
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Registro binario de tamanho fixo (48 bytes) do journal:
+ * <pre>
+ *  0 marcador | 1 digitos do cpf/cnpj | 2 tipo conta | 3 tipo operacao | 4 checksum
+ *  8 sequencia | 16 timestamp (epoch ms) | 24 cpf/cnpj | 32 valor (centavos) | 40 saldo resultante (centavos)
+ * </pre>
+ * O marcador e gravado por ultimo; um slot sem marcador (ou com checksum divergente) indica o fim do log.
+ * Ele tambem guarda a situacao da transacao que aplicou a operacao: o registro entra {@link #PENDENTE} antes
+ * do commit e passa a {@link #CONFIRMADO} ou {@link #DESCARTADO} depois dele, trocando so esse byte (fora
+ * do checksum). Um registro ainda pendente na inicializacao vira {@link #INCERTO}: o resultado da transacao
+ * se perdeu no crash, e os leitores o pulam.
+ */
+public record RegistroOperacao(
+        long sequencia,
+        long timestamp,
+        String cpfCnpj,
+        TipoContaEnum tipoConta,
+        TipoOperacaoEnum tipoOperacao,
+        long valorCentavos,
+        long saldoCentavos
+) {
+
+    static final int TAMANHO = 48;
+    static final byte CONFIRMADO = (byte) 0x4A;
+    static final byte PENDENTE = (byte) 0x50;
+    static final byte DESCARTADO = (byte) 0x44;
+    static final byte INCERTO = (byte) 0x49;
+
+    private static final TipoContaEnum[] TIPOS_CONTA = TipoContaEnum.values();
+    private static final TipoOperacaoEnum[] TIPOS_OPERACAO = TipoOperacaoEnum.values();
+
+    static void escrever(ByteBuffer buffer, int offset, byte situacao, long sequencia, long timestamp, String cpfCnpj,
+                         TipoContaEnum tipoConta, TipoOperacaoEnum tipoOperacao, long valorCentavos, long saldoCentavos) {
+        long documento = Long.parseLong(cpfCnpj);
+        byte digitos = (byte) cpfCnpj.length();
+        byte conta = (byte) tipoConta.ordinal();
+        byte operacao = (byte) tipoOperacao.ordinal();
+
+        buffer.put(offset + 1, digitos);
+        buffer.put(offset + 2, conta);
+        buffer.put(offset + 3, operacao);
+        buffer.putInt(offset + 4, checksum(digitos, conta, operacao, sequencia, timestamp, documento, valorCentavos, saldoCentavos));
+        buffer.putLong(offset + 8, sequencia);
+        buffer.putLong(offset + 16, timestamp);
+        buffer.putLong(offset + 24, documento);
+        buffer.putLong(offset + 32, valorCentavos);
+        buffer.putLong(offset + 40, saldoCentavos);
+        buffer.put(offset, situacao);
+    }
+
+    static void marcar(ByteBuffer buffer, int offset, byte situacao) {
+        buffer.put(offset, situacao);
+    }
+
+    /** Situacao de um slot ja conferido por {@link #isValido}. */
+    static byte situacao(ByteBuffer buffer, int offset) {
+        return buffer.get(offset);
+    }
+
+    /**
+     * @return o registro gravado no offset (em qualquer situacao), ou {@code null} se o slot estiver vazio
+     * ou incompleto
+     */
+    static RegistroOperacao ler(ByteBuffer buffer, int offset) {
+        if (!isValido(buffer, offset)) {
+            return null;
+        }
+
+        byte digitos = buffer.get(offset + 1);
+        String cpfCnpj = Long.toString(buffer.getLong(offset + 24));
+        if (cpfCnpj.length() < digitos) {
+            cpfCnpj = "0".repeat(digitos - cpfCnpj.length()) + cpfCnpj;
+        }
+
+        return new RegistroOperacao(
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                cpfCnpj,
+                TIPOS_CONTA[buffer.get(offset + 2)],
+                TIPOS_OPERACAO[buffer.get(offset + 3)],
+                buffer.getLong(offset + 32),
+                buffer.getLong(offset + 40));
+    }
+
+    static boolean isValido(ByteBuffer buffer, int offset) {
+        byte situacao = buffer.get(offset);
+        if (situacao != CONFIRMADO && situacao != PENDENTE && situacao != DESCARTADO && situacao != INCERTO) {
+            return false;
+        }
+        int esperado = checksum(buffer.get(offset + 1), buffer.get(offset + 2), buffer.get(offset + 3),
+                buffer.getLong(offset + 8), buffer.getLong(offset + 16), buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32), buffer.getLong(offset + 40));
+        return buffer.getInt(offset + 4) == esperado;
+    }
+
+    static long sequencia(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + 8);
+    }
+
+    private static int checksum(byte digitos, byte conta, byte operacao, long sequencia, long timestamp,
+                                long documento, long valorCentavos, long saldoCentavos) {
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ ((digitos << 16) | (conta << 8) | operacao)) * 0x100000001b3L;
+        h = (h ^ sequencia) * 0x100000001b3L;
+        h = (h ^ timestamp) * 0x100000001b3L;
+        h = (h ^ documento) * 0x100000001b3L;
+        h = (h ^ valorCentavos) * 0x100000001b3L;
+        h = (h ^ saldoCentavos) * 0x100000001b3L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,184 @@
+package org.viniciusvirgilli.limite;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Leitura e gravacao da tabela {@code consumo_limite_pix} via JDBC, com UPDATE/INSERT em batch.
+ * As colunas de cada periodo seguem a ordem de {@code PeriodoLimiteEnum}. Cada instancia grava nas linhas
+ * com o seu identificador, gerado na subida, e a leitura soma as linhas de todas: replicas nao se sobrescrevem.
+ * A concessao em {@code consumo_limite_pix_dono} garante que so uma instancia use os contadores por vez.
+ */
+@Slf4j
+@ApplicationScoped
+public class CheckpointConsumoPix {
+
+    private static final String COLUNAS =
+            "inicio_diurno, consumo_diurno, inicio_noturno, consumo_noturno, inicio_rede_segura, consumo_rede_segura";
+
+    private static final String SELECT_TODOS = "SELECT cpf_cnpj, tipo_conta, " + COLUNAS + " FROM consumo_limite_pix";
+    private static final String UPDATE =
+            "UPDATE consumo_limite_pix SET inicio_diurno = ?, consumo_diurno = ?, inicio_noturno = ?, consumo_noturno = ?, " +
+            "inicio_rede_segura = ?, consumo_rede_segura = ? WHERE cpf_cnpj = ? AND tipo_conta = ? AND instancia = ?";
+    private static final String INSERT =
+            "INSERT INTO consumo_limite_pix (" + COLUNAS + ", cpf_cnpj, tipo_conta, instancia) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE =
+            "DELETE FROM consumo_limite_pix WHERE cpf_cnpj = ? AND tipo_conta = ?";
+    private static final String DELETE_EXPIRADOS =
+            "DELETE FROM consumo_limite_pix WHERE inicio_diurno < ? AND inicio_noturno < ? AND inicio_rede_segura < ?";
+    private static final String ASSUMIR_DONO =
+            "UPDATE consumo_limite_pix_dono SET instancia = ?, renovado_em = ? WHERE id = 1 AND (instancia = ? OR renovado_em < ?)";
+    private static final String INSERT_DONO = "INSERT INTO consumo_limite_pix_dono (id, instancia, renovado_em) VALUES (1, ?, ?)";
+    private static final String DELETE_DONO = "DELETE FROM consumo_limite_pix_dono WHERE id = 1 AND instancia = ?";
+
+    @Inject
+    DataSource dataSource;
+
+    // novo a cada subida: as linhas da execucao anterior passam a contar como de outra instancia
+    private final String instancia = UUID.randomUUID().toString();
+
+    record Estado(long[] inicios, long[] centavos) {
+    }
+
+    interface Leitor {
+        void conta(ChaveConta chave, long[] inicios, long[] centavos);
+    }
+
+    // por periodo vale o inicio mais novo entre as linhas da conta, somando o consumo das linhas nele
+    void carregar(Leitor leitor) throws SQLException {
+        Map<ChaveConta, Estado> estados = new HashMap<>();
+        try (Connection conexao = dataSource.getConnection();
+             Statement select = conexao.createStatement();
+             ResultSet rs = select.executeQuery(SELECT_TODOS)) {
+            while (rs.next()) {
+                ChaveConta chave = new ChaveConta(rs.getString(1), TipoContaEnum.valueOf(rs.getString(2)));
+                Estado estado = estados.computeIfAbsent(chave,
+                        k -> new Estado(new long[ConsumoConta.PERIODOS], new long[ConsumoConta.PERIODOS]));
+                for (int p = 0; p < ConsumoConta.PERIODOS; p++) {
+                    long inicio = rs.getLong(3 + 2 * p);
+                    long centavos = rs.getLong(4 + 2 * p);
+                    if (inicio > estado.inicios()[p]) {
+                        estado.inicios()[p] = inicio;
+                        estado.centavos()[p] = centavos;
+                    } else if (inicio == estado.inicios()[p]) {
+                        estado.centavos()[p] += centavos;
+                    }
+                }
+            }
+        }
+        estados.forEach((chave, estado) -> leitor.conta(chave, estado.inicios(), estado.centavos()));
+    }
+
+    void gravar(Map<ChaveConta, Estado> estados) throws SQLException {
+        List<ChaveConta> chaves = new ArrayList<>(estados.keySet());
+        try (Connection conexao = dataSource.getConnection()) {
+            int[] atualizados;
+            try (PreparedStatement update = conexao.prepareStatement(UPDATE)) {
+                for (ChaveConta chave : chaves) {
+                    preencher(update, chave, estados.get(chave));
+                    update.addBatch();
+                }
+                atualizados = update.executeBatch();
+            }
+
+            // so as contas sem linha ainda (primeiro debito desde a ultima limpeza) sao inseridas
+            try (PreparedStatement insert = conexao.prepareStatement(INSERT)) {
+                boolean inserir = false;
+                for (int i = 0; i < chaves.size(); i++) {
+                    if (atualizados[i] == 0) {
+                        preencher(insert, chaves.get(i), estados.get(chaves.get(i)));
+                        insert.addBatch();
+                        inserir = true;
+                    }
+                }
+                if (inserir) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    void remover(ChaveConta chave) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement delete = conexao.prepareStatement(DELETE)) {
+            delete.setString(1, chave.cpfCnpj());
+            delete.setString(2, chave.tipoConta().name());
+            delete.executeUpdate();
+        }
+    }
+
+    int removerExpirados(long inicioMinimo) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement delete = conexao.prepareStatement(DELETE_EXPIRADOS)) {
+            for (int p = 1; p <= ConsumoConta.PERIODOS; p++) {
+                delete.setLong(p, inicioMinimo);
+            }
+            return delete.executeUpdate();
+        }
+    }
+
+    /**
+     * Assume ou renova a concessao: vale se a linha ja e desta instancia, se a ultima renovacao da outra e
+     * anterior a {@code vencidaAntesDe} ou se ainda nao existe linha.
+     *
+     * @return se esta instancia e a dona dos contadores
+     */
+    boolean assumirDono(long agora, long vencidaAntesDe) throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            try (PreparedStatement update = conexao.prepareStatement(ASSUMIR_DONO)) {
+                update.setString(1, instancia);
+                update.setLong(2, agora);
+                update.setString(3, instancia);
+                update.setLong(4, vencidaAntesDe);
+                if (update.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+
+            try (PreparedStatement insert = conexao.prepareStatement(INSERT_DONO)) {
+                insert.setString(1, instancia);
+                insert.setLong(2, agora);
+                return insert.executeUpdate() == 1;
+            } catch (SQLException e) {
+                // violacao de chave (classe 23): a linha existe e a concessao de outra instancia ainda vale
+                if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                    return false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    void liberarDono() throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement delete = conexao.prepareStatement(DELETE_DONO)) {
+            delete.setString(1, instancia);
+            delete.executeUpdate();
+        }
+    }
+
+    private void preencher(PreparedStatement statement, ChaveConta chave, Estado estado) throws SQLException {
+        for (int p = 0; p < ConsumoConta.PERIODOS; p++) {
+            statement.setLong(1 + 2 * p, estado.inicios()[p]);
+            statement.setLong(2 + 2 * p, estado.centavos()[p]);
+        }
+        statement.setString(1 + 2 * ConsumoConta.PERIODOS, chave.cpfCnpj());
+        statement.setString(2 + 2 * ConsumoConta.PERIODOS, chave.tipoConta().name());
+        statement.setString(3 + 2 * ConsumoConta.PERIODOS, instancia);
+    }
+}
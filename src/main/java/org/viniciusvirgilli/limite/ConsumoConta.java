@@ -0,0 +1,79 @@
+package org.viniciusvirgilli.limite;
+
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+
+/**
+ * Consumo de uma conta, com um slot por {@link PeriodoLimiteEnum} (indice = ordinal): inicio do periodo
+ * (epoch s), total debitado nele por esta instancia e total das demais lido do checkpoint (centavos).
+ * Um periodo mais novo que o do slot zera os totais. Todo acesso e feito com o monitor da propria instancia.
+ */
+class ConsumoConta {
+
+    static final int PERIODOS = PeriodoLimiteEnum.values().length;
+
+    final long[] inicios = new long[PERIODOS];
+    final long[] centavos = new long[PERIODOS];
+    // so o que foi debitado aqui e gravado; o restante ja esta nas linhas das outras instancias
+    final long[] outrasInstancias = new long[PERIODOS];
+
+    private long versao;
+    private long versaoGravada;
+
+    ConsumoConta() {
+    }
+
+    // carregado do checkpoint: o total lido pertence a linhas ja gravadas
+    ConsumoConta(long[] inicios, long[] outrasInstancias) {
+        System.arraycopy(inicios, 0, this.inicios, 0, PERIODOS);
+        System.arraycopy(outrasInstancias, 0, this.outrasInstancias, 0, PERIODOS);
+    }
+
+    /**
+     * Soma o valor ao periodo e devolve o inicio do periodo em que foi contado. Um inicio anterior ao do
+     * slot (relogio ajustado para tras) e contado no periodo do slot, nunca abre espaco no limite.
+     */
+    long somar(int periodo, long inicio, long valor) {
+        if (inicio > inicios[periodo]) {
+            inicios[periodo] = inicio;
+            centavos[periodo] = 0;
+            outrasInstancias[periodo] = 0;
+        }
+        centavos[periodo] = Math.addExact(centavos[periodo], valor);
+        versao++;
+        return inicios[periodo];
+    }
+
+    void subtrair(int periodo, long inicio, long valor) {
+        // o periodo ja virou: o valor saiu junto com o total anterior
+        if (inicios[periodo] != inicio) {
+            return;
+        }
+        centavos[periodo] = Math.max(0, centavos[periodo] - valor);
+        versao++;
+    }
+
+    long total(int periodo) {
+        return centavos[periodo] + outrasInstancias[periodo];
+    }
+
+    boolean isPendente() {
+        return versao != versaoGravada;
+    }
+
+    long getVersao() {
+        return versao;
+    }
+
+    void marcarGravada(long versao) {
+        versaoGravada = Math.max(versaoGravada, versao);
+    }
+
+    boolean isExpirada(long inicioMinimo) {
+        for (long inicio : inicios) {
+            if (inicio >= inicioMinimo) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,245 @@
+package org.viniciusvirgilli.limite;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.exception.OperacaoIndisponivelException;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.service.PeriodoLimiteResolver;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumo acumulado do limite PIX por conta e periodo (diurno, noturno, rede segura), em memoria.
+ * O debito reserva o valor antes de ser aplicado e o limite e comparado com o total do periodo,
+ * sem somar o historico no banco. Os contadores sao gravados em {@code consumo_limite_pix} a cada
+ * {@code limite.pix.consumo.checkpoint.intervalo} e no encerramento, e recarregados na subida. Cada
+ * instancia grava so o que ela consumiu, numa linha propria; na subida as linhas de todas sao somadas.
+ * Contadores de replicas diferentes nao se enxergam durante a execucao (cada uma liberaria o limite inteiro),
+ * entao so uma instancia usa os contadores por vez: ela assume uma concessao no banco na subida e a renova a
+ * cada checkpoint. Uma segunda instancia nao sobe enquanto a concessao estiver valendo.
+ */
+@Slf4j
+@ApplicationScoped
+public class ContadorConsumoPix {
+
+    // o periodo mais longo (rede segura) tem 24h; depois disso o slot nao e mais consultado
+    private static final Duration RETENCAO = Duration.ofDays(2);
+    private static final Duration ESPERA_CONCESSAO = Duration.ofSeconds(1);
+
+    @ConfigProperty(name = "limite.pix.consumo.enable", defaultValue = "true")
+    boolean enable;
+
+    @ConfigProperty(name = "limite.pix.consumo.dono.validade", defaultValue = "30s")
+    Duration validadeDono;
+
+    @Inject
+    CheckpointConsumoPix checkpoint;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private final Map<ChaveConta, ConsumoConta> contas = new ConcurrentHashMap<>();
+
+    // epoch ms ate quando a concessao desta instancia vale; depois disso os debitos sao recusados
+    volatile long donoAte;
+
+    void iniciar(@Observes StartupEvent event) {
+        if (!enable) {
+            return;
+        }
+
+        assumirDonoNaSubida();
+        try {
+            checkpoint.carregar((chave, inicios, consumo) -> contas.put(chave, new ConsumoConta(inicios, consumo)));
+            log.info("[LIMITE] - Consumo de limite PIX carregado: {} conta(s)", contas.size());
+        } catch (SQLException e) {
+            log.warn("[LIMITE] - Não foi possível carregar o consumo de limite PIX, contadores iniciados zerados", e);
+        }
+    }
+
+    void encerrar(@Observes ShutdownEvent event) {
+        gravar();
+        if (enable && donoAte > 0) {
+            try {
+                checkpoint.liberarDono();
+            } catch (SQLException e) {
+                log.warn("[LIMITE] - Erro ao liberar a concessão dos contadores de limite PIX", e);
+            }
+        }
+    }
+
+    public boolean isAtivo() {
+        return enable;
+    }
+
+    /**
+     * Soma o debito ao consumo do periodo corrente. Dentro de uma transacao a reserva e desfeita
+     * sozinha se nao houver commit; fora dela quem reservou desfaz em caso de recusa.
+     */
+    public ReservaConsumoPix reservar(ChaveConta chave, PeriodoLimiteResolver.Periodo periodo, Dinheiro valor) {
+        long centavos = valor.centavos();
+        if (!enable) {
+            return new ReservaConsumoPix(null, 0, 0, centavos, centavos);
+        }
+        if (System.currentTimeMillis() >= donoAte) {
+            throw new OperacaoIndisponivelException(OperacaoIndisponivelException.LIMITE_SEM_CONCESSAO);
+        }
+
+        long inicio = periodo.inicio();
+        int slot = periodo.tipo().ordinal();
+        ReservaConsumoPix reserva = null;
+        while (reserva == null) {
+            ConsumoConta conta = contas.computeIfAbsent(chave, k -> new ConsumoConta());
+            synchronized (conta) {
+                // descartada pela limpeza entre o get e o lock: a proxima volta cria outra
+                if (contas.get(chave) == conta) {
+                    long inicioContado = conta.somar(slot, inicio, centavos);
+                    reserva = new ReservaConsumoPix(conta, slot, inicioContado, centavos, conta.total(slot));
+                }
+            }
+        }
+
+        if (transacoes.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            ReservaConsumoPix efetivar = reserva;
+            transacoes.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != Status.STATUS_COMMITTED) {
+                        efetivar.desfazer();
+                    }
+                }
+            });
+        }
+        return reserva;
+    }
+
+    public void remover(ChaveConta chave) {
+        if (!enable) {
+            return;
+        }
+
+        contas.remove(chave);
+        try {
+            checkpoint.remover(chave);
+        } catch (SQLException e) {
+            log.warn("[LIMITE] - Erro ao remover o consumo de limite PIX da conta {}", chave, e);
+        }
+    }
+
+    public void gravar() {
+        if (!enable) {
+            return;
+        }
+        renovarDono();
+
+        Map<ChaveConta, CheckpointConsumoPix.Estado> pendentes = new HashMap<>();
+        Map<ConsumoConta, Long> versoes = new HashMap<>();
+        contas.forEach((chave, conta) -> {
+            synchronized (conta) {
+                if (conta.isPendente()) {
+                    pendentes.put(chave, new CheckpointConsumoPix.Estado(conta.inicios.clone(), conta.centavos.clone()));
+                    versoes.put(conta, conta.getVersao());
+                }
+            }
+        });
+
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        try {
+            checkpoint.gravar(pendentes);
+        } catch (SQLException e) {
+            log.error("[LIMITE] - Erro ao gravar o consumo de limite PIX, nova tentativa no proximo ciclo", e);
+            return;
+        }
+        versoes.forEach((conta, versao) -> {
+            synchronized (conta) {
+                conta.marcarGravada(versao);
+            }
+        });
+        log.debug("[LIMITE] - Consumo de {} conta(s) gravado", pendentes.size());
+    }
+
+    // uma instancia que caiu sem liberar a concessao segura a subida da proxima por ate uma validade
+    private void assumirDonoNaSubida() {
+        long desistirEm = System.currentTimeMillis() + validadeDono.toMillis() + ESPERA_CONCESSAO.toMillis();
+        while (true) {
+            try {
+                long agora = System.currentTimeMillis();
+                if (checkpoint.assumirDono(agora, agora - validadeDono.toMillis())) {
+                    donoAte = agora + validadeDono.toMillis();
+                    log.info("[LIMITE] - Concessão dos contadores de limite PIX assumida");
+                    return;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Não foi possível assumir a concessão dos contadores de limite PIX", e);
+            }
+            if (System.currentTimeMillis() > desistirEm) {
+                throw new IllegalStateException("Outra instância controla os contadores de limite PIX: eles ficam em "
+                        + "memória e só uma instância pode debitar com limite.pix.consumo.enable=true");
+            }
+            log.info("[LIMITE] - Concessão dos contadores de limite PIX com outra instância, aguardando");
+            try {
+                Thread.sleep(ESPERA_CONCESSAO.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Subida interrompida aguardando a concessão dos contadores de limite PIX", e);
+            }
+        }
+    }
+
+    private void renovarDono() {
+        long agora = System.currentTimeMillis();
+        try {
+            if (checkpoint.assumirDono(agora, agora - validadeDono.toMillis())) {
+                donoAte = agora + validadeDono.toMillis();
+                return;
+            }
+        } catch (SQLException e) {
+            // sem renovar, a concessao vence sozinha e os debitos passam a ser recusados
+            log.error("[LIMITE] - Erro ao renovar a concessão dos contadores de limite PIX", e);
+            return;
+        }
+        donoAte = 0;
+        log.error("[LIMITE] - Outra instância assumiu os contadores de limite PIX; débitos recusados nesta instância");
+    }
+
+    public void removerExpirados() {
+        if (!enable) {
+            return;
+        }
+
+        long inicioMinimo = System.currentTimeMillis() / 1000 - RETENCAO.toSeconds();
+        contas.forEach((chave, conta) -> {
+            synchronized (conta) {
+                if (!conta.isPendente() && conta.isExpirada(inicioMinimo)) {
+                    contas.remove(chave, conta);
+                }
+            }
+        });
+        try {
+            int removidos = checkpoint.removerExpirados(inicioMinimo);
+            log.debug("[LIMITE] - Limpeza: {} conta(s) sem consumo nos periodos atuais", removidos);
+        } catch (SQLException e) {
+            log.warn("[LIMITE] - Erro na limpeza da tabela de consumo de limite PIX", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.viniciusvirgilli.limite;
+
+import org.viniciusvirgilli.model.Dinheiro;
+
+/**
+ * Valor de um debito ja somado ao consumo do periodo. Se o debito nao for efetivado a reserva
+ * e desfeita; desfazer mais de uma vez nao tem efeito.
+ */
+public final class ReservaConsumoPix {
+
+    private final ConsumoConta conta;
+    private final int periodo;
+    private final long inicio;
+    private final long valorCentavos;
+    private final long consumoCentavos;
+    private boolean desfeita;
+
+    ReservaConsumoPix(ConsumoConta conta, int periodo, long inicio, long valorCentavos, long consumoCentavos) {
+        this.conta = conta;
+        this.periodo = periodo;
+        this.inicio = inicio;
+        this.valorCentavos = valorCentavos;
+        this.consumoCentavos = consumoCentavos;
+    }
+
+    /** Total do periodo com este debito incluido: e o valor comparado com o limite. */
+    public Dinheiro getConsumo() {
+        return Dinheiro.deCentavos(consumoCentavos);
+    }
+
+    public void desfazer() {
+        if (conta == null) {
+            return;
+        }
+        synchronized (conta) {
+            if (desfeita) {
+                return;
+            }
+            desfeita = true;
+            conta.subtrair(periodo, inicio, valorCentavos);
+        }
+    }
+}
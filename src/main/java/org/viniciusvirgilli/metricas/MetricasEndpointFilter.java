@@ -0,0 +1,129 @@
+package org.viniciusvirgilli.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.controller.CacheController;
+import org.viniciusvirgilli.controller.ClienteController;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia por endpoint (histograma + p50/p99). Os timers sao registrados na inicializacao, um por metodo
+ * dos controllers; por requisicao ha so a busca do timer pelo {@link Method} e o registro da duracao.
+ * Roda antes dos demais filtros, entao requisicoes recusadas pelo rate limit tambem sao medidas.
+ */
+@Slf4j
+@Provider
+@ApplicationScoped
+@Priority(Priorities.AUTHENTICATION - 100)
+public class MetricasEndpointFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String PROPRIEDADE_INICIO = "metricas.inicio";
+    private static final Class<?>[] CONTROLLERS = {
+            ClienteController.class, CacheController.class};
+
+    @Inject
+    MeterRegistry registry;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        for (Class<?> controller : CONTROLLERS) {
+            for (Method metodo : controller.getDeclaredMethods()) {
+                String verbo = verboHttp(metodo);
+                if (verbo != null) {
+                    timers.put(metodo, criarTimer(verbo, controller, metodo));
+                }
+            }
+        }
+        log.info("[METRICAS] - {} endpoint(s) instrumentado(s)", timers.size());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(PROPRIEDADE_INICIO, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object inicio = requestContext.getProperty(PROPRIEDADE_INICIO);
+        Method metodo = resourceInfo.getResourceMethod();
+        if (!(inicio instanceof Long nanos) || metodo == null) {
+            return;
+        }
+
+        Timer timer = timers.get(metodo);
+        if (timer == null) {
+            // endpoint fora dos controllers conhecidos: registra uma unica vez
+            String verbo = verboHttp(metodo);
+            timer = timers.computeIfAbsent(metodo, m -> criarTimer(verbo != null ? verbo : requestContext.getMethod(),
+                    resourceInfo.getResourceClass(), m));
+        }
+        timer.record(System.nanoTime() - nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer criarTimer(String verbo, Class<?> controller, Method metodo) {
+        return Timer.builder("endpoint.latencia")
+                .description("Latencia das requisicoes por endpoint")
+                .tag("endpoint", verbo + " " + caminho(controller, metodo))
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String verboHttp(Method metodo) {
+        for (Annotation anotacao : metodo.getAnnotations()) {
+            HttpMethod verbo = anotacao.annotationType().getAnnotation(HttpMethod.class);
+            if (verbo != null) {
+                return verbo.value();
+            }
+        }
+        return null;
+    }
+
+    private static String caminho(Class<?> controller, Method metodo) {
+        StringBuilder caminho = new StringBuilder();
+        anexar(caminho, controller.getAnnotation(Path.class));
+        anexar(caminho, metodo.getAnnotation(Path.class));
+        return caminho.isEmpty() ? "/" : caminho.toString();
+    }
+
+    private static void anexar(StringBuilder caminho, Path path) {
+        if (path == null) {
+            return;
+        }
+        String valor = path.value();
+        if (valor.startsWith("/")) {
+            valor = valor.substring(1);
+        }
+        if (valor.endsWith("/")) {
+            valor = valor.substring(0, valor.length() - 1);
+        }
+        if (!valor.isEmpty()) {
+            caminho.append('/').append(valor);
+        }
+    }
+}
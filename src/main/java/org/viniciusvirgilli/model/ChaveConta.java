@@ -0,0 +1,63 @@
+package org.viniciusvirgilli.model;
+
+import org.viniciusvirgilli.enums.TipoContaEnum;
+
+public record ChaveConta(String cpfCnpj, TipoContaEnum tipoConta) {
+
+    /** Devolvido por {@link #numerica(String, TipoContaEnum)} quando o cpf/cnpj nao tem 11 ou 14 digitos. */
+    public static final long INEXISTENTE = -1;
+
+    // bits reservados para o tipo de conta e para distinguir CPF de CNPJ com os mesmos digitos ("0" a esquerda)
+    private static final int BITS_TIPO_CONTA = 4;
+    private static final int BITS_DOCUMENTO = BITS_TIPO_CONTA + 1;
+
+    public static ChaveConta de(Cliente cliente) {
+        return new ChaveConta(cliente.getCpfCnpj(), cliente.getTipoConta());
+    }
+
+    public long numerica() {
+        return numerica(cpfCnpj, tipoConta);
+    }
+
+    /**
+     * Identidade da conta em um unico {@code long}: os digitos do cpf/cnpj, um bit de CNPJ e o ordinal do tipo
+     * de conta. E a coluna {@code chave_conta}, indexada e usada em todas as buscas por conta; as contas de um
+     * mesmo cpf/cnpj ficam na faixa [{@link #inicio(String)}, {@link #fim(String)}].
+     */
+    public static long numerica(String cpfCnpj, TipoContaEnum tipoConta) {
+        long documento = documento(cpfCnpj);
+        if (documento == INEXISTENTE || tipoConta == null) {
+            return INEXISTENTE;
+        }
+        return documento | tipoConta.ordinal();
+    }
+
+    public static long inicio(String cpfCnpj) {
+        return documento(cpfCnpj);
+    }
+
+    public static long fim(String cpfCnpj) {
+        long documento = documento(cpfCnpj);
+        return documento == INEXISTENTE ? INEXISTENTE : documento | ((1 << BITS_TIPO_CONTA) - 1);
+    }
+
+    private static long documento(String cpfCnpj) {
+        if (cpfCnpj == null) {
+            return INEXISTENTE;
+        }
+        int tamanho = cpfCnpj.length();
+        if (tamanho != 11 && tamanho != 14) {
+            return INEXISTENTE;
+        }
+
+        long digitos = 0;
+        for (int i = 0; i < tamanho; i++) {
+            char c = cpfCnpj.charAt(i);
+            if (c < '0' || c > '9') {
+                return INEXISTENTE;
+            }
+            digitos = digitos * 10 + (c - '0');
+        }
+        return (digitos << BITS_DOCUMENTO) | (tamanho == 14 ? 1L << BITS_TIPO_CONTA : 0);
+    }
+}
@@ -1,10 +1,10 @@
 package org.viniciusvirgilli.model;
 
-import java.math.BigDecimal;
-
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.enums.TipoContaEnum;
 import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
@@ -15,14 +15,23 @@ import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Table(name = "cliente",
-    uniqueConstraints = {@UniqueConstraint(columnNames = {"cpf_cnpj", "tipo_conta"})}
+    uniqueConstraints = {@UniqueConstraint(name = Cliente.UK_CPF_CNPJ_TIPO_CONTA, columnNames = {"cpf_cnpj", "tipo_conta"})},
+    indexes = {@Index(name = Cliente.UK_CHAVE_CONTA, columnList = "chave_conta", unique = true)}
 )
 public class Cliente {
 
+    public static final int IDS_POR_NEXTVAL = 50;
+
+    // a chave numerica e nula para cpf/cnpj fora do formato; a restricao original continua valendo para esses
+    public static final String UK_CPF_CNPJ_TIPO_CONTA = "uk_cliente_cpf_cnpj_tipo_conta";
+    public static final String UK_CHAVE_CONTA = "uk_cliente_chave_conta";
+
+    // sequencia com otimizador pooled: um nextval a cada 50 ids e INSERTs elegiveis ao batch do JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "cliente_seq", allocationSize = Cliente.IDS_POR_NEXTVAL)
     @Column(name = "id")
     private Long id;
 
@@ -34,9 +43,15 @@ public class Cliente {
     @Column(name = "cpf_cnpj")
     private String cpfCnpj;
 
+    // cpf/cnpj + tipo de conta em um long (ChaveConta.numerica), mantido pelos callbacks de persistencia
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "chave_conta")
+    private Long chaveConta;
+
     @NotNull
     @Column(name = "saldo")
-    private BigDecimal saldo;
+    private Dinheiro saldo;
 
     @NotNull
     @Column(name = "agencia")
@@ -67,13 +82,25 @@ public class Cliente {
 
     @NotNull
     @Column(name = "limite_pix_diurno")
-    private BigDecimal limitePixDiurno;
+    private Dinheiro limitePixDiurno;
 
     @NotNull
     @Column(name = "limite_pix_noturno")
-    private BigDecimal limitePixNoturno;
+    private Dinheiro limitePixNoturno;
 
     @Column(name = "limite_pix_rede_segura")
-    private BigDecimal limitePixRedeSegura;
-
+    private Dinheiro limitePixRedeSegura;
+
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    @PrePersist
+    @PreUpdate
+    void sincronizarChaveConta() {
+        long chave = ChaveConta.numerica(cpfCnpj, tipoConta);
+        chaveConta = chave == ChaveConta.INEXISTENTE ? null : chave;
+    }
 }
@@ -0,0 +1,61 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+
+import java.io.Serializable;
+
+/**
+ * Checkpoint do consumo de limite PIX de uma conta por instancia da aplicacao: para cada periodo, o inicio
+ * (epoch s) e o total debitado nele (centavos) por aquela instancia. A tabela e acessada via JDBC pelo {@code CheckpointConsumoPix};
+ * a entidade existe para a geracao do schema.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(ConsumoLimitePix.Chave.class)
+@Table(name = "consumo_limite_pix")
+public class ConsumoLimitePix {
+
+    @Id
+    @Column(name = "cpf_cnpj")
+    private String cpfCnpj;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_conta")
+    private TipoContaEnum tipoConta;
+
+    @Id
+    @Column(name = "instancia", length = 36)
+    private String instancia;
+
+    @Column(name = "inicio_diurno", nullable = false)
+    private Long inicioDiurno;
+
+    @Column(name = "consumo_diurno", nullable = false)
+    private Long consumoDiurno;
+
+    @Column(name = "inicio_noturno", nullable = false)
+    private Long inicioNoturno;
+
+    @Column(name = "consumo_noturno", nullable = false)
+    private Long consumoNoturno;
+
+    @Column(name = "inicio_rede_segura", nullable = false)
+    private Long inicioRedeSegura;
+
+    @Column(name = "consumo_rede_segura", nullable = false)
+    private Long consumoRedeSegura;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private String cpfCnpj;
+        private TipoContaEnum tipoConta;
+        private String instancia;
+    }
+}
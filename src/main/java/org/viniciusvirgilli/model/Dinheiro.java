@@ -0,0 +1,139 @@
+package org.viniciusvirgilli.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetario imutavel em centavos. O texto e convertido uma unica vez na borda (JSON, CSV, banco)
+ * e dai em diante soma, subtracao e comparacao sao operacoes sobre {@code long}, com checagem de estouro.
+ */
+@JsonSerialize(using = DinheiroJson.Serializador.class)
+@JsonDeserialize(using = DinheiroJson.Desserializador.class)
+public record Dinheiro(long centavos) implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    /** Devolvido por {@link #parseCentavos(String)} quando o texto nao e um valor valido. */
+    public static final long INVALIDO = Long.MIN_VALUE;
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * @throws NumberFormatException se o texto nao for um decimal com no maximo duas casas
+     */
+    public static Dinheiro parse(String valor) {
+        long centavos = parseCentavos(valor);
+        if (centavos == INVALIDO) {
+            throw new NumberFormatException("Valor monetário inválido: " + valor);
+        }
+        return deCentavos(centavos);
+    }
+
+    /** Valor lido do banco; a coluna numerica ja chega com no maximo duas casas. */
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        return deCentavos(valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Converte um valor decimal ("150", "150.7", "-150.75") para centavos.
+     * Aceita no maximo duas casas decimais; qualquer outro formato devolve {@link #INVALIDO}.
+     */
+    public static long parseCentavos(String valor) {
+        int tamanho = valor.length();
+        int i = 0;
+        boolean negativo = false;
+        if (tamanho > 0 && (valor.charAt(0) == '-' || valor.charAt(0) == '+')) {
+            negativo = valor.charAt(0) == '-';
+            i++;
+        }
+
+        long centavos = 0;
+        int digitos = 0;
+        int casasDecimais = -1;
+        for (; i < tamanho; i++) {
+            char c = valor.charAt(i);
+            if (c == '.' && casasDecimais < 0) {
+                casasDecimais = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || casasDecimais == 2) {
+                return INVALIDO;
+            }
+            if (centavos > (Long.MAX_VALUE - 9) / 10 / 100) {
+                return INVALIDO;
+            }
+            centavos = centavos * 10 + (c - '0');
+            digitos++;
+            if (casasDecimais >= 0) {
+                casasDecimais++;
+            }
+        }
+        if (digitos == 0) {
+            return INVALIDO;
+        }
+
+        // sem casas decimais os digitos lidos ainda sobem duas ordens de grandeza: o estouro pode aparecer aqui
+        for (int casa = Math.max(casasDecimais, 0); casa < 2; casa++) {
+            if (centavos > Long.MAX_VALUE / 10) {
+                return INVALIDO;
+            }
+            centavos *= 10;
+        }
+        return negativo ? -centavos : centavos;
+    }
+
+    /** @throws ArithmeticException em caso de estouro */
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    /** @throws ArithmeticException em caso de estouro */
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public boolean isMenorQue(Dinheiro outro) {
+        return centavos < outro.centavos;
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    /** Sempre com duas casas, no mesmo formato aceito por {@link #parse(String)}: "-150.05". */
+    @Override
+    public String toString() {
+        long reais = Math.abs(centavos / 100);
+        int resto = (int) Math.abs(centavos % 100);
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) {
+            texto.append('-');
+        }
+        texto.append(reais).append('.');
+        if (resto < 10) {
+            texto.append('0');
+        }
+        return texto.append(resto).toString();
+    }
+}
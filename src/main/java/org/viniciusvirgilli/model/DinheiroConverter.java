@@ -0,0 +1,21 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/** As colunas continuam numericas no banco; a conversao so acontece na leitura e na gravacao. */
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return valor == null ? null : valor.toBigDecimal();
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+        return Dinheiro.de(valor);
+    }
+}
@@ -0,0 +1,54 @@
+package org.viniciusvirgilli.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * (De)serializacao de {@link Dinheiro} como numero decimal ({@code 1500.00}).
+ * Na leitura tambem aceita o valor como texto ({@code "1500.00"}); o texto do token e convertido
+ * direto para centavos, sem passar por double ou BigDecimal.
+ */
+public final class DinheiroJson {
+
+    private DinheiroJson() {
+    }
+
+    public static class Serializador extends JsonSerializer<Dinheiro> {
+
+        @Override
+        public void serialize(Dinheiro valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            // formatos binarios (CBOR, Smile) nao aceitam o numero ja formatado; la vai como decimal nativo
+            if (gerador.canWriteFormattedNumbers()) {
+                gerador.writeNumber(valor.toString());
+            } else {
+                gerador.writeNumber(valor.toBigDecimal());
+            }
+        }
+    }
+
+    public static class Desserializador extends JsonDeserializer<Dinheiro> {
+
+        @Override
+        public Dinheiro deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Dinheiro) contexto.handleUnexpectedToken(Dinheiro.class, parser);
+            }
+
+            String texto = parser.getText().strip();
+            long centavos = Dinheiro.parseCentavos(texto);
+            if (centavos == Dinheiro.INVALIDO) {
+                return (Dinheiro) contexto.handleWeirdStringValue(Dinheiro.class, texto,
+                        "valor monetário com no máximo duas casas decimais");
+            }
+            return Dinheiro.deCentavos(centavos);
+        }
+    }
+}
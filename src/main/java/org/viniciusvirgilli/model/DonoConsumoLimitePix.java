@@ -0,0 +1,28 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Instancia que controla os contadores de limite PIX. Eles ficam em memoria, entao so uma instancia pode
+ * debitar por vez: a linha unica (id 1) e uma concessao renovada a cada checkpoint. A tabela e acessada via
+ * JDBC pelo {@code CheckpointConsumoPix}; a entidade existe para a geracao do schema.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "consumo_limite_pix_dono")
+public class DonoConsumoLimitePix {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "instancia", length = 36, nullable = false)
+    private String instancia;
+
+    // epoch ms da ultima renovacao
+    @Column(name = "renovado_em", nullable = false)
+    private Long renovadoEm;
+}
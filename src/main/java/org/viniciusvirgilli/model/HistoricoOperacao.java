@@ -0,0 +1,58 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+import java.io.Serializable;
+
+/**
+ * Operacao aplicada numa conta, projetada do journal: a chave e a instancia que gravou o journal e a sequencia
+ * do registro nele. Alem do valor guarda o saldo resultante, entao o saldo da conta em qualquer instante e o da
+ * ultima linha anterior a ele. A tabela e acessada via JDBC pelo {@code TabelaHistoricoOperacao}; a entidade
+ * existe para a geracao do schema.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(HistoricoOperacao.Chave.class)
+@Table(name = "historico_operacao",
+        indexes = @Index(name = "idx_historico_operacao_conta_instante", columnList = "chave_conta, instante, instancia, sequencia"))
+public class HistoricoOperacao {
+
+    public static final int TAMANHO_INSTANCIA = 64;
+
+    @Id
+    @Column(name = "instancia", length = TAMANHO_INSTANCIA)
+    private String instancia;
+
+    @Id
+    @Column(name = "sequencia")
+    private Long sequencia;
+
+    @Column(name = "chave_conta", nullable = false)
+    private Long chaveConta;
+
+    // epoch ms
+    @Column(name = "instante", nullable = false)
+    private Long instante;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_operacao", length = 20, nullable = false)
+    private TipoOperacaoEnum tipoOperacao;
+
+    @Column(name = "valor_centavos", nullable = false)
+    private Long valorCentavos;
+
+    @Column(name = "saldo_centavos", nullable = false)
+    private Long saldoCentavos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private String instancia;
+        private Long sequencia;
+    }
+}
@@ -0,0 +1,35 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+
+/**
+ * Resultado de uma operacao enviada com {@code Idempotency-Key}. O registro de sucesso e gravado na mesma
+ * transacao do credito/debito, entao existe se e somente se a operacao foi aplicada.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "operacao_idempotente", indexes = @Index(name = "idx_operacao_idempotente_criado_em", columnList = "criado_em"))
+public class OperacaoIdempotente {
+
+    public static final int TAMANHO_CHAVE = 100;
+
+    @Id
+    @Column(name = "chave", length = TAMANHO_CHAVE)
+    private String chave;
+
+    // hash dos campos da operacao, para recusar a mesma chave com outro conteudo
+    @Column(name = "impressao", nullable = false)
+    private Long impressao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resultado", length = 30, nullable = false)
+    private ResultadoOperacaoEnum resultado;
+
+    @Column(name = "criado_em", nullable = false)
+    private Long criadoEm;
+}
@@ -0,0 +1,29 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Estado serializado de um balde do Bucket4j no modo distribuido. A tabela e acessada via JDBC
+ * pelo {@code ProxyManagerJdbc}; a entidade existe para a geracao do schema.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ratelimit_balde")
+public class RateLimitBalde {
+
+    @Id
+    @Column(name = "id", length = 100)
+    private String id;
+
+    @Column(name = "estado", nullable = false, length = 2048)
+    private byte[] estado;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private Long atualizadoEm;
+}
@@ -0,0 +1,22 @@
+package org.viniciusvirgilli.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * IP bloqueado por excesso de requisicoes, visivel para todas as instancias no modo distribuido.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ratelimit_bloqueio")
+public class RateLimitBloqueio {
+
+    @Id
+    @Column(name = "ip", length = 100)
+    private String ip;
+
+    @Column(name = "bloqueado_ate", nullable = false)
+    private Long bloqueadoAte;
+}
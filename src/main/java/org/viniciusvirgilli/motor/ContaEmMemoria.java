@@ -0,0 +1,116 @@
+package org.viniciusvirgilli.motor;
+
+import lombok.Getter;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+
+/**
+ * Estado de uma conta dentro do motor. Todo acesso e feito com o monitor da propria instancia,
+ * o que serializa as operacoes por conta sem bloquear as demais.
+ */
+@Getter
+class ContaEmMemoria {
+
+    private Dinheiro saldo;
+    private Dinheiro limitePixDiurno;
+    private Dinheiro limitePixNoturno;
+    private Dinheiro limitePixRedeSegura;
+    private SituacaoContaEnum situacaoConta;
+
+    // valores de transacoes ainda nao confirmadas: so entram no saldo no commit
+    private Dinheiro debitosPendentes = Dinheiro.ZERO;
+    private Dinheiro creditosPendentes = Dinheiro.ZERO;
+
+    // dados cadastrais (limites e situacao) vem do banco; o saldo pode vir do WAL/snapshot.
+    // Volatil porque e consultado fora do monitor para decidir se o cadastro precisa ser lido
+    private volatile boolean carregada;
+    private boolean removida;
+
+    private long versao;
+    private long versaoPersistida;
+
+    ContaEmMemoria() {
+    }
+
+    ContaEmMemoria(Dinheiro saldoRecuperado) {
+        this.saldo = saldoRecuperado;
+        this.versao = 1;
+    }
+
+    void carregar(Cliente cliente) {
+        if (saldo == null) {
+            saldo = cliente.getSaldo();
+        }
+        atualizarCadastro(cliente);
+    }
+
+    void atualizarCadastro(Cliente cliente) {
+        limitePixDiurno = cliente.getLimitePixDiurno();
+        limitePixNoturno = cliente.getLimitePixNoturno();
+        limitePixRedeSegura = cliente.getLimitePixRedeSegura();
+        situacaoConta = cliente.getSituacaoConta();
+        carregada = true;
+    }
+
+    Dinheiro getLimite(PeriodoLimiteEnum periodo) {
+        return switch (periodo) {
+            case DIURNO -> limitePixDiurno;
+            case NOTURNO -> limitePixNoturno;
+            case REDE_SEGURA -> limitePixRedeSegura;
+        };
+    }
+
+    /**
+     * Saldo que pode ser debitado: o saldo confirmado menos os debitos reservados. Creditos pendentes
+     * nao contam ate o commit.
+     */
+    Dinheiro getDisponivel() {
+        return saldo.subtrair(debitosPendentes);
+    }
+
+    /**
+     * Saldo esperado se todas as operacoes pendentes forem confirmadas.
+     */
+    Dinheiro getSaldoProjetado() {
+        return saldo.subtrair(debitosPendentes).somar(creditosPendentes);
+    }
+
+    void reservar(Dinheiro valor, boolean debito) {
+        if (debito) {
+            debitosPendentes = debitosPendentes.somar(valor);
+        } else {
+            creditosPendentes = creditosPendentes.somar(valor);
+        }
+    }
+
+    void liberar(Dinheiro valor, boolean debito) {
+        if (debito) {
+            debitosPendentes = debitosPendentes.subtrair(valor);
+        } else {
+            creditosPendentes = creditosPendentes.subtrair(valor);
+        }
+    }
+
+    void atualizarSaldo(Dinheiro novoSaldo) {
+        saldo = novoSaldo;
+        versao++;
+    }
+
+    void forcarPersistencia() {
+        versao++;
+    }
+
+    boolean isPendente() {
+        return saldo != null && versao != versaoPersistida;
+    }
+
+    void marcarPersistida(long versaoGravada) {
+        versaoPersistida = Math.max(versaoPersistida, versaoGravada);
+    }
+
+    void marcarRemovida() {
+        removida = true;
+    }
+}
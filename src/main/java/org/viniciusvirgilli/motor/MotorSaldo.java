@@ -0,0 +1,350 @@
+package org.viniciusvirgilli.motor;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dao.ClienteDao;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.exception.ClienteNaoEncontradoException;
+import org.viniciusvirgilli.exception.ContaInativaException;
+import org.viniciusvirgilli.exception.ForaDoLimiteException;
+import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de saldo em memoria: quando habilitado, e a fonte de verdade do saldo das contas.
+ * Cada alteracao e gravada no WAL antes de ser aplicada; a tabela cliente e atualizada
+ * de forma assincrona pelo {@link org.viniciusvirgilli.scheduler.MotorSaldoScheduler}.
+ * Dentro de uma transacao o valor fica reservado na conta e so e aplicado ao saldo e gravado no WAL quando
+ * ela e confirmada: debitos pendentes ja saem do saldo disponivel, creditos pendentes so contam apos o commit.
+ */
+@Slf4j
+@ApplicationScoped
+public class MotorSaldo {
+
+    @ConfigProperty(name = "motor.saldo.enable", defaultValue = "false")
+    boolean enable;
+
+    @ConfigProperty(name = "motor.saldo.diretorio", defaultValue = "./data/motor")
+    String diretorio;
+
+    @ConfigProperty(name = "motor.saldo.wal.fsync", defaultValue = "true")
+    boolean fsync;
+
+    @Inject
+    ClienteDao clienteDao;
+
+    @Inject
+    PersistenciaSaldoMotor persistencia;
+
+    @Inject
+    TransactionSynchronizationRegistry transacoes;
+
+    private final Map<ChaveConta, ContaEmMemoria> contas = new ConcurrentHashMap<>();
+    private WriteAheadLog wal;
+
+    void iniciar(@Observes StartupEvent event) {
+        if (!enable) {
+            return;
+        }
+
+        try {
+            Path pasta = Path.of(diretorio);
+            Files.createDirectories(pasta);
+
+            long sequencia = SnapshotSaldos.ler(pasta, (chave, saldo) -> contas.put(chave, new ContaEmMemoria(saldo)));
+            log.info("[MOTOR] - Snapshot carregado: {} conta(s) ate a sequencia {}", contas.size(), sequencia);
+
+            sequencia = WriteAheadLog.reaplicar(pasta, sequencia, new WriteAheadLog.Aplicador() {
+                @Override
+                public void saldo(ChaveConta chave, Dinheiro saldo) {
+                    contas.computeIfAbsent(chave, k -> new ContaEmMemoria()).atualizarSaldo(saldo);
+                }
+
+                @Override
+                public void remocao(ChaveConta chave) {
+                    contas.remove(chave);
+                }
+            });
+            log.info("[MOTOR] - WAL reaplicado ate a sequencia {}: {} conta(s) em memoria", sequencia, contas.size());
+
+            wal = WriteAheadLog.abrir(pasta, fsync, sequencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao recuperar o motor de saldo", e);
+        }
+    }
+
+    void encerrar(@Observes ShutdownEvent event) {
+        if (!enable || wal == null) {
+            return;
+        }
+
+        try {
+            descarregar();
+            snapshot();
+            wal.close();
+        } catch (Exception e) {
+            log.error("[MOTOR] - Erro ao encerrar o motor de saldo", e);
+        }
+    }
+
+    public boolean isAtivo() {
+        return enable;
+    }
+
+    /**
+     * @return saldo projetado da conta com esta operacao incluida; dentro de uma transacao o valor so entra
+     * no saldo quando ela for confirmada
+     */
+    public Dinheiro creditar(ChaveConta chave, Dinheiro valor) {
+        ContaEmMemoria conta = contaCarregada(chave);
+        synchronized (conta) {
+            verificarAtiva(conta);
+            return efetivar(chave, conta, valor, false);
+        }
+    }
+
+    /**
+     * @param consumo total debitado no periodo com este debito incluido, comparado com o limite
+     * @return saldo projetado da conta com este debito incluido
+     */
+    public Dinheiro debitar(ChaveConta chave, Dinheiro valor, PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        ContaEmMemoria conta = contaCarregada(chave);
+        synchronized (conta) {
+            verificarAtiva(conta);
+            if (conta.getDisponivel().isMenorQue(valor)) {
+                throw new SaldoNaoSuficienteException("Saldo insuficiente");
+            }
+            Dinheiro limite = conta.getLimite(periodo);
+            if (limite == null || limite.isMenorQue(consumo)) {
+                throw new ForaDoLimiteException("Limite de PIX não permitido");
+            }
+            return efetivar(chave, conta, valor, true);
+        }
+    }
+
+    public Optional<Dinheiro> saldoAtual(ChaveConta chave) {
+        if (!enable) {
+            return Optional.empty();
+        }
+
+        ContaEmMemoria conta = contas.get(chave);
+        if (conta == null) {
+            return Optional.empty();
+        }
+        synchronized (conta) {
+            return conta.isRemovida() ? Optional.empty() : Optional.ofNullable(conta.getSaldo());
+        }
+    }
+
+    /**
+     * Atualiza limites e situacao de uma conta ja carregada. A entidade alterada regrava a coluna saldo
+     * com o valor lido na transacao, entao a conta volta a ficar pendente de persistencia.
+     */
+    public void atualizarCadastro(Cliente cliente) {
+        if (!enable) {
+            return;
+        }
+
+        ContaEmMemoria conta = contas.get(ChaveConta.de(cliente));
+        if (conta == null) {
+            return;
+        }
+        synchronized (conta) {
+            conta.atualizarCadastro(cliente);
+            conta.forcarPersistencia();
+        }
+    }
+
+    public void remover(ChaveConta chave) {
+        if (!enable) {
+            return;
+        }
+
+        ContaEmMemoria conta = contas.get(chave);
+        if (conta == null) {
+            return;
+        }
+        synchronized (conta) {
+            try {
+                wal.registrarRemocao(chave);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao gravar remoção no WAL", e);
+            }
+            conta.marcarRemovida();
+            contas.remove(chave, conta);
+        }
+    }
+
+    public void descarregar() {
+        if (!enable || wal == null) {
+            return;
+        }
+
+        Map<ChaveConta, Dinheiro> pendentes = new HashMap<>();
+        Map<ContaEmMemoria, Long> versoes = new HashMap<>();
+
+        contas.forEach((chave, conta) -> {
+            synchronized (conta) {
+                if (conta.isPendente() && !conta.isRemovida()) {
+                    pendentes.put(chave, conta.getSaldo());
+                    versoes.put(conta, conta.getVersao());
+                }
+            }
+        });
+
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        persistencia.gravarSaldos(pendentes);
+        versoes.forEach((conta, versao) -> {
+            synchronized (conta) {
+                conta.marcarPersistida(versao);
+            }
+        });
+        log.debug("[MOTOR] - {} saldo(s) gravado(s) no banco", pendentes.size());
+    }
+
+    public synchronized void snapshot() {
+        if (!enable || wal == null) {
+            return;
+        }
+
+        try {
+            // tudo que foi gravado no WAL ate aqui ja esta refletido em memoria,
+            // pois o registro e a alteracao acontecem com o monitor da conta
+            long sequencia = wal.rotacionar();
+
+            Map<ChaveConta, Dinheiro> saldos = new HashMap<>();
+            contas.forEach((chave, conta) -> {
+                synchronized (conta) {
+                    if (conta.getSaldo() != null && !conta.isRemovida()) {
+                        saldos.put(chave, conta.getSaldo());
+                    }
+                }
+            });
+
+            SnapshotSaldos.gravar(Path.of(diretorio), sequencia, saldos);
+            wal.removerSegmentosAnteriores();
+            log.info("[MOTOR] - Snapshot gravado: {} conta(s) ate a sequencia {}", saldos.size(), sequencia);
+        } catch (IOException e) {
+            log.error("[MOTOR] - Erro ao gravar snapshot", e);
+        }
+    }
+
+    private ContaEmMemoria obterConta(ChaveConta chave) {
+        ContaEmMemoria conta = contas.get(chave);
+        if (conta != null) {
+            return conta;
+        }
+        return contas.computeIfAbsent(chave, k -> new ContaEmMemoria());
+    }
+
+    /**
+     * Le o cadastro fora do monitor da conta, para que a consulta ao banco nao prenda a thread carregadora
+     * de uma virtual thread. Duas threads podem ler a mesma conta ao mesmo tempo; so a primeira instala.
+     */
+    private ContaEmMemoria contaCarregada(ChaveConta chave) {
+        ContaEmMemoria conta = obterConta(chave);
+        if (conta.isCarregada()) {
+            return conta;
+        }
+
+        Optional<Cliente> cliente = clienteDao.findByCpfCnpjAndTipoConta(chave.cpfCnpj(), chave.tipoConta());
+        synchronized (conta) {
+            if (conta.isRemovida()) {
+                throw new ClienteNaoEncontradoException();
+            }
+            if (conta.isCarregada()) {
+                return conta;
+            }
+            if (cliente.isEmpty()) {
+                conta.marcarRemovida();
+                contas.remove(chave, conta);
+                throw new ClienteNaoEncontradoException();
+            }
+            conta.carregar(cliente.get());
+            return conta;
+        }
+    }
+
+    private void verificarAtiva(ContaEmMemoria conta) {
+        if (conta.isRemovida()) {
+            throw new ClienteNaoEncontradoException();
+        }
+        if (conta.getSituacaoConta() != SituacaoContaEnum.ATIVA) {
+            throw new ContaInativaException();
+        }
+    }
+
+    /**
+     * Fora de transacao a alteracao e aplicada na hora. Dentro de uma, o valor fica reservado na conta
+     * (debitos saem do disponivel, creditos ainda nao entram) e so vai para o saldo e para o WAL no commit.
+     */
+    private Dinheiro efetivar(ChaveConta chave, ContaEmMemoria conta, Dinheiro valor, boolean debito) {
+        if (transacoes.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return aplicar(chave, conta, debito ? conta.getSaldo().subtrair(valor) : conta.getSaldo().somar(valor));
+        }
+
+        conta.reservar(valor, debito);
+        transacoes.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (conta) {
+                    conta.liberar(valor, debito);
+                    if (status == Status.STATUS_COMMITTED && !conta.isRemovida()) {
+                        confirmar(chave, conta, debito ? conta.getSaldo().subtrair(valor) : conta.getSaldo().somar(valor));
+                    }
+                }
+            }
+        });
+        return conta.getSaldoProjetado();
+    }
+
+    /**
+     * A transacao ja foi confirmada no banco, entao a falha do WAL nao pode descartar a operacao:
+     * o saldo em memoria e atualizado mesmo assim e segue para o banco no proximo descarregamento.
+     */
+    private void confirmar(ChaveConta chave, ContaEmMemoria conta, Dinheiro novoSaldo) {
+        try {
+            wal.registrarSaldo(chave, novoSaldo);
+        } catch (IOException | RuntimeException e) {
+            log.error("[MOTOR] - Erro ao gravar no WAL o saldo confirmado da conta {}", chave, e);
+        }
+        conta.atualizarSaldo(novoSaldo);
+    }
+
+    private Dinheiro aplicar(ChaveConta chave, ContaEmMemoria conta, Dinheiro novoSaldo) {
+        try {
+            wal.registrarSaldo(chave, novoSaldo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar operação no WAL", e);
+        }
+        conta.atualizarSaldo(novoSaldo);
+        return novoSaldo;
+    }
+}
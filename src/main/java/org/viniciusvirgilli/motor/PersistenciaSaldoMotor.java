@@ -0,0 +1,29 @@
+package org.viniciusvirgilli.motor;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.dao.ClienteDao;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.util.Map;
+
+@Slf4j
+@ApplicationScoped
+public class PersistenciaSaldoMotor {
+
+    @Inject
+    ClienteDao clienteDao;
+
+    @Transactional
+    public void gravarSaldos(Map<ChaveConta, Dinheiro> saldos) {
+        saldos.forEach((chave, saldo) -> {
+            int atualizados = clienteDao.atualizarSaldo(chave.cpfCnpj(), chave.tipoConta(), saldo);
+            if (atualizados == 0) {
+                log.warn("[MOTOR] - Conta nao encontrada ao gravar saldo: {}", chave);
+            }
+        });
+    }
+}
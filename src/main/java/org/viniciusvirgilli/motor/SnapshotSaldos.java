@@ -0,0 +1,63 @@
+package org.viniciusvirgilli.motor;
+
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+class SnapshotSaldos {
+
+    private static final String ARQUIVO = "snapshot.dat";
+    private static final String ARQUIVO_TEMPORARIO = "snapshot.tmp";
+
+    private SnapshotSaldos() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static void gravar(Path diretorio, long sequencia, Map<ChaveConta, Dinheiro> saldos) throws IOException {
+        Path temporario = diretorio.resolve(ARQUIVO_TEMPORARIO);
+
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(arquivo))) {
+            out.writeLong(sequencia);
+            out.writeInt(saldos.size());
+            for (Map.Entry<ChaveConta, Dinheiro> saldo : saldos.entrySet()) {
+                out.writeUTF(saldo.getKey().cpfCnpj());
+                out.writeByte(saldo.getKey().tipoConta().ordinal());
+                out.writeUTF(saldo.getValue().toString());
+            }
+            out.flush();
+            arquivo.getFD().sync();
+        }
+
+        // troca atomica: um snapshot pela metade nunca substitui o anterior
+        Files.move(temporario, diretorio.resolve(ARQUIVO),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carrega o ultimo snapshot e devolve a sequencia do WAL que ele cobre (0 quando nao ha snapshot).
+     */
+    static long ler(Path diretorio, BiConsumer<ChaveConta, Dinheiro> consumidor) throws IOException {
+        Path arquivo = diretorio.resolve(ARQUIVO);
+        if (!Files.exists(arquivo)) {
+            return 0L;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            long sequencia = in.readLong();
+            int quantidade = in.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                ChaveConta chave = new ChaveConta(in.readUTF(), TipoContaEnum.values()[in.readByte()]);
+                consumidor.accept(chave, Dinheiro.parse(in.readUTF()));
+            }
+            return sequencia;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.viniciusvirgilli.motor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log append-only dos saldos resultantes de cada operacao do motor.
+ * Cada registro e gravado como [tamanho][crc32][payload] e o payload guarda o saldo absoluto,
+ * entao reaplicar o log sobre um snapshot e idempotente.
+ * <p>
+ * O fsync e feito em grupo: a escrita no canal usa o monitor do log, o force usa outro. Quem chega ao force
+ * sincroniza tudo o que ja foi escrito, inclusive registros de outras threads, que ao entrar encontram o seu
+ * registro ja em disco e retornam sem um novo force.
+ */
+@Slf4j
+class WriteAheadLog implements Closeable {
+
+    private static final String PREFIXO = "wal-";
+    private static final String SUFIXO = ".log";
+
+    private static final byte TIPO_SALDO = 0;
+    private static final byte TIPO_REMOCAO = 1;
+
+    interface Aplicador {
+        void saldo(ChaveConta chave, Dinheiro saldo);
+
+        void remocao(ChaveConta chave);
+    }
+
+    private final Path diretorio;
+    private final boolean fsync;
+    // ordem dos monitores: sincronizacao e depois o do log; a escrita nunca espera o force
+    private final Object sincronizacao = new Object();
+    private FileChannel canal;
+    private Path segmentoAtual;
+    private long sequencia;
+    private volatile long sequenciaSincronizada;
+
+    private WriteAheadLog(Path diretorio, boolean fsync, long ultimaSequencia) throws IOException {
+        this.diretorio = diretorio;
+        this.fsync = fsync;
+        this.sequencia = ultimaSequencia;
+        this.sequenciaSincronizada = ultimaSequencia;
+        abrirSegmento();
+    }
+
+    static WriteAheadLog abrir(Path diretorio, boolean fsync, long ultimaSequencia) throws IOException {
+        return new WriteAheadLog(diretorio, fsync, ultimaSequencia);
+    }
+
+    /** Retorna com o registro em disco (com {@code fsync}). */
+    long registrarSaldo(ChaveConta chave, Dinheiro saldo) throws IOException {
+        return sincronizar(grava(TIPO_SALDO, chave, saldo));
+    }
+
+    long registrarRemocao(ChaveConta chave) throws IOException {
+        return sincronizar(grava(TIPO_REMOCAO, chave, null));
+    }
+
+    /**
+     * Fecha o segmento corrente e abre um novo. Todos os registros anteriores ao retorno
+     * ficam em segmentos que podem ser descartados depois que o snapshot for gravado.
+     */
+    long rotacionar() throws IOException {
+        synchronized (sincronizacao) {
+            synchronized (this) {
+                if (fsync) {
+                    canal.force(false);
+                }
+                canal.close();
+                sequenciaSincronizada = sequencia;
+                abrirSegmento();
+                return sequencia;
+            }
+        }
+    }
+
+    void removerSegmentosAnteriores() throws IOException {
+        Path atual;
+        synchronized (this) {
+            atual = segmentoAtual;
+        }
+        for (Path segmento : listarSegmentos(diretorio)) {
+            if (!segmento.equals(atual)) {
+                Files.deleteIfExists(segmento);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (sincronizacao) {
+            synchronized (this) {
+                if (fsync) {
+                    canal.force(false);
+                }
+                canal.close();
+            }
+        }
+    }
+
+    /**
+     * Reaplica, em ordem, os registros com sequencia maior que {@code aPartirDe}.
+     * Um registro truncado ou com crc invalido encerra a leitura daquele segmento, e o segmento e cortado
+     * no fim do ultimo registro valido: sem o corte, o que fosse gravado depois dele (no mesmo arquivo,
+     * reaberto em append) ficaria atras do registro invalido e seria descartado na proxima recuperacao.
+     */
+    static long reaplicar(Path diretorio, long aPartirDe, Aplicador aplicador) throws IOException {
+        long ultimaSequencia = aPartirDe;
+        for (Path segmento : listarSegmentos(diretorio)) {
+            long validos = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmento)))) {
+                while (true) {
+                    byte[] payload = lerRegistro(in, segmento);
+                    if (payload == null) {
+                        break;
+                    }
+                    validos += 8 + payload.length;
+                    DataInputStream registro = new DataInputStream(new ByteArrayInputStream(payload));
+                    long seq = registro.readLong();
+                    byte tipo = registro.readByte();
+                    ChaveConta chave = new ChaveConta(registro.readUTF(), TipoContaEnum.values()[registro.readByte()]);
+
+                    if (seq <= ultimaSequencia) {
+                        continue;
+                    }
+                    if (tipo == TIPO_REMOCAO) {
+                        aplicador.remocao(chave);
+                    } else {
+                        aplicador.saldo(chave, Dinheiro.parse(registro.readUTF()));
+                    }
+                    ultimaSequencia = seq;
+                }
+            }
+            cortarRegistroInvalido(segmento, validos);
+        }
+        return ultimaSequencia;
+    }
+
+    private static void cortarRegistroInvalido(Path segmento, long validos) throws IOException {
+        long tamanho = Files.size(segmento);
+        if (tamanho == validos) {
+            return;
+        }
+        try (FileChannel arquivo = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            arquivo.truncate(validos);
+            arquivo.force(true);
+        }
+        log.warn("[MOTOR] - WAL {} cortado em {} bytes, {} byte(s) invalido(s) descartado(s)", segmento, validos,
+                tamanho - validos);
+    }
+
+    /** Espera o force que cobre a sequencia; um unico force atende todas as threads que ja escreveram. */
+    private long sincronizar(long seq) throws IOException {
+        if (!fsync) {
+            return seq;
+        }
+        synchronized (sincronizacao) {
+            if (sequenciaSincronizada >= seq) {
+                return seq;
+            }
+            FileChannel atual;
+            long alvo;
+            synchronized (this) {
+                atual = canal;
+                alvo = sequencia;
+            }
+            atual.force(false);
+            sequenciaSincronizada = alvo;
+        }
+        return seq;
+    }
+
+    private synchronized long grava(byte tipo, ChaveConta chave, Dinheiro saldo) throws IOException {
+        long seq = sequencia + 1;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(seq);
+        out.writeByte(tipo);
+        out.writeUTF(chave.cpfCnpj());
+        out.writeByte(chave.tipoConta().ordinal());
+        if (saldo != null) {
+            out.writeUTF(saldo.toString());
+        }
+        byte[] payload = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer registro = ByteBuffer.allocate(8 + payload.length);
+        registro.putInt(payload.length);
+        registro.putInt((int) crc.getValue());
+        registro.put(payload);
+        registro.flip();
+        while (registro.hasRemaining()) {
+            canal.write(registro);
+        }
+
+        sequencia = seq;
+        return seq;
+    }
+
+    private void abrirSegmento() throws IOException {
+        segmentoAtual = diretorio.resolve(String.format("%s%020d%s", PREFIXO, sequencia + 1, SUFIXO));
+        canal = FileChannel.open(segmentoAtual,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static byte[] lerRegistro(DataInputStream in, Path segmento) throws IOException {
+        try {
+            int tamanho = in.readInt();
+            int crcEsperado = in.readInt();
+            if (tamanho <= 0 || tamanho > 1024) {
+                log.warn("[MOTOR] - Registro com tamanho invalido no WAL {}, ignorando o restante do segmento", segmento);
+                return null;
+            }
+            byte[] payload = new byte[tamanho];
+            in.readFully(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != crcEsperado) {
+                log.warn("[MOTOR] - Registro corrompido no WAL {}, ignorando o restante do segmento", segmento);
+                return null;
+            }
+            return payload;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> listarSegmentos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXO))
+                    .filter(p -> p.getFileName().toString().endsWith(SUFIXO))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
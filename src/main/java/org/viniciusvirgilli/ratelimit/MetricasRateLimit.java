@@ -0,0 +1,60 @@
+package org.viniciusvirgilli.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Map;
+
+@ApplicationScoped
+public class MetricasRateLimit {
+
+    private static final String REQUISICOES = "ratelimit.requisicoes";
+
+    @Inject
+    MeterRegistry registry;
+
+    private Counter aceitas;
+    private Counter rejeitadas;
+    private Counter bloqueadas;
+
+    @PostConstruct
+    void iniciar() {
+        aceitas = contador("aceita", "Requisicoes que consumiram um token");
+        rejeitadas = contador("rejeitada", "Requisicoes sem token disponivel, que bloqueiam o IP");
+        bloqueadas = contador("bloqueada", "Requisicoes de IPs ja bloqueados");
+    }
+
+    /** Gauges lidos do proprio filtro, so no momento da coleta. */
+    void monitorar(Cache<String, ?> baldes, Map<String, ?> ipsBloqueados) {
+        Gauge.builder("ratelimit.baldes", baldes, Cache::estimatedSize)
+                .description("IPs com balde de tokens nesta instancia")
+                .register(registry);
+        Gauge.builder("ratelimit.ips.bloqueados", ipsBloqueados, Map::size)
+                .description("IPs bloqueados nesta instancia")
+                .register(registry);
+    }
+
+    void aceita() {
+        aceitas.increment();
+    }
+
+    void rejeitada() {
+        rejeitadas.increment();
+    }
+
+    void bloqueada() {
+        bloqueadas.increment();
+    }
+
+    private Counter contador(String resultado, String descricao) {
+        return Counter.builder(REQUISICOES)
+                .description(descricao)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
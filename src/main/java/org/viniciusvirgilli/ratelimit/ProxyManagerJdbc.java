@@ -0,0 +1,125 @@
+package org.viniciusvirgilli.ratelimit;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Proxy manager do Bucket4j sobre a tabela {@code ratelimit_balde}, usando compare-and-swap pela coluna versao.
+ * So usa SQL padrao (SELECT, INSERT, UPDATE ... WHERE versao = ?), entao funciona no H2, no SQL Server e no Postgres.
+ * Cada operacao usa uma conexao em auto-commit, fora de qualquer transacao da requisicao.
+ */
+class ProxyManagerJdbc extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+    private static final String SELECT = "SELECT estado, versao FROM ratelimit_balde WHERE id = ?";
+    private static final String INSERT = "INSERT INTO ratelimit_balde (id, estado, versao, atualizado_em) VALUES (?, ?, 0, ?)";
+    private static final String UPDATE = "UPDATE ratelimit_balde SET estado = ?, versao = versao + 1, atualizado_em = ? "
+            + "WHERE id = ? AND versao = ?";
+    private static final String DELETE = "DELETE FROM ratelimit_balde WHERE id = ?";
+
+    private final DataSource dataSource;
+
+    ProxyManagerJdbc(DataSource dataSource, ClientSideConfig config) {
+        super(config);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(String id) {
+        return new CompareAndSwapOperation() {
+            private long versao;
+
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                try (Connection conexao = dataSource.getConnection();
+                     PreparedStatement select = conexao.prepareStatement(SELECT)) {
+                    select.setString(1, id);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            return Optional.empty();
+                        }
+                        versao = rs.getLong(2);
+                        return Optional.of(rs.getBytes(1));
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Erro ao ler o balde de rate limit " + id, e);
+                }
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] original, byte[] novo, RemoteBucketState estado, Optional<Long> timeoutNanos) {
+                try (Connection conexao = dataSource.getConnection()) {
+                    return original == null ? inserir(conexao, id, novo) : atualizar(conexao, id, novo, versao);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Erro ao gravar o balde de rate limit " + id, e);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String id) {
+        throw new UnsupportedOperationException("Modo assincrono nao suportado pelo proxy manager JDBC");
+    }
+
+    @Override
+    public void removeProxy(String id) {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement delete = conexao.prepareStatement(DELETE)) {
+            delete.setString(1, id);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao remover o balde de rate limit " + id, e);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String id) {
+        return CompletableFuture.failedFuture(
+                new UnsupportedOperationException("Modo assincrono nao suportado pelo proxy manager JDBC"));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    private static boolean inserir(Connection conexao, String id, byte[] estado) throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement(INSERT)) {
+            insert.setString(1, id);
+            insert.setBytes(2, estado);
+            insert.setLong(3, System.currentTimeMillis());
+            return insert.executeUpdate() == 1;
+        } catch (SQLException e) {
+            // outra instancia criou o balde primeiro; o Bucket4j repete a operacao lendo o estado gravado
+            if (isViolacaoDeChave(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean atualizar(Connection conexao, String id, byte[] estado, long versao) throws SQLException {
+        try (PreparedStatement update = conexao.prepareStatement(UPDATE)) {
+            update.setBytes(1, estado);
+            update.setLong(2, System.currentTimeMillis());
+            update.setString(3, id);
+            update.setLong(4, versao);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean isViolacaoDeChave(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+}
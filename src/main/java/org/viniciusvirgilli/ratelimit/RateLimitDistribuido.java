@@ -0,0 +1,147 @@
+package org.viniciusvirgilli.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.OtimizacaoRateLimitEnum;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Estado do rate limit compartilhado entre as instancias pelo datasource da aplicacao
+ * (tabelas {@code ratelimit_balde} e {@code ratelimit_bloqueio}).
+ * A otimizacao configurada evita uma ida ao banco por requisicao: com DELAY cada instancia consome
+ * ate {@code ratelimit.distribuido.tokens-nao-sincronizados} tokens localmente antes de sincronizar.
+ */
+@Slf4j
+@ApplicationScoped
+public class RateLimitDistribuido {
+
+    private static final String SELECT_BLOQUEIO = "SELECT bloqueado_ate FROM ratelimit_bloqueio WHERE ip = ?";
+    private static final String UPDATE_BLOQUEIO = "UPDATE ratelimit_bloqueio SET bloqueado_ate = ? WHERE ip = ?";
+    private static final String INSERT_BLOQUEIO = "INSERT INTO ratelimit_bloqueio (ip, bloqueado_ate) VALUES (?, ?)";
+    private static final String DELETE_BLOQUEIOS = "DELETE FROM ratelimit_bloqueio WHERE bloqueado_ate < ?";
+    private static final String DELETE_BALDES = "DELETE FROM ratelimit_balde WHERE atualizado_em < ?";
+
+    @ConfigProperty(name = "ratelimit.distribuido.otimizacao", defaultValue = "DELAY")
+    OtimizacaoRateLimitEnum otimizacao;
+
+    @ConfigProperty(name = "ratelimit.distribuido.tokens-nao-sincronizados", defaultValue = "20")
+    long tokensNaoSincronizados;
+
+    @ConfigProperty(name = "ratelimit.distribuido.sincronizacao-maxima", defaultValue = "200ms")
+    Duration sincronizacaoMaxima;
+
+    @ConfigProperty(name = "ratelimit.distribuido.bloqueio.cache", defaultValue = "1s")
+    Duration cacheBloqueio;
+
+    @ConfigProperty(name = "ratelimit.distribuido.balde.ociosidade", defaultValue = "2h")
+    Duration ociosidadeBalde;
+
+    @Inject
+    DataSource dataSource;
+
+    private ProxyManagerJdbc proxyManager;
+    private LoadingCache<String, Long> bloqueios;
+
+    @PostConstruct
+    void iniciar() {
+        proxyManager = new ProxyManagerJdbc(dataSource, ClientSideConfig.getDefault());
+        // consulta de bloqueio com validade curta: no maximo uma leitura por IP a cada intervalo, por instancia
+        bloqueios = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheBloqueio)
+                .build(this::consultarBloqueio);
+    }
+
+    public Bucket criarBalde(String ip, BucketConfiguration configuracao) {
+        RemoteBucketBuilder<String> builder = proxyManager.builder();
+        DelayParameters atraso = new DelayParameters(tokensNaoSincronizados, sincronizacaoMaxima);
+        switch (otimizacao) {
+            case BATCH -> builder = builder.withOptimization(Optimizations.batching());
+            case DELAY -> builder = builder.withOptimization(Optimizations.delaying(atraso));
+            case PREDICAO -> builder = builder.withOptimization(Optimizations.predicting(atraso));
+            case NENHUMA -> { }
+        }
+        return builder.build(ip, () -> configuracao);
+    }
+
+    /**
+     * @return instante (epoch ms) ate o qual o IP esta bloqueado, ou 0 se nao houver bloqueio
+     */
+    public long bloqueadoAte(String ip) {
+        return bloqueios.get(ip);
+    }
+
+    public void bloquear(String ip, long ate) {
+        try (Connection conexao = dataSource.getConnection()) {
+            if (atualizarBloqueio(conexao, ip, ate) == 0) {
+                try (PreparedStatement insert = conexao.prepareStatement(INSERT_BLOQUEIO)) {
+                    insert.setString(1, ip);
+                    insert.setLong(2, ate);
+                    insert.executeUpdate();
+                } catch (SQLException e) {
+                    // bloqueio criado ao mesmo tempo por outra instancia
+                    atualizarBloqueio(conexao, ip, ate);
+                }
+            }
+            bloqueios.put(ip, ate);
+        } catch (SQLException e) {
+            log.warn("[Ratelimit] - Erro ao gravar bloqueio do IP {} no banco", ip, e);
+        }
+    }
+
+    public void removerExpirados() {
+        long agora = System.currentTimeMillis();
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement bloqueiosExpirados = conexao.prepareStatement(DELETE_BLOQUEIOS);
+             PreparedStatement baldesOciosos = conexao.prepareStatement(DELETE_BALDES)) {
+            bloqueiosExpirados.setLong(1, agora);
+            int bloqueiosRemovidos = bloqueiosExpirados.executeUpdate();
+
+            // um balde sem uso por mais tempo que o maior refill ja estaria cheio; remover equivale a recriar
+            baldesOciosos.setLong(1, agora - ociosidadeBalde.toMillis());
+            int baldesRemovidos = baldesOciosos.executeUpdate();
+
+            log.debug("[Ratelimit] - Limpeza: {} bloqueio(s) e {} balde(s) removidos", bloqueiosRemovidos, baldesRemovidos);
+        } catch (SQLException e) {
+            log.warn("[Ratelimit] - Erro na limpeza das tabelas de rate limit", e);
+        }
+    }
+
+    private Long consultarBloqueio(String ip) {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement select = conexao.prepareStatement(SELECT_BLOQUEIO)) {
+            select.setString(1, ip);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException e) {
+            log.warn("[Ratelimit] - Erro ao consultar bloqueio do IP {}", ip, e);
+            return 0L;
+        }
+    }
+
+    private int atualizarBloqueio(Connection conexao, String ip, long ate) throws SQLException {
+        try (PreparedStatement update = conexao.prepareStatement(UPDATE_BLOQUEIO)) {
+            update.setLong(1, ate);
+            update.setString(2, ip);
+            return update.executeUpdate();
+        }
+    }
+}
@@ -5,20 +5,27 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
 import io.github.bucket4j.VerboseResult;
+import io.github.bucket4j.local.LocalBucketBuilder;
 import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.Provider;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.ModoRateLimitEnum;
 
-import java.sql.Ref;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -47,44 +54,105 @@ public class RateLimitFilter implements ContainerRequestFilter, ContainerRespons
     @ConfigProperty(name = "ratelimit.minutos.bloqueio", defaultValue = "1")
     long minutosBloqueio;
 
+    @ConfigProperty(name = "ratelimit.modo", defaultValue = "LOCAL")
+    ModoRateLimitEnum modo;
+
+    @Inject
+    RateLimitDistribuido distribuido;
+
+    @Inject
+    MetricasRateLimit metricas;
+
+    static final String PROPRIEDADE_CONSUMO = "ratelimit.consumo";
+
+    private static final String[] HEADERS_DISPONIVEIS = {
+            "X-RateLimit-available-Second", "X-RateLimit-available-Minute", "X-RateLimit-available-Hour"};
+    private static final String[] HEADERS_LIMITE = {
+            "X-RateLimit-Limit-Second", "X-RateLimit-Limit-Minute", "X-RateLimit-Limit-Hour"};
+    private static final int MAXIMO_NUMEROS_EM_CACHE = 65_536;
+
     // bucket = balde
     private final Cache<String, Bucket> baldes = Caffeine.newBuilder()
             .expireAfterAccess(Duration.ofHours(5))
             .build();
 
-    private final Map<String, Long> ipsBloqueados = new ConcurrentHashMap<>();
+    private final Map<String, Bloqueio> ipsBloqueados = new ConcurrentHashMap<>();
+
+    private Bandwidth[] bandas;
+    private BucketConfiguration configuracao;
+    private String[] limitesPorBanda;
+    private String[] numeros;
+
+    /** Corpo da resposta 429, montado uma vez por bloqueio. */
+    private record Bloqueio(long ate, Map<String, Object> corpo) {
+    }
+
+    @PostConstruct
+    void iniciar() {
+        bandas = new Bandwidth[]{
+                Bandwidth.classic(requestsPorSegundo, Refill.intervally(requestsPorSegundo, Duration.ofSeconds(1))),
+                Bandwidth.classic(requestsPorMinuto, Refill.intervally(requestsPorMinuto, Duration.ofMinutes(1))),
+                Bandwidth.classic(requestsPorHora, Refill.intervally(requestsPorHora, Duration.ofHours(1)))
+        };
+
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (Bandwidth banda : bandas) {
+            builder.addLimit(banda);
+        }
+        configuracao = builder.build();
+
+        limitesPorBanda = new String[bandas.length];
+        long maiorCapacidade = 0;
+        for (int i = 0; i < bandas.length; i++) {
+            limitesPorBanda[i] = String.valueOf(bandas[i].getCapacity());
+            maiorCapacidade = Math.max(maiorCapacidade, bandas[i].getCapacity());
+        }
+
+        // os valores de tokens disponiveis se repetem o tempo todo; evita converter long -> String por requisicao
+        numeros = new String[(int) Math.min(maiorCapacidade + 1, MAXIMO_NUMEROS_EM_CACHE)];
+        for (int i = 0; i < numeros.length; i++) {
+            numeros[i] = String.valueOf(i);
+        }
+        metricas.monitorar(baldes, ipsBloqueados);
+        log.info("[Ratelimit] - Modo {}", modo);
+    }
 
     @Override
     public void filter(ContainerRequestContext requestContext) {
-        log.info(System.lineSeparator());
-        log.debug("[Inicio filtro] ipsBloqueados.size={}, baldes.size={}", ipsBloqueados.size(), baldes.estimatedSize());
-
         if (!enable) {
             return;
         }
 
         String ip = extraiIp(requestContext);
-        log.debug("Requisicao recebida de IP: {}", ip);
 
-
-        if (isIpBloqueado(ip)) {
-            log.info("Requisicao abortada: IP {} ainda bloqueado", ip);
-            requestContext.abortWith(respostaToManyRequests(ip));
+        Bloqueio bloqueio = bloqueioAtivo(ip);
+        if (bloqueio != null) {
+            log.debug("[Ratelimit] - Requisicao abortada: IP {} ainda bloqueado", ip);
+            metricas.bloqueada();
+            requestContext.abortWith(respostaToManyRequests(bloqueio));
             return;
         }
 
-        Bucket balde = baldes.get(ip, k -> criaBalde());
-
-        boolean consumiu = balde.tryConsume(1);
+        Bucket balde = baldes.get(ip, this::criaBalde);
 
-        if (!consumiu) {
-            long instanteDesbloqueio = System.currentTimeMillis() + minutosBloqueio*60000;
+        // uma unica operacao no balde consome o token e devolve o saldo de cada banda para os headers
+        VerboseResult<ConsumptionProbe> consumo;
+        try {
+            consumo = balde.asVerbose().tryConsumeAndReturnRemaining(1);
+        } catch (RuntimeException e) {
+            // banco indisponivel no modo distribuido: a requisicao segue sem limite em vez de falhar
+            log.warn("[Ratelimit] - Erro ao consumir token do IP {}, requisicao liberada", ip, e);
+            return;
+        }
+        requestContext.setProperty(PROPRIEDADE_CONSUMO, consumo);
 
-            ipsBloqueados.put(ip, instanteDesbloqueio);
-            log.info("Requisicao abortada: IP {} excedeu o limite de requisicoes", ip);
-            requestContext.abortWith(respostaToManyRequests(ip));
+        if (consumo.getValue().isConsumed()) {
+            metricas.aceita();
         } else {
-            log.info("[Ratelimit] - IP: {} consumiu 1 token. Tokens restantes (aprox): {}", ip, balde.getAvailableTokens());
+            metricas.rejeitada();
+            bloqueio = bloquear(ip);
+            log.info("[Ratelimit] - Requisicao abortada: IP {} excedeu o limite de requisicoes", ip);
+            requestContext.abortWith(respostaToManyRequests(bloqueio));
         }
     }
 
@@ -92,80 +160,95 @@ public class RateLimitFilter implements ContainerRequestFilter, ContainerRespons
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
         if (!enable) return;
 
-        String ip = extraiIp(requestContext);
-        Bucket balde = baldes.get(ip, k -> criaBalde());
-
-        if (balde != null) {
-            populaHeadersResponse(responseContext, balde);
+        Object consumo = requestContext.getProperty(PROPRIEDADE_CONSUMO);
+        if (consumo instanceof VerboseResult<?> resultado) {
+            populaHeadersResponse(responseContext, resultado);
         }
     }
 
-    private void populaHeadersResponse(ContainerResponseContext responseContext, Bucket balde) {
-        VerboseResult<Long> verbose = balde.asVerbose().getAvailableTokens();
-        long[] disponiveisPorBanda = verbose.getDiagnostics().getAvailableTokensPerEachBandwidth();
-        Bandwidth[] bandas = verbose.getConfiguration().getBandwidths();
+    private void populaHeadersResponse(ContainerResponseContext responseContext, VerboseResult<?> consumo) {
+        long[] disponiveisPorBanda = consumo.getDiagnostics().getAvailableTokensPerEachBandwidth();
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
 
-        if (disponiveisPorBanda.length> 0) {
-            responseContext.getHeaders().add("X-RateLimit-available-Second", String.valueOf(disponiveisPorBanda[0]));
-            responseContext.getHeaders().add("X-RateLimit-Limit-Second", String.valueOf(bandas[0].getCapacity()));
-        }
-        if (disponiveisPorBanda.length> 1) {
-            responseContext.getHeaders().add("X-RateLimit-available-Minute", String.valueOf(disponiveisPorBanda[1]));
-            responseContext.getHeaders().add("X-RateLimit-Limit-Minute", String.valueOf(bandas[1].getCapacity()));
-        }
-        if (disponiveisPorBanda.length> 2) {
-            responseContext.getHeaders().add("X-RateLimit-available-Hour", String.valueOf(disponiveisPorBanda[2]));
-            responseContext.getHeaders().add("X-RateLimit-Limit-Hour", String.valueOf(bandas[2].getCapacity()));
+        int quantidade = Math.min(disponiveisPorBanda.length, HEADERS_DISPONIVEIS.length);
+        for (int i = 0; i < quantidade; i++) {
+            headers.add(HEADERS_DISPONIVEIS[i], numero(disponiveisPorBanda[i]));
+            headers.add(HEADERS_LIMITE[i], limitesPorBanda[i]);
         }
     }
 
-    private Bucket criaBalde() {
-        Bandwidth limitePorSegundo = Bandwidth.classic(
-                requestsPorSegundo,
-                Refill.intervally(requestsPorSegundo, Duration.ofSeconds(1)));
-        Bandwidth limitePorMinuto = Bandwidth.classic(
-                requestsPorMinuto,
-                Refill.intervally(requestsPorMinuto, Duration.ofMinutes(1)));
-        Bandwidth limitePorHora = Bandwidth.classic(
-                requestsPorHora,
-                Refill.intervally(requestsPorHora, Duration.ofHours(1)));
-
-        return Bucket.builder()
-                .addLimit(limitePorSegundo)
-                .addLimit(limitePorMinuto)
-                .addLimit(limitePorHora)
-                .build();
+    private String numero(long valor) {
+        return valor >= 0 && valor < numeros.length ? numeros[(int) valor] : String.valueOf(valor);
     }
 
-    private boolean isIpBloqueado(String ip) {
-        Long instanteDeDesbloqueio = ipsBloqueados.get(ip);
-        if (instanteDeDesbloqueio == null) return false;
+    private Bucket criaBalde(String ip) {
+        if (modo == ModoRateLimitEnum.DISTRIBUIDO) {
+            return distribuido.criarBalde(ip, configuracao);
+        }
 
-        if (System.currentTimeMillis() < instanteDeDesbloqueio) {
-            return true;
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth banda : bandas) {
+            builder.addLimit(banda);
         }
+        return builder.build();
+    }
 
-        ipsBloqueados.remove(ip);
-        log.info("[Ratelimit] IP: {} desbloqueado (balde recarregado com {} tokens/s)", ip, requestsPorSegundo);
+    private Bloqueio bloqueioAtivo(String ip) {
+        Bloqueio bloqueio = ipsBloqueados.get(ip);
+        if (bloqueio == null && modo == ModoRateLimitEnum.DISTRIBUIDO) {
+            bloqueio = bloqueioDeOutraInstancia(ip);
+        }
+        if (bloqueio == null) return null;
+
+        if (System.currentTimeMillis() < bloqueio.ate()) {
+            return bloqueio;
+        }
 
-        return false;
+        if (ipsBloqueados.remove(ip, bloqueio)) {
+            log.info("[Ratelimit] IP: {} desbloqueado (balde recarregado com {} tokens/s)", ip, requestsPorSegundo);
+        }
+        return null;
     }
 
-    private Response respostaToManyRequests(String ip) {
-        long bloqueadoAteInstante = ipsBloqueados.get(ip);
+    private Bloqueio bloqueioDeOutraInstancia(String ip) {
+        long ate = distribuido.bloqueadoAte(ip);
+        if (ate <= System.currentTimeMillis()) {
+            return null;
+        }
+        Bloqueio bloqueio = novoBloqueio(ip, ate);
+        ipsBloqueados.put(ip, bloqueio);
+        return bloqueio;
+    }
+
+    private Bloqueio bloquear(String ip) {
+        long bloqueadoAteInstante = System.currentTimeMillis() + minutosBloqueio * 60000;
+
+        Bloqueio bloqueio = novoBloqueio(ip, bloqueadoAteInstante);
+        ipsBloqueados.put(ip, bloqueio);
+        if (modo == ModoRateLimitEnum.DISTRIBUIDO) {
+            distribuido.bloquear(ip, bloqueadoAteInstante);
+        }
+        return bloqueio;
+    }
 
+    private Bloqueio novoBloqueio(String ip, long bloqueadoAteInstante) {
         LocalDateTime bloqueadoAteHorario = Instant.ofEpochMilli(bloqueadoAteInstante)
                 .atZone(ZoneId.systemDefault())
                 .toLocalDateTime();
 
+        return new Bloqueio(bloqueadoAteInstante, Map.of(
+                "Erro", "Limite de requisições excedito",
+                "mensagem", "Aguarde " + minutosBloqueio + " minuto(s) antes de tentar novamente",
+                "bloqueadoAteInstante", bloqueadoAteInstante,
+                "bloqueadoAteHorario", bloqueadoAteHorario.toString(),
+                "ip", ip
+        ));
+    }
+
+    private Response respostaToManyRequests(Bloqueio bloqueio) {
         return Response.status(Response.Status.TOO_MANY_REQUESTS)
-                .entity(Map.of(
-                        "Erro", "Limite de requisições excedito",
-                        "mensagem", "Aguarde " + minutosBloqueio + " minuto(s) antes de tentar novamente",
-                        "bloqueadoAteInstante", bloqueadoAteInstante,
-                        "bloqueadoAteHorario", bloqueadoAteHorario.toString(),
-                        "ip", ip
-                )).build();
+                .entity(bloqueio.corpo())
+                .build();
     }
 
     private String extraiIp(ContainerRequestContext context) {
@@ -178,6 +261,4 @@ public class RateLimitFilter implements ContainerRequestFilter, ContainerRespons
 
         return "desconhecido";
     }
-
-
 }
@@ -0,0 +1,23 @@
+package org.viniciusvirgilli.scheduler;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.limite.ContadorConsumoPix;
+
+@ApplicationScoped
+public class ConsumoPixScheduler {
+
+    @Inject
+    ContadorConsumoPix contador;
+
+    @Scheduled(every = "{limite.pix.consumo.checkpoint.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void gravarConsumo() {
+        contador.gravar();
+    }
+
+    @Scheduled(every = "{limite.pix.consumo.limpeza.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void limparConsumo() {
+        contador.removerExpirados();
+    }
+}
@@ -0,0 +1,18 @@
+package org.viniciusvirgilli.scheduler;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.historico.ProjecaoHistorico;
+
+@ApplicationScoped
+public class HistoricoScheduler {
+
+    @Inject
+    ProjecaoHistorico projecao;
+
+    @Scheduled(every = "{historico.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void projetarJournal() {
+        projecao.projetar();
+    }
+}
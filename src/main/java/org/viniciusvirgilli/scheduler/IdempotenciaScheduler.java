@@ -0,0 +1,22 @@
+package org.viniciusvirgilli.scheduler;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.idempotencia.JanelaIdempotencia;
+
+@ApplicationScoped
+public class IdempotenciaScheduler {
+
+    @Inject
+    JanelaIdempotencia janela;
+
+    @Scheduled(every = "{operacao.idempotencia.limpeza.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void limparChaves() {
+        if (!janela.isAtivo()) {
+            return;
+        }
+
+        janela.removerExpirados();
+    }
+}
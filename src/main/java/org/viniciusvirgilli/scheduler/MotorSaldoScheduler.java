@@ -0,0 +1,37 @@
+package org.viniciusvirgilli.scheduler;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.motor.MotorSaldo;
+
+@Slf4j
+@ApplicationScoped
+public class MotorSaldoScheduler {
+
+    @Inject
+    MotorSaldo motorSaldo;
+
+    @Scheduled(every = "{motor.saldo.flush.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void descarregarSaldos() {
+        if (!motorSaldo.isAtivo()) {
+            return;
+        }
+
+        try {
+            motorSaldo.descarregar();
+        } catch (Exception e) {
+            log.error("[MOTOR] - Erro ao gravar saldos no banco, nova tentativa no proximo ciclo", e);
+        }
+    }
+
+    @Scheduled(every = "{motor.saldo.snapshot.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void gravarSnapshot() {
+        if (!motorSaldo.isAtivo()) {
+            return;
+        }
+
+        motorSaldo.snapshot();
+    }
+}
@@ -0,0 +1,29 @@
+package org.viniciusvirgilli.scheduler;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.ModoRateLimitEnum;
+import org.viniciusvirgilli.ratelimit.RateLimitDistribuido;
+
+@Slf4j
+@ApplicationScoped
+public class RateLimitScheduler {
+
+    @ConfigProperty(name = "ratelimit.modo", defaultValue = "LOCAL")
+    ModoRateLimitEnum modo;
+
+    @Inject
+    RateLimitDistribuido distribuido;
+
+    @Scheduled(every = "{ratelimit.distribuido.limpeza.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void limparTabelas() {
+        if (modo != ModoRateLimitEnum.DISTRIBUIDO) {
+            return;
+        }
+
+        distribuido.removerExpirados();
+    }
+}
@@ -0,0 +1,103 @@
+package org.viniciusvirgilli.serializacao;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapeadores Jackson dos formatos aceitos pela API: JSON, CBOR e Smile. Os binarios sao copias do
+ * {@link ObjectMapper} do Quarkus, com os mesmos modulos e configuracoes. Leitores e escritores sao
+ * criados uma vez por tipo e reaproveitados entre requisicoes; o stream da requisicao nunca e fechado por eles.
+ */
+@ApplicationScoped
+public class FormatosSerializacao {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    public static final MediaType APPLICATION_SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    private final Map<Chave, ObjectWriter> escritores = new ConcurrentHashMap<>();
+    private final Map<Chave, ObjectReader> leitores = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        cbor = objectMapper.copyWith(new CBORFactory());
+        smile = objectMapper.copyWith(new SmileFactory());
+    }
+
+    public static boolean isBinario(MediaType tipo) {
+        return tipo != null && (tipo.isCompatible(APPLICATION_CBOR_TYPE) || tipo.isCompatible(APPLICATION_SMILE_TYPE));
+    }
+
+    /**
+     * Primeiro formato aceito pelo cliente, na ordem de preferencia do Accept; JSON quando nenhum binario e aceito
+     * antes dele.
+     */
+    public static MediaType negociar(List<MediaType> aceitos) {
+        for (MediaType aceito : aceitos) {
+            if (aceito.isWildcardType() || aceito.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+            if (aceito.isCompatible(APPLICATION_CBOR_TYPE)) {
+                return APPLICATION_CBOR_TYPE;
+            }
+            if (aceito.isCompatible(APPLICATION_SMILE_TYPE)) {
+                return APPLICATION_SMILE_TYPE;
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    public ObjectMapper mapeador(MediaType tipo) {
+        if (tipo.isCompatible(APPLICATION_CBOR_TYPE)) {
+            return cbor;
+        }
+        if (tipo.isCompatible(APPLICATION_SMILE_TYPE)) {
+            return smile;
+        }
+        return objectMapper;
+    }
+
+    public ObjectWriter escritor(MediaType tipo, Type classe) {
+        return escritores.computeIfAbsent(new Chave(mapeador(tipo), classe), chave -> chave.mapeador()
+                .writerFor(tipoJackson(chave))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+    }
+
+    public ObjectReader leitor(MediaType tipo, Type classe) {
+        return leitores.computeIfAbsent(new Chave(mapeador(tipo), classe), chave -> chave.mapeador()
+                .readerFor(tipoJackson(chave))
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE));
+    }
+
+    private static JavaType tipoJackson(Chave chave) {
+        return chave.mapeador().getTypeFactory().constructType(chave.tipo());
+    }
+
+    private record Chave(ObjectMapper mapeador, Type tipo) {
+    }
+}
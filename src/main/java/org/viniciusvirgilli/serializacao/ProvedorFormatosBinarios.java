@@ -0,0 +1,52 @@
+package org.viniciusvirgilli.serializacao;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Leitura e escrita dos corpos em CBOR e Smile. O JSON continua com o provider do quarkus-rest-jackson.
+ */
+@Provider
+@Produces({FormatosSerializacao.APPLICATION_CBOR, FormatosSerializacao.APPLICATION_SMILE})
+@Consumes({FormatosSerializacao.APPLICATION_CBOR, FormatosSerializacao.APPLICATION_SMILE})
+public class ProvedorFormatosBinarios implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    @Inject
+    FormatosSerializacao formatos;
+
+    @Override
+    public boolean isReadable(Class<?> classe, Type tipo, Annotation[] anotacoes, MediaType mediaType) {
+        return FormatosSerializacao.isBinario(mediaType) && classe != InputStream.class;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> classe, Type tipo, Annotation[] anotacoes, MediaType mediaType,
+                           MultivaluedMap<String, String> headers, InputStream entrada) throws IOException {
+        return formatos.leitor(mediaType, tipo).readValue(entrada);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> classe, Type tipo, Annotation[] anotacoes, MediaType mediaType) {
+        return FormatosSerializacao.isBinario(mediaType);
+    }
+
+    @Override
+    public void writeTo(Object valor, Class<?> classe, Type tipo, Annotation[] anotacoes, MediaType mediaType,
+                        MultivaluedMap<String, Object> headers, OutputStream saida) throws IOException {
+        // entidade de um Response chega com tipo Object: a classe do valor permite reaproveitar o escritor do tipo
+        Type tipoEscrita = tipo == null || tipo == Object.class ? classe : tipo;
+        formatos.escritor(mediaType, tipoEscrita).writeValue(saida, valor);
+    }
+}
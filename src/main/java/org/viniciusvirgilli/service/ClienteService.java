@@ -2,30 +2,75 @@ package org.viniciusvirgilli.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+import org.viniciusvirgilli.cache.ClienteCache;
+import org.viniciusvirgilli.cache.FiltroContasCadastradas;
+import org.viniciusvirgilli.concorrencia.LimiteAcessoBanco;
 import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.enums.TipoContaEnum;
 import org.viniciusvirgilli.exception.ClienteJaCadastradoException;
 import org.viniciusvirgilli.exception.ClienteNaoEncontradoException;
+import org.viniciusvirgilli.exception.NegocioException;
+import org.viniciusvirgilli.limite.ContadorConsumoPix;
+import org.viniciusvirgilli.model.ChaveConta;
 import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.motor.MotorSaldo;
 import org.viniciusvirgilli.validador.CadastroClienteValidador;
 import org.viniciusvirgilli.dao.ClienteDao;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 
 @Slf4j
 @ApplicationScoped
 public class ClienteService {
 
+    private static final int TAMANHO_BLOCO_CONSULTA = 500;
+
     @Inject
     CadastroClienteValidador cadastroClienteValidador;
 
     @Inject
     ClienteDao clienteDao;
 
+    @Inject
+    MotorSaldo motorSaldo;
+
+    @Inject
+    ClienteCache clienteCache;
+
+    @Inject
+    FiltroContasCadastradas filtroContas;
+
+    @Inject
+    ContadorConsumoPix consumoPix;
+
+    @ConfigProperty(name = "cliente.listagem.limite-padrao", defaultValue = "1000")
+    int limitePadraoListagem;
+
+    @ConfigProperty(name = "cliente.listagem.limite-maximo", defaultValue = "100000")
+    int limiteMaximoListagem;
+
+    @ConfigProperty(name = "cliente.listagem.fetch-size", defaultValue = "500")
+    int fetchSizeListagem;
+
+    @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "50")
+    int tamanhoLoteJdbc;
+
     @Transactional
     public Cliente cadastrar(CadastroClienteDto cliente) {
         log.info("[CADASTRO] - Iniciando cadastro do cliente: {}", cliente);
@@ -40,26 +85,71 @@ public class ClienteService {
         try {
             Cliente entity = toEntity(cliente);
 
-            clienteDao.persist(entity);
+            filtroContas.adicionar(ChaveConta.de(entity));
+            inserir(entity);
+            clienteCache.invalidar(entity);
             log.info("[CADASTRO] - Cliente cadastrado com sucesso: {}", cliente);
             return entity;
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             log.error("[CADASTRO] - Erro ao cadastrar cliente: {}", cliente, e);
             throw new RuntimeException("Erro ao cadastrar cliente", e);
         }
     }
 
+    /**
+     * Insere, em uma transacao, os cadastros ja validados cujo (cpfCnpj, tipoConta) ainda nao existe.
+     * A existencia e conferida por blocos de chaves de conta e os INSERTs saem em batch, com ids da sequencia.
+     *
+     * @return as chaves ignoradas por ja estarem cadastradas
+     */
+    @Transactional
+    @LimiteAcessoBanco
+    public Set<ChaveConta> cadastrarNovos(Map<ChaveConta, CadastroClienteDto> cadastros) {
+        // so vao ao banco as chaves que o filtro nao descarta
+        List<Long> numericas = cadastros.keySet().stream()
+                .filter(filtroContas::podeExistir)
+                .map(ChaveConta::numerica)
+                .toList();
+
+        Set<ChaveConta> existentes = new HashSet<>();
+        for (int inicio = 0; inicio < numericas.size(); inicio += TAMANHO_BLOCO_CONSULTA) {
+            List<Long> bloco = numericas.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_CONSULTA, numericas.size()));
+            for (ChaveConta chave : clienteDao.findChavesExistentes(bloco)) {
+                if (cadastros.containsKey(chave)) {
+                    existentes.add(chave);
+                }
+            }
+        }
+
+        filtroContas.registrarConsultadas(numericas.size(), existentes.size());
+
+        List<Cliente> novos = new ArrayList<>(cadastros.size() - existentes.size());
+        cadastros.forEach((chave, cadastro) -> {
+            if (!existentes.contains(chave)) {
+                filtroContas.adicionar(chave);
+                novos.add(toEntity(cadastro));
+            }
+        });
+        clienteDao.persistirEmLote(novos, tamanhoLoteJdbc);
+        return existentes;
+    }
+
     public Cliente findById(Long id) {
         log.info("[BUSCA] - Iniciando busca do cliente por ID: {}", id);
         try {
-            Optional<Cliente> cliente = clienteDao.findByIdOptional(id);
+            Optional<Cliente> cliente = clienteCache.buscarPorId(id, clienteDao::findByIdOptional);
             if (cliente.isPresent()) {
                 log.info("[BUSCA] - Cliente encontrado por ID: {}", id);
+                aplicarSaldoDoMotor(cliente.get());
             } else {
                 log.info("[BUSCA] - Nenhum cliente encontrado por ID: {}", id);
                 throw new ClienteNaoEncontradoException();
             }
             return cliente.get();
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             log.error("[BUSCA] - Erro ao buscar cliente por ID: {}", id, e);
             throw new RuntimeException("Erro ao buscar cliente por ID", e);
@@ -69,20 +159,51 @@ public class ClienteService {
     public Cliente findByCpfCnpjAndTipoConta(String cpfCnpj, TipoContaEnum tipoConta) {
         log.info("[BUSCA] - Iniciando busca do cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
         try {
-            Optional<Cliente> cliente = clienteDao.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
+            Optional<Cliente> cliente = clienteCache.buscarPorChave(new ChaveConta(cpfCnpj, tipoConta),
+                    chave -> clienteDao.findByCpfCnpjAndTipoConta(chave.cpfCnpj(), chave.tipoConta()));
             if (cliente.isPresent()) {
                 log.info("[BUSCA] - Cliente encontrado por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
+                aplicarSaldoDoMotor(cliente.get());
             } else {
                 log.info("[BUSCA] - Nenhum cliente encontrado por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
                 throw new ClienteNaoEncontradoException();
             }
             return cliente.get();
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             log.error("[BUSCA] - Erro ao buscar cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta, e);
             throw new RuntimeException("Erro ao buscar cliente por CPF/CNPJ e tipo de conta", e);
         }
     }
 
+    public int limiteListagem(Integer limite) {
+        if (limite == null) {
+            return limitePadraoListagem;
+        }
+        if (limite < 1 || limite > limiteMaximoListagem) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + limiteMaximoListagem);
+        }
+        return limite;
+    }
+
+    /**
+     * Entrega ao consumidor os clientes seguintes a {@code aPartirDoId}, um a um, na ordem do id.
+     * A transacao so existe para que o driver respeite o fetch size (no PostgreSQL, sem autocommit).
+     */
+    @Transactional
+    @LimiteAcessoBanco
+    public void listar(Long aPartirDoId, int limite, TipoContaEnum tipoConta, SituacaoContaEnum situacaoConta,
+                       ISPBParticipanteEnum ispbParticipante, Consumer<Cliente> consumidor) {
+        log.info("[LISTAGEM] - Listando até {} cliente(s) a partir do ID {}: {} - {} - {}",
+                limite, aPartirDoId, tipoConta, situacaoConta, ispbParticipante);
+        clienteDao.listar(aPartirDoId == null ? 0L : aPartirDoId, limite, tipoConta, situacaoConta, ispbParticipante,
+                fetchSizeListagem, cliente -> {
+                    aplicarSaldoDoMotor(cliente);
+                    consumidor.accept(cliente);
+                });
+    }
+
     @Transactional
     public void deletar(String cpfCnpj, TipoContaEnum tipoConta) {
         log.info("[DELETAR] - Iniciando deleção do cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
@@ -90,11 +211,17 @@ public class ClienteService {
             Optional<Cliente> cliente = clienteDao.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
             if (cliente.isPresent()) {
                 clienteDao.delete(cliente.get());
+                clienteCache.invalidar(cliente.get());
+                motorSaldo.remover(new ChaveConta(cpfCnpj, tipoConta));
+                consumoPix.remover(new ChaveConta(cpfCnpj, tipoConta));
+                filtroContas.remover(new ChaveConta(cpfCnpj, tipoConta));
                 log.info("[DELETAR] - Cliente deletado com sucesso: {} - {}", cpfCnpj, tipoConta);
             } else {
                 log.info("[DELETAR] - Nenhum cliente encontrado para deleção: {} - {}", cpfCnpj, tipoConta);
                 throw new ClienteNaoEncontradoException();
             }
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             log.error("[DELETAR] - Erro ao deletar cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta, e);
             throw new RuntimeException("Erro ao deletar cliente por CPF/CNPJ e tipo de conta", e);
@@ -102,25 +229,55 @@ public class ClienteService {
     }
 
     private boolean clienteJaCadrastrado(String cpfCnpj, TipoContaEnum tipoConta) {
-        return clienteDao.jaExisteConta(cpfCnpj, tipoConta);
+        return filtroContas.existe(new ChaveConta(cpfCnpj, tipoConta),
+                chave -> clienteDao.jaExisteConta(chave.cpfCnpj(), chave.tipoConta()));
+    }
+
+    // o indice unico de chave_conta decide quando a verificacao (ou o filtro) nao viu um cadastro concorrente
+    private void inserir(Cliente entity) {
+        try {
+            clienteDao.inserir(entity);
+        } catch (PersistenceException e) {
+            if (isContaDuplicada(e)) {
+                log.info("[CADASTRO] - Cliente já cadastrado (índice único): {}", ChaveConta.de(entity));
+                throw new ClienteJaCadastradoException();
+            }
+            throw e;
+        }
+    }
+
+    // so as restricoes de identidade da conta viram 409; outra violacao (ex.: coluna nula) e erro de verdade
+    private static boolean isContaDuplicada(PersistenceException e) {
+        ConstraintViolationException violacao = e instanceof ConstraintViolationException cve ? cve
+                : e.getCause() instanceof ConstraintViolationException cve ? cve : null;
+        if (violacao == null || violacao.getConstraintName() == null) {
+            return false;
+        }
+        // o nome vem como o banco informa: maiusculo no H2, com schema ou sufixo do indice em alguns bancos
+        String restricao = violacao.getConstraintName().toLowerCase(Locale.ROOT);
+        return restricao.contains(Cliente.UK_CHAVE_CONTA) || restricao.contains(Cliente.UK_CPF_CNPJ_TIPO_CONTA);
     }
 
     @Transactional
     public void alterarLimiteDiurno(String cpfCnpj, TipoContaEnum tipoConta, String limite) {
-        BigDecimal limiteDiurno;
+        Dinheiro limiteDiurno;
         try {
-            limiteDiurno = new BigDecimal(limite);
+            limiteDiurno = Dinheiro.parse(limite);
         } catch (Exception e) {
-            log.error("[ALTERAR] - Erro ao converter limite diurno para BigDecimal: {}", limite, e);
-            throw new RuntimeException("Erro ao converter limite diurno para BigDecimal", e);
+            log.error("[ALTERAR] - Erro ao converter limite diurno para valor monetário: {}", limite, e);
+            throw new RuntimeException("Erro ao converter limite diurno para valor monetário", e);
         }
 
         log.info("[ALTERAR] - Iniciando alteração do limite diurno do cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
         try {
-            Cliente cliente = findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
+            Cliente cliente = buscarParaAlteracao(cpfCnpj, tipoConta);
             cliente.setLimitePixDiurno(limiteDiurno);
             clienteDao.persist(cliente);
+            clienteCache.invalidar(cliente);
+            motorSaldo.atualizarCadastro(cliente);
             log.info("[ALTERAR] - Limite diurno alterado com sucesso: {} - {}", cpfCnpj, tipoConta);
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             log.error("[ALTERAR] - Erro ao alterar limite diurno do cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta, e);
             throw new RuntimeException("Erro ao alterar limite diurno do cliente por CPF/CNPJ e tipo de conta", e);
@@ -129,17 +286,21 @@ public class ClienteService {
 
     @Transactional
     public void alterarLimiteNoturno(String cpfCnpj, TipoContaEnum tipoConta, String limite) {
-        BigDecimal limiteNoturno;
+        Dinheiro limiteNoturno;
         try {
-            limiteNoturno = new BigDecimal(limite);
+            limiteNoturno = Dinheiro.parse(limite);
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao converter limite para BigDecimal", e);
+            throw new RuntimeException("Erro ao converter limite para valor monetário", e);
         }
 
         try {
-            Cliente cliente = findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
+            Cliente cliente = buscarParaAlteracao(cpfCnpj, tipoConta);
             cliente.setLimitePixNoturno(limiteNoturno);
             clienteDao.persist(cliente);
+            clienteCache.invalidar(cliente);
+            motorSaldo.atualizarCadastro(cliente);
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao alterar limite do cliente por CPF/CNPJ e tipo de conta", e);
         }
@@ -147,17 +308,21 @@ public class ClienteService {
 
     @Transactional
     public void alterarLimiteRedeSegura(String cpfCnpj, TipoContaEnum tipoConta, String limite) {
-        BigDecimal limiteRedeSegura;
+        Dinheiro limiteRedeSegura;
         try {
-            limiteRedeSegura = new BigDecimal(limite);
+            limiteRedeSegura = Dinheiro.parse(limite);
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao converter limite para BigDecimal", e);
+            throw new RuntimeException("Erro ao converter limite para valor monetário", e);
         }
 
         try {
-            Cliente cliente = findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
+            Cliente cliente = buscarParaAlteracao(cpfCnpj, tipoConta);
             cliente.setLimitePixRedeSegura(limiteRedeSegura);
             clienteDao.persist(cliente);
+            clienteCache.invalidar(cliente);
+            motorSaldo.atualizarCadastro(cliente);
+        } catch (NegocioException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao alterar limite do cliente por CPF/CNPJ e tipo de conta", e);
         }
@@ -166,14 +331,27 @@ public class ClienteService {
     public void atualizarCliente(Cliente cliente) {
         log.info("[ATUALIZAR] - Iniciando atualização do cliente: {}", cliente);;
         clienteDao.merge(cliente);
+        clienteCache.invalidar(cliente);
         log.info("[ATUALIZAR] - Cliente atualizado com sucesso: {}", cliente);
     }
 
+    // alteracoes precisam da entidade gerenciada pela transacao, nunca da instancia compartilhada do cache
+    private Cliente buscarParaAlteracao(String cpfCnpj, TipoContaEnum tipoConta) {
+        return clienteDao.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta)
+                .orElseThrow(ClienteNaoEncontradoException::new);
+    }
+
+    // com o motor de saldo ativo o saldo do banco pode estar atrasado em relacao ao da memoria;
+    // o cliente recebido e sempre uma copia do cache ou uma entidade desta consulta, nunca a instancia em cache
+    private void aplicarSaldoDoMotor(Cliente cliente) {
+        motorSaldo.saldoAtual(ChaveConta.de(cliente)).ifPresent(cliente::setSaldo);
+    }
+
     private Cliente toEntity(CadastroClienteDto cliente) {
         Cliente entity = new Cliente();
         entity.setNome(cliente.getNome());
         entity.setCpfCnpj(cliente.getCpfCnpj());
-        entity.setSaldo(new BigDecimal(cliente.getSaldo()));
+        entity.setSaldo(cliente.getSaldo().dinheiro());
         entity.setAgencia(cliente.getAgencia());
         entity.setConta(cliente.getConta());
         entity.setTipoConta(cliente.getTipoConta());
@@ -0,0 +1,174 @@
+package org.viniciusvirgilli.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dto.LancamentoDto;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.historico.Lancamento;
+import org.viniciusvirgilli.historico.ProjecaoHistorico;
+import org.viniciusvirgilli.historico.TabelaHistoricoOperacao;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.util.DataUtil;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Extrato de uma conta a partir de {@code historico_operacao}. Cada linha do historico guarda o saldo resultante,
+ * entao os saldos inicial e final sao uma busca no indice cada (a ultima operacao antes do instante), sem somar
+ * o periodo; os lancamentos sao paginados por chave (instante, instancia, sequencia).
+ */
+@Slf4j
+@ApplicationScoped
+public class ExtratoService {
+
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @ConfigProperty(name = "historico.extrato.limite-padrao", defaultValue = "1000")
+    int limitePadrao;
+
+    @ConfigProperty(name = "historico.extrato.limite-maximo", defaultValue = "10000")
+    int limiteMaximo;
+
+    @ConfigProperty(name = "historico.extrato.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @ConfigProperty(name = "operacao.data.zona", defaultValue = "America/Sao_Paulo")
+    String zonaDataOperacao;
+
+    @Inject
+    ProjecaoHistorico projecao;
+
+    @Inject
+    TabelaHistoricoOperacao tabela;
+
+    @Inject
+    ClienteService clienteService;
+
+    private ZoneId zona;
+
+    @PostConstruct
+    void iniciar() {
+        zona = ZoneId.of(zonaDataOperacao);
+    }
+
+    /**
+     * @param inicio    inicio do periodo (inclusive), no formato da data da operacao
+     * @param fim       fim do periodo (exclusive)
+     * @param aPartirDe {@code proximo} da pagina anterior, ou nulo na primeira
+     */
+    public Consulta abrir(String cpfCnpj, TipoContaEnum tipoConta, String inicio, String fim, String aPartirDe,
+                          Integer limite) {
+        if (!projecao.isAtivo()) {
+            throw new IllegalStateException("Extrato indisponível com o histórico de operações desativado");
+        }
+        long inicioMs = instante(inicio, "inicio");
+        long fimMs = instante(fim, "fim");
+        if (fimMs <= inicioMs) {
+            throw new IllegalArgumentException("fim deve ser posterior a inicio");
+        }
+        int limitePagina = limite(limite);
+
+        // na primeira pagina a instancia vazia vem antes de qualquer id (que nunca e vazio)
+        long aPartirDoInstante = inicioMs;
+        String aPartirDaInstancia = "";
+        long aPartirDaSequencia = 0;
+        if (aPartirDe != null) {
+            // a instancia fica por ultimo porque pode conter '-'
+            String[] cursor = aPartirDe.split("-", 3);
+            try {
+                aPartirDoInstante = Long.parseLong(cursor[0]);
+                aPartirDaSequencia = Long.parseLong(cursor[1]);
+                aPartirDaInstancia = cursor[2];
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("aPartirDe inválido: " + aPartirDe);
+            }
+        }
+
+        log.info("[EXTRATO] - Extrato da conta {} - {} de {} a {} (a partir de {})", cpfCnpj, tipoConta, inicio, fim, aPartirDe);
+        Cliente cliente = clienteService.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta);
+        long chave = ChaveConta.numerica(cpfCnpj, tipoConta);
+        try {
+            return new Consulta(chave, inicioMs, fimMs, aPartirDoInstante, aPartirDaInstancia, aPartirDaSequencia, limitePagina,
+                    saldoEm(chave, inicioMs, cliente.getSaldo()), saldoEm(chave, fimMs, cliente.getSaldo()));
+        } catch (SQLException e) {
+            log.error("[EXTRATO] - Erro ao consultar o histórico da conta {} - {}", cpfCnpj, tipoConta, e);
+            throw new RuntimeException("Erro ao consultar o histórico da conta", e);
+        }
+    }
+
+    /**
+     * Entrega os lancamentos da pagina, na ordem, enquanto sao lidos do banco.
+     *
+     * @return o {@code aPartirDe} da proxima pagina, ou {@code null} na ultima
+     */
+    public String percorrer(Consulta consulta, Consumer<LancamentoDto> consumidor) {
+        Lancamento[] ultimo = {null};
+        int[] total = {0};
+        try {
+            tabela.percorrer(consulta.chaveConta(), consulta.inicio(), consulta.fim(), consulta.aPartirDoInstante(),
+                    consulta.aPartirDaInstancia(), consulta.aPartirDaSequencia(), consulta.limite(), fetchSize, lancamento -> {
+                        consumidor.accept(LancamentoDto.builder()
+                                .dataHora(FORMATO_DATA_HORA.format(Instant.ofEpochMilli(lancamento.instante()).atZone(zona)))
+                                .tipoOperacao(lancamento.tipoOperacao())
+                                .valor(Dinheiro.deCentavos(lancamento.valorCentavos()))
+                                .saldo(Dinheiro.deCentavos(lancamento.saldoCentavos()))
+                                .build());
+                        ultimo[0] = lancamento;
+                        total[0]++;
+                    });
+        } catch (SQLException e) {
+            log.error("[EXTRATO] - Erro ao ler os lançamentos da conta {}", consulta.chaveConta(), e);
+            throw new RuntimeException("Erro ao ler os lançamentos da conta", e);
+        }
+        return total[0] == consulta.limite()
+                ? ultimo[0].instante() + "-" + ultimo[0].sequencia() + "-" + ultimo[0].instancia()
+                : null;
+    }
+
+    /**
+     * Saldo da ultima operacao antes do instante; sem nenhuma, o saldo anterior a primeira operacao depois dele
+     * (contas com movimento anterior ao historico); sem movimento algum desde o instante, o saldo atual.
+     */
+    private Dinheiro saldoEm(long chave, long instante, Dinheiro saldoAtual) throws SQLException {
+        OptionalLong antes = tabela.saldoAntes(chave, instante);
+        if (antes.isPresent()) {
+            return Dinheiro.deCentavos(antes.getAsLong());
+        }
+        Lancamento primeiro = tabela.primeiroAPartirDe(chave, instante);
+        return primeiro != null ? Dinheiro.deCentavos(primeiro.saldoAnteriorCentavos()) : saldoAtual;
+    }
+
+    private long instante(String texto, String campo) {
+        LocalDateTime dataHora = DataUtil.parseDataOperacao(texto);
+        if (dataHora == null) {
+            throw new IllegalArgumentException(campo + " deve estar no formato dd/MM/yyyy HH:mm:ss");
+        }
+        return dataHora.atZone(zona).toInstant().toEpochMilli();
+    }
+
+    private int limite(Integer limite) {
+        if (limite == null) {
+            return limitePadrao;
+        }
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + limiteMaximo);
+        }
+        return limite;
+    }
+
+    /** Periodo em epoch ms, posicao da pagina e saldos ja calculados. */
+    public record Consulta(long chaveConta, long inicio, long fim, long aPartirDoInstante, String aPartirDaInstancia,
+                           long aPartirDaSequencia, int limite, Dinheiro saldoInicial, Dinheiro saldoFinal) {
+    }
+}
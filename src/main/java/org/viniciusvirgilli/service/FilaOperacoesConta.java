@@ -0,0 +1,180 @@
+package org.viniciusvirgilli.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.motor.MotorSaldo;
+import org.viniciusvirgilli.validador.CreditoDebitoValidador;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fila por conta (cpfCnpj + tipoConta) para creditos/debitos sem Idempotency-Key. Cada conta tem no maximo um
+ * escritor, uma thread virtual que drena as operacoes pendentes e as aplica em rodadas: cada rodada e uma unica
+ * transacao (um SELECT FOR UPDATE, um UPDATE do saldo final, um commit) e cada chamador recebe o seu resultado.
+ * Enquanto uma rodada faz commit as novas operacoes se acumulam para a seguinte, entao numa conta quente o
+ * tamanho da rodada acompanha a latencia do commit em vez de cada operacao pagar um commit.
+ */
+@Slf4j
+@ApplicationScoped
+public class FilaOperacoesConta {
+
+    @ConfigProperty(name = "operacao.fila-conta.enable", defaultValue = "false")
+    boolean enable;
+
+    @ConfigProperty(name = "operacao.fila-conta.tamanho-maximo", defaultValue = "256")
+    int tamanhoMaximo;
+
+    @Inject
+    OperacaoService operacaoService;
+
+    @Inject
+    CreditoDebitoValidador validador;
+
+    @Inject
+    MotorSaldo motorSaldo;
+
+    @Inject
+    MetricasOperacao metricas;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<ChaveConta, Caixa> caixas = new ConcurrentHashMap<>();
+    private DistributionSummary tamanhoRodada;
+
+    @PostConstruct
+    void iniciar() {
+        tamanhoRodada = DistributionSummary.builder("operacao.fila-conta.rodada")
+                .description("Operacoes aplicadas por commit na fila por conta")
+                .register(registry);
+    }
+
+    /**
+     * Com a fila desativada, ou com o motor de saldo ativo, a operacao segue direto para o {@link OperacaoService}.
+     */
+    public void executar(CreditoDebitoDto dto) {
+        if (!enable || dto == null || motorSaldo.isAtivo()) {
+            operacaoService.executar(dto);
+            return;
+        }
+
+        try {
+            validador.validar(dto);
+        } catch (ValidadorException e) {
+            metricas.registrarFalha(dto.getTipoOperacao(), e);
+            throw e;
+        }
+
+        ChaveConta chave = new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta());
+        Pendente pendente = new Pendente(dto, new CompletableFuture<>());
+        // adiciona sob o lock da chave no mapa, o mesmo da remocao: nunca numa caixa que ja saiu do mapa
+        Caixa caixa = caixas.compute(chave, (k, atual) -> {
+            Caixa destino = atual != null ? atual : new Caixa();
+            destino.pendentes.add(pendente);
+            return destino;
+        });
+        acordarEscritor(chave, caixa);
+
+        ResultadoOperacaoEnum resultado;
+        try {
+            resultado = pendente.resultado().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException falha) {
+                throw falha;
+            }
+            throw e;
+        }
+        if (resultado != ResultadoOperacaoEnum.OK) {
+            throw resultado.recusa();
+        }
+    }
+
+    private void acordarEscritor(ChaveConta chave, Caixa caixa) {
+        if (caixa.escrevendo.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("fila-conta").start(() -> escrever(chave, caixa));
+        }
+    }
+
+    /**
+     * O escritor so termina removendo a caixa vazia do mapa. Depois disso ninguem mais adiciona nela, entao
+     * nao fica operacao parada nem surge um segundo escritor para a mesma conta.
+     */
+    private void escrever(ChaveConta chave, Caixa caixa) {
+        boolean removida = false;
+        try {
+            while (!removida) {
+                List<Pendente> rodada;
+                while (!(rodada = proximaRodada(caixa)).isEmpty()) {
+                    aplicar(chave, rodada);
+                }
+                removida = removerSeVazia(chave, caixa);
+            }
+        } finally {
+            // saida por erro inesperado: a caixa continua no mapa e o proximo chamador acorda outro escritor
+            if (!removida) {
+                caixa.escrevendo.set(false);
+            }
+        }
+    }
+
+    // uma operacao adicionada entre a fila vazia e este ponto mantem a caixa no mapa para a proxima rodada
+    private boolean removerSeVazia(ChaveConta chave, Caixa caixa) {
+        return caixas.computeIfPresent(chave, (k, atual) -> atual == caixa && caixa.pendentes.isEmpty() ? null : atual) != caixa;
+    }
+
+    private List<Pendente> proximaRodada(Caixa caixa) {
+        List<Pendente> rodada = new ArrayList<>();
+        Pendente pendente;
+        while (rodada.size() < tamanhoMaximo && (pendente = caixa.pendentes.poll()) != null) {
+            rodada.add(pendente);
+        }
+        return rodada;
+    }
+
+    private void aplicar(ChaveConta chave, List<Pendente> rodada) {
+        List<ResultadoOperacaoEnum> resultados;
+        try {
+            resultados = operacaoService.aplicarNaConta(chave, rodada.stream().map(Pendente::dto).toList());
+        } catch (RuntimeException e) {
+            log.error("[OPERACAO-FILA] - Erro ao aplicar {} operação(ões) na conta {}", rodada.size(), chave, e);
+            for (Pendente pendente : rodada) {
+                metricas.registrarFalha(pendente.dto().getTipoOperacao(), e);
+                pendente.resultado().completeExceptionally(e);
+            }
+            return;
+        }
+
+        tamanhoRodada.record(rodada.size());
+        log.debug("[OPERACAO-FILA] - {} operação(ões) aplicada(s) na conta {} em um commit", rodada.size(), chave);
+        for (int i = 0; i < rodada.size(); i++) {
+            Pendente pendente = rodada.get(i);
+            metricas.registrar(pendente.dto().getTipoOperacao(), resultados.get(i));
+            pendente.resultado().complete(resultados.get(i));
+        }
+    }
+
+    private static final class Caixa {
+        private final Queue<Pendente> pendentes = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean escrevendo = new AtomicBoolean();
+    }
+
+    private record Pendente(CreditoDebitoDto dto, CompletableFuture<ResultadoOperacaoEnum> resultado) {
+    }
+}
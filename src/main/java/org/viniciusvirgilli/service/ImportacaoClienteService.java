@@ -0,0 +1,206 @@
+package org.viniciusvirgilli.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ErroImportacaoDto;
+import org.viniciusvirgilli.dto.ResultadoImportacaoDto;
+import org.viniciusvirgilli.enums.FormatoImportacaoEnum;
+import org.viniciusvirgilli.enums.ResultadoImportacaoEnum;
+import org.viniciusvirgilli.importacao.ConversorCadastro;
+import org.viniciusvirgilli.importacao.LinhaImportacao;
+import org.viniciusvirgilli.importacao.PreparacaoImportacao;
+import org.viniciusvirgilli.importacao.PreparacaoImportacao.LinhaPreparada;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.validador.CadastroClienteValidador;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cadastro em massa a partir de CSV ou JSONL. A entrada e lida em blocos de {@code cliente.importacao.bloco}
+ * linhas: cada bloco e convertido e validado em paralelo e gravado em uma transacao propria, entao a memoria
+ * usada depende do bloco e nao do arquivo. Blocos ja gravados permanecem se a importacao for interrompida.
+ */
+@Slf4j
+@ApplicationScoped
+public class ImportacaoClienteService {
+
+    // com um unico processador a divisao do bloco so acrescenta custo
+    private static final boolean PARALELO = Runtime.getRuntime().availableProcessors() > 1;
+    private static final int TENTATIVAS_BLOCO = 2;
+
+    @Inject
+    CadastroClienteValidador validador;
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "cliente.importacao.bloco", defaultValue = "1000")
+    int tamanhoBloco;
+
+    @ConfigProperty(name = "cliente.importacao.erros-maximo", defaultValue = "10000")
+    int errosMaximo;
+
+    public ResultadoImportacaoDto importar(InputStream entrada, FormatoImportacaoEnum formato) {
+        long inicio = System.nanoTime();
+        ResultadoImportacaoDto resultado = new ResultadoImportacaoDto();
+        log.info("[IMPORTACAO] - Iniciando importação de clientes em {}", formato);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 1 << 16)) {
+            int numero = 0;
+            ConversorCadastro conversor;
+            if (formato == FormatoImportacaoEnum.CSV) {
+                conversor = ConversorCadastro.csv(leitor.readLine());
+                numero++;
+            } else {
+                conversor = ConversorCadastro.jsonl(objectMapper.readerFor(CadastroClienteDto.class));
+            }
+            PreparacaoImportacao preparacao = new PreparacaoImportacao(conversor, validador);
+
+            List<LinhaImportacao> bloco = new ArrayList<>(tamanhoBloco);
+            String texto;
+            while ((texto = leitor.readLine()) != null) {
+                numero++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                bloco.add(new LinhaImportacao(numero, texto));
+                if (bloco.size() == tamanhoBloco) {
+                    processarBloco(preparacao, bloco, resultado);
+                    bloco.clear();
+                }
+            }
+            if (!bloco.isEmpty()) {
+                processarBloco(preparacao, bloco, resultado);
+            }
+        } catch (IOException e) {
+            log.error("[IMPORTACAO] - Leitura interrompida após {} linha(s), {} importada(s)",
+                    resultado.getLinhas(), resultado.getImportados(), e);
+            throw new UncheckedIOException("Erro ao ler o arquivo de importação", e);
+        }
+
+        long nanos = Math.max(1, System.nanoTime() - inicio);
+        resultado.setLinhasPorSegundo(resultado.getLinhas() * 1_000_000_000L / nanos);
+        log.info("[IMPORTACAO] - Importação finalizada: {} linha(s), {} importada(s), {} rejeitada(s), {} linha(s)/s",
+                resultado.getLinhas(), resultado.getImportados(), resultado.getRejeitados(), resultado.getLinhasPorSegundo());
+        return resultado;
+    }
+
+    private void processarBloco(PreparacaoImportacao preparacao, List<LinhaImportacao> bloco, ResultadoImportacaoDto resultado) {
+        LinhaPreparada[] preparadas = preparacao.preparar(bloco, PARALELO);
+        resultado.setLinhas(resultado.getLinhas() + preparadas.length);
+
+        Map<ChaveConta, LinhaPreparada> novos = new LinkedHashMap<>();
+        for (LinhaPreparada linha : preparadas) {
+            if (linha.erro() != null) {
+                rejeitar(resultado, linha.erro());
+            } else if (novos.putIfAbsent(chave(linha.cadastro()), linha) != null) {
+                rejeitar(resultado, linha, ResultadoImportacaoEnum.DUPLICADO);
+            }
+        }
+        if (novos.isEmpty()) {
+            return;
+        }
+
+        gravarBloco(novos, bloco.getFirst().numero(), resultado);
+    }
+
+    /**
+     * A consulta das chaves existentes e o INSERT nao sao atomicos: outra importacao ou um cadastro pode gravar
+     * uma das chaves nesse intervalo e a violacao de unicidade desfaz o bloco inteiro. A nova tentativa ja
+     * encontra essas chaves e as marca como duplicadas; se a disputa se repetir, o bloco e gravado linha a linha.
+     */
+    private void gravarBloco(Map<ChaveConta, LinhaPreparada> novos, int primeiraLinha, ResultadoImportacaoDto resultado) {
+        Map<ChaveConta, CadastroClienteDto> cadastros = new LinkedHashMap<>();
+        novos.forEach((chave, linha) -> cadastros.put(chave, linha.cadastro()));
+
+        for (int tentativa = 1; tentativa <= TENTATIVAS_BLOCO; tentativa++) {
+            try {
+                Set<ChaveConta> existentes = clienteService.cadastrarNovos(cadastros);
+                existentes.forEach(chave -> rejeitar(resultado, novos.get(chave), ResultadoImportacaoEnum.DUPLICADO));
+                resultado.setImportados(resultado.getImportados() + novos.size() - existentes.size());
+                return;
+            } catch (Exception e) {
+                if (!isChaveDuplicada(e)) {
+                    log.error("[IMPORTACAO] - Erro ao gravar bloco de {} cliente(s) a partir da linha {}",
+                            novos.size(), primeiraLinha, e);
+                    novos.values().forEach(linha -> rejeitar(resultado, linha, ResultadoImportacaoEnum.ERRO));
+                    return;
+                }
+                log.warn("[IMPORTACAO] - Chave cadastrada em paralelo no bloco a partir da linha {} (tentativa {} de {})",
+                        primeiraLinha, tentativa, TENTATIVAS_BLOCO);
+            }
+        }
+
+        log.warn("[IMPORTACAO] - Gravando linha a linha o bloco de {} cliente(s) a partir da linha {}",
+                novos.size(), primeiraLinha);
+        novos.forEach((chave, linha) -> gravarLinha(chave, linha, resultado));
+    }
+
+    private void gravarLinha(ChaveConta chave, LinhaPreparada linha, ResultadoImportacaoDto resultado) {
+        try {
+            if (clienteService.cadastrarNovos(Map.of(chave, linha.cadastro())).isEmpty()) {
+                resultado.setImportados(resultado.getImportados() + 1);
+            } else {
+                rejeitar(resultado, linha, ResultadoImportacaoEnum.DUPLICADO);
+            }
+        } catch (Exception e) {
+            if (isChaveDuplicada(e)) {
+                rejeitar(resultado, linha, ResultadoImportacaoEnum.DUPLICADO);
+                return;
+            }
+            log.error("[IMPORTACAO] - Erro ao gravar o cliente da linha {}", linha.numero(), e);
+            rejeitar(resultado, linha, ResultadoImportacaoEnum.ERRO);
+        }
+    }
+
+    private void rejeitar(ResultadoImportacaoDto resultado, LinhaPreparada linha, ResultadoImportacaoEnum motivo) {
+        rejeitar(resultado, ErroImportacaoDto.builder()
+                .linha(linha.numero())
+                .cpfCnpj(linha.cadastro().getCpfCnpj())
+                .tipoConta(linha.cadastro().getTipoConta())
+                .resultado(motivo)
+                .mensagem(motivo.getMensagem())
+                .build());
+    }
+
+    private void rejeitar(ResultadoImportacaoDto resultado, ErroImportacaoDto erro) {
+        resultado.setRejeitados(resultado.getRejeitados() + 1);
+        if (resultado.getErros().size() < errosMaximo) {
+            resultado.getErros().add(erro);
+        } else {
+            resultado.setErrosOmitidos(true);
+        }
+    }
+
+    // 23505: violacao de unicidade, o mesmo codigo no H2 e no PostgreSQL
+    private static boolean isChaveDuplicada(Throwable falha) {
+        for (Throwable causa = falha; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException e && "23505".equals(e.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ChaveConta chave(CadastroClienteDto cadastro) {
+        return new ChaveConta(cadastro.getCpfCnpj(), cadastro.getTipoConta());
+    }
+}
@@ -0,0 +1,59 @@
+package org.viniciusvirgilli.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+
+/**
+ * Contadores de credito/debito por resultado. Todas as combinacoes de tipo x resultado sao registradas
+ * na inicializacao; incrementar e apenas um acesso a array, sem montar tags a cada operacao.
+ */
+@ApplicationScoped
+public class MetricasOperacao {
+
+    private static final String NOME = "operacao.resultado";
+    private static final String TIPO_NAO_INFORMADO = "NAO_INFORMADO";
+    private static final String RESULTADO_ERRO = "ERRO";
+
+    private static final TipoOperacaoEnum[] TIPOS = TipoOperacaoEnum.values();
+    private static final ResultadoOperacaoEnum[] RESULTADOS = ResultadoOperacaoEnum.values();
+
+    @Inject
+    MeterRegistry registry;
+
+    // [tipo][resultado]; a ultima linha e para operacoes sem tipo e a ultima coluna para erros inesperados
+    private Counter[][] contadores;
+
+    @PostConstruct
+    void iniciar() {
+        contadores = new Counter[TIPOS.length + 1][RESULTADOS.length + 1];
+        for (int t = 0; t <= TIPOS.length; t++) {
+            String tipo = t < TIPOS.length ? TIPOS[t].name() : TIPO_NAO_INFORMADO;
+            for (int r = 0; r <= RESULTADOS.length; r++) {
+                String resultado = r < RESULTADOS.length ? RESULTADOS[r].name() : RESULTADO_ERRO;
+                contadores[t][r] = Counter.builder(NOME)
+                        .description("Operacoes de credito/debito por resultado")
+                        .tag("tipo", tipo)
+                        .tag("resultado", resultado)
+                        .register(registry);
+            }
+        }
+    }
+
+    public void registrar(TipoOperacaoEnum tipo, ResultadoOperacaoEnum resultado) {
+        contadores[indice(tipo)][resultado.ordinal()].increment();
+    }
+
+    public void registrarFalha(TipoOperacaoEnum tipo, Throwable falha) {
+        ResultadoOperacaoEnum resultado = ResultadoOperacaoEnum.daFalha(falha);
+        contadores[indice(tipo)][resultado == null ? RESULTADOS.length : resultado.ordinal()].increment();
+    }
+
+    private static int indice(TipoOperacaoEnum tipo) {
+        return tipo == null ? TIPOS.length : tipo.ordinal();
+    }
+}
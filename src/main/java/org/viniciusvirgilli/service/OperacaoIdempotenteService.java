@@ -0,0 +1,95 @@
+package org.viniciusvirgilli.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.exception.NegocioException;
+import org.viniciusvirgilli.exception.OperacaoEmAndamentoException;
+import org.viniciusvirgilli.idempotencia.JanelaIdempotencia;
+import org.viniciusvirgilli.model.OperacaoIdempotente;
+
+import java.util.Optional;
+
+/**
+ * Credito/debito com {@code Idempotency-Key}: uma repeticao recebe o resultado da primeira tentativa
+ * (sucesso ou recusa por regra de negocio) sem que a operacao seja aplicada de novo.
+ * Erros inesperados nao sao registrados, e a repeticao executa a operacao normalmente.
+ */
+@Slf4j
+@ApplicationScoped
+public class OperacaoIdempotenteService {
+
+    @Inject
+    OperacaoService operacaoService;
+
+    @Inject
+    JanelaIdempotencia janela;
+
+    @Inject
+    FilaOperacoesConta filaOperacoes;
+
+    /**
+     * @return {@code true} se a operacao ja havia sido aplicada e a resposta e uma repeticao
+     */
+    public boolean executar(CreditoDebitoDto dto, String chave) {
+        if (chave == null || chave.isBlank() || dto == null || !janela.isAtivo()) {
+            // sem chave a operacao pode ser agrupada com as demais da conta; com chave a reserva exige a propria transacao
+            filaOperacoes.executar(dto);
+            return false;
+        }
+        if (chave.length() > OperacaoIdempotente.TAMANHO_CHAVE) {
+            throw new IllegalArgumentException("Idempotency-Key deve ter até " + OperacaoIdempotente.TAMANHO_CHAVE + " caracteres");
+        }
+
+        // chave nova custa so o INSERT da reserva; a tabela e lida apenas quando a reserva colide
+        Optional<ResultadoOperacaoEnum> anterior = janela.consultar(chave, dto, false);
+        if (anterior.isPresent()) {
+            return repetir(chave, anterior.get());
+        }
+
+        try {
+            operacaoService.executar(dto, chave);
+            return false;
+        } catch (OperacaoEmAndamentoException e) {
+            anterior = janela.consultar(chave, dto, true);
+            if (anterior.isPresent()) {
+                return repetir(chave, anterior.get());
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            ResultadoOperacaoEnum resultado = ResultadoOperacaoEnum.daFalha(causa(e));
+            if (resultado != null && resultado != ResultadoOperacaoEnum.INVALIDO) {
+                registrarRecusa(chave, dto, resultado);
+            }
+            throw e;
+        }
+    }
+
+    private void registrarRecusa(String chave, CreditoDebitoDto dto, ResultadoOperacaoEnum resultado) {
+        try {
+            janela.registrarRecusa(chave, dto, resultado);
+        } catch (RuntimeException e) {
+            // sem o registro a repeticao apenas reavalia a operacao
+            log.warn("[IDEMPOTENCIA] - Não foi possível registrar a recusa da chave {}: {}", chave, e.getMessage());
+        }
+    }
+
+    private boolean repetir(String chave, ResultadoOperacaoEnum resultado) {
+        log.info("[IDEMPOTENCIA] - Repetição da chave {}: {}", chave, resultado);
+        NegocioException recusa = resultado.recusa();
+        if (recusa != null) {
+            throw recusa;
+        }
+        return true;
+    }
+
+    private static Throwable causa(Throwable throwable) {
+        Throwable cause;
+        while ((cause = throwable.getCause()) != null) {
+            throwable = cause;
+        }
+        return throwable;
+    }
+}
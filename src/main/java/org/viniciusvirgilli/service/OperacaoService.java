@@ -2,109 +2,447 @@ package org.viniciusvirgilli.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.cache.ClienteCache;
+import org.viniciusvirgilli.dao.ClienteDao;
 import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.ResultadoOperacaoDto;
+import org.viniciusvirgilli.dto.TransferenciaDto;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
 import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.ClienteNaoEncontradoException;
+import org.viniciusvirgilli.exception.ContaInativaException;
 import org.viniciusvirgilli.exception.ForaDoLimiteException;
+import org.viniciusvirgilli.exception.NegocioException;
+import org.viniciusvirgilli.exception.OperacaoIndisponivelException;
 import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.idempotencia.JanelaIdempotencia;
+import org.viniciusvirgilli.journal.JournalOperacoes;
+import org.viniciusvirgilli.limite.ContadorConsumoPix;
+import org.viniciusvirgilli.limite.ReservaConsumoPix;
+import org.viniciusvirgilli.model.ChaveConta;
 import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.motor.MotorSaldo;
 import org.viniciusvirgilli.validador.CreditoDebitoValidador;
-import org.viniciusvirgilli.util.DataUtil;
+import org.viniciusvirgilli.validador.TransferenciaValidador;
 
-import java.math.BigDecimal;
+import java.util.*;
 
 @Slf4j
 @ApplicationScoped
 public class OperacaoService {
 
+    private static final int TAMANHO_BLOCO_CONSULTA = 500;
+
     @Inject
     CreditoDebitoValidador validador;
 
     @Inject
-    ClienteService clienteService;
+    TransferenciaValidador transferenciaValidador;
+
+    @Inject
+    ClienteDao clienteDao;
+
+    @Inject
+    MotorSaldo motorSaldo;
+
+    @Inject
+    ClienteCache clienteCache;
+
+    @Inject
+    JournalOperacoes journal;
+
+    @Inject
+    PeriodoLimiteResolver periodoLimiteResolver;
+
+    @Inject
+    MetricasOperacao metricas;
+
+    @Inject
+    JanelaIdempotencia idempotencia;
+
+    @Inject
+    ContadorConsumoPix consumoPix;
+
+    @ConfigProperty(name = "operacao.lote.tamanho-maximo", defaultValue = "10000")
+    int tamanhoMaximoLote;
 
     @Transactional
     public void executar(CreditoDebitoDto dto) {
-        validador.validar(dto);
+        executar(dto, null);
+    }
+
+    /**
+     * Com {@code chaveIdempotencia} a chave e gravada na mesma transacao, antes da alteracao da conta:
+     * uma repeticao concorrente espera o commit desta e falha na PK sem aplicar a operacao de novo.
+     */
+    @Transactional
+    public void executar(CreditoDebitoDto dto, String chaveIdempotencia) {
+        try {
+            validador.validar(dto);
+        } catch (ValidadorException e) {
+            metricas.registrarFalha(dto.getTipoOperacao(), e);
+            throw e;
+        }
+
+        if (chaveIdempotencia != null) {
+            idempotencia.reservar(chaveIdempotencia, dto);
+        }
 
         try {
-            if (dto.getTipoOperacao() == TipoOperacaoEnum.CREDITO) {
+            if (motorSaldo.isAtivo()) {
+                executarNoMotor(dto);
+            } else if (dto.getTipoOperacao() == TipoOperacaoEnum.CREDITO) {
                 creditar(dto);
             } else if (dto.getTipoOperacao() == TipoOperacaoEnum.DEBITO) {
                 debitar(dto);
             }
+            metricas.registrar(dto.getTipoOperacao(), ResultadoOperacaoEnum.OK);
+        } catch (NegocioException e) {
+            metricas.registrarFalha(dto.getTipoOperacao(), e);
+            throw e;
         } catch (Exception e) {
+            metricas.registrarFalha(dto.getTipoOperacao(), e);
             log.error("[OPERACAO] - Erro ao executar operação: {}", dto, e);
             throw new RuntimeException("Erro ao executar operação", e);
         }
     }
 
-    private void creditar(CreditoDebitoDto dto) {
-        log.info("[OPERACAO] - Iniciando operação de crédito: {}", dto);
-        
-        try {
-            Cliente cliente = clienteService.findByCpfCnpjAndTipoConta(dto.getCpfCnpj(), dto.getTipoConta());
-            if (cliente.getSituacaoConta() == SituacaoContaEnum.ATIVA) {
-                cliente.setSaldo(new BigDecimal(cliente.getSaldo().toString()).add(new BigDecimal(dto.getValor())));
-                clienteService.atualizarCliente(cliente);
-            } else {
-                log.error("[OPERACAO] - Cliente não está ativo: {}", dto);
-                throw new RuntimeException("Cliente não está ativo");
+    @Transactional
+    public List<ResultadoOperacaoDto> executarLote(List<CreditoDebitoDto> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("Lote de operações vazio");
+        }
+        if (dtos.size() > tamanhoMaximoLote) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + tamanhoMaximoLote + " operações");
+        }
+        log.info("[OPERACAO-LOTE] - Iniciando lote com {} operação(ões)", dtos.size());
+
+        ResultadoOperacaoDto[] resultados = new ResultadoOperacaoDto[dtos.size()];
+        Map<ChaveConta, List<Integer>> grupos = new LinkedHashMap<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            CreditoDebitoDto dto = dtos.get(i);
+            if (dto == null) {
+                resultados[i] = ResultadoOperacaoDto.builder().indice(i).resultado(ResultadoOperacaoEnum.INVALIDO).build();
+                continue;
+            }
+            try {
+                validador.validar(dto);
+                grupos.computeIfAbsent(new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta()), k -> new ArrayList<>()).add(i);
+            } catch (ValidadorException e) {
+                resultados[i] = resultado(i, dto, ResultadoOperacaoEnum.INVALIDO);
+                resultados[i].setCampos(e.getCamposComProblemas().getCampos());
             }
-        } catch (Exception e) {
-            log.error("[OPERACAO] - Cliente não encontrado: {}", dto, e);
-            throw new RuntimeException("Cliente não encontrado", e);
         }
-    }
 
-    private void debitar(CreditoDebitoDto dto) {
-        log.info("[OPERACAO] - Iniciando operação de débito: {}", dto);
-            Cliente cliente = clienteService.findByCpfCnpjAndTipoConta(dto.getCpfCnpj(), dto.getTipoConta());
-            if (cliente.getSituacaoConta() == SituacaoContaEnum.ATIVA) {
-                if (saldoNaoSuficiente(cliente, dto)) {
-                    log.error("[OPERACAO] - Saldo insuficiente: {}", dto);
-                    throw new SaldoNaoSuficienteException("Saldo insuficiente");
+        if (motorSaldo.isAtivo()) {
+            grupos.values().forEach(indices -> indices.forEach(i ->
+                    resultados[i] = resultado(i, dtos.get(i), executarItemNoMotor(dtos.get(i)))));
+        } else {
+            Map<ChaveConta, Cliente> clientes = carregarParaAtualizacao(grupos.keySet());
+            grupos.forEach((chave, indices) -> {
+                Cliente cliente = clientes.get(chave);
+                for (int i : indices) {
+                    ResultadoOperacaoEnum resultado = cliente == null
+                            ? ResultadoOperacaoEnum.CLIENTE_NAO_ENCONTRADO
+                            : aplicarNoCliente(cliente, dtos.get(i));
+                    resultados[i] = resultado(i, dtos.get(i), resultado);
+                    if (resultado == ResultadoOperacaoEnum.OK) {
+                        registrarNoJournal(dtos.get(i), dtos.get(i).getValor().dinheiro(), cliente.getSaldo());
+                    }
                 }
-                if (isLimitePixPermitido(cliente, dto)) {
-                    cliente.setSaldo(new BigDecimal(cliente.getSaldo().toString()).subtract(new BigDecimal(dto.getValor())));
-                    clienteService.atualizarCliente(cliente);
-                } else {
-                    log.error("[OPERACAO] - Limite de PIX não permitido: {}", dto);
-                    throw new ForaDoLimiteException("Limite de PIX não permitido");
+                if (cliente != null) {
+                    clienteCache.invalidar(cliente);
                 }
-            } else {
-                log.error("[OPERACAO] - Cliente não está ativo: {}", dto);
-                throw new RuntimeException("Cliente não está ativo");
+            });
+            // os clientes alterados sao gravados no commit, em UPDATEs agrupados pelo batch do JDBC
+        }
+
+        for (ResultadoOperacaoDto resultado : resultados) {
+            metricas.registrar(resultado.getTipoOperacao(), resultado.getResultado());
+        }
+        log.info("[OPERACAO-LOTE] - Lote finalizado: {} operação(ões) em {} conta(s)", dtos.size(), grupos.size());
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Debito na origem e credito no destino na mesma transacao, com as mesmas regras de saldo e limite PIX
+     * de um debito avulso. As duas contas sao travadas numa unica consulta na ordem canonica (chave numerica
+     * da conta), a mesma do lote, entao transferencias em sentidos opostos nao entram em deadlock.
+     */
+    @Transactional
+    public void transferir(TransferenciaDto dto) {
+        try {
+            transferenciaValidador.validar(dto);
+        } catch (ValidadorException e) {
+            metricas.registrarFalha(TipoOperacaoEnum.DEBITO, e);
+            throw e;
+        }
+        if (motorSaldo.isAtivo()) {
+            // o WAL do motor registra uma conta por vez e nao garante as duas pernas juntas
+            OperacaoIndisponivelException indisponivel =
+                    new OperacaoIndisponivelException(OperacaoIndisponivelException.TRANSFERENCIA_COM_MOTOR);
+            metricas.registrarFalha(TipoOperacaoEnum.DEBITO, indisponivel);
+            throw indisponivel;
+        }
+        log.info("[TRANSFERENCIA] - Iniciando transferência: {}", dto);
+
+        CreditoDebitoDto debito = dto.paraDebito();
+        CreditoDebitoDto credito = dto.paraCredito();
+        ChaveConta chaveOrigem = new ChaveConta(debito.getCpfCnpj(), debito.getTipoConta());
+        ChaveConta chaveDestino = new ChaveConta(credito.getCpfCnpj(), credito.getTipoConta());
+
+        Map<ChaveConta, Cliente> contas = new HashMap<>();
+        for (Cliente cliente : clienteDao.findParaTransferencia(chaveOrigem, chaveDestino)) {
+            contas.put(ChaveConta.de(cliente), cliente);
+        }
+        Cliente origem = contas.get(chaveOrigem);
+        Cliente destino = contas.get(chaveDestino);
+
+        try {
+            if (origem == null || destino == null) {
+                throw new ClienteNaoEncontradoException();
             }
+            // o destino e conferido antes para que uma recusa nao deixe reserva de limite na origem
+            if (destino.getSituacaoConta() != SituacaoContaEnum.ATIVA) {
+                throw new ContaInativaException();
+            }
+            ResultadoOperacaoEnum resultado = aplicarNoCliente(origem, debito);
+            if (resultado != ResultadoOperacaoEnum.OK) {
+                throw resultado.recusa();
+            }
+            aplicarNoCliente(destino, credito);
+        } catch (NegocioException e) {
+            log.info("[TRANSFERENCIA] - Transferência recusada ({}): {}", e.getMessage(), dto);
+            metricas.registrarFalha(TipoOperacaoEnum.DEBITO, e);
+            throw e;
+        }
+
+        registrarNoJournal(debito, debito.getValor().dinheiro(), origem.getSaldo());
+        registrarNoJournal(credito, credito.getValor().dinheiro(), destino.getSaldo());
+        clienteCache.invalidar(origem);
+        clienteCache.invalidar(destino);
+        metricas.registrar(TipoOperacaoEnum.DEBITO, ResultadoOperacaoEnum.OK);
+        metricas.registrar(TipoOperacaoEnum.CREDITO, ResultadoOperacaoEnum.OK);
+        log.info("[TRANSFERENCIA] - Transferência realizada: {}", dto);
     }
 
-    private boolean isLimitePixPermitido(Cliente cliente, CreditoDebitoDto dto) {
-        if (dto.getConectadoEmRedeSegura()) {
-            if (cliente.getLimitePixRedeSegura().compareTo(new BigDecimal(dto.getValor())) < 0) {
-                return false;
-            } else {
-                return true;
+    /**
+     * Aplica na ordem operacoes ja validadas de uma unica conta: um SELECT FOR UPDATE e, no commit, um UPDATE
+     * com o saldo final. Cada operacao tem o seu resultado; uma recusa nao impede as seguintes.
+     * Usado pela {@link FilaOperacoesConta}.
+     */
+    @Transactional
+    public List<ResultadoOperacaoEnum> aplicarNaConta(ChaveConta chave, List<CreditoDebitoDto> dtos) {
+        Cliente cliente = clienteDao.findByCpfCnpjAndTipoContaParaAtualizacao(chave.cpfCnpj(), chave.tipoConta())
+                .orElse(null);
+
+        List<ResultadoOperacaoEnum> resultados = new ArrayList<>(dtos.size());
+        for (CreditoDebitoDto dto : dtos) {
+            ResultadoOperacaoEnum resultado = cliente == null
+                    ? ResultadoOperacaoEnum.CLIENTE_NAO_ENCONTRADO
+                    : aplicarNoCliente(cliente, dto);
+            if (resultado == ResultadoOperacaoEnum.OK) {
+                registrarNoJournal(dto, dto.getValor().dinheiro(), cliente.getSaldo());
             }
+            resultados.add(resultado);
+        }
+        if (cliente != null) {
+            clienteCache.invalidar(cliente);
         }
-        // precisamos verificar se é o período de dia ou o período de noite
-        // para isso, vamos verificar se a hora está entre 06:00 e 20:00
-        int hora = DataUtil.getHora(dto.getDataOperacao());
-        if (hora < 6 || hora >= 20) {
-            if (cliente.getLimitePixNoturno().compareTo(new BigDecimal(dto.getValor())) < 0) {
-                return false;
+        return resultados;
+    }
+
+    private Map<ChaveConta, Cliente> carregarParaAtualizacao(Set<ChaveConta> chaves) {
+        // blocos em ordem crescente de chave: os locks saem na mesma ordem da consulta de cada bloco
+        List<Long> numericas = chaves.stream().map(ChaveConta::numerica).sorted().toList();
+
+        Map<ChaveConta, Cliente> clientes = new HashMap<>();
+        for (int inicio = 0; inicio < numericas.size(); inicio += TAMANHO_BLOCO_CONSULTA) {
+            List<Long> bloco = numericas.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_CONSULTA, numericas.size()));
+            for (Cliente cliente : clienteDao.findParaAtualizacao(bloco)) {
+                clientes.put(ChaveConta.de(cliente), cliente);
             }
+        }
+        return clientes;
+    }
+
+    private ResultadoOperacaoEnum aplicarNoCliente(Cliente cliente, CreditoDebitoDto dto) {
+        if (cliente.getSituacaoConta() != SituacaoContaEnum.ATIVA) {
+            return ResultadoOperacaoEnum.CONTA_INATIVA;
+        }
+        if (dto.getTipoOperacao() == TipoOperacaoEnum.CREDITO) {
+            cliente.setSaldo(cliente.getSaldo().somar(dto.getValor().dinheiro()));
+            return ResultadoOperacaoEnum.OK;
+        }
+        if (saldoNaoSuficiente(cliente, dto)) {
+            return ResultadoOperacaoEnum.SALDO_INSUFICIENTE;
+        }
+        Dinheiro valor = dto.getValor().dinheiro();
+        PeriodoLimiteResolver.Periodo periodo = periodoLimite(dto);
+        ReservaConsumoPix reserva = reservarLimite(dto, periodo, valor);
+        if (!isLimitePixPermitido(cliente, periodo.tipo(), reserva.getConsumo())) {
+            reserva.desfazer();
+            return ResultadoOperacaoEnum.FORA_DO_LIMITE;
+        }
+        cliente.setSaldo(cliente.getSaldo().subtrair(valor));
+        return ResultadoOperacaoEnum.OK;
+    }
+
+    private ResultadoOperacaoEnum executarItemNoMotor(CreditoDebitoDto dto) {
+        try {
+            executarNoMotor(dto);
+            return ResultadoOperacaoEnum.OK;
+        } catch (SaldoNaoSuficienteException e) {
+            return ResultadoOperacaoEnum.SALDO_INSUFICIENTE;
+        } catch (ForaDoLimiteException e) {
+            return ResultadoOperacaoEnum.FORA_DO_LIMITE;
+        } catch (ContaInativaException e) {
+            return ResultadoOperacaoEnum.CONTA_INATIVA;
+        } catch (ClienteNaoEncontradoException e) {
+            return ResultadoOperacaoEnum.CLIENTE_NAO_ENCONTRADO;
+        }
+    }
+
+    private ResultadoOperacaoDto resultado(int indice, CreditoDebitoDto dto, ResultadoOperacaoEnum resultado) {
+        return ResultadoOperacaoDto.builder()
+                .indice(indice)
+                .cpfCnpj(dto.getCpfCnpj())
+                .tipoConta(dto.getTipoConta())
+                .tipoOperacao(dto.getTipoOperacao())
+                .resultado(resultado)
+                .mensagem(resultado.getMensagem())
+                .build();
+    }
+
+    private void executarNoMotor(CreditoDebitoDto dto) {
+        log.info("[OPERACAO] - Iniciando operação de {} no motor de saldo: {}", dto.getTipoOperacao(), dto);
+
+        ChaveConta chave = new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta());
+        Dinheiro valor = dto.getValor().dinheiro();
+
+        Dinheiro saldoResultante;
+        if (dto.getTipoOperacao() == TipoOperacaoEnum.CREDITO) {
+            saldoResultante = motorSaldo.creditar(chave, valor);
         } else {
-            if (cliente.getLimitePixDiurno().compareTo(new BigDecimal(dto.getValor())) < 0) {
-                return false;
+            PeriodoLimiteResolver.Periodo periodo = periodoLimite(dto);
+            ReservaConsumoPix reserva = reservarLimite(dto, periodo, valor);
+            try {
+                saldoResultante = motorSaldo.debitar(chave, valor, periodo.tipo(), reserva.getConsumo());
+            } catch (RuntimeException e) {
+                // no lote a recusa nao desfaz a transacao, entao a reserva e desfeita aqui
+                reserva.desfazer();
+                throw e;
             }
         }
+        registrarNoJournal(dto, valor, saldoResultante);
+    }
+
+    private void creditar(CreditoDebitoDto dto) {
+        log.info("[OPERACAO] - Iniciando operação de crédito: {}", dto);
+
+        Dinheiro valor = dto.getValor().dinheiro();
+        // com o journal o saldo resultante vem do proprio UPDATE, sem uma leitura a mais
+        if (journal.isAtivo()) {
+            Dinheiro saldo = clienteDao.creditarRetornandoSaldo(dto.getCpfCnpj(), dto.getTipoConta(), valor)
+                    .orElseThrow(() -> motivoDaRecusa(dto, TipoOperacaoEnum.CREDITO, null, null));
+            registrarNoJournal(dto, valor, saldo);
+        } else if (clienteDao.creditar(dto.getCpfCnpj(), dto.getTipoConta(), valor) == 0) {
+            throw motivoDaRecusa(dto, TipoOperacaoEnum.CREDITO, null, null);
+        }
+        clienteCache.invalidar(new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta()));
+    }
+
+    private void debitar(CreditoDebitoDto dto) {
+        log.info("[OPERACAO] - Iniciando operação de débito: {}", dto);
+
+        Dinheiro valor = dto.getValor().dinheiro();
+        PeriodoLimiteResolver.Periodo periodo = periodoLimite(dto);
+        ReservaConsumoPix reserva = reservarLimite(dto, periodo, valor);
+        if (journal.isAtivo()) {
+            Dinheiro saldo = clienteDao.debitarRetornandoSaldo(dto.getCpfCnpj(), dto.getTipoConta(), valor, periodo.tipo(),
+                    reserva.getConsumo()).orElseThrow(() -> recusarDebito(dto, periodo.tipo(), reserva));
+            registrarNoJournal(dto, valor, saldo);
+        } else if (clienteDao.debitar(dto.getCpfCnpj(), dto.getTipoConta(), valor, periodo.tipo(), reserva.getConsumo()) == 0) {
+            throw recusarDebito(dto, periodo.tipo(), reserva);
+        }
+        clienteCache.invalidar(new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta()));
+    }
+
+    private RuntimeException recusarDebito(CreditoDebitoDto dto, PeriodoLimiteEnum periodo, ReservaConsumoPix reserva) {
+        reserva.desfazer();
+        return motivoDaRecusa(dto, TipoOperacaoEnum.DEBITO, periodo, reserva.getConsumo());
+    }
+
+    // o UPDATE condicional nao informa qual condicao falhou; so nesse caso a conta e lida para montar o erro
+    private RuntimeException motivoDaRecusa(CreditoDebitoDto dto, TipoOperacaoEnum tipoOperacao, PeriodoLimiteEnum periodo,
+                                            Dinheiro consumo) {
+        return motivoDaRecusa(dto, tipoOperacao, clienteDao.findByCpfCnpjAndTipoConta(dto.getCpfCnpj(), dto.getTipoConta()),
+                periodo, consumo);
+    }
+
+    /**
+     * @param periodo periodo em que o debito foi contado (so no debito)
+     * @param consumo total do periodo com a operacao incluida (so no debito)
+     */
+    RuntimeException motivoDaRecusa(CreditoDebitoDto dto, TipoOperacaoEnum tipoOperacao, Optional<Cliente> encontrado,
+                                    PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        if (encontrado.isEmpty()) {
+            log.info("[OPERACAO] - Cliente não encontrado: {}", dto);
+            return new ClienteNaoEncontradoException();
+        }
+
+        Cliente cliente = encontrado.get();
+        if (cliente.getSituacaoConta() != SituacaoContaEnum.ATIVA) {
+            log.info("[OPERACAO] - Cliente não está ativo: {}", dto);
+            return new ContaInativaException();
+        }
+        if (tipoOperacao == TipoOperacaoEnum.DEBITO && saldoNaoSuficiente(cliente, dto)) {
+            log.info("[OPERACAO] - Saldo insuficiente: {}", dto);
+            return new SaldoNaoSuficienteException("Saldo insuficiente");
+        }
+        if (tipoOperacao == TipoOperacaoEnum.DEBITO && !isLimitePixPermitido(cliente, periodo, consumo)) {
+            log.info("[OPERACAO] - Limite de PIX não permitido: {}", dto);
+            return new ForaDoLimiteException("Limite de PIX não permitido");
+        }
+
+        // a conta mudou entre o UPDATE e a leitura (ex.: credito concorrente)
+        log.warn("[OPERACAO] - Operação não aplicada, conta alterada concorrentemente: {}", dto);
+        return new OptimisticLockException("Conta alterada por outra operação, tente novamente");
+    }
+
+    private void registrarNoJournal(CreditoDebitoDto dto, Dinheiro valor, Dinheiro saldoResultante) {
+        journal.registrar(dto.getCpfCnpj(), dto.getTipoConta(), dto.getTipoOperacao(), valor, saldoResultante);
+    }
+
+    // o limite vale para o total debitado no periodo, nao para cada operacao isolada
+    boolean isLimitePixPermitido(Cliente cliente, PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        Dinheiro limite = switch (periodo) {
+            case REDE_SEGURA -> cliente.getLimitePixRedeSegura();
+            case NOTURNO -> cliente.getLimitePixNoturno();
+            case DIURNO -> cliente.getLimitePixDiurno();
+        };
+
+        return !limite.isMenorQue(consumo);
+    }
+
+    ReservaConsumoPix reservarLimite(CreditoDebitoDto dto, PeriodoLimiteResolver.Periodo periodo, Dinheiro valor) {
+        return consumoPix.reservar(new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta()), periodo, valor);
+    }
 
-        return true;
+    PeriodoLimiteResolver.Periodo periodoLimite(CreditoDebitoDto dto) {
+        return periodoLimiteResolver.resolver(dto.getConectadoEmRedeSegura());
     }
 
     private boolean saldoNaoSuficiente(Cliente cliente, CreditoDebitoDto dto) {
-        return cliente.getSaldo().compareTo(new BigDecimal(dto.getValor())) < 0;
+        return cliente.getSaldo().isMenorQue(dto.getValor().dinheiro());
     }
 }
@@ -0,0 +1,91 @@
+package org.viniciusvirgilli.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Define qual limite de PIX vale para uma operacao. A janela diurna e configuravel e interpretada no fuso
+ * {@code limite.pix.periodo.zona}, sempre pelo relogio do servidor: a data informada pelo cliente so e
+ * validada e registrada, senao um debito noturno com data diurna usaria o limite diurno.
+ * Os limites da janela sao convertidos para segundos do dia uma unica vez, na inicializacao.
+ */
+@Slf4j
+@ApplicationScoped
+public class PeriodoLimiteResolver {
+
+    @ConfigProperty(name = "limite.pix.periodo.diurno.inicio", defaultValue = "06:00")
+    String inicioDiurno;
+
+    @ConfigProperty(name = "limite.pix.periodo.diurno.fim", defaultValue = "20:00")
+    String fimDiurno;
+
+    @ConfigProperty(name = "limite.pix.periodo.zona", defaultValue = "America/Sao_Paulo")
+    String zonaPeriodo;
+
+    // relogio do servidor; substituido nos testes
+    Clock relogio = Clock.systemUTC();
+
+    private int inicioSegundos;
+    private int fimSegundos;
+    private ZoneId zonaDoPeriodo;
+
+    @PostConstruct
+    void iniciar() {
+        inicioSegundos = LocalTime.parse(inicioDiurno).toSecondOfDay();
+        fimSegundos = LocalTime.parse(fimDiurno).toSecondOfDay();
+        zonaDoPeriodo = ZoneId.of(zonaPeriodo);
+        log.info("[LIMITE] - Periodo diurno de {} a {} ({})", inicioDiurno, fimDiurno, zonaDoPeriodo);
+    }
+
+    /**
+     * Periodo corrente e o seu inicio, calculados a partir de uma unica leitura do relogio: perto da virada,
+     * duas leituras poderiam classificar o debito num periodo e conta-lo em outro.
+     */
+    public Periodo resolver(Boolean conectadoEmRedeSegura) {
+        ZonedDateTime agora = relogio.instant().atZone(zonaDoPeriodo);
+        PeriodoLimiteEnum tipo;
+        if (Boolean.TRUE.equals(conectadoEmRedeSegura)) {
+            tipo = PeriodoLimiteEnum.REDE_SEGURA;
+        } else {
+            tipo = isDiurno(agora.toLocalTime().toSecondOfDay()) ? PeriodoLimiteEnum.DIURNO : PeriodoLimiteEnum.NOTURNO;
+        }
+        return new Periodo(tipo, inicioDoPeriodo(agora, tipo));
+    }
+
+    // o diurno comeca em diurno.inicio, o noturno em diurno.fim (atravessando a meia-noite) e o de rede segura a meia-noite
+
+    private long inicioDoPeriodo(ZonedDateTime data, PeriodoLimiteEnum periodo) {
+        int inicio = switch (periodo) {
+            case DIURNO -> inicioSegundos;
+            case NOTURNO -> fimSegundos;
+            case REDE_SEGURA -> 0;
+        };
+
+        // antes do horario de inicio, a operacao pertence ao periodo que comecou no dia anterior
+        LocalDate dia = data.toLocalTime().toSecondOfDay() >= inicio ? data.toLocalDate() : data.toLocalDate().minusDays(1);
+        return dia.atTime(LocalTime.ofSecondOfDay(inicio)).atZone(zonaDoPeriodo).toEpochSecond();
+    }
+
+    // uma janela com inicio depois do fim (ex.: 22:00 a 04:00) atravessa a meia-noite
+    private boolean isDiurno(int segundo) {
+        if (inicioSegundos <= fimSegundos) {
+            return segundo >= inicioSegundos && segundo < fimSegundos;
+        }
+        return segundo >= inicioSegundos || segundo < fimSegundos;
+    }
+
+    /**
+     * @param inicio inicio do periodo em epoch s, no fuso do periodo
+     */
+    public record Periodo(PeriodoLimiteEnum tipo, long inicio) {
+    }
+}
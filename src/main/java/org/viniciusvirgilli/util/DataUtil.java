@@ -4,26 +4,29 @@ import jakarta.enterprise.context.ApplicationScoped;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 @ApplicationScoped
 public class DataUtil {
 
     private static final String FORMATO_DATA = "dd/MM/yyy HH:mm:ss";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(FORMATO_DATA);
 
     public static boolean isDataOperacaoValida(String dataOperacao) {
+        return parseDataOperacao(dataOperacao) != null;
+    }
+
+    /**
+     * @return a data no formato {@value #FORMATO_DATA}, ou {@code null} se o texto for nulo ou invalido
+     */
+    public static LocalDateTime parseDataOperacao(String dataOperacao) {
         if (dataOperacao == null) {
-            return false;
+            return null;
         }
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(FORMATO_DATA);
-            LocalDateTime.parse(dataOperacao, formatter);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return LocalDateTime.parse(dataOperacao, FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
         }
     }
-
-    public static Integer getHora(String dataOperacao) {
-        return Integer.parseInt(dataOperacao.substring(11, 13));
-    }
 }
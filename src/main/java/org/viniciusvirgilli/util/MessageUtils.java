@@ -1,5 +1,8 @@
 package org.viniciusvirgilli.util;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 public class MessageUtils {
@@ -11,11 +14,20 @@ public class MessageUtils {
     private static final String BUNDLE_NAME = "ValidationMessages";
     private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(BUNDLE_NAME);
 
+    // mensagens ja convertidas para UTF-8 na carga da classe, para nao recodificar a cada chamada
+    private static final Map<String, String> MENSAGENS = carregarMensagens();
+
     public static String getString(String key) {
-        try {
-            return new String(RESOURCE_BUNDLE.getString(key).getBytes("ISO-8859-1"), "UTF-8");
-        } catch (Exception e) {
-            return '!' + key + '!';
+        String mensagem = MENSAGENS.get(key);
+        return mensagem != null ? mensagem : '!' + key + '!';
+    }
+
+    private static Map<String, String> carregarMensagens() {
+        Map<String, String> mensagens = new HashMap<>();
+        for (String key : RESOURCE_BUNDLE.keySet()) {
+            byte[] bytes = RESOURCE_BUNDLE.getString(key).getBytes(StandardCharsets.ISO_8859_1);
+            mensagens.put(key, new String(bytes, StandardCharsets.UTF_8));
         }
+        return Map.copyOf(mensagens);
     }
 }
@@ -1,138 +1,114 @@
 package org.viniciusvirgilli.validador;
 
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.ArrayList;
-
-import io.netty.util.internal.StringUtil;
 import lombok.NoArgsConstructor;
 import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ErroValidacaoEnum;
 import org.viniciusvirgilli.enums.SituacaoContaEnum;
 import org.viniciusvirgilli.exception.ValidadorException;
-import org.viniciusvirgilli.exception.dto.CamposComProblemasDto;
-import org.viniciusvirgilli.model.Cliente;
-import org.viniciusvirgilli.util.MessageUtils;
 import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
 import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.Dinheiro;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import lombok.extern.slf4j.Slf4j;
 
+import static org.viniciusvirgilli.enums.ErroValidacaoEnum.*;
+
 @Slf4j
 @NoArgsConstructor
 @ApplicationScoped
 public class CadastroClienteValidador {
 
     public void validar(CadastroClienteDto cliente) {
-        
-        List<String> campos = new ArrayList<>();
-
-        validarNome(cliente.getNome(), campos);
-        validarCpfCnpj(cliente.getCpfCnpj(), campos);
-        validarSaldo(cliente.getSaldo(), campos);
-        validarAgencia(cliente.getAgencia(), campos);
-        validarConta(cliente.getConta(), campos);
-        validarTipoConta(cliente.getTipoConta(), campos);
-        validarOperacao(cliente.getOperacao(), campos);
-        validarISPBParticipante(cliente.getIspbParticipante(), campos);
-        validarSituacaoConta(cliente.getSituacaoConta(), campos);
-        validarLimites(cliente.getLimitePixDiurno(), cliente.getLimitePixNoturno(), cliente.getLimitePixRedeSegura() ,campos);
-
-        if (!campos.isEmpty()) {
-            throw new ValidadorException(new CamposComProblemasDto(campos));
+
+        long erros = validarNome(cliente.getNome())
+                | validarCpfCnpj(cliente.getCpfCnpj())
+                | validarSaldo(cliente.getSaldo())
+                | validarAgencia(cliente.getAgencia())
+                | validarConta(cliente.getConta())
+                | validarTipoConta(cliente.getTipoConta())
+                | validarOperacao(cliente.getOperacao())
+                | validarISPBParticipante(cliente.getIspbParticipante())
+                | validarSituacaoConta(cliente.getSituacaoConta())
+                | validarLimites(cliente.getLimitePixDiurno(), cliente.getLimitePixNoturno(), cliente.getLimitePixRedeSegura());
+
+        if (erros != 0) {
+            throw new ValidadorException(erros);
         }
     }
 
-    private void validarNome(String nome, List<String> campos) {
-        if (nome == null || nome.isBlank()) {
-            campos.add(MessageUtils.getString("cliente.nome.obrigatorio"));
-        }
+    private long validarNome(String nome) {
+        return RegrasValidacao.isVazio(nome) ? NOME_OBRIGATORIO.bit() : 0;
     }
 
-    private void validarCpfCnpj(String cpfCnpj, List<String> campos) {
-        if (cpfCnpj == null || cpfCnpj.isBlank()) {
-            campos.add(MessageUtils.getString("cliente.cpfcnpj.obrigatorio"));
-        } else if (!cpfCnpj.matches("\\d{11}|\\d{14}")) {
-            campos.add(MessageUtils.getString("cliente.cpfcnpj.invalido"));
+    private long validarCpfCnpj(String cpfCnpj) {
+        if (RegrasValidacao.isVazio(cpfCnpj)) {
+            return CPFCNPJ_OBRIGATORIO.bit();
         }
+        return RegrasValidacao.isCpfCnpjValido(cpfCnpj) ? 0 : CPFCNPJ_INVALIDO.bit();
     }
 
-    private void validarSaldo(String saldo, List<String> campos) {
-        if (StringUtil.isNullOrEmpty(saldo)) {
-            campos.add(MessageUtils.getString("cliente.saldo.obrigatorio"));
-        } else {
-            try {
-                new BigDecimal(saldo);
-            } catch (NumberFormatException e) {
-                campos.add(MessageUtils.getString("cliente.saldo.invalido"));
-            }
+    private long validarSaldo(ValorInformado saldo) {
+        if (saldo == null || saldo.texto().isEmpty()) {
+            return SALDO_OBRIGATORIO.bit();
         }
+        return saldo.isValido() ? 0 : SALDO_INVALIDO.bit();
     }
 
-    private void validarAgencia(String agencia, List<String> campos) {
-        if (agencia == null || agencia.isBlank()) {
-            campos.add(MessageUtils.getString("cliente.agencia.obrigatorio"));
-        }
+    private long validarAgencia(String agencia) {
+        return RegrasValidacao.isVazio(agencia) ? AGENCIA_OBRIGATORIO.bit() : 0;
     }
 
-    private void validarConta(Integer conta, List<String> campos) {
+    private long validarConta(Integer conta) {
         if (conta == null) {
-            campos.add(MessageUtils.getString("cliente.conta.obrigatorio"));
-        } else if (conta < 0) {
-            campos.add(MessageUtils.getString("cliente.conta.invalido"));
+            return CONTA_OBRIGATORIO.bit();
         }
-
+        return conta < 0 ? CONTA_INVALIDO.bit() : 0;
     }
 
-    private void validarOperacao(Integer operacao, List<String> campos) {
-        if (operacao == null) {
-            campos.add(MessageUtils.getString("cliente.operacao.obrigatorio"));
-        }
+    private long validarOperacao(Integer operacao) {
+        return operacao == null ? OPERACAO_OBRIGATORIO.bit() : 0;
     }
 
-    private void validarISPBParticipante(ISPBParticipanteEnum ispbParticipante, List<String> campos) {
+    private long validarISPBParticipante(ISPBParticipanteEnum ispbParticipante) {
         if (ispbParticipante == null) {
-            campos.add(MessageUtils.getString("cliente.ispbparticipante.obrigatorio"));
-        } else if (ispbParticipante != ISPBParticipanteEnum.CX & ispbParticipante != ISPBParticipanteEnum.IF) {
-            campos.add(MessageUtils.getString("cliente.ispbparticipante.invalido"));
+            return ISPBPARTICIPANTE_OBRIGATORIO.bit();
         }
+        return ispbParticipante != ISPBParticipanteEnum.CX && ispbParticipante != ISPBParticipanteEnum.IF
+                ? ISPBPARTICIPANTE_INVALIDO.bit() : 0;
     }
 
-    private void validarTipoConta(TipoContaEnum tipoConta, List<String> campos) {
+    private long validarTipoConta(TipoContaEnum tipoConta) {
         if (tipoConta == null) {
-            campos.add(MessageUtils.getString("cliente.tipoconta.obrigatorio"));
-        } else if (!(tipoConta == TipoContaEnum.CACC || tipoConta == TipoContaEnum.SVGS)) {
-            campos.add(MessageUtils.getString("cliente.tipoconta.invalido"));
+            return TIPOCONTA_OBRIGATORIO.bit();
         }
+        return tipoConta != TipoContaEnum.CACC && tipoConta != TipoContaEnum.SVGS ? TIPOCONTA_INVALIDO.bit() : 0;
     }
 
-    private void validarSituacaoConta(SituacaoContaEnum situacaoConta, List<String> campos) {
-        if (situacaoConta == null) {
-            campos.add(MessageUtils.getString("cliente.situacaoconta.obrigatorio"));
-        } 
+    private long validarSituacaoConta(SituacaoContaEnum situacaoConta) {
+        return situacaoConta == null ? SITUACAOCONTA_OBRIGATORIO.bit() : 0;
     }
 
-    private void validarLimites(BigDecimal limitePixDiurno, BigDecimal limitePixNoturno, BigDecimal limitePixRedeSegura, List<String> campos) {
-        if (limitePixDiurno == null) {
-            campos.add(MessageUtils.getString("cliente.limitepixdiurno.obrigatorio"));
-        } else if (limitePixDiurno.compareTo(BigDecimal.ZERO) < 0) {
-            campos.add(MessageUtils.getString("cliente.limitepixdiurno.invalido"));
-        }
+    private long validarLimites(Dinheiro limitePixDiurno, Dinheiro limitePixNoturno, Dinheiro limitePixRedeSegura) {
+        long erros = validarLimite(limitePixDiurno, LIMITEPIXDIURNO_OBRIGATORIO, LIMITEPIXDIURNO_INVALIDO)
+                | validarLimite(limitePixNoturno, LIMITEPIXNOTURNO_OBRIGATORIO, LIMITEPIXNOTURNO_INVALIDO);
 
-        if (limitePixNoturno == null) {
-            campos.add(MessageUtils.getString("cliente.limitepixnoturno.obrigatorio"));
-        } else if (limitePixNoturno.compareTo(BigDecimal.ZERO) < 0) {
-            campos.add(MessageUtils.getString("cliente.limitepixnoturno.invalido"));
+        long erroRedeSegura = validarLimite(limitePixRedeSegura, LIMITEPIXREDESEGURA_OBRIGATORIO, LIMITEPIXREDESEGURA_INVALIDO);
+        if (erroRedeSegura == 0 && (menorQue(limitePixRedeSegura, limitePixDiurno) || menorQue(limitePixRedeSegura, limitePixNoturno))) {
+            erroRedeSegura = LIMITEPIXREDESEGURA_INVALIDO.bit();
         }
+        return erros | erroRedeSegura;
+    }
 
-        if (limitePixRedeSegura == null) {
-            campos.add(MessageUtils.getString("cliente.limitepixredesegura.obrigatorio"));
-        } else if (limitePixRedeSegura.compareTo(BigDecimal.ZERO) < 0) {
-            campos.add(MessageUtils.getString("cliente.limitepixredesegura.invalido"));
-        } else if (limitePixRedeSegura.compareTo(limitePixDiurno) < 0) {
-            campos.add(MessageUtils.getString("cliente.limitepixredesegura.invalido"));
-        } else if (limitePixRedeSegura.compareTo(limitePixNoturno) < 0) {
-            campos.add(MessageUtils.getString("cliente.limitepixredesegura.invalido"));
+    private long validarLimite(Dinheiro limite, ErroValidacaoEnum obrigatorio, ErroValidacaoEnum invalido) {
+        if (limite == null) {
+            return obrigatorio.bit();
         }
+        return limite.isNegativo() ? invalido.bit() : 0;
+    }
+
+    private boolean menorQue(Dinheiro limite, Dinheiro referencia) {
+        return referencia != null && limite.isMenorQue(referencia);
     }
 }
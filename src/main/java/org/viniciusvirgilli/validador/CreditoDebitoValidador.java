@@ -1,21 +1,16 @@
 package org.viniciusvirgilli.validador;
 
-import io.netty.util.internal.StringUtil;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
 import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
 import org.viniciusvirgilli.enums.TipoContaEnum;
 import org.viniciusvirgilli.enums.TipoOperacaoEnum;
 import org.viniciusvirgilli.exception.ValidadorException;
-import org.viniciusvirgilli.exception.dto.CamposComProblemasDto;
-import org.viniciusvirgilli.util.DataUtil;
-import org.viniciusvirgilli.util.MessageUtils;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import static org.viniciusvirgilli.enums.ErroValidacaoEnum.*;
 
 @ApplicationScoped
 @Slf4j
@@ -23,64 +18,50 @@ public class CreditoDebitoValidador {
 
     public void validar(CreditoDebitoDto dto) {
 
+        long erros = validarCpfCnpj(dto.getCpfCnpj())
+                | validarValor(dto.getValor())
+                | validarTipoConta(dto.getTipoConta())
+                | validarDataOperacao(dto.getDataOperacao())
+                | validarTipoOperacao(dto.getTipoOperacao());
 
-        List<String> campos = new ArrayList<>();
-
-        validarCpfCnpj(dto.getCpfCnpj(), campos);
-        validarValor(dto.getValor(), campos);
-        validarTipoConta(dto.getTipoConta(), campos);
-        validarDataOperacao(dto.getDataOperacao(), campos);
-        validarTipoOperacao(dto.getTipoOperacao(), campos);
-
-        if (!campos.isEmpty()) {
-            throw new ValidadorException(new CamposComProblemasDto(campos));
+        if (erros != 0) {
+            throw new ValidadorException(erros);
         }
     }
 
-    private void validarCpfCnpj(String cpfCnpj, List<String> campos) {
-        if (cpfCnpj == null || cpfCnpj.isBlank()) {
-            campos.add(MessageUtils.getString("cliente.cpfcnpj.obrigatorio"));
-        } else if (!cpfCnpj.matches("\\d{11}|\\d{14}")) {
-            campos.add(MessageUtils.getString("cliente.cpfcnpj.invalido"));
+    static long validarCpfCnpj(String cpfCnpj) {
+        if (RegrasValidacao.isVazio(cpfCnpj)) {
+            return CPFCNPJ_OBRIGATORIO.bit();
         }
+        return RegrasValidacao.isCpfCnpjValido(cpfCnpj) ? 0 : CPFCNPJ_INVALIDO.bit();
     }
 
-    private void validarValor(String valor, List<String> campos) {
-        if (StringUtil.isNullOrEmpty(valor)) {
-            campos.add(MessageUtils.getString("creditoDebito.valor.obrigatorio"));
-        } else {
-            try {
-                BigDecimal valorBigDecimal = new BigDecimal(valor);
-                if (valorBigDecimal.compareTo(BigDecimal.ZERO) <= 0) {
-                    campos.add(MessageUtils.getString("creditoDebito.valor.invalido"));
-                }
-            } catch (NumberFormatException e) {
-                campos.add(MessageUtils.getString("creditoDebito.valor.invalido"));
-            }
+    static long validarValor(ValorInformado valor) {
+        if (valor == null || valor.texto().isEmpty()) {
+            return VALOR_OBRIGATORIO.bit();
         }
+        return valor.isValido() && valor.dinheiro().isPositivo() ? 0 : VALOR_INVALIDO.bit();
     }
 
-    private void validarTipoConta(TipoContaEnum tipoConta, List<String> campos) {
+    static long validarTipoConta(TipoContaEnum tipoConta) {
         if (tipoConta == null) {
-            campos.add(MessageUtils.getString("cliente.tipoconta.obrigatorio"));
-        } else if (!(tipoConta == TipoContaEnum.CACC || tipoConta == TipoContaEnum.SVGS)) {
-            campos.add(MessageUtils.getString("cliente.tipoconta.invalido"));
+            return TIPOCONTA_OBRIGATORIO.bit();
         }
+        return tipoConta != TipoContaEnum.CACC && tipoConta != TipoContaEnum.SVGS ? TIPOCONTA_INVALIDO.bit() : 0;
     }
 
-    private void validarDataOperacao(String dataOperacao, List<String> campos) {
-        if (dataOperacao == null || dataOperacao.isBlank()) {
-            campos.add(MessageUtils.getString("creditoDebito.dataoperacao.obrigatorio"));
-        } else if (!DataUtil.isDataOperacaoValida(dataOperacao)) {
-            campos.add(MessageUtils.getString("creditoDebito.dataoperacao.invalida"));
+    static long validarDataOperacao(DataOperacao dataOperacao) {
+        if (dataOperacao == null || RegrasValidacao.isVazio(dataOperacao.texto())) {
+            return DATAOPERACAO_OBRIGATORIO.bit();
         }
+        return dataOperacao.isValida() ? 0 : DATAOPERACAO_INVALIDA.bit();
     }
 
-    private void validarTipoOperacao(TipoOperacaoEnum tipoOperacao, List<String> campos) {
+    private long validarTipoOperacao(TipoOperacaoEnum tipoOperacao) {
         if (tipoOperacao == null) {
-            campos.add(MessageUtils.getString("creditoDebito.tipooperacao.obrigatorio"));
-        } else if (!(tipoOperacao == TipoOperacaoEnum.CREDITO || tipoOperacao == TipoOperacaoEnum.DEBITO)) {
-            campos.add(MessageUtils.getString("creditoDebito.tipooperacao.invalido"));
+            return TIPOOPERACAO_OBRIGATORIO.bit();
         }
+        return tipoOperacao != TipoOperacaoEnum.CREDITO && tipoOperacao != TipoOperacaoEnum.DEBITO
+                ? TIPOOPERACAO_INVALIDO.bit() : 0;
     }
 }
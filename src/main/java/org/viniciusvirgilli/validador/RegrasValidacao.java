@@ -0,0 +1,57 @@
+package org.viniciusvirgilli.validador;
+
+/**
+ * Regras compartilhadas pelos validadores, escritas sem regex e sem alocar objetos,
+ * ja que rodam em toda requisicao de cadastro e de credito/debito.
+ */
+public final class RegrasValidacao {
+
+    private static final int[] PESOS_CPF_1 = {10, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] PESOS_CPF_2 = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] PESOS_CNPJ_1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] PESOS_CNPJ_2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    private RegrasValidacao() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isVazio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    public static boolean isCpfCnpjValido(String cpfCnpj) {
+        int tamanho = cpfCnpj.length();
+        if (tamanho != 11 && tamanho != 14) {
+            return false;
+        }
+
+        boolean todosIguais = true;
+        for (int i = 0; i < tamanho; i++) {
+            char c = cpfCnpj.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            todosIguais &= c == cpfCnpj.charAt(0);
+        }
+        // 000.000.000-00, 111.111.111-11... passam no calculo mas nao sao documentos validos
+        if (todosIguais) {
+            return false;
+        }
+
+        if (tamanho == 11) {
+            return digitoVerificador(cpfCnpj, PESOS_CPF_1) == cpfCnpj.charAt(9) - '0'
+                    && digitoVerificador(cpfCnpj, PESOS_CPF_2) == cpfCnpj.charAt(10) - '0';
+        }
+        return digitoVerificador(cpfCnpj, PESOS_CNPJ_1) == cpfCnpj.charAt(12) - '0'
+                && digitoVerificador(cpfCnpj, PESOS_CNPJ_2) == cpfCnpj.charAt(13) - '0';
+    }
+
+    private static int digitoVerificador(String documento, int[] pesos) {
+        int soma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            soma += (documento.charAt(i) - '0') * pesos[i];
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
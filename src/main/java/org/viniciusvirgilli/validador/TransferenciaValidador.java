@@ -0,0 +1,48 @@
+package org.viniciusvirgilli.validador;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import org.viniciusvirgilli.dto.TransferenciaDto;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+
+import static org.viniciusvirgilli.enums.ErroValidacaoEnum.*;
+
+@ApplicationScoped
+@Slf4j
+public class TransferenciaValidador {
+
+    public void validar(TransferenciaDto dto) {
+
+        long erros = CreditoDebitoValidador.validarCpfCnpj(dto.getCpfCnpjOrigem())
+                | CreditoDebitoValidador.validarTipoConta(dto.getTipoContaOrigem())
+                | validarCpfCnpjDestino(dto.getCpfCnpjDestino())
+                | validarTipoContaDestino(dto.getTipoContaDestino())
+                | CreditoDebitoValidador.validarValor(dto.getValor())
+                | CreditoDebitoValidador.validarDataOperacao(dto.getDataOperacao());
+
+        if (erros == 0 && dto.getCpfCnpjOrigem().equals(dto.getCpfCnpjDestino())
+                && dto.getTipoContaOrigem() == dto.getTipoContaDestino()) {
+            erros = DESTINO_IGUAL_ORIGEM.bit();
+        }
+
+        if (erros != 0) {
+            throw new ValidadorException(erros);
+        }
+    }
+
+    private long validarCpfCnpjDestino(String cpfCnpj) {
+        if (RegrasValidacao.isVazio(cpfCnpj)) {
+            return CPFCNPJDESTINO_OBRIGATORIO.bit();
+        }
+        return RegrasValidacao.isCpfCnpjValido(cpfCnpj) ? 0 : CPFCNPJDESTINO_INVALIDO.bit();
+    }
+
+    private long validarTipoContaDestino(TipoContaEnum tipoConta) {
+        if (tipoConta == null) {
+            return TIPOCONTADESTINO_OBRIGATORIO.bit();
+        }
+        return tipoConta != TipoContaEnum.CACC && tipoConta != TipoContaEnum.SVGS ? TIPOCONTADESTINO_INVALIDO.bit() : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.viniciusvirgilli.controller;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.service.ClienteServiceReativo;
+import org.viniciusvirgilli.service.OperacaoServiceReativo;
+
+/**
+ * Consultas e operacoes do {@link ClienteController} no event loop, com as mesmas respostas.
+ * So existe no build com o profile {@code reativo}.
+ */
+@Path("api/reativo/clientes")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Conta (reativo)", description = "Consultas e operações na conta do cliente sem bloquear threads")
+public class ClienteReativoController {
+
+    @Inject
+    ClienteServiceReativo clienteService;
+
+    @Inject
+    OperacaoServiceReativo operacaoService;
+
+    @GET
+    @Path("/por-cpfCnpj-tipoConta")
+    public Uni<Response> buscarPorCpfCnpjAndTipoConta(
+            @QueryParam("cpfCnpj") String cpfCnpj,
+            @QueryParam("tipoConta") TipoContaEnum tipoConta
+    ) {
+        return clienteService.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta)
+                .map(cliente -> Response.ok(cliente).build());
+    }
+
+    @GET
+    @Path("/por-contaId")
+    public Uni<Response> buscarPorId(@QueryParam("contaId") Long contaId) {
+        return clienteService.findById(contaId)
+                .map(cliente -> Response.ok(cliente).build());
+    }
+
+    @PUT
+    @Path("/operacao")
+    public Uni<Response> realizarCreditoDebito(CreditoDebitoDto creditoDto) {
+        return operacaoService.executar(creditoDto)
+                .map(ignorado -> Response.noContent().build());
+    }
+}
@@ -0,0 +1,118 @@
+package org.viniciusvirgilli.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.util.Optional;
+
+/**
+ * Mesmas consultas e UPDATEs condicionais do {@link ClienteDao}, sobre o cliente reativo do PostgreSQL.
+ * O SQL e escrito a mao sobre a tabela mapeada por {@link Cliente}; os UPDATEs devolvem o saldo
+ * resultante com {@code RETURNING}, sem a leitura extra do caminho bloqueante.
+ */
+@ApplicationScoped
+public class ClienteDaoReativo {
+
+    private static final String COLUNAS = "id, nome, cpf_cnpj, saldo, agencia, conta, operacao, tipo_conta, " +
+            "ispb_participante, situacao_conta, limite_pix_diurno, limite_pix_noturno, limite_pix_rede_segura, versao";
+
+    private static final String POR_ID = "SELECT " + COLUNAS + " FROM cliente WHERE id = $1";
+
+    private static final String POR_CPF_CNPJ_E_TIPO_CONTA =
+            "SELECT " + COLUNAS + " FROM cliente WHERE chave_conta = $1";
+
+    private static final String CREDITAR =
+            "UPDATE cliente SET saldo = saldo + $1, versao = versao + 1 " +
+            "WHERE chave_conta = $2 AND situacao_conta = $3 RETURNING saldo";
+
+    private static final String DEBITAR =
+            "UPDATE cliente SET saldo = saldo - $1, versao = versao + 1 " +
+            "WHERE chave_conta = $2 AND situacao_conta = $3 AND saldo >= $1 AND ";
+
+    private static final String DEBITAR_DIURNO = DEBITAR + "limite_pix_diurno >= $4 RETURNING saldo";
+    private static final String DEBITAR_NOTURNO = DEBITAR + "limite_pix_noturno >= $4 RETURNING saldo";
+    private static final String DEBITAR_REDE_SEGURA = DEBITAR + "limite_pix_rede_segura >= $4 RETURNING saldo";
+
+    @Inject
+    Pool pool;
+
+    public Uni<Optional<Cliente>> findByIdOptional(Long id) {
+        return pool.preparedQuery(POR_ID)
+                .execute(Tuple.of(id))
+                .map(ClienteDaoReativo::primeiroCliente);
+    }
+
+    public Uni<Optional<Cliente>> findByCpfCnpjAndTipoConta(String cpfCnpj, TipoContaEnum tipoConta) {
+        return pool.preparedQuery(POR_CPF_CNPJ_E_TIPO_CONTA)
+                .execute(Tuple.of(ChaveConta.numerica(cpfCnpj, tipoConta)))
+                .map(ClienteDaoReativo::primeiroCliente);
+    }
+
+    /**
+     * @return o saldo apos o credito, ou vazio se a conta nao existe ou nao esta ativa
+     */
+    public Uni<Optional<Dinheiro>> creditar(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor) {
+        return pool.preparedQuery(CREDITAR)
+                .execute(Tuple.of(valor.toBigDecimal(), ChaveConta.numerica(cpfCnpj, tipoConta), SituacaoContaEnum.ATIVA.name()))
+                .map(ClienteDaoReativo::saldoResultante);
+    }
+
+    /**
+     * @return o saldo apos o debito, ou vazio se alguma condicao (conta ativa, saldo, limite) nao foi atendida
+     */
+    // consumo: total do periodo com este debito incluido, comparado com o limite
+    public Uni<Optional<Dinheiro>> debitar(String cpfCnpj, TipoContaEnum tipoConta, Dinheiro valor,
+                                          PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        String debito = switch (periodo) {
+            case DIURNO -> DEBITAR_DIURNO;
+            case NOTURNO -> DEBITAR_NOTURNO;
+            case REDE_SEGURA -> DEBITAR_REDE_SEGURA;
+        };
+
+        return pool.preparedQuery(debito)
+                .execute(Tuple.of(valor.toBigDecimal(), ChaveConta.numerica(cpfCnpj, tipoConta), SituacaoContaEnum.ATIVA.name(), consumo.toBigDecimal()))
+                .map(ClienteDaoReativo::saldoResultante);
+    }
+
+    private static Optional<Dinheiro> saldoResultante(RowSet<Row> linhas) {
+        RowIterator<Row> iterator = linhas.iterator();
+        return iterator.hasNext() ? Optional.of(Dinheiro.de(iterator.next().getBigDecimal("saldo"))) : Optional.empty();
+    }
+
+    private static Optional<Cliente> primeiroCliente(RowSet<Row> linhas) {
+        RowIterator<Row> iterator = linhas.iterator();
+        return iterator.hasNext() ? Optional.of(toCliente(iterator.next())) : Optional.empty();
+    }
+
+    private static Cliente toCliente(Row linha) {
+        return Cliente.builder()
+                .id(linha.getLong("id"))
+                .nome(linha.getString("nome"))
+                .cpfCnpj(linha.getString("cpf_cnpj"))
+                .saldo(Dinheiro.de(linha.getBigDecimal("saldo")))
+                .agencia(linha.getString("agencia"))
+                .conta(linha.getInteger("conta"))
+                .operacao(linha.getInteger("operacao"))
+                .tipoConta(TipoContaEnum.valueOf(linha.getString("tipo_conta")))
+                .ispbParticipante(ISPBParticipanteEnum.valueOf(linha.getString("ispb_participante")))
+                .situacaoConta(SituacaoContaEnum.valueOf(linha.getString("situacao_conta")))
+                .limitePixDiurno(Dinheiro.de(linha.getBigDecimal("limite_pix_diurno")))
+                .limitePixNoturno(Dinheiro.de(linha.getBigDecimal("limite_pix_noturno")))
+                .limitePixRedeSegura(Dinheiro.de(linha.getBigDecimal("limite_pix_rede_segura")))
+                .versao(linha.getLong("versao"))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package org.viniciusvirgilli.service;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.cache.ClienteCache;
+import org.viniciusvirgilli.dao.ClienteDaoReativo;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.exception.ClienteNaoEncontradoException;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.motor.MotorSaldo;
+
+import java.util.Optional;
+
+/**
+ * Consultas do {@link ClienteService} no caminho reativo. Usa o mesmo cache: um acerto responde
+ * sem sair do event loop, uma falta consulta o banco e guarda o resultado.
+ */
+@Slf4j
+@ApplicationScoped
+public class ClienteServiceReativo {
+
+    @Inject
+    ClienteDaoReativo clienteDao;
+
+    @Inject
+    ClienteCache clienteCache;
+
+    @Inject
+    MotorSaldo motorSaldo;
+
+    public Uni<Cliente> findById(Long id) {
+        log.info("[BUSCA-REATIVA] - Iniciando busca do cliente por ID: {}", id);
+
+        Optional<Cliente> emCache = clienteCache.consultarPorId(id);
+        if (emCache.isPresent()) {
+            return Uni.createFrom().item(encontrado(emCache.get()));
+        }
+        long geracao = clienteCache.geracao();
+        return clienteDao.findByIdOptional(id).map(cliente -> carregado(cliente, geracao));
+    }
+
+    public Uni<Cliente> findByCpfCnpjAndTipoConta(String cpfCnpj, TipoContaEnum tipoConta) {
+        log.info("[BUSCA-REATIVA] - Iniciando busca do cliente por CPF/CNPJ e tipo de conta: {} - {}", cpfCnpj, tipoConta);
+
+        Optional<Cliente> emCache = clienteCache.consultarPorChave(new ChaveConta(cpfCnpj, tipoConta));
+        if (emCache.isPresent()) {
+            return Uni.createFrom().item(encontrado(emCache.get()));
+        }
+        long geracao = clienteCache.geracao();
+        return clienteDao.findByCpfCnpjAndTipoConta(cpfCnpj, tipoConta).map(cliente -> carregado(cliente, geracao));
+    }
+
+    private Cliente carregado(Optional<Cliente> cliente, long geracao) {
+        if (cliente.isEmpty()) {
+            log.info("[BUSCA-REATIVA] - Nenhum cliente encontrado");
+            throw new ClienteNaoEncontradoException();
+        }
+        clienteCache.guardar(cliente.get(), geracao);
+        return encontrado(cliente.get());
+    }
+
+    // com o motor de saldo ativo o saldo do banco pode estar atrasado em relacao ao da memoria
+    private Cliente encontrado(Cliente cliente) {
+        motorSaldo.saldoAtual(ChaveConta.de(cliente)).ifPresent(cliente::setSaldo);
+        return cliente;
+    }
+}
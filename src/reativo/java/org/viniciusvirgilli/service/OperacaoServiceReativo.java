@@ -0,0 +1,125 @@
+package org.viniciusvirgilli.service;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.viniciusvirgilli.cache.ClienteCache;
+import org.viniciusvirgilli.dao.ClienteDaoReativo;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+import org.viniciusvirgilli.enums.ResultadoOperacaoEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.NegocioException;
+import org.viniciusvirgilli.exception.OperacaoIndisponivelException;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.journal.JournalOperacoes;
+import org.viniciusvirgilli.limite.ReservaConsumoPix;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.motor.MotorSaldo;
+import org.viniciusvirgilli.validador.CreditoDebitoValidador;
+
+import java.util.Optional;
+
+/**
+ * Credito/debito do {@link OperacaoService#executar} no caminho reativo: o mesmo UPDATE condicional,
+ * e na recusa o mesmo {@link OperacaoService#motivoDaRecusa} decide o erro devolvido.
+ */
+@Slf4j
+@ApplicationScoped
+public class OperacaoServiceReativo {
+
+    @Inject
+    CreditoDebitoValidador validador;
+
+    @Inject
+    ClienteDaoReativo clienteDao;
+
+    @Inject
+    OperacaoService operacaoService;
+
+    @Inject
+    MotorSaldo motorSaldo;
+
+    @Inject
+    ClienteCache clienteCache;
+
+    @Inject
+    JournalOperacoes journal;
+
+    @Inject
+    MetricasOperacao metricas;
+
+    public Uni<Void> executar(CreditoDebitoDto dto) {
+        try {
+            validador.validar(dto);
+        } catch (ValidadorException e) {
+            metricas.registrarFalha(dto.getTipoOperacao(), e);
+            return Uni.createFrom().failure(e);
+        }
+
+        // o motor de saldo e bloqueante (carga da conta e WAL); nele a operacao segue pelo OperacaoService
+        if (motorSaldo.isAtivo()) {
+            return Uni.createFrom().failure(new OperacaoIndisponivelException(OperacaoIndisponivelException.REATIVA_COM_MOTOR));
+        }
+
+        TipoOperacaoEnum tipoOperacao = dto.getTipoOperacao();
+        log.info("[OPERACAO-REATIVA] - Iniciando operação de {}: {}", tipoOperacao, dto);
+
+        Dinheiro valor = dto.getValor().dinheiro();
+        if (tipoOperacao == TipoOperacaoEnum.CREDITO) {
+            return concluirOuRecusar(dto, valor, clienteDao.creditar(dto.getCpfCnpj(), dto.getTipoConta(), valor), null, null);
+        }
+
+        // sem transacao JTA: a reserva do limite e desfeita aqui quando o debito nao e aplicado
+        PeriodoLimiteResolver.Periodo periodo = operacaoService.periodoLimite(dto);
+        ReservaConsumoPix reserva = operacaoService.reservarLimite(dto, periodo, valor);
+        Uni<Optional<Dinheiro>> aplicada = clienteDao.debitar(dto.getCpfCnpj(), dto.getTipoConta(), valor, periodo.tipo(), reserva.getConsumo())
+                .invoke(saldo -> {
+                    if (saldo.isEmpty()) {
+                        reserva.desfazer();
+                    }
+                })
+                .onFailure().invoke(reserva::desfazer);
+        return concluirOuRecusar(dto, valor, aplicada, periodo.tipo(), reserva.getConsumo());
+    }
+
+    private Uni<Void> concluirOuRecusar(CreditoDebitoDto dto, Dinheiro valor, Uni<Optional<Dinheiro>> aplicada,
+                                        PeriodoLimiteEnum periodo, Dinheiro consumo) {
+        TipoOperacaoEnum tipoOperacao = dto.getTipoOperacao();
+        return aplicada
+                .flatMap(saldo -> saldo.isPresent()
+                        ? concluir(dto, valor, saldo.get())
+                        : recusar(dto, tipoOperacao, periodo, consumo))
+                .invoke(() -> metricas.registrar(tipoOperacao, ResultadoOperacaoEnum.OK))
+                .onFailure().invoke(e -> {
+                    metricas.registrarFalha(tipoOperacao, e);
+                    if (!(e instanceof NegocioException)) {
+                        log.error("[OPERACAO-REATIVA] - Erro ao executar operação: {}", dto, e);
+                    }
+                });
+    }
+
+    private Uni<Void> concluir(CreditoDebitoDto dto, Dinheiro valor, Dinheiro saldoResultante) {
+        clienteCache.invalidar(new ChaveConta(dto.getCpfCnpj(), dto.getTipoConta()));
+        if (!journal.isAtivo()) {
+            return Uni.createFrom().voidItem();
+        }
+
+        Uni<Void> registro = Uni.createFrom().item(() -> {
+            journal.registrar(dto.getCpfCnpj(), dto.getTipoConta(), dto.getTipoOperacao(), valor, saldoResultante);
+            return null;
+        });
+        // aguardando o fsync o registro bloqueia, entao sai do event loop
+        return journal.isAguardaFsync() ? registro.runSubscriptionOn(Infrastructure.getDefaultWorkerPool()) : registro;
+    }
+
+    private Uni<Void> recusar(CreditoDebitoDto dto, TipoOperacaoEnum tipoOperacao, PeriodoLimiteEnum periodo,
+                              Dinheiro consumo) {
+        return clienteDao.findByCpfCnpjAndTipoConta(dto.getCpfCnpj(), dto.getTipoConta())
+                .flatMap(cliente -> Uni.createFrom().failure(
+                        operacaoService.motivoDaRecusa(dto, tipoOperacao, cliente, periodo, consumo)));
+    }
+}
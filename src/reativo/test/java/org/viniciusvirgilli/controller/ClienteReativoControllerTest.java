@@ -0,0 +1,152 @@
+package org.viniciusvirgilli.controller;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Paridade entre {@link ClienteReativoController} e {@link ClienteController}: a mesma consulta ou a mesma
+ * sequencia de operacoes em cada caminho tem o mesmo status, a mesma mensagem de recusa e o mesmo saldo.
+ */
+@QuarkusTest
+@TestProfile(PerfilReativoTeste.class)
+class ClienteReativoControllerTest {
+
+    private static final String BLOQUEANTE = "/api/clientes";
+    private static final String REATIVO = "/api/reativo/clientes";
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final AtomicInteger CONTAS = new AtomicInteger(1000);
+
+    @Test
+    void consultasDevolvemOMesmoCliente() {
+        String cpfCnpj = cadastrar();
+
+        Response bloqueante = porCpfCnpj(BLOQUEANTE, cpfCnpj);
+        Response reativo = porCpfCnpj(REATIVO, cpfCnpj);
+        assertEquals(200, bloqueante.statusCode());
+        assertEquals(bloqueante.statusCode(), reativo.statusCode());
+        assertEquals(bloqueante.asString(), reativo.asString());
+
+        long id = bloqueante.jsonPath().getLong("id");
+        assertEquals(porId(BLOQUEANTE, id).asString(), porId(REATIVO, id).asString());
+    }
+
+    @Test
+    void clienteInexistenteTemAMesmaRecusa() {
+        String cpfCnpj = cpfNovo();
+
+        assertMesmaResposta(porCpfCnpj(BLOQUEANTE, cpfCnpj), porCpfCnpj(REATIVO, cpfCnpj));
+        assertMesmaResposta(porId(BLOQUEANTE, Long.MAX_VALUE), porId(REATIVO, Long.MAX_VALUE));
+    }
+
+    @Test
+    void operacoesTemOMesmoEfeitoNosDoisCaminhos() {
+        String contaBloqueante = cadastrar();
+        String contaReativa = cadastrar();
+
+        // credito, debito dentro do limite e dois debitos recusados (limite de PIX e saldo)
+        String[][] operacoes = {{"CREDITO", "1000.00"}, {"DEBITO", "30.00"}, {"DEBITO", "600.00"}, {"DEBITO", "2000.00"}};
+        for (String[] operacao : operacoes) {
+            Response bloqueante = operar(BLOQUEANTE, contaBloqueante, operacao[0], operacao[1]);
+            Response reativo = operar(REATIVO, contaReativa, operacao[0], operacao[1]);
+            assertMesmaResposta(bloqueante, reativo);
+        }
+
+        Response saldoBloqueante = porCpfCnpj(BLOQUEANTE, contaBloqueante);
+        Response saldoReativo = porCpfCnpj(BLOQUEANTE, contaReativa);
+        assertEquals(1070.0, saldoBloqueante.jsonPath().getDouble("saldo"));
+        assertEquals(saldoBloqueante.jsonPath().getDouble("saldo"), saldoReativo.jsonPath().getDouble("saldo"));
+    }
+
+    @Test
+    void operacaoInvalidaTemAMesmaRecusa() {
+        String cpfCnpj = cadastrar();
+
+        assertMesmaResposta(operar(BLOQUEANTE, cpfCnpj, "DEBITO", "abc"), operar(REATIVO, cpfCnpj, "DEBITO", "abc"));
+    }
+
+    private void assertMesmaResposta(Response bloqueante, Response reativo) {
+        assertEquals(bloqueante.statusCode(), reativo.statusCode());
+        if (bloqueante.statusCode() != 204) {
+            assertEquals(bloqueante.jsonPath().getString("message"), reativo.jsonPath().getString("message"));
+        }
+    }
+
+    private String cadastrar() {
+        String cpfCnpj = cpfNovo();
+        Map<String, Object> cliente = new HashMap<>();
+        cliente.put("nome", "Cliente " + cpfCnpj);
+        cliente.put("cpfCnpj", cpfCnpj);
+        cliente.put("saldo", "100.00");
+        cliente.put("agencia", "0001");
+        cliente.put("conta", CONTAS.incrementAndGet());
+        cliente.put("tipoConta", "CACC");
+        cliente.put("operacao", 1);
+        cliente.put("ispbParticipante", "CX");
+        cliente.put("situacaoConta", "ATIVA");
+        cliente.put("limitePixDiurno", "500.00");
+        cliente.put("limitePixNoturno", "500.00");
+        cliente.put("limitePixRedeSegura", "1000.00");
+
+        Response resposta = given().contentType(ContentType.JSON).body(cliente).post(BLOQUEANTE + "/cadastrar");
+        assertEquals(201, resposta.statusCode(), resposta.asString());
+        return cpfCnpj;
+    }
+
+    private Response operar(String caminho, String cpfCnpj, String tipoOperacao, String valor) {
+        Map<String, Object> operacao = new HashMap<>();
+        operacao.put("tipoOperacao", tipoOperacao);
+        operacao.put("dataOperacao", FORMATO_DATA.format(LocalDateTime.now()));
+        operacao.put("cpfCnpj", cpfCnpj);
+        operacao.put("tipoConta", "CACC");
+        operacao.put("valor", valor);
+        operacao.put("conectadoEmRedeSegura", false);
+        return given().contentType(ContentType.JSON).body(operacao).put(caminho + "/operacao");
+    }
+
+    private Response porCpfCnpj(String caminho, String cpfCnpj) {
+        return given().queryParam("cpfCnpj", cpfCnpj).queryParam("tipoConta", "CACC")
+                .get(caminho + "/por-cpfCnpj-tipoConta");
+    }
+
+    private Response porId(String caminho, long id) {
+        return given().queryParam("contaId", id).get(caminho + "/por-contaId");
+    }
+
+    // CPF aleatorio com digitos verificadores validos
+    private static String cpfNovo() {
+        int[] digitos = new int[11];
+        for (int i = 0; i < 9; i++) {
+            digitos[i] = ThreadLocalRandom.current().nextInt(10);
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoVerificador(int[] digitos, int tamanho) {
+        int soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            soma += digitos[i] * (tamanho + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,28 @@
+package org.viniciusvirgilli.controller;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+/**
+ * O cliente reativo so existe para PostgreSQL: sem URL configurada o Quarkus sobe um PostgreSQL de teste
+ * (Dev Services) e aponta para ele tanto o JDBC quanto o pool reativo.
+ */
+public class PerfilReativoTeste implements QuarkusTestProfile {
+
+    @Override
+    public String getConfigProfile() {
+        return "reativo-test";
+    }
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "quarkus.datasource.db-kind", "postgresql",
+                "quarkus.hibernate-orm.database.generation", "drop-and-create",
+                "ratelimit.enable", "false",
+                "journal.diretorio", "target/test-data/reativo/journal",
+                "motor.saldo.diretorio", "target/test-data/reativo/motor",
+                "historico.instancia", "reativo-test");
+    }
+}
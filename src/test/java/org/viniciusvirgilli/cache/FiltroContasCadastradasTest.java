@@ -0,0 +1,180 @@
+package org.viniciusvirgilli.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.UserTransaction;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dao.ClienteDao;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.exception.ClienteJaCadastradoException;
+import org.viniciusvirgilli.model.ChaveConta;
+import org.viniciusvirgilli.model.Cliente;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.service.ClienteService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O filtro so dispensa a consulta de duplicidade: um falso positivo custa uma consulta e o cadastro segue,
+ * e uma conta que o filtro nao conhece continua sendo recusada pelo indice unico no INSERT.
+ */
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+class FiltroContasCadastradasTest {
+
+    private static final String FALSOS_POSITIVOS = "falso-positivo";
+
+    @Inject
+    FiltroContasCadastradas filtro;
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    ClienteDao clienteDao;
+
+    @Inject
+    UserTransaction transacao;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void bitsNaoTemFalsoNegativoEFalsoPositivoFicaPertoDaTaxaConfigurada() {
+        int elementos = 100_000;
+        FiltroContasCadastradas.Bits bits = new FiltroContasCadastradas.Bits(elementos, 0.01);
+        for (long chave = 0; chave < elementos; chave++) {
+            bits.adicionar(2 * chave);
+        }
+
+        int falsosPositivos = 0;
+        for (long chave = 0; chave < elementos; chave++) {
+            assertTrue(bits.contem(2 * chave));
+            if (bits.contem(2 * chave + 1)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < elementos * 0.02, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void cadastroDuplicadoERecusado() {
+        CadastroClienteDto cadastro = cadastro(cpfNovo());
+        clienteService.cadastrar(cadastro);
+
+        assertThrows(ClienteJaCadastradoException.class, () -> clienteService.cadastrar(cadastro));
+    }
+
+    @Test
+    void falsoPositivoDoFiltroSoCustaUmaConsulta() {
+        aguardarCarga();
+        CadastroClienteDto cadastro = cadastro(cpfNovo());
+        // bit sem conta, como o de um cadastro desfeito: o filtro responde "talvez" e o banco responde "nao"
+        filtro.adicionar(new ChaveConta(cadastro.getCpfCnpj(), cadastro.getTipoConta()));
+        double antes = consultas(FALSOS_POSITIVOS);
+
+        assertNotNull(clienteService.cadastrar(cadastro).getId());
+        assertEquals(antes + 1, consultas(FALSOS_POSITIVOS));
+    }
+
+    @Test
+    void contaQueOFiltroNaoConheceERecusadaPeloIndiceUnico() throws Exception {
+        aguardarCarga();
+        CadastroClienteDto cadastro = cadastro(cpfNovo());
+        ChaveConta chave = new ChaveConta(cadastro.getCpfCnpj(), cadastro.getTipoConta());
+
+        // cadastrada por fora do servico, como por outra instancia: o filtro desta nao recebe a chave
+        transacao.begin();
+        clienteDao.inserir(entidade(cadastro));
+        transacao.commit();
+        assertFalse(filtro.podeExistir(chave));
+
+        assertThrows(ClienteJaCadastradoException.class, () -> clienteService.cadastrar(cadastro));
+    }
+
+    // a carga e assincrona na subida; ate terminar, toda verificacao vai ao banco
+    private void aguardarCarga() {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (filtro.podeExistir(new ChaveConta(cpfNovo(), TipoContaEnum.CACC))) {
+            assertTrue(System.nanoTime() < limite, "filtro de contas nao carregou");
+            Thread.onSpinWait();
+        }
+    }
+
+    private double consultas(String resultado) {
+        return registry.counter("cliente.filtro-contas.consultas", "resultado", resultado).count();
+    }
+
+    private static CadastroClienteDto cadastro(String cpfCnpj) {
+        CadastroClienteDto cliente = new CadastroClienteDto();
+        cliente.setNome("Cliente " + cpfCnpj);
+        cliente.setCpfCnpj(cpfCnpj);
+        cliente.setSaldo(ValorInformado.de("100.00"));
+        cliente.setAgencia("0001");
+        cliente.setConta(ThreadLocalRandom.current().nextInt(1, 1_000_000));
+        cliente.setTipoConta(TipoContaEnum.CACC);
+        cliente.setOperacao(1);
+        cliente.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cliente.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        cliente.setLimitePixDiurno(Dinheiro.parse("500.00"));
+        cliente.setLimitePixNoturno(Dinheiro.parse("500.00"));
+        cliente.setLimitePixRedeSegura(Dinheiro.parse("1000.00"));
+        return cliente;
+    }
+
+    private static Cliente entidade(CadastroClienteDto cadastro) {
+        return Cliente.builder()
+                .nome(cadastro.getNome())
+                .cpfCnpj(cadastro.getCpfCnpj())
+                .saldo(cadastro.getSaldo().dinheiro())
+                .agencia(cadastro.getAgencia())
+                .conta(cadastro.getConta())
+                .tipoConta(cadastro.getTipoConta())
+                .operacao(cadastro.getOperacao())
+                .ispbParticipante(cadastro.getIspbParticipante())
+                .situacaoConta(cadastro.getSituacaoConta())
+                .limitePixDiurno(cadastro.getLimitePixDiurno())
+                .limitePixNoturno(cadastro.getLimitePixNoturno())
+                .limitePixRedeSegura(cadastro.getLimitePixRedeSegura())
+                .build();
+    }
+
+    // CPF aleatorio com digitos verificadores validos
+    private static String cpfNovo() {
+        int[] digitos = new int[11];
+        for (int i = 0; i < 9; i++) {
+            digitos[i] = ThreadLocalRandom.current().nextInt(10);
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoVerificador(int[] digitos, int tamanho) {
+        int soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            soma += digitos[i] * (tamanho + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
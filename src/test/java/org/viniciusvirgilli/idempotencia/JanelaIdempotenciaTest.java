@@ -0,0 +1,270 @@
+package org.viniciusvirgilli.idempotencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.UserTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.ChaveIdempotenciaReutilizadaException;
+import org.viniciusvirgilli.exception.OperacaoEmAndamentoException;
+import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.model.Dinheiro;
+import org.viniciusvirgilli.service.ClienteService;
+import org.viniciusvirgilli.service.OperacaoIdempotenteService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Repeticoes de uma {@code Idempotency-Key}: respondidas pela janela em memoria, pela tabela depois de um
+ * restart (simulado recriando a janela) ou pela reserva no banco quando chegam ao mesmo tempo. Em nenhum
+ * caso a operacao e aplicada duas vezes.
+ */
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+class JanelaIdempotenciaTest {
+
+    private static final String CPF = "12345678909";
+    private static final String METRICA = "operacao.idempotencia.repeticoes";
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static boolean cadastrado;
+
+    @Inject
+    OperacaoIdempotenteService operacaoIdempotenteService;
+
+    @Inject
+    JanelaIdempotencia janela;
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    UserTransaction transacao;
+
+    @BeforeEach
+    void cadastrar() {
+        if (cadastrado) {
+            return;
+        }
+        CadastroClienteDto cliente = new CadastroClienteDto();
+        cliente.setNome("Cliente idempotencia");
+        cliente.setCpfCnpj(CPF);
+        cliente.setSaldo(ValorInformado.de("1000.00"));
+        cliente.setAgencia("0001");
+        cliente.setConta(4);
+        cliente.setTipoConta(TipoContaEnum.CACC);
+        cliente.setOperacao(1);
+        cliente.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cliente.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        // limite alto: o teste e sobre a chave, nao sobre o consumo do periodo
+        cliente.setLimitePixDiurno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixNoturno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixRedeSegura(Dinheiro.parse("1000000.00"));
+        clienteService.cadastrar(cliente);
+        cadastrado = true;
+    }
+
+    @Test
+    void repeticaoRecenteVemDaJanelaEmMemoria() {
+        String chave = UUID.randomUUID().toString();
+        CreditoDebitoDto credito = operacao(TipoOperacaoEnum.CREDITO, "10.00");
+        Dinheiro saldoInicial = saldo();
+        double daMemoria = repeticoes("memoria");
+
+        assertFalse(operacaoIdempotenteService.executar(credito, chave));
+        assertTrue(operacaoIdempotenteService.executar(credito, chave));
+
+        assertEquals(saldoInicial.somar(Dinheiro.parse("10.00")), saldo());
+        assertEquals(daMemoria + 1, repeticoes("memoria"));
+    }
+
+    @Test
+    void repeticaoAposRestartVemDoBanco() {
+        String chave = UUID.randomUUID().toString();
+        CreditoDebitoDto credito = operacao(TipoOperacaoEnum.CREDITO, "20.00");
+        Dinheiro saldoInicial = saldo();
+
+        assertFalse(operacaoIdempotenteService.executar(credito, chave));
+        // uma janela nova, vazia, como a de uma instancia que acabou de subir
+        janela.iniciar();
+        double doBanco = repeticoes("banco");
+
+        assertTrue(operacaoIdempotenteService.executar(credito, chave));
+        assertEquals(doBanco + 1, repeticoes("banco"));
+        assertEquals(saldoInicial.somar(Dinheiro.parse("20.00")), saldo());
+
+        // a leitura do banco recoloca a chave na janela
+        double daMemoria = repeticoes("memoria");
+        assertTrue(operacaoIdempotenteService.executar(credito, chave));
+        assertEquals(daMemoria + 1, repeticoes("memoria"));
+    }
+
+    @Test
+    void reservaConcorrenteDaMesmaChaveEstaEmAndamento() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        CreditoDebitoDto credito = operacao(TipoOperacaoEnum.CREDITO, "1.00");
+        CountDownLatch reservada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> primeira = executor.submit(() -> {
+                emTransacao(() -> {
+                    janela.reservar(chave, credito);
+                    reservada.countDown();
+                    aguardar(liberar);
+                });
+                return null;
+            });
+            assertTrue(reservada.await(30, TimeUnit.SECONDS));
+
+            // a segunda reserva espera a primeira transacao no indice da chave e colide quando ela e efetivada
+            Future<?> segunda = executor.submit(() -> {
+                emTransacao(() -> janela.reservar(chave, credito));
+                return null;
+            });
+            Thread.sleep(500);
+            liberar.countDown();
+
+            primeira.get(30, TimeUnit.SECONDS);
+            ExecutionException falha = assertThrows(ExecutionException.class, () -> segunda.get(30, TimeUnit.SECONDS));
+            assertInstanceOf(OperacaoEmAndamentoException.class, falha.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void duplicatasSimultaneasAplicamUmaVez() throws Exception {
+        String chave = UUID.randomUUID().toString();
+        CreditoDebitoDto credito = operacao(TipoOperacaoEnum.CREDITO, "5.00");
+        Dinheiro saldoInicial = saldo();
+        int tentativas = 4;
+        CountDownLatch largada = new CountDownLatch(1);
+
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(tentativas);
+        try {
+            for (int i = 0; i < tentativas; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return operacaoIdempotenteService.executar(credito, chave);
+                }));
+            }
+            largada.countDown();
+
+            int aplicadas = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (!resultado.get(30, TimeUnit.SECONDS)) {
+                    aplicadas++;
+                }
+            }
+            assertEquals(1, aplicadas);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(saldoInicial.somar(Dinheiro.parse("5.00")), saldo());
+    }
+
+    @Test
+    void recusaPorRegraDeNegocioERepetidaIgual() {
+        String chave = UUID.randomUUID().toString();
+        Dinheiro saldoInicial = saldo();
+        CreditoDebitoDto debito = operacao(TipoOperacaoEnum.DEBITO, saldoInicial.somar(Dinheiro.parse("500.00")).toString());
+
+        assertThrows(SaldoNaoSuficienteException.class, () -> operacaoIdempotenteService.executar(debito, chave));
+
+        // com saldo suficiente agora, a repeticao ainda recebe a recusa da primeira tentativa
+        operacaoIdempotenteService.executar(operacao(TipoOperacaoEnum.CREDITO, "1000.00"), null);
+        janela.iniciar();
+        assertThrows(SaldoNaoSuficienteException.class, () -> operacaoIdempotenteService.executar(debito, chave));
+        assertThrows(SaldoNaoSuficienteException.class, () -> operacaoIdempotenteService.executar(debito, chave));
+
+        assertEquals(saldoInicial.somar(Dinheiro.parse("1000.00")), saldo());
+    }
+
+    @Test
+    void mesmaChaveComOutraOperacaoERecusada() {
+        String chave = UUID.randomUUID().toString();
+        Dinheiro saldoInicial = saldo();
+
+        assertFalse(operacaoIdempotenteService.executar(operacao(TipoOperacaoEnum.CREDITO, "7.00"), chave));
+        assertThrows(ChaveIdempotenciaReutilizadaException.class,
+                () -> operacaoIdempotenteService.executar(operacao(TipoOperacaoEnum.CREDITO, "8.00"), chave));
+
+        // tambem quando a primeira tentativa so esta no banco
+        janela.iniciar();
+        assertThrows(ChaveIdempotenciaReutilizadaException.class,
+                () -> operacaoIdempotenteService.executar(operacao(TipoOperacaoEnum.DEBITO, "7.00"), chave));
+
+        assertEquals(saldoInicial.somar(Dinheiro.parse("7.00")), saldo());
+    }
+
+    private void emTransacao(Runnable trabalho) throws Exception {
+        transacao.begin();
+        try {
+            trabalho.run();
+        } catch (RuntimeException e) {
+            transacao.rollback();
+            throw e;
+        }
+        transacao.commit();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double repeticoes(String origem) {
+        return registry.get(METRICA).tag("origem", origem).counter().count();
+    }
+
+    private CreditoDebitoDto operacao(TipoOperacaoEnum tipo, String valor) {
+        CreditoDebitoDto dto = new CreditoDebitoDto();
+        dto.setTipoOperacao(tipo);
+        dto.setDataOperacao(DataOperacao.de(FORMATO_DATA.format(LocalDateTime.now())));
+        dto.setCpfCnpj(CPF);
+        dto.setTipoConta(TipoContaEnum.CACC);
+        dto.setValor(ValorInformado.de(valor));
+        dto.setConectadoEmRedeSegura(false);
+        return dto;
+    }
+
+    private Dinheiro saldo() {
+        return clienteService.findByCpfCnpjAndTipoConta(CPF, TipoContaEnum.CACC).getSaldo();
+    }
+}
@@ -0,0 +1,107 @@
+package org.viniciusvirgilli.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A chave numerica e {@code digitos << 5 | cnpj << 4 | ordinal do tipo de conta}: cada combinacao de documento
+ * e tipo de conta tem o seu valor e as contas de um documento ficam numa faixa contigua.
+ */
+class ChaveContaTest {
+
+    private static final String CPF = "52998224725";
+    private static final String CNPJ = "11222333000181";
+
+    @ParameterizedTest
+    @EnumSource(TipoContaEnum.class)
+    void cpfEmpacotaDigitosEOrdinal(TipoContaEnum tipoConta) {
+        assertEquals((52998224725L << 5) | tipoConta.ordinal(), ChaveConta.numerica(CPF, tipoConta));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TipoContaEnum.class)
+    void cnpjLigaOBitDeDocumento(TipoContaEnum tipoConta) {
+        assertEquals((11222333000181L << 5) | (1L << 4) | tipoConta.ordinal(), ChaveConta.numerica(CNPJ, tipoConta));
+    }
+
+    @Test
+    void ordinaisCabemNosBitsDoTipoDeConta() {
+        assertTrue(TipoContaEnum.values().length <= 1 << 4);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TipoContaEnum.class)
+    void tiposDeContaDoMesmoDocumentoSaoDistintosENaFaixa(TipoContaEnum tipoConta) {
+        long chave = ChaveConta.numerica(CPF, tipoConta);
+
+        assertTrue(chave >= ChaveConta.inicio(CPF) && chave <= ChaveConta.fim(CPF));
+        for (TipoContaEnum outro : TipoContaEnum.values()) {
+            if (outro != tipoConta) {
+                assertNotEquals(ChaveConta.numerica(CPF, outro), chave);
+            }
+        }
+    }
+
+    @Test
+    void cpfECnpjComOsMesmosDigitosNaoColidem() {
+        // o mesmo numero 52998224725, como CPF e como CNPJ com zeros a esquerda
+        String cnpjMesmosDigitos = "000" + CPF;
+        for (TipoContaEnum tipoConta : TipoContaEnum.values()) {
+            assertNotEquals(ChaveConta.numerica(CPF, tipoConta), ChaveConta.numerica(cnpjMesmosDigitos, tipoConta));
+            assertEquals(ChaveConta.numerica(CPF, tipoConta) | (1L << 4),
+                    ChaveConta.numerica(cnpjMesmosDigitos, tipoConta));
+        }
+        assertTrue(ChaveConta.fim(CPF) < ChaveConta.inicio(cnpjMesmosDigitos));
+    }
+
+    @Test
+    void zerosAEsquerdaFazemParteDoDocumento() {
+        assertEquals((123L << 5) | TipoContaEnum.SVGS.ordinal(), ChaveConta.numerica("00000000123", TipoContaEnum.SVGS));
+        assertEquals((123L << 5) | (1L << 4) | TipoContaEnum.SVGS.ordinal(),
+                ChaveConta.numerica("00000000000123", TipoContaEnum.SVGS));
+        assertEquals(TipoContaEnum.CACC.ordinal(), ChaveConta.numerica("00000000000", TipoContaEnum.CACC));
+    }
+
+    @Test
+    void maiorCnpjCabeNoLong() {
+        long chave = ChaveConta.numerica("99999999999999", TipoContaEnum.values()[TipoContaEnum.values().length - 1]);
+
+        assertTrue(chave > 0);
+        assertEquals(99999999999999L, chave >>> 5);
+    }
+
+    @Test
+    void faixaDoDocumentoCobreOsDezesseisTipos() {
+        assertEquals(52998224725L << 5, ChaveConta.inicio(CPF));
+        assertEquals((52998224725L << 5) | 0xF, ChaveConta.fim(CPF));
+        assertEquals((11222333000181L << 5) | 0x1F, ChaveConta.fim(CNPJ));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "5299822472", "529982247250", "529.982.247-25", "11.222.333/0001-81", "5299822472a"})
+    void documentoForaDoFormatoEInexistente(String cpfCnpj) {
+        assertEquals(ChaveConta.INEXISTENTE, ChaveConta.numerica(cpfCnpj, TipoContaEnum.CACC));
+        assertEquals(ChaveConta.INEXISTENTE, ChaveConta.inicio(cpfCnpj));
+        assertEquals(ChaveConta.INEXISTENTE, ChaveConta.fim(cpfCnpj));
+    }
+
+    @Test
+    void nulosSaoInexistentes() {
+        assertEquals(ChaveConta.INEXISTENTE, ChaveConta.numerica(null, TipoContaEnum.CACC));
+        assertEquals(ChaveConta.INEXISTENTE, ChaveConta.numerica(CPF, null));
+        assertEquals(ChaveConta.INEXISTENTE, new ChaveConta(CPF, null).numerica());
+    }
+
+    @Test
+    void nenhumaChaveValidaEIgualAoSentinela() {
+        assertTrue(ChaveConta.numerica("00000000000", TipoContaEnum.CACC) >= 0);
+        assertEquals(ChaveConta.numerica(CPF, TipoContaEnum.CACC), new ChaveConta(CPF, TipoContaEnum.CACC).numerica());
+    }
+}
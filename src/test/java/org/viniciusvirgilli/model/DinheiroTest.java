@@ -0,0 +1,166 @@
+package org.viniciusvirgilli.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Conversao de texto para centavos, aritmetica com checagem de estouro e as bordas com o banco e o JSON.
+ */
+class DinheiroTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource({
+            "150, 15000",
+            "150.7, 15070",
+            "150.75, 15075",
+            "0.05, 5",
+            ".5, 50",
+            "7., 700",
+            "-150.75, -15075",
+            "+150.75, 15075",
+            "-0.00, 0",
+            "00012.30, 1230"
+    })
+    void converteParaCentavos(String texto, long centavos) {
+        assertEquals(centavos, Dinheiro.parseCentavos(texto));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1.001", "0.123", "-5.999", "1.2.3"})
+    void recusaMaisDeDuasCasas(String texto) {
+        assertEquals(Dinheiro.INVALIDO, Dinheiro.parseCentavos(texto));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", "+", ".", "--1", "+-1", "1-", "1,50", "R$1", " 1", "1e3", "abc"})
+    void recusaTextoQueNaoEDecimal(String texto) {
+        assertEquals(Dinheiro.INVALIDO, Dinheiro.parseCentavos(texto));
+    }
+
+    @Test
+    void valorNoLimiteDoLongEConvertido() {
+        assertEquals(922337203685477500L, Dinheiro.parseCentavos("9223372036854775"));
+        assertEquals(922337203685477590L, Dinheiro.parseCentavos("9223372036854775.9"));
+        assertEquals(-92233720368547759L, Dinheiro.parseCentavos("-922337203685477.59"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "92233720368547759",
+            "92233720368547758.07",
+            "-92233720368547758.08",
+            "99999999999999999999999",
+            "1000000000000000000.00"
+    })
+    void recusaValorQueEstouraOLong(String texto) {
+        assertEquals(Dinheiro.INVALIDO, Dinheiro.parseCentavos(texto));
+    }
+
+    @Test
+    void parseLancaParaTextoInvalido() {
+        assertThrows(NumberFormatException.class, () -> Dinheiro.parse("1.001"));
+        assertThrows(NumberFormatException.class, () -> Dinheiro.parse("92233720368547759"));
+    }
+
+    @Test
+    void zeroReaproveitaAConstante() {
+        assertSame(Dinheiro.ZERO, Dinheiro.parse("-0.00"));
+        assertSame(Dinheiro.ZERO, Dinheiro.parse("10.00").subtrair(Dinheiro.parse("10")));
+    }
+
+    @Test
+    void somaESubtracaoComSinal() {
+        assertEquals(Dinheiro.parse("-0.25"), Dinheiro.parse("10.50").subtrair(Dinheiro.parse("10.75")));
+        assertEquals(Dinheiro.parse("-21.25"), Dinheiro.parse("-10.50").somar(Dinheiro.parse("-10.75")));
+        assertEquals(Dinheiro.parse("0.25"), Dinheiro.parse("-10.50").subtrair(Dinheiro.parse("-10.75")));
+    }
+
+    @Test
+    void somaESubtracaoEstouram() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+        Dinheiro minimo = Dinheiro.deCentavos(Long.MIN_VALUE + 1);
+
+        assertThrows(ArithmeticException.class, () -> maximo.somar(Dinheiro.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> maximo.subtrair(Dinheiro.deCentavos(-1)));
+        assertThrows(ArithmeticException.class, () -> minimo.subtrair(Dinheiro.deCentavos(2)));
+        assertThrows(ArithmeticException.class, () -> minimo.somar(Dinheiro.deCentavos(-2)));
+        assertEquals(Dinheiro.deCentavos(Long.MAX_VALUE - 1), maximo.subtrair(Dinheiro.deCentavos(1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0.00", "5, 0.05", "-5, -0.05", "15075, 150.75", "-15000, -150.00", "9223372036854775807, 92233720368547758.07"})
+    void textoSempreComDuasCasas(long centavos, String texto) {
+        assertEquals(texto, Dinheiro.deCentavos(centavos).toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.00", "0.05", "-0.05", "150.75", "-150.00", "922337203685477.59"})
+    void textoVoltaAoMesmoValor(String texto) {
+        Dinheiro valor = Dinheiro.parse(texto);
+
+        assertEquals(texto, valor.toString());
+        assertEquals(valor, Dinheiro.parse(valor.toString()));
+    }
+
+    @Test
+    void converterDoBancoIdaEVolta() {
+        DinheiroConverter converter = new DinheiroConverter();
+
+        for (String texto : new String[]{"0.00", "0.05", "-150.75", "1500.00", "922337203685477.59"}) {
+            Dinheiro valor = Dinheiro.parse(texto);
+            BigDecimal coluna = converter.convertToDatabaseColumn(valor);
+
+            assertEquals(new BigDecimal(texto), coluna);
+            assertEquals(valor, converter.convertToEntityAttribute(coluna));
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        // coluna com escala menor que dois tambem e lida
+        assertEquals(Dinheiro.parse("15.00"), converter.convertToEntityAttribute(new BigDecimal("15")));
+    }
+
+    @Test
+    void converterRecusaMaisDeDuasCasasVindasDoBanco() {
+        assertThrows(ArithmeticException.class, () -> new DinheiroConverter().convertToEntityAttribute(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void jsonIdaEVolta() throws Exception {
+        for (String texto : new String[]{"0.00", "0.05", "-150.75", "1500.00", "922337203685477.59"}) {
+            Dinheiro valor = Dinheiro.parse(texto);
+            String json = mapper.writeValueAsString(valor);
+
+            assertEquals(texto, json);
+            assertEquals(valor, mapper.readValue(json, Dinheiro.class));
+        }
+    }
+
+    @Test
+    void jsonAceitaNumeroInteiroETexto() throws Exception {
+        assertEquals(Dinheiro.parse("1500.00"), mapper.readValue("1500", Dinheiro.class));
+        assertEquals(Dinheiro.parse("1500.50"), mapper.readValue("\"1500.5\"", Dinheiro.class));
+        assertEquals(Dinheiro.parse("-1.00"), mapper.readValue("\" -1 \"", Dinheiro.class));
+    }
+
+    @Test
+    void jsonRecusaValorInvalido() {
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("1.001", Dinheiro.class));
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("\"abc\"", Dinheiro.class));
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("92233720368547759", Dinheiro.class));
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue("true", Dinheiro.class));
+    }
+}
@@ -0,0 +1,130 @@
+package org.viniciusvirgilli.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.enums.OtimizacaoRateLimitEnum;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Duas instancias de {@link RateLimitDistribuido} sobre o mesmo datasource fazem o papel de duas replicas:
+ * o balde e o bloqueio de um IP gravados por uma valem para a outra.
+ */
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+class RateLimitDistribuidoTest {
+
+    private static final int CAPACIDADE = 100;
+    private static final int TOKENS_NAO_SINCRONIZADOS = 5;
+
+    @Inject
+    DataSource dataSource;
+
+    @Test
+    void baldeDoMesmoIpECompartilhadoEntreAsInstancias() {
+        String ip = ipNovo();
+        Bucket primeira = instancia(OtimizacaoRateLimitEnum.NENHUMA).criarBalde(ip, configuracao());
+        Bucket segunda = instancia(OtimizacaoRateLimitEnum.NENHUMA).criarBalde(ip, configuracao());
+
+        assertTrue(primeira.tryConsume(60));
+        assertTrue(segunda.tryConsume(40));
+
+        assertFalse(primeira.tryConsume(1));
+        assertFalse(segunda.tryConsume(1));
+    }
+
+    @Test
+    void consumoConcorrenteSemOtimizacaoNaoPassaDoLimite() throws Exception {
+        assertEquals(CAPACIDADE, consumirEmParalelo(OtimizacaoRateLimitEnum.NENHUMA, 3 * CAPACIDADE));
+    }
+
+    @Test
+    void consumoConcorrenteComAtrasoPassaNoMaximoOsTokensNaoSincronizados() throws Exception {
+        int aceitas = consumirEmParalelo(OtimizacaoRateLimitEnum.DELAY, 3 * CAPACIDADE);
+
+        // cada instancia consome ate TOKENS_NAO_SINCRONIZADOS sem ir ao banco
+        assertTrue(aceitas <= CAPACIDADE + 2 * TOKENS_NAO_SINCRONIZADOS, "aceitas: " + aceitas);
+    }
+
+    @Test
+    void bloqueioGravadoPorUmaInstanciaValeNaOutra() {
+        String ip = ipNovo();
+        long ate = System.currentTimeMillis() + 60_000;
+
+        RateLimitDistribuido outra = instancia(OtimizacaoRateLimitEnum.DELAY);
+        assertEquals(0L, outra.bloqueadoAte(ip));
+
+        instancia(OtimizacaoRateLimitEnum.DELAY).bloquear(ip, ate);
+
+        assertEquals(ate, instancia(OtimizacaoRateLimitEnum.DELAY).bloqueadoAte(ip));
+    }
+
+    // duas "replicas", cada uma com o seu balde local para o IP, consumindo ao mesmo tempo
+    private int consumirEmParalelo(OtimizacaoRateLimitEnum otimizacao, int tentativas) throws Exception {
+        String ip = ipNovo();
+        List<Bucket> baldes = List.of(
+                instancia(otimizacao).criarBalde(ip, configuracao()),
+                instancia(otimizacao).criarBalde(ip, configuracao()));
+
+        AtomicInteger aceitas = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> execucoes = new ArrayList<>();
+            for (int i = 0; i < tentativas; i++) {
+                Bucket balde = baldes.get(i % baldes.size());
+                execucoes.add(threads.submit(() -> {
+                    if (balde.tryConsume(1)) {
+                        aceitas.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> execucao : execucoes) {
+                execucao.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        return aceitas.get();
+    }
+
+    private RateLimitDistribuido instancia(OtimizacaoRateLimitEnum otimizacao) {
+        RateLimitDistribuido instancia = new RateLimitDistribuido();
+        instancia.dataSource = dataSource;
+        instancia.otimizacao = otimizacao;
+        instancia.tokensNaoSincronizados = TOKENS_NAO_SINCRONIZADOS;
+        instancia.sincronizacaoMaxima = Duration.ofSeconds(10);
+        instancia.cacheBloqueio = Duration.ofSeconds(1);
+        instancia.ociosidadeBalde = Duration.ofHours(2);
+        instancia.iniciar();
+        return instancia;
+    }
+
+    private static BucketConfiguration configuracao() {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(CAPACIDADE, Refill.intervally(CAPACIDADE, Duration.ofHours(1))))
+                .build();
+    }
+
+    private static String ipNovo() {
+        return "10.0." + UUID.randomUUID();
+    }
+}
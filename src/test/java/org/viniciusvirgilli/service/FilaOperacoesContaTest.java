@@ -0,0 +1,171 @@
+package org.viniciusvirgilli.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.SaldoNaoSuficienteException;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creditos e debitos misturados, em paralelo, na mesma conta pela fila por conta. Cada chamador recebe o
+ * resultado da sua operacao (sucesso ou saldo insuficiente), nenhum credito e recusado e o saldo final bate
+ * com a soma do que cada chamador viu ser aplicado.
+ */
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+@TestProfile(FilaOperacoesContaTest.FilaAtiva.class)
+class FilaOperacoesContaTest {
+
+    private static final String CPF = "93541134780";
+    private static final int THREADS = 16;
+    private static final int OPERACOES_POR_THREAD = 25;
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.parse("100.00");
+    private static final Dinheiro CREDITO = Dinheiro.parse("10.00");
+    private static final Dinheiro DEBITO = Dinheiro.parse("7.00");
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @Inject
+    FilaOperacoesConta filaOperacoes;
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void operacoesMisturadasNaMesmaContaBatemComOSaldoFinal() throws Exception {
+        cadastrar();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        List<Future<Resultado>> tarefas = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    Resultado resultado = new Resultado();
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        // dois debitos para cada credito: o saldo acaba e parte dos debitos e recusada
+                        if ((thread + i) % 3 == 0) {
+                            filaOperacoes.executar(operacao(TipoOperacaoEnum.CREDITO, CREDITO));
+                            resultado.creditos++;
+                        } else {
+                            try {
+                                filaOperacoes.executar(operacao(TipoOperacaoEnum.DEBITO, DEBITO));
+                                resultado.debitos++;
+                            } catch (SaldoNaoSuficienteException e) {
+                                resultado.recusados++;
+                            }
+                        }
+                    }
+                    return resultado;
+                }));
+            }
+            largada.countDown();
+
+            long creditos = 0;
+            long debitos = 0;
+            long recusados = 0;
+            for (Future<Resultado> tarefa : tarefas) {
+                // qualquer outra falha (lock, erro na rodada) aparece aqui como ExecutionException
+                Resultado resultado = tarefa.get(2, TimeUnit.MINUTES);
+                creditos += resultado.creditos;
+                debitos += resultado.debitos;
+                recusados += resultado.recusados;
+            }
+
+            assertEquals(THREADS * OPERACOES_POR_THREAD, creditos + debitos + recusados);
+            assertTrue(recusados > 0, "o cenario deveria esgotar o saldo");
+            Dinheiro esperado = Dinheiro.deCentavos(SALDO_INICIAL.centavos()
+                    + creditos * CREDITO.centavos() - debitos * DEBITO.centavos());
+            Dinheiro saldo = clienteService.findByCpfCnpjAndTipoConta(CPF, TipoContaEnum.CACC).getSaldo();
+            assertEquals(esperado, saldo);
+            assertFalse(saldo.isNegativo());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // todas as operacoes passaram pelas rodadas da fila
+        DistributionSummary rodadas = registry.get("operacao.fila-conta.rodada").summary();
+        assertEquals(THREADS * OPERACOES_POR_THREAD, (long) rodadas.totalAmount());
+        assertTrue(rodadas.max() <= 16);
+    }
+
+    private void cadastrar() {
+        CadastroClienteDto cliente = new CadastroClienteDto();
+        cliente.setNome("Cliente fila");
+        cliente.setCpfCnpj(CPF);
+        cliente.setSaldo(ValorInformado.de(SALDO_INICIAL.toString()));
+        cliente.setAgencia("0001");
+        cliente.setConta(5);
+        cliente.setTipoConta(TipoContaEnum.CACC);
+        cliente.setOperacao(1);
+        cliente.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cliente.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        // limite alto: o teste e sobre o saldo, nao sobre o consumo do periodo
+        cliente.setLimitePixDiurno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixNoturno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixRedeSegura(Dinheiro.parse("1000000.00"));
+        clienteService.cadastrar(cliente);
+    }
+
+    private CreditoDebitoDto operacao(TipoOperacaoEnum tipo, Dinheiro valor) {
+        CreditoDebitoDto dto = new CreditoDebitoDto();
+        dto.setTipoOperacao(tipo);
+        dto.setDataOperacao(DataOperacao.de(FORMATO_DATA.format(LocalDateTime.now())));
+        dto.setCpfCnpj(CPF);
+        dto.setTipoConta(TipoContaEnum.CACC);
+        dto.setValor(ValorInformado.de(valor.toString()));
+        dto.setConectadoEmRedeSegura(false);
+        return dto;
+    }
+
+    private static final class Resultado {
+        private long creditos;
+        private long debitos;
+        private long recusados;
+    }
+
+    public static class FilaAtiva implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // rodadas pequenas para que a conta passe por varios commits
+            return Map.of(
+                    "operacao.fila-conta.enable", "true",
+                    "operacao.fila-conta.tamanho-maximo", "16",
+                    "motor.saldo.enable", "false");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.viniciusvirgilli.service;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.ForaDoLimiteException;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Um debito feito a noite e comparado com o limite noturno mesmo quando a {@code dataOperacao} enviada e
+ * diurna. Sem relogio injetavel no servidor, o perfil usa uma janela diurna vazia: agora e sempre noite.
+ */
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+@TestProfile(LimitePixNoturnoTest.SempreNoturno.class)
+class LimitePixNoturnoTest {
+
+    private static final String CPF = "39053344705";
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    OperacaoService operacaoService;
+
+    @Test
+    void debitoNoturnoComDataDiurnaUsaOLimiteNoturno() {
+        cadastrar();
+
+        // o limite diurno cobriria o debito; o noturno nao
+        assertThrows(ForaDoLimiteException.class, () -> operacaoService.executar(debitoAoMeioDia("500.00")));
+
+        operacaoService.executar(debitoAoMeioDia("80.00"));
+        assertThrows(ForaDoLimiteException.class, () -> operacaoService.executar(debitoAoMeioDia("30.00")));
+        assertEquals(Dinheiro.parse("920.00"),
+                clienteService.findByCpfCnpjAndTipoConta(CPF, TipoContaEnum.CACC).getSaldo());
+    }
+
+    private void cadastrar() {
+        CadastroClienteDto cliente = new CadastroClienteDto();
+        cliente.setNome("Cliente noturno");
+        cliente.setCpfCnpj(CPF);
+        cliente.setSaldo(ValorInformado.de("1000.00"));
+        cliente.setAgencia("0001");
+        cliente.setConta(3);
+        cliente.setTipoConta(TipoContaEnum.CACC);
+        cliente.setOperacao(1);
+        cliente.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cliente.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        cliente.setLimitePixDiurno(Dinheiro.parse("1000.00"));
+        cliente.setLimitePixNoturno(Dinheiro.parse("100.00"));
+        cliente.setLimitePixRedeSegura(Dinheiro.parse("1000.00"));
+        clienteService.cadastrar(cliente);
+    }
+
+    private CreditoDebitoDto debitoAoMeioDia(String valor) {
+        CreditoDebitoDto dto = new CreditoDebitoDto();
+        dto.setTipoOperacao(TipoOperacaoEnum.DEBITO);
+        dto.setDataOperacao(DataOperacao.de(FORMATO_DATA.format(LocalDate.now().atTime(12, 0))));
+        dto.setCpfCnpj(CPF);
+        dto.setTipoConta(TipoContaEnum.CACC);
+        dto.setValor(ValorInformado.de(valor));
+        dto.setConectadoEmRedeSegura(false);
+        return dto;
+    }
+
+    public static class SempreNoturno implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // inicio igual ao fim: nenhum horario cai na janela diurna
+            return Map.of(
+                    "limite.pix.periodo.diurno.inicio", "00:00",
+                    "limite.pix.periodo.diurno.fim", "00:00");
+        }
+    }
+}
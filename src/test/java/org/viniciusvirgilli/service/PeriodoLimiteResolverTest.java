@@ -0,0 +1,82 @@
+package org.viniciusvirgilli.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.enums.PeriodoLimiteEnum;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * O periodo e o seu inicio saem da mesma leitura do relogio do servidor, no fuso do periodo.
+ */
+class PeriodoLimiteResolverTest {
+
+    private static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+
+    private final PeriodoLimiteResolver resolver = new PeriodoLimiteResolver();
+
+    @BeforeEach
+    void configurar() {
+        resolver.inicioDiurno = "06:00";
+        resolver.fimDiurno = "20:00";
+        resolver.zonaPeriodo = ZONA.getId();
+        resolver.iniciar();
+    }
+
+    @Test
+    void meioDoDiaEDiurnoDesdeAsSeis() {
+        relogio("2025-03-15T12:00:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.DIURNO, "2025-03-15T06:00:00"), resolver.resolver(false));
+    }
+
+    @Test
+    void noiteENoturnoDesdeAsVinte() {
+        relogio("2025-03-15T23:10:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.NOTURNO, "2025-03-15T20:00:00"), resolver.resolver(false));
+    }
+
+    @Test
+    void madrugadaPertenceAoNoturnoQueComecouNoDiaAnterior() {
+        relogio("2025-03-16T03:00:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.NOTURNO, "2025-03-15T20:00:00"), resolver.resolver(false));
+    }
+
+    @Test
+    void viradaDoPeriodoUsaOHorarioDeInicio() {
+        relogio("2025-03-15T20:00:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.NOTURNO, "2025-03-15T20:00:00"), resolver.resolver(false));
+    }
+
+    @Test
+    void redeSeguraValeDaMeiaNoiteAMeiaNoite() {
+        relogio("2025-03-15T23:10:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.REDE_SEGURA, "2025-03-15T00:00:00"), resolver.resolver(true));
+    }
+
+    @Test
+    void janelaQueAtravessaAMeiaNoite() {
+        resolver.inicioDiurno = "22:00";
+        resolver.fimDiurno = "04:00";
+        resolver.iniciar();
+        relogio("2025-03-16T01:00:00");
+
+        assertEquals(periodo(PeriodoLimiteEnum.DIURNO, "2025-03-15T22:00:00"), resolver.resolver(false));
+    }
+
+    private void relogio(String horario) {
+        resolver.relogio = Clock.fixed(LocalDateTime.parse(horario).atZone(ZONA).toInstant(), ZONA);
+    }
+
+    private static PeriodoLimiteResolver.Periodo periodo(PeriodoLimiteEnum tipo, String inicio) {
+        return new PeriodoLimiteResolver.Periodo(tipo, LocalDateTime.parse(inicio).atZone(ZONA).toEpochSecond());
+    }
+}
@@ -0,0 +1,127 @@
+package org.viniciusvirgilli.service;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.h2.H2DatabaseTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.TransferenciaDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transferencias em sentidos opostos entre as mesmas duas contas, em paralelo: as travas sao obtidas na mesma
+ * ordem, entao nenhuma termina em deadlock (ou timeout de lock) e o saldo somado das contas nao muda.
+ * A vazao (transferencias por segundo) vai para o log e precisa ficar acima de um piso folgado, ajustavel com
+ * -Dtransferencia.vazao-minima, para que uma regressao grave nas travas apareca no build.
+ */
+@Slf4j
+@QuarkusTest
+@QuarkusTestResource(H2DatabaseTestResource.class)
+class TransferenciaConcorrenteTest {
+
+    private static final String CONTA_A = "52998224725";
+    private static final String CONTA_B = "11144477735";
+    private static final int THREADS = 8;
+    private static final int TRANSFERENCIAS_POR_THREAD = 100;
+    private static final int VAZAO_MINIMA = Integer.getInteger("transferencia.vazao-minima", 20);
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @Inject
+    ClienteService clienteService;
+
+    @Inject
+    OperacaoService operacaoService;
+
+    @Test
+    void transferenciasOpostasEmParaleloNaoEntramEmDeadlock() throws Exception {
+        cadastrar(CONTA_A, 1);
+        cadastrar(CONTA_B, 2);
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long inicio = System.nanoTime();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                boolean deA = t % 2 == 0;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < TRANSFERENCIAS_POR_THREAD; i++) {
+                        operacaoService.transferir(deA ? transferencia(CONTA_A, CONTA_B) : transferencia(CONTA_B, CONTA_A));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                // uma falha de transferencia (deadlock, timeout de lock) aparece aqui como ExecutionException
+                tarefa.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Duration decorrido = Duration.ofNanos(System.nanoTime() - inicio);
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int total = THREADS * TRANSFERENCIAS_POR_THREAD;
+        double vazao = total / (decorrido.toNanos() / 1_000_000_000.0);
+        log.info("[TRANSFERENCIA-CONCORRENTE] - {} transferencias em {} ms: {} transferencias/s",
+                total, decorrido.toMillis(), String.format("%.1f", vazao));
+        assertTrue(vazao >= VAZAO_MINIMA,
+                String.format("vazao de %.1f transferencias/s abaixo do minimo de %d", vazao, VAZAO_MINIMA));
+
+        // mesmo numero de transferencias em cada sentido, todas de 1.00
+        assertEquals(Dinheiro.parse("1000.00"), saldo(CONTA_A));
+        assertEquals(Dinheiro.parse("1000.00"), saldo(CONTA_B));
+    }
+
+    private void cadastrar(String cpfCnpj, int conta) {
+        CadastroClienteDto cliente = new CadastroClienteDto();
+        cliente.setNome("Cliente " + conta);
+        cliente.setCpfCnpj(cpfCnpj);
+        cliente.setSaldo(ValorInformado.de("1000.00"));
+        cliente.setAgencia("0001");
+        cliente.setConta(conta);
+        cliente.setTipoConta(TipoContaEnum.CACC);
+        cliente.setOperacao(1);
+        cliente.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cliente.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        // limite alto: o teste e sobre as travas, nao sobre o consumo do periodo
+        cliente.setLimitePixDiurno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixNoturno(Dinheiro.parse("1000000.00"));
+        cliente.setLimitePixRedeSegura(Dinheiro.parse("1000000.00"));
+        clienteService.cadastrar(cliente);
+    }
+
+    private TransferenciaDto transferencia(String origem, String destino) {
+        TransferenciaDto transferencia = new TransferenciaDto();
+        transferencia.setDataOperacao(DataOperacao.de(FORMATO_DATA.format(LocalDateTime.now())));
+        transferencia.setCpfCnpjOrigem(origem);
+        transferencia.setTipoContaOrigem(TipoContaEnum.CACC);
+        transferencia.setCpfCnpjDestino(destino);
+        transferencia.setTipoContaDestino(TipoContaEnum.CACC);
+        transferencia.setValor(ValorInformado.de("1.00"));
+        transferencia.setConectadoEmRedeSegura(false);
+        return transferencia;
+    }
+
+    private Dinheiro saldo(String cpfCnpj) {
+        return clienteService.findByCpfCnpjAndTipoConta(cpfCnpj, TipoContaEnum.CACC).getSaldo();
+    }
+}
@@ -0,0 +1,109 @@
+package org.viniciusvirgilli.validador;
+
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CadastroClienteDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.ISPBParticipanteEnum;
+import org.viniciusvirgilli.enums.SituacaoContaEnum;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+import org.viniciusvirgilli.model.Dinheiro;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.viniciusvirgilli.enums.ErroValidacaoEnum.*;
+
+/**
+ * Todos os campos sao validados numa passada so e cada erro liga o seu bit: a excecao traz o conjunto completo.
+ */
+class CadastroClienteValidadorTest {
+
+    private final CadastroClienteValidador validador = new CadastroClienteValidador();
+
+    @Test
+    void cadastroCompletoPassa() {
+        assertDoesNotThrow(() -> validador.validar(cadastroValido()));
+    }
+
+    @Test
+    void cnpjCruPassa() {
+        CadastroClienteDto cadastro = cadastroValido();
+        cadastro.setCpfCnpj("11222333000181");
+
+        assertDoesNotThrow(() -> validador.validar(cadastro));
+    }
+
+    @Test
+    void cadastroVazioTrazTodosOsObrigatorios() {
+        long esperado = NOME_OBRIGATORIO.bit() | CPFCNPJ_OBRIGATORIO.bit() | SALDO_OBRIGATORIO.bit()
+                | AGENCIA_OBRIGATORIO.bit() | CONTA_OBRIGATORIO.bit() | TIPOCONTA_OBRIGATORIO.bit()
+                | OPERACAO_OBRIGATORIO.bit() | ISPBPARTICIPANTE_OBRIGATORIO.bit() | SITUACAOCONTA_OBRIGATORIO.bit()
+                | LIMITEPIXDIURNO_OBRIGATORIO.bit() | LIMITEPIXNOTURNO_OBRIGATORIO.bit()
+                | LIMITEPIXREDESEGURA_OBRIGATORIO.bit();
+
+        assertEquals(esperado, erros(new CadastroClienteDto()));
+    }
+
+    @Test
+    void errosDeCamposDiferentesSaoCombinados() {
+        CadastroClienteDto cadastro = cadastroValido();
+        cadastro.setNome(" ");
+        cadastro.setCpfCnpj("529.982.247-25");
+        cadastro.setSaldo(ValorInformado.de("10.001"));
+        cadastro.setConta(-1);
+
+        assertEquals(NOME_OBRIGATORIO.bit() | CPFCNPJ_INVALIDO.bit() | SALDO_INVALIDO.bit() | CONTA_INVALIDO.bit(),
+                erros(cadastro));
+    }
+
+    @Test
+    void documentoComDigitosRepetidosEInvalido() {
+        CadastroClienteDto cadastro = cadastroValido();
+        cadastro.setCpfCnpj("11111111111");
+
+        assertEquals(CPFCNPJ_INVALIDO.bit(), erros(cadastro));
+    }
+
+    @Test
+    void limiteDaRedeSeguraMenorQueOsDemaisEInvalido() {
+        CadastroClienteDto cadastro = cadastroValido();
+        cadastro.setLimitePixRedeSegura(Dinheiro.parse("500.00"));
+        cadastro.setLimitePixNoturno(Dinheiro.parse("-1.00"));
+
+        assertEquals(LIMITEPIXNOTURNO_INVALIDO.bit() | LIMITEPIXREDESEGURA_INVALIDO.bit(), erros(cadastro));
+    }
+
+    @Test
+    void mensagensSaemNaOrdemDosCodigos() {
+        CadastroClienteDto cadastro = cadastroValido();
+        cadastro.setConta(null);
+        cadastro.setNome(null);
+
+        ValidadorException erro = assertThrows(ValidadorException.class, () -> validador.validar(cadastro));
+        assertEquals(2, Long.bitCount(erro.getErros()));
+        assertEquals(NOME_OBRIGATORIO, deBits(erro.getErros())[0]);
+        assertEquals(CONTA_OBRIGATORIO, deBits(erro.getErros())[1]);
+    }
+
+    private long erros(CadastroClienteDto cadastro) {
+        return assertThrows(ValidadorException.class, () -> validador.validar(cadastro)).getErros();
+    }
+
+    private static CadastroClienteDto cadastroValido() {
+        CadastroClienteDto cadastro = new CadastroClienteDto();
+        cadastro.setNome("Cliente");
+        cadastro.setCpfCnpj("52998224725");
+        cadastro.setSaldo(ValorInformado.de("1000.00"));
+        cadastro.setAgencia("0001");
+        cadastro.setConta(1);
+        cadastro.setTipoConta(TipoContaEnum.CACC);
+        cadastro.setOperacao(1);
+        cadastro.setIspbParticipante(ISPBParticipanteEnum.CX);
+        cadastro.setSituacaoConta(SituacaoContaEnum.ATIVA);
+        cadastro.setLimitePixDiurno(Dinheiro.parse("1000.00"));
+        cadastro.setLimitePixNoturno(Dinheiro.parse("1000.00"));
+        cadastro.setLimitePixRedeSegura(Dinheiro.parse("1000.00"));
+        return cadastro;
+    }
+}
@@ -0,0 +1,75 @@
+package org.viniciusvirgilli.validador;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Digitos verificadores de CPF (11 digitos) e CNPJ (14 digitos). So o documento cru e aceito:
+ * a versao formatada, com pontos, barra e hifen, e recusada.
+ */
+class RegrasValidacaoTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"52998224725", "11144477735", "39053344705", "12345678909", "93541134780"})
+    void cpfComDigitosCorretosEValido(String cpf) {
+        assertTrue(RegrasValidacao.isCpfCnpjValido(cpf));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"52998224724", "52998224735", "11144477730", "12345678900", "12345678919"})
+    void cpfComDigitoErradoEInvalido(String cpf) {
+        assertFalse(RegrasValidacao.isCpfCnpjValido(cpf));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"11222333000181", "11444777000161", "45723174000110"})
+    void cnpjComDigitosCorretosEValido(String cnpj) {
+        assertTrue(RegrasValidacao.isCpfCnpjValido(cnpj));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"11222333000180", "11222333000191", "11444777000162", "45723174000101"})
+    void cnpjComDigitoErradoEInvalido(String cnpj) {
+        assertFalse(RegrasValidacao.isCpfCnpjValido(cnpj));
+    }
+
+    // passam no calculo dos digitos, mas nao sao documentos validos
+    @ParameterizedTest
+    @ValueSource(strings = {"00000000000", "11111111111", "99999999999", "00000000000000", "11111111111111"})
+    void digitosRepetidosSaoInvalidos(String documento) {
+        assertFalse(RegrasValidacao.isCpfCnpjValido(documento));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"529.982.247-25", "11.222.333/0001-81", " 52998224725", "52998224725 ", "5299822472a"})
+    void documentoFormatadoOuComOutrosCaracteresEInvalido(String documento) {
+        assertFalse(RegrasValidacao.isCpfCnpjValido(documento));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "5299822472", "529982247250", "1122233300018", "112223330001810"})
+    void tamanhoDiferenteDeOnzeOuQuatorzeEInvalido(String documento) {
+        assertFalse(RegrasValidacao.isCpfCnpjValido(documento));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "\t"})
+    void textoEmBrancoEVazio(String valor) {
+        assertTrue(RegrasValidacao.isVazio(valor));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", " 1 "})
+    void textoComConteudoNaoEVazio(String valor) {
+        assertFalse(RegrasValidacao.isVazio(valor));
+    }
+
+    @Test
+    void nuloEVazio() {
+        assertTrue(RegrasValidacao.isVazio(null));
+    }
+}
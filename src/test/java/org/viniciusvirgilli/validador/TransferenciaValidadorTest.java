@@ -0,0 +1,100 @@
+package org.viniciusvirgilli.validador;
+
+import org.junit.jupiter.api.Test;
+import org.viniciusvirgilli.dto.CreditoDebitoDto;
+import org.viniciusvirgilli.dto.DataOperacao;
+import org.viniciusvirgilli.dto.TransferenciaDto;
+import org.viniciusvirgilli.dto.ValorInformado;
+import org.viniciusvirgilli.enums.TipoContaEnum;
+import org.viniciusvirgilli.enums.TipoOperacaoEnum;
+import org.viniciusvirgilli.exception.ValidadorException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.viniciusvirgilli.enums.ErroValidacaoEnum.*;
+
+/**
+ * A transferencia reaproveita as regras de credito/debito para a origem, o valor e a data, e soma as da conta
+ * de destino; a comparacao destino == origem so roda quando o restante esta valido.
+ */
+class TransferenciaValidadorTest {
+
+    private final TransferenciaValidador validador = new TransferenciaValidador();
+    private final CreditoDebitoValidador validadorCreditoDebito = new CreditoDebitoValidador();
+
+    @Test
+    void transferenciaCompletaPassa() {
+        assertDoesNotThrow(() -> validador.validar(transferenciaValida()));
+    }
+
+    @Test
+    void errosDaOrigemEDoDestinoSaoCombinados() {
+        TransferenciaDto transferencia = transferenciaValida();
+        transferencia.setCpfCnpjOrigem("52998224724");
+        transferencia.setCpfCnpjDestino("11.222.333/0001-81");
+        transferencia.setTipoContaDestino(null);
+        transferencia.setValor(ValorInformado.de("0.00"));
+
+        assertEquals(CPFCNPJ_INVALIDO.bit() | CPFCNPJDESTINO_INVALIDO.bit() | TIPOCONTADESTINO_OBRIGATORIO.bit()
+                | VALOR_INVALIDO.bit(), erros(transferencia));
+    }
+
+    @Test
+    void destinoIgualOrigemSoQuandoORestoEValido() {
+        TransferenciaDto transferencia = transferenciaValida();
+        transferencia.setCpfCnpjDestino(transferencia.getCpfCnpjOrigem());
+
+        assertEquals(DESTINO_IGUAL_ORIGEM.bit(), erros(transferencia));
+
+        transferencia.setDataOperacao(DataOperacao.de("2025-03-15 10:00:00"));
+        assertEquals(DATAOPERACAO_INVALIDA.bit(), erros(transferencia));
+    }
+
+    @Test
+    void mesmoDocumentoEmOutroTipoDeContaPassa() {
+        TransferenciaDto transferencia = transferenciaValida();
+        transferencia.setCpfCnpjDestino(transferencia.getCpfCnpjOrigem());
+        transferencia.setTipoContaDestino(TipoContaEnum.SVGS);
+
+        assertDoesNotThrow(() -> validador.validar(transferencia));
+    }
+
+    @Test
+    void creditoDebitoVazioTrazTodosOsObrigatorios() {
+        ValidadorException erro = assertThrows(ValidadorException.class,
+                () -> validadorCreditoDebito.validar(new CreditoDebitoDto()));
+
+        assertEquals(CPFCNPJ_OBRIGATORIO.bit() | VALOR_OBRIGATORIO.bit() | TIPOCONTA_OBRIGATORIO.bit()
+                | DATAOPERACAO_OBRIGATORIO.bit() | TIPOOPERACAO_OBRIGATORIO.bit(), erro.getErros());
+    }
+
+    @Test
+    void creditoComDocumentoRepetidoEValorNegativo() {
+        CreditoDebitoDto credito = new CreditoDebitoDto();
+        credito.setTipoOperacao(TipoOperacaoEnum.CREDITO);
+        credito.setDataOperacao(DataOperacao.de("15/03/2025 10:00:00"));
+        credito.setCpfCnpj("00000000000000");
+        credito.setTipoConta(TipoContaEnum.CACC);
+        credito.setValor(ValorInformado.de("-10.00"));
+
+        ValidadorException erro = assertThrows(ValidadorException.class, () -> validadorCreditoDebito.validar(credito));
+        assertEquals(CPFCNPJ_INVALIDO.bit() | VALOR_INVALIDO.bit(), erro.getErros());
+    }
+
+    private long erros(TransferenciaDto transferencia) {
+        return assertThrows(ValidadorException.class, () -> validador.validar(transferencia)).getErros();
+    }
+
+    private static TransferenciaDto transferenciaValida() {
+        TransferenciaDto transferencia = new TransferenciaDto();
+        transferencia.setDataOperacao(DataOperacao.de("15/03/2025 10:00:00"));
+        transferencia.setCpfCnpjOrigem("52998224725");
+        transferencia.setTipoContaOrigem(TipoContaEnum.CACC);
+        transferencia.setCpfCnpjDestino("11222333000181");
+        transferencia.setTipoContaDestino(TipoContaEnum.CACC);
+        transferencia.setValor(ValorInformado.de("10.00"));
+        transferencia.setConectadoEmRedeSegura(false);
+        return transferencia;
+    }
+}